@@ -1,6 +1,6 @@
 'use strict';
 
-var SearchClient = require('../search-client');
+var SyncClient = require('../sync-client'); // LEOS Change
 var events = require('../events');
 var isThirdPartyService = require('../util/is-third-party-service');
 var memoize = require('../util/memoize');
@@ -99,18 +99,28 @@ function SidebarContentController( // LEOS Change : Added rootScope
 
   var searchClients = [];
 
+  // LEOS Change: query and revision of the last synchronisation, from which
+  // the annotations are reloaded incrementally as long as the query is unchanged
+  var lastSync = null;
+
   function _resetAnnotations() {
     annotationMapper.unloadAnnotations(store.savedAnnotations());
   }
 
-  function _loadAnnotationsFor(uris, group) {
-    var searchClient = new SearchClient(api.search, {
-      // If no group is specified, we are fetching annotations from
-      // all groups in order to find out which group contains the selected
-      // annotation, therefore we need to load all chunks before processing
-      // the results
-      incremental: !!group,
+  function _unloadRemovedAnnotations(ids) {
+    var removed = store.getState().annotations.filter(function (annot) {
+      return ids.indexOf(annot.id) >= 0;
     });
+    if (removed.length) {
+      annotationMapper.unloadAnnotations(removed);
+    }
+  }
+
+  function _loadAnnotationsFor(uris, group, incremental) {
+    // LEOS Change: all annotations of the query are fetched at once; if no group
+    // is specified, they are fetched from all groups in order to find out which
+    // group contains the selected annotation
+    var searchClient = new SyncClient(api.sync);
     searchClients.push(searchClient);
     searchClient.on('results', function (results) {
       if (store.hasSelectedAnnotations()) {
@@ -133,6 +143,8 @@ function SidebarContentController( // LEOS Change : Added rootScope
         annotationMapper.loadAnnotations(results);
       }
     });
+    // LEOS Change
+    searchClient.on('removed', _unloadRemovedAnnotations);
     searchClient.on('end', function () {
       // Remove client from list of active search clients.
       //
@@ -151,6 +163,19 @@ function SidebarContentController( // LEOS Change : Added rootScope
     });
     // LEOS Change
     var queryJson = {uri: uris, group: group};
+    function syncAnnotations() {
+      var queryKey = JSON.stringify([store.profile().userid, queryJson]);
+      if (incremental && lastSync && lastSync.queryKey === queryKey) {
+        queryJson.since = lastSync.revision;
+      } else if (incremental) {
+        // the query changed since the last synchronisation, so all annotations are reloaded
+        _resetAnnotations();
+      }
+      searchClient.on('end', function () {
+        lastSync = {queryKey: queryKey, revision: searchClient.revision};
+      });
+      searchClient.get(queryJson);
+    }
     requestSearchMetadata().then( function([metadatasets]) {
       if(settings.connectedEntity) {
         queryJson.connectedEntity = settings.connectedEntity;
@@ -158,13 +183,10 @@ function SidebarContentController( // LEOS Change : Added rootScope
       if (metadatasets != null) {
         var leosMetadata = JSON.parse(metadatasets);
         queryJson.metadatasets = JSON.stringify(leosMetadata);
-        searchClient.get(queryJson);
-      }
-      else {
-        searchClient.get(queryJson);
       }
+      syncAnnotations();
     }).catch( function(error) {
-      searchClient.get(queryJson);
+      syncAnnotations();
     });
     // ---------------
   }
@@ -185,9 +207,14 @@ function SidebarContentController( // LEOS Change : Added rootScope
 
   /**
    * Load annotations for all URLs associated with `frames`.
+   *
+   * LEOS Change: if `incremental`, the loaded annotations are kept and only
+   * the changes since the last synchronisation are fetched.
    */
-  function loadAnnotations() {
-    _resetAnnotations();
+  function loadAnnotations(incremental) {
+    if (!incremental) {
+      _resetAnnotations();
+    }
 
     searchClients.forEach(function (client) {
       client.cancel();
@@ -209,7 +236,7 @@ function SidebarContentController( // LEOS Change : Added rootScope
 
     var searchUris = store.searchUris();
     if (searchUris.length > 0) {
-      _loadAnnotationsFor(searchUris, group);
+      _loadAnnotationsFor(searchUris, group, incremental);
 
       streamFilter.resetFilter().addClause('/uri', 'one_of', searchUris);
       streamer.setConfig('filter', {filter: streamFilter.getFilter()});
@@ -369,9 +396,10 @@ function SidebarContentController( // LEOS Change : Added rootScope
   });
 
   // LEOS Change
+  // the annotator has re-anchored the loaded annotations already, so only the changes are synchronised
   $scope.$on('reloadAnnotations', function () {
     store.clearSelectedAnnotations();
-    loadAnnotations();
+    loadAnnotations(true);
   });
 
   function requestSearchMetadata() {
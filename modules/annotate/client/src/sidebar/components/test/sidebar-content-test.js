@@ -11,14 +11,16 @@ var searchClients;
 
 //LEOS Change: setTimeout of 0.5 sec added on tests because searchMetadata promise timeout
 
-class FakeSearchClient extends EventEmitter {
-  constructor(searchFn, opts) {
+var FAKE_REVISION = 42;
+
+class FakeSyncClient extends EventEmitter {
+  constructor(syncFn) {
     super();
 
-    assert.ok(searchFn);
+    assert.ok(syncFn);
     searchClients.push(this);
     this.cancel = sinon.stub();
-    this.incremental = !!opts.incremental;
+    this.revision = 0;
 
     this.get = sinon.spy(function (query) {
       assert.ok(query.uri);
@@ -29,6 +31,7 @@ class FakeSearchClient extends EventEmitter {
         this.emit('results', [{id: uri + '456', group: 'private-group'}]);
       }
 
+      this.revision = FAKE_REVISION;
       this.emit('end');
     });
   }
@@ -67,7 +70,7 @@ describe('sidebar.components.sidebar-content', function () {
       .component('sidebarContent', proxyquire('../sidebar-content',
         noCallThru({
           angular: angular,
-          '../search-client': FakeSearchClient,
+          '../sync-client': FakeSyncClient,
         })
       ))
       .config(($compileProvider) => $compileProvider.preAssignBindingsEnabled(true));
@@ -127,6 +130,7 @@ describe('sidebar.components.sidebar-content', function () {
 
     fakeApi = {
       search: sinon.stub(),
+      sync: sinon.stub(),
     };
 
     $provide.value('analytics', fakeAnalytics);
@@ -274,10 +278,6 @@ describe('sidebar.components.sidebar-content', function () {
           assert.calledWith(searchClients[0].get, {uri: [uri], group: null});
         }, 500);
       });
-
-      it('loads annotations in one batch', function () {
-        assert.notOk(searchClients[0].incremental);
-      });
     });
 
     context('when there is no selection', function () {
@@ -298,10 +298,6 @@ describe('sidebar.components.sidebar-content', function () {
           assert.calledWith(searchClients[0].get, {uri: [uri], group: 'a-group'});
         }, 500);
       });
-
-      it('loads annotations in batches', function () {
-        assert.ok(searchClients[0].incremental);
-      });
     });
 
     context('when the selected annotation is not available', function () {
@@ -345,6 +341,58 @@ describe('sidebar.components.sidebar-content', function () {
     });
   });
 
+  context('when the annotations are reloaded', () => {
+    // the query is sent once the search metadata have been requested from the host
+    function awaitQuery() {
+      return new Promise((resolve) => setTimeout(resolve, 0));
+    }
+
+    beforeEach(() => {
+      setFrames([{ uri: 'https://a-page.com' }]);
+      $scope.$digest();
+      return awaitQuery();
+    });
+
+    it('initially synchronises all annotations', () => {
+      assert.calledWith(searchClients[0].get, sinon.match({uri: ['https://a-page.com']}));
+      assert.neverCalledWith(searchClients[0].get, sinon.match.has('since'));
+    });
+
+    it('synchronises the changes after the last revision only', () => {
+      fakeAnnotationMapper.unloadAnnotations.reset();
+
+      $scope.$broadcast('reloadAnnotations');
+      $scope.$digest();
+
+      return awaitQuery().then(() => {
+        assert.equal(searchClients.length, 2);
+        assert.calledWith(searchClients[1].get, sinon.match({since: FAKE_REVISION}));
+        assert.notCalled(fakeAnnotationMapper.unloadAnnotations);
+      });
+    });
+
+    it('unloads the annotations removed since the last revision', () => {
+      store.addAnnotations([{id: 'removed-annotation'}]);
+
+      $scope.$broadcast('reloadAnnotations');
+      $scope.$digest();
+      searchClients[1].emit('removed', ['removed-annotation', 'unknown-annotation']);
+
+      assert.calledWith(fakeAnnotationMapper.unloadAnnotations, [sinon.match({id: 'removed-annotation'})]);
+    });
+
+    it('reloads all annotations if the search URIs changed', () => {
+      setFrames([{ uri: 'https://new-frame.com' }]);
+      $scope.$digest();
+
+      return awaitQuery().then(() => {
+        var lastClient = searchClients[searchClients.length - 1];
+        assert.calledWith(fakeAnnotationMapper.unloadAnnotations);
+        assert.neverCalledWith(lastClient.get, sinon.match.has('since'));
+      });
+    });
+  });
+
   context('when the profile changes', () => {
     beforeEach(connectFrameAndPerformInitialFetch);
 
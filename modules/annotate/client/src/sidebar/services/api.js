@@ -165,6 +165,7 @@ function api($http, $q, apiRoutes, auth) {
   return {
     apiCall: apiCall,    // LEOS Change
     search: apiCall('search'),
+    sync: apiCall('sync'),    // LEOS Change
     annotation: {
       create: apiCall('annotation.create'),
       delete: apiCall('annotation.delete'),
@@ -0,0 +1,77 @@
+'use strict';
+
+var EventEmitter = require('tiny-emitter');
+
+/**
+ * LEOS Change: client for the synchronisation API of the annotate server.
+ *
+ * SyncClient fetches the annotations changed after a given revision, all at
+ * once, and keeps the revision to be handed over to the next synchronisation.
+ * A synchronisation from revision 0 fetches all annotations.
+ */
+class SyncClient extends EventEmitter {
+  /**
+   * @param {Object} syncFn - Function for querying the synchronisation API
+   */
+  constructor(syncFn) {
+    super();
+
+    this._syncFn = syncFn;
+    this._canceled = false;
+    this.revision = 0;
+  }
+
+  /**
+   * Fetch the annotations changed after the revision given by `query.since`.
+   *
+   * Emits a 'results' event with an array of the changed annotations and replies.
+   * Emits a 'removed' event with an array of the IDs of the annotations that
+   * are no longer visible, if any.
+   * Emits an 'error' event if the synchronisation fails; the revision is kept then.
+   * Emits an 'end' event once the synchronisation completes.
+   */
+  get(query) {
+    var syncQuery = Object.assign({
+      since: 0,
+      sort: 'created',
+      order: 'asc',
+      _separate_replies: true,
+    }, query);
+    this.revision = syncQuery.since;
+
+    var self = this;
+    this._syncFn(syncQuery).then(function (result) {
+      if (self._canceled) {
+        return;
+      }
+
+      var changes = result.changes || {rows: []};
+      self.emit('results', changes.rows.concat(changes.replies || []));
+      if (result.removed && result.removed.length > 0) {
+        self.emit('removed', result.removed);
+      }
+      self.revision = result.revision;
+    }).catch(function (err) {
+      if (self._canceled) {
+        return;
+      }
+      self.emit('error', err);
+    }).then(function () {
+      if (self._canceled) {
+        return;
+      }
+      self.emit('end');
+    });
+  }
+
+  /**
+   * Cancel the current synchronisation and emit the 'end' event.
+   * No further events will be emitted after this.
+   */
+  cancel() {
+    this._canceled = true;
+    this.emit('end');
+  }
+}
+
+module.exports = SyncClient;
@@ -0,0 +1,98 @@
+'use strict';
+
+var SyncClient = require('../sync-client');
+
+function awaitEvent(emitter, event) {
+  return new Promise(function (resolve) {
+    emitter.on(event, resolve);
+  });
+}
+
+describe('SyncClient', function () {
+  var ROWS = [
+    {id: 'one'},
+    {id: 'two'},
+  ];
+  var REPLIES = [
+    {id: 'three', references: ['one']},
+  ];
+
+  var fakeSyncFn;
+
+  beforeEach(function () {
+    fakeSyncFn = sinon.spy(function () {
+      return Promise.resolve({
+        revision: 42,
+        changes: {rows: ROWS, replies: REPLIES, total: ROWS.length},
+        removed: ['four'],
+      });
+    });
+  });
+
+  it('emits "results" with the changed annotations and replies', function () {
+    var client = new SyncClient(fakeSyncFn);
+    var onResults = sinon.stub();
+    client.on('results', onResults);
+    client.get({uri: 'http://example.com'});
+    return awaitEvent(client, 'end').then(function () {
+      assert.calledOnce(onResults);
+      assert.calledWith(onResults, ROWS.concat(REPLIES));
+    });
+  });
+
+  it('emits "removed" with the IDs of the removed annotations', function () {
+    var client = new SyncClient(fakeSyncFn);
+    var onRemoved = sinon.stub();
+    client.on('removed', onRemoved);
+    client.get({uri: 'http://example.com'});
+    return awaitEvent(client, 'end').then(function () {
+      assert.calledWith(onRemoved, ['four']);
+    });
+  });
+
+  it('synchronises from the given revision', function () {
+    var client = new SyncClient(fakeSyncFn);
+    client.get({uri: 'http://example.com', since: 17});
+    return awaitEvent(client, 'end').then(function () {
+      assert.calledWith(fakeSyncFn, sinon.match({uri: 'http://example.com', since: 17}));
+      assert.equal(client.revision, 42);
+    });
+  });
+
+  it('synchronises all annotations by default', function () {
+    var client = new SyncClient(fakeSyncFn);
+    client.get({uri: 'http://example.com'});
+    return awaitEvent(client, 'end').then(function () {
+      assert.calledWith(fakeSyncFn, sinon.match({since: 0}));
+    });
+  });
+
+  it('does not emit "results" if canceled', function () {
+    var client = new SyncClient(fakeSyncFn);
+    var onResults = sinon.stub();
+    var onEnd = sinon.stub();
+    client.on('results', onResults);
+    client.on('end', onEnd);
+    client.get({uri: 'http://example.com'});
+    client.cancel();
+    return Promise.resolve().then(function () {
+      assert.notCalled(onResults);
+      assert.called(onEnd);
+    });
+  });
+
+  it('emits "error" event and keeps the revision if synchronisation fails', function () {
+    var err = new Error('sync failed');
+    fakeSyncFn = function () {
+      return Promise.reject(err);
+    };
+    var client = new SyncClient(fakeSyncFn);
+    var onError = sinon.stub();
+    client.on('error', onError);
+    client.get({uri: 'http://example.com', since: 17});
+    return awaitEvent(client, 'end').then(function () {
+      assert.calledWith(onError, err);
+      assert.equal(client.revision, 17);
+    });
+  });
+});
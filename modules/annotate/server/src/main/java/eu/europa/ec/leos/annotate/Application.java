@@ -22,6 +22,7 @@ import eu.europa.ec.leos.annotate.websockets.WebSessionRegistry;
 import org.springframework.aop.framework.ProxyFactoryBean;
 import org.springframework.aop.target.ThreadLocalTargetSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.web.support.SpringBootServletInitializer;
@@ -127,6 +128,12 @@ public class Application extends SpringBootServletInitializer implements WebAppl
         final private WebSessionRegistry webSessionRegistry;
         final private MessageBroker messageBroker;
 
+        @Value("${notification.send.timelimit:" + AnnotateWebSocketHandler.DEFAULT_SEND_TIME_LIMIT + "}")
+        private int sendTimeLimit;
+
+        @Value("${notification.send.buffersizelimit:" + AnnotateWebSocketHandler.DEFAULT_BUFFER_SIZE_LIMIT + "}")
+        private int bufferSizeLimit;
+
         @Autowired
         WebSocketConfig(final AuthenticationService authService, final WebSessionRegistry webSessionRegistry, 
                 final MessageBroker messageBroker) {
@@ -142,7 +149,9 @@ public class Application extends SpringBootServletInitializer implements WebAppl
 
         @Bean
         public AnnotateWebSocketHandler webSocketHandler() {
-            return new AnnotateWebSocketHandler(authService, webSessionRegistry, messageBroker);
+            final AnnotateWebSocketHandler handler = new AnnotateWebSocketHandler(authService, webSessionRegistry, messageBroker);
+            handler.setOutboundLimits(sendTimeLimit, bufferSizeLimit);
+            return handler;
         }
 
     }
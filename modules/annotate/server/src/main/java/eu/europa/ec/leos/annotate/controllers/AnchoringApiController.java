@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.controllers;
+
+import eu.europa.ec.leos.annotate.model.ReanchorAnnotationsResult;
+import eu.europa.ec.leos.annotate.model.UserInformation;
+import eu.europa.ec.leos.annotate.model.web.JsonFailureResponse;
+import eu.europa.ec.leos.annotate.model.web.ReanchorAnnotationsRequest;
+import eu.europa.ec.leos.annotate.services.AnnotationAnchoringService;
+import eu.europa.ec.leos.annotate.services.exceptions.CannotReanchorAnnotationsException;
+import eu.europa.ec.leos.annotate.services.exceptions.MissingPermissionException;
+import eu.europa.ec.leos.annotate.services.impl.AuthenticatedUserStore;
+import eu.europa.ec.leos.annotate.websockets.MessageBroker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+public class AnchoringApiController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AnchoringApiController.class);
+
+    // -------------------------------------
+    // Required services and repositories
+    // -------------------------------------
+
+    @Autowired
+    private AnnotationAnchoringService anchoringService;
+
+    @Autowired
+    private AuthenticatedUserStore authUser;
+
+    @Autowired
+    private MessageBroker messageBroker;
+
+    // -------------------------------------
+    // API endpoints
+    // -------------------------------------
+
+    /**
+     * Endpoint for re-anchoring the annotations of a document on a new version of its content
+     *
+     * @param request 
+     *        Incoming request
+     * @param response 
+     *        Outgoing response
+     * @param reanchorRequest (request body)
+     *        URI of the document, its new content, and the mapping of changed element IDs (old ID to new ID)
+     *
+     * @return
+     * - in case of success: HTTP status 200, JSON based response containing the IDs of the re-anchored and orphaned annotations 
+     *   ({@link ReanchorAnnotationsResult})
+     * - in case of failure due to missing permissions or other unfulfilled conditions: HTTP status 404 with error description
+     * - in case of other failures: HTTP status 400, JSON based response with error description
+     *
+     * @throws IOException
+     * @throws ServletException
+     */
+    @RequestMapping(value = "/reanchor", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Object> reanchorAnnotations(final HttpServletRequest request, final HttpServletResponse response,
+            @RequestBody final ReanchorAnnotationsRequest reanchorRequest)
+            throws IOException, ServletException {
+
+        LOG.debug("Received request to re-anchor annotations of a document");
+
+        String errorMsg = "";
+        HttpStatus httpStatusToSend;
+
+        try {
+            final UserInformation userInfo = authUser.getUserInfo();
+            final ReanchorAnnotationsResult reanchorResult = anchoringService.reanchorAnnotations(reanchorRequest, userInfo);
+
+            // publish changes via websockets
+            final List<String> updatedIds = new ArrayList<String>(reanchorResult.getReanchoredAnnotIds());
+            updatedIds.addAll(reanchorResult.getOrphanedAnnotIds());
+            messageBroker.publish(updatedIds, MessageBroker.ACTION.UPDATE, request.getHeader("x-client-id"));
+
+            LOG.debug("Annotation re-anchoring successful, return Http status 200");
+            return new ResponseEntity<Object>(reanchorResult, HttpStatus.OK);
+
+        } catch (CannotReanchorAnnotationsException | MissingPermissionException e) {
+
+            httpStatusToSend = HttpStatus.NOT_FOUND;
+            LOG.error("The annotations could not be re-anchored", e);
+            errorMsg = e.getMessage();
+
+        } catch (Exception e) {
+
+            httpStatusToSend = HttpStatus.BAD_REQUEST;
+            LOG.error("Error while trying to re-anchor annotations", e);
+            errorMsg = e.getMessage();
+        }
+
+        LOG.warn("There was a problem while re-anchoring annotations, return and failure notice");
+        return new ResponseEntity<Object>(new JsonFailureResponse("The annotations could not be re-anchored: " + errorMsg), httpStatusToSend);
+    }
+}
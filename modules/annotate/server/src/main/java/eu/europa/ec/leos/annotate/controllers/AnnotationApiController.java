@@ -13,10 +13,12 @@
  */
 package eu.europa.ec.leos.annotate.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser.Feature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.europa.ec.leos.annotate.aspects.NoAuthAnnotation;
 import eu.europa.ec.leos.annotate.model.SimpleMetadataWithStatuses;
+import eu.europa.ec.leos.annotate.model.UserDetails;
 import eu.europa.ec.leos.annotate.model.UserInformation;
 import eu.europa.ec.leos.annotate.model.entity.Annotation;
 import eu.europa.ec.leos.annotate.model.search.AnnotationSearchCountOptions;
@@ -28,6 +30,7 @@ import eu.europa.ec.leos.annotate.model.web.JsonFailureResponse;
 import eu.europa.ec.leos.annotate.model.web.annotation.*;
 import eu.europa.ec.leos.annotate.services.AnnotationConversionService;
 import eu.europa.ec.leos.annotate.services.AnnotationService;
+import eu.europa.ec.leos.annotate.services.RevisionGeneratorService;
 import eu.europa.ec.leos.annotate.services.exceptions.*;
 import eu.europa.ec.leos.annotate.services.impl.AuthenticatedUserStore;
 import eu.europa.ec.leos.annotate.websockets.MessageBroker;
@@ -46,7 +49,13 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api")
@@ -64,12 +73,18 @@ public class AnnotationApiController {
     @Autowired
     private AnnotationConversionService conversionService;
 
+    @Autowired
+    private RevisionGeneratorService revisionService;
+
     @Autowired
     private AuthenticatedUserStore authUser;
 
     @Autowired
     private MessageBroker messageBroker;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // -------------------------------------
     // API endpoints
     // -------------------------------------
@@ -318,9 +333,7 @@ public class AnnotationApiController {
 
         try {
             final List<String> deleted = annotService.deleteAnnotationsById(annotationList.getIds(), authUser.getUserInfo());
-            for (final String annotationId : deleted) {
-                messageBroker.publish(annotationId, MessageBroker.ACTION.DELETE, request.getHeader(CLIENT_HEADER));
-            }
+            messageBroker.publish(deleted, MessageBroker.ACTION.DELETE, request.getHeader(CLIENT_HEADER));
 
             LOG.info("Annotations deleted, return Http status 200 and success");
             return new ResponseEntity<Object>(new JsonBulkDeleteSuccessResponse(), HttpStatus.OK);
@@ -416,6 +429,165 @@ public class AnnotationApiController {
         return new ResponseEntity<Object>(new JsonFailureResponse("The annotations could not be searched for: " + errorMsg), HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Endpoint for synchronising the annotations of a client incrementally, i.e. for retrieving the changes after a given revision only;
+     * the annotations are searched for like by the search endpoint, but only the threads changed after the revision are returned, 
+     * all at once; the IDs of the changed annotations not being visible any more are returned as well, in order to be removed by the client
+     * 
+     * note: the annotations changed while the synchronisation is running may be returned again by the next synchronisation;
+     *       only the changes of the metadata sets considered by the search are taken into account, being public or belonging to the user
+     *
+     * @param request Incoming request
+     * @param response Outgoing response
+     * @param since (request parameter)
+     *        revision returned by the previous synchronisation; default: 0, i.e. all annotations are returned
+     * @param _separate_replies (request parameter)
+     *        search flag indicating whether replies should be mixed with
+     *        annotations or be returned as separate group; default: {@value #DEFAULT_SEARCH_SEARCH_REPLIES}
+     * @param incomingOptions (request parameters)
+     *        search parameters like for the search endpoint, except limit and offset being ignored
+     *
+     * @return
+     * in case of success: HTTP status 200, JSON based response containing the changes and the revision for the next synchronisation
+     * in case of failure: HTTP status 400, JSON based response with error description (e.g. if search failed)
+     *
+     * @throws IOException
+     * @throws ServletException
+     */
+    @RequestMapping(value = "/sync", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Object> syncAnnotations(final HttpServletRequest request, final HttpServletResponse response,
+            @RequestParam(value = "since", defaultValue = "0") final long since,
+            @RequestParam(value = "_separate_replies", defaultValue = Consts.DEFAULT_SEARCH_SEPARATE_REPLIES) final boolean separate_replies,
+            final IncomingSearchOptions incomingOptions)
+            throws IOException, ServletException {
+
+        LOG.debug("Received request to synchronise annotations changed after revision {}", since);
+
+        String errorMsg = "";
+
+        try {
+            // the revision is taken before searching, so that changes made during the search are returned by the next synchronisation;
+            // changes stamped but not committed yet are returned by the next synchronisation as well
+            final long revision = revisionService.getCompletedRevision();
+
+            final AnnotationSearchOptions options = AnnotationSearchOptions.fromIncomingSearchOptions(incomingOptions, separate_replies);
+            options.setItemLimitAndOffset(-1, 0); // all changes are needed for determining the removed annotations
+            options.setSinceRevision(since);
+            final UserInformation userInfo = authUser.getUserInfo();
+            userInfo.setConnectedEntity(incomingOptions.getConnectedEntity());
+
+            final AnnotationSearchResult searchResult = annotService.searchAnnotations(options, userInfo);
+            final Set<String> visibleIds = new HashSet<String>();
+            List<Annotation> replies = null;
+            if (searchResult != null && !searchResult.isEmpty()) {
+                replies = annotService.searchRepliesForAnnotations(searchResult, options, userInfo);
+                searchResult.getItems().forEach(annot -> visibleIds.add(annot.getId()));
+                if (replies != null) {
+                    replies.forEach(reply -> visibleIds.add(reply.getId()));
+                }
+            }
+            final JsonSearchResult changes = conversionService.convertToJsonSearchResult(searchResult, replies, options, userInfo);
+
+            final List<String> removedIds = annotService.findAnnotationIdsChangedAfterRevision(searchResult, since, userInfo).stream()
+                    .filter(annotId -> !visibleIds.contains(annotId)).collect(Collectors.toList());
+
+            LOG.debug("Annotation synchronisation successful, return Http status 200 with {} changed and {} removed annotations",
+                    visibleIds.size(), removedIds.size());
+            return new ResponseEntity<Object>(new JsonSyncResult(revision, changes, removedIds), HttpStatus.OK);
+
+        } catch (Exception e) {
+            LOG.error("Error while synchronising annotations", e);
+            errorMsg = e.getMessage();
+        }
+
+        LOG.warn("There was a problem during annotation synchronisation, return Http status 400 and failure notice");
+        return new ResponseEntity<Object>(new JsonFailureResponse("The annotations could not be synchronised: " + errorMsg), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Endpoint for exporting all annotations of several documents at once, e.g. for packaging them with the documents
+     * the response is a JSON object having one member per document URI, each containing the search result of the document with separate replies;
+     * it is streamed document after document, and the annotations are exported read-only, without computing the permissions of the user
+     *
+     * @param request Incoming request
+     * @param response Outgoing response, to which the exported annotations are streamed
+     * @param uris (request parameter)
+     *        URIs of the documents whose annotations are exported
+     * @param group (request parameter)
+     *        group whose annotations are exported
+     *
+     * @return
+     * in case of success: nothing, the JSON based response containing the search results has been written with HTTP status 200
+     * in case of failure: HTTP status 400, JSON based response with error description (e.g. if an URI is invalid)
+     *
+     * @throws IOException
+     * @throws ServletException
+     */
+    @RequestMapping(value = "/export", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Object> exportAnnotations(final HttpServletRequest request, final HttpServletResponse response,
+            @RequestParam(value = "uri") final List<String> uris,
+            @RequestParam(value = "group") final String group)
+            throws IOException, ServletException {
+
+        LOG.debug("Received request to export the annotations of {} documents", uris.size());
+
+        final List<AnnotationSearchOptions> documentsOptions = new ArrayList<AnnotationSearchOptions>();
+        try {
+            for (final String uri : uris) {
+                documentsOptions.add(new AnnotationSearchOptions(uri, group, true, -1, 0, "asc", "created"));
+            }
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Invalid document URI received, return Http status 400 and failure notice", e);
+            return new ResponseEntity<Object>(new JsonFailureResponse("The annotations could not be exported: " + e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+
+        final UserInformation userInfo = authUser.getUserInfo();
+        final Map<String, UserDetails> knownUserDetails = new HashMap<String, UserDetails>();
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartObject();
+            for (final AnnotationSearchOptions options : documentsOptions) {
+                final AnnotationSearchResult searchResult = annotService.searchAnnotations(options, userInfo);
+                List<Annotation> replies = null;
+                if (searchResult != null && !searchResult.isEmpty()) {
+                    replies = annotService.searchRepliesForAnnotations(searchResult, options, userInfo);
+                }
+
+                generator.writeObjectFieldStart(options.getUri().toString());
+                generator.writeNumberField("total", searchResult == null ? 0 : searchResult.getTotalItems());
+                writeExportedAnnotations(generator, "rows", searchResult == null ? null : searchResult.getItems(), knownUserDetails);
+                writeExportedAnnotations(generator, "replies", replies, knownUserDetails);
+                generator.writeEndObject();
+                // the annotations of each document are sent as soon as they are converted
+                generator.flush();
+            }
+            generator.writeEndObject();
+        } catch (Exception e) {
+            // the response is already committed: the client notices the truncated content
+            LOG.error("Error while exporting annotations", e);
+            throw e;
+        }
+
+        LOG.debug("Annotation export successful for {} documents", documentsOptions.size());
+        return null;
+    }
+
+    private void writeExportedAnnotations(final JsonGenerator generator, final String fieldName, final List<Annotation> annotations,
+            final Map<String, UserDetails> knownUserDetails) throws IOException {
+
+        generator.writeArrayFieldStart(fieldName);
+        if (annotations != null) {
+            for (final Annotation annotation : annotations) {
+                generator.writeObject(conversionService.convertToJsonAnnotationForExport(annotation, knownUserDetails));
+            }
+        }
+        generator.writeEndArray();
+    }
+
     @RequestMapping(value = "/count", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
     public ResponseEntity<Object> countAnnotations(final HttpServletRequest request, final HttpServletResponse response,
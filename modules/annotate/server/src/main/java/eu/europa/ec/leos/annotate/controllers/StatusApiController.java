@@ -110,8 +110,8 @@ public class StatusApiController {
             final String header = request.getHeader("x-client-id");
 
             // publish changes via websockets
-            rsur.getUpdatedAnnotIds().stream().forEach(annotId -> messageBroker.publish(annotId, MessageBroker.ACTION.UPDATE, header));
-            rsur.getDeletedAnnotIds().stream().forEach(annotId -> messageBroker.publish(annotId, MessageBroker.ACTION.DELETE, header));
+            messageBroker.publish(rsur.getUpdatedAnnotIds(), MessageBroker.ACTION.UPDATE, header);
+            messageBroker.publish(rsur.getDeletedAnnotIds(), MessageBroker.ACTION.DELETE, header);
 
             LOG.debug("Annotation metadata status update successful, return Http status 200");
             return new ResponseEntity<Object>(new StatusUpdateSuccessResponse(), HttpStatus.OK);
@@ -169,7 +169,7 @@ public class StatusApiController {
             final String header = request.getHeader("x-client-id");
 
             // publish changes via websockets
-            publishResult.getUpdatedAnnotIds().stream().forEach(annotId -> messageBroker.publish(annotId, MessageBroker.ACTION.UPDATE, header));
+            messageBroker.publish(publishResult.getUpdatedAnnotIds(), MessageBroker.ACTION.UPDATE, header);
 
             LOG.debug("Annotation metadata status update successful, return Http status 200");
             return new ResponseEntity<Object>(new PublishContributionsSuccessResponse(), HttpStatus.OK);
@@ -15,6 +15,7 @@ package eu.europa.ec.leos.annotate.controllers;
 
 import eu.europa.ec.leos.annotate.websockets.MessageBroker;
 import eu.europa.ec.leos.annotate.model.web.JsonFailureResponse;
+import eu.europa.ec.leos.annotate.model.web.annotation.JsonIdList;
 import eu.europa.ec.leos.annotate.model.web.annotation.JsonSuggestionAcceptSuccessResponse;
 import eu.europa.ec.leos.annotate.model.web.annotation.JsonSuggestionRejectSuccessResponse;
 import eu.europa.ec.leos.annotate.services.AnnotationService;
@@ -160,4 +161,104 @@ public class SuggestionApiController {
         LOG.warn("Suggestion could not be rejected, return Http status {} and failure notice", httpStatusToSent);
         return new ResponseEntity<Object>(new JsonFailureResponse(errorMsg), httpStatusToSent);
     }
+
+    /**
+     * Endpoint for accepting several suggestions at once
+     *
+     * @param request Incoming request
+     * @param response Outgoing response
+     * @param suggestionList list of IDs of the suggestions to be accepted; contained in request body
+     *
+     * @return 
+     * in case of success: HTTP status 200, JSON based response containing the IDs of the accepted suggestions;
+     *                     suggestions that are not found or may not be accepted by the user are skipped 
+     * in case of failure: HTTP status 404, JSON based response with error description (if no user is available)
+     * in case of failure: HTTP status 500, JSON based response with error description (unforeseen error)
+     *
+     * @throws IOException
+     * @throws ServletException
+     */
+    @RequestMapping(value = "/annotations/accept", method = RequestMethod.DELETE, consumes = MediaType.APPLICATION_JSON_VALUE, 
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Object> bulkAcceptSuggestions(final HttpServletRequest request, final HttpServletResponse response,
+            @RequestBody final JsonIdList suggestionList)
+            throws IOException, ServletException {
+
+        LOG.debug("Received request to do bulk acceptance of suggestions");
+
+        String errorMsg = "";
+        HttpStatus httpStatusToSent;
+
+        try {
+            final JsonIdList accepted = new JsonIdList();
+            accepted.setIds(annotService.acceptSuggestionsById(suggestionList.getIds(), authUser.getUserInfo()));
+            messageBroker.publish(accepted.getIds(), MessageBroker.ACTION.DELETE, request.getHeader("x-client-id"));
+
+            LOG.info("Suggestions accepted, return Http status 200 and ids of {} suggestions", accepted.getIds().size());
+            return new ResponseEntity<Object>(accepted, HttpStatus.OK);
+
+        } catch (MissingPermissionException mpe) {
+            httpStatusToSent = HttpStatus.NOT_FOUND;
+            errorMsg = mpe.getMessage();
+
+        } catch (Exception e) {
+            LOG.error("Error while accepting suggestions", e);
+            errorMsg = "The suggestions could not be accepted: " + e.getMessage();
+            httpStatusToSent = HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+
+        LOG.warn("Suggestions could not be accepted, return Http status {} and failure notice", httpStatusToSent);
+        return new ResponseEntity<Object>(new JsonFailureResponse(errorMsg), httpStatusToSent);
+    }
+
+    /**
+     * Endpoint for rejecting several suggestions at once
+     *
+     * @param request Incoming request
+     * @param response Outgoing response
+     * @param suggestionList list of IDs of the suggestions to be rejected; contained in request body
+     *
+     * @return 
+     * in case of success: HTTP status 200, JSON based response containing the IDs of the rejected suggestions;
+     *                     suggestions that are not found or may not be rejected by the user are skipped 
+     * in case of failure: HTTP status 404, JSON based response with error description (if no user is available)
+     * in case of failure: HTTP status 500, JSON based response with error description (unforeseen error)
+     *
+     * @throws IOException
+     * @throws ServletException
+     */
+    @RequestMapping(value = "/annotations/reject", method = RequestMethod.DELETE, consumes = MediaType.APPLICATION_JSON_VALUE, 
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Object> bulkRejectSuggestions(final HttpServletRequest request, final HttpServletResponse response,
+            @RequestBody final JsonIdList suggestionList)
+            throws IOException, ServletException {
+
+        LOG.debug("Received request to do bulk rejection of suggestions");
+
+        String errorMsg = "";
+        HttpStatus httpStatusToSent;
+
+        try {
+            final JsonIdList rejected = new JsonIdList();
+            rejected.setIds(annotService.rejectSuggestionsById(suggestionList.getIds(), authUser.getUserInfo()));
+            messageBroker.publish(rejected.getIds(), MessageBroker.ACTION.DELETE, request.getHeader("x-client-id"));
+
+            LOG.info("Suggestions rejected, return Http status 200 and ids of {} suggestions", rejected.getIds().size());
+            return new ResponseEntity<Object>(rejected, HttpStatus.OK);
+
+        } catch (MissingPermissionException mpe) {
+            httpStatusToSent = HttpStatus.NOT_FOUND;
+            errorMsg = mpe.getMessage();
+
+        } catch (Exception e) {
+            LOG.error("Error while rejecting suggestions", e);
+            errorMsg = "The suggestions could not be rejected: " + e.getMessage();
+            httpStatusToSent = HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+
+        LOG.warn("Suggestions could not be rejected, return Http status {} and failure notice", httpStatusToSent);
+        return new ResponseEntity<Object>(new JsonFailureResponse(errorMsg), httpStatusToSent);
+    }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.model;
+
+import eu.europa.ec.leos.annotate.Generated;
+import eu.europa.ec.leos.annotate.model.entity.Group;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class representing the group memberships of an authenticated user, resolved once per access token
+ * and valid until a given time at the latest 
+ */
+public class AuthorizationContext {
+
+    private final long userId;
+    private final List<Group> groups;
+    private final List<Long> groupIds;
+    private final Set<Long> groupIdSet;
+    private final LocalDateTime validUntil;
+
+    // -----------------------------------------------------------
+    // Constructor
+    // -----------------------------------------------------------
+    public AuthorizationContext(final long userId, final List<Group> groups, final List<Long> groupIds, final LocalDateTime validUntil) {
+        this.userId = userId;
+        this.groups = Collections.unmodifiableList(new ArrayList<Group>(groups));
+        this.groupIds = Collections.unmodifiableList(new ArrayList<Long>(groupIds));
+        this.groupIdSet = new HashSet<Long>(groupIds);
+        this.validUntil = validUntil;
+    }
+
+    // -----------------------------------------------------------
+    // Useful functions
+    // -----------------------------------------------------------
+
+    public boolean isMemberOfGroup(final long groupId) {
+        return groupIdSet.contains(groupId);
+    }
+
+    public boolean isExpired(final LocalDateTime now) {
+        return validUntil.isBefore(now);
+    }
+
+    // -----------------------------------------------------------
+    // Getters
+    // -----------------------------------------------------------
+
+    @Generated
+    public long getUserId() {
+        return userId;
+    }
+
+    @Generated
+    public List<Group> getGroups() {
+        return groups;
+    }
+
+    @Generated
+    public List<Long> getGroupIds() {
+        return groupIds;
+    }
+
+    @Generated
+    public LocalDateTime getValidUntil() {
+        return validUntil;
+    }
+}
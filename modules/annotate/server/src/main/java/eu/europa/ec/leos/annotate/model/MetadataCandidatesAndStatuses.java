@@ -15,28 +15,32 @@ package eu.europa.ec.leos.annotate.model;
 
 import eu.europa.ec.leos.annotate.Generated;
 import eu.europa.ec.leos.annotate.model.entity.Annotation.AnnotationStatus;
+import eu.europa.ec.leos.annotate.model.entity.Metadata;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.util.List;
 import java.util.Objects;
 
 /**
- * simple POJO hosting a list of {@link Metadata} IDs and a list of {@link AnnotationStatus} items
+ * simple POJO hosting the specification of the candidate {@link Metadata} sets and a list of {@link AnnotationStatus} items
  * required for search
+ * 
+ * note: the candidate metadata sets are not resolved before the search, but are matched by the annotation search query itself
  */
-public class MetadataIdsAndStatuses {
+public class MetadataCandidatesAndStatuses {
 
     // -------------------------------------
     // private properties
     // -------------------------------------
-    private final List<Long> metadataIds;
+    private final Specification<Metadata> metadataCandidates;
     private final List<AnnotationStatus> statuses;
 
     // -------------------------------------
     // Constructor
     // -------------------------------------
 
-    public MetadataIdsAndStatuses(final List<Long> metadataIds, final List<AnnotationStatus> statuses) {
-        this.metadataIds = metadataIds;
+    public MetadataCandidatesAndStatuses(final Specification<Metadata> metadataCandidates, final List<AnnotationStatus> statuses) {
+        this.metadataCandidates = metadataCandidates;
         this.statuses = statuses;
     }
 
@@ -45,8 +49,8 @@ public class MetadataIdsAndStatuses {
     // -------------------------------------
 
     @Generated
-    public List<Long> getMetadataIds() {
-        return metadataIds;
+    public Specification<Metadata> getMetadataCandidates() {
+        return metadataCandidates;
     }
 
     @Generated
@@ -61,7 +65,7 @@ public class MetadataIdsAndStatuses {
     @Generated
     @Override
     public int hashCode() {
-        return Objects.hash(metadataIds, statuses);
+        return Objects.hash(metadataCandidates, statuses);
     }
 
     @Generated
@@ -73,8 +77,8 @@ public class MetadataIdsAndStatuses {
         if (obj == null || getClass() != obj.getClass()) {
             return false;
         }
-        final MetadataIdsAndStatuses other = (MetadataIdsAndStatuses) obj;
-        return Objects.equals(this.metadataIds, other.metadataIds) &&
+        final MetadataCandidatesAndStatuses other = (MetadataCandidatesAndStatuses) obj;
+        return Objects.equals(this.metadataCandidates, other.metadataCandidates) &&
                 Objects.equals(this.statuses, other.statuses);
     }
 }
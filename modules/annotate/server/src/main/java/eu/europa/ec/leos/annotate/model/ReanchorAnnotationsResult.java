@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.model;
+
+import eu.europa.ec.leos.annotate.Generated;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * POJO representing the result of re-anchoring the annotations of a document on its new content
+ */
+public class ReanchorAnnotationsResult {
+
+    // -------------------------------------
+    // private properties
+    // -------------------------------------
+
+    // annotations whose target was found at another position or which are no longer orphaned
+    private final List<String> reanchoredAnnotIds;
+
+    // annotations whose target was not found any more
+    private final List<String> orphanedAnnotIds;
+
+    // -------------------------------------
+    // Constructors
+    // -------------------------------------
+
+    public ReanchorAnnotationsResult() {
+
+        // default constructor
+
+        this.reanchoredAnnotIds = new ArrayList<String>();
+        this.orphanedAnnotIds = new ArrayList<String>();
+    }
+
+    public ReanchorAnnotationsResult(final List<String> reanchoredIds, final List<String> orphanedIds) {
+        this.reanchoredAnnotIds = (reanchoredIds == null ? new ArrayList<String>() : reanchoredIds);
+        this.orphanedAnnotIds = (orphanedIds == null ? new ArrayList<String>() : orphanedIds);
+    }
+
+    // -------------------------------------
+    // Getters & setters
+    // -------------------------------------
+
+    @Generated
+    public List<String> getReanchoredAnnotIds() {
+        return reanchoredAnnotIds;
+    }
+
+    @Generated
+    public List<String> getOrphanedAnnotIds() {
+        return orphanedAnnotIds;
+    }
+
+    // -------------------------------------
+    // equals and hashCode
+    // -------------------------------------
+
+    @Generated
+    @Override
+    public int hashCode() {
+        return Objects.hash(reanchoredAnnotIds, orphanedAnnotIds);
+    }
+
+    @Generated
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final ReanchorAnnotationsResult other = (ReanchorAnnotationsResult) obj;
+        return Objects.equals(this.reanchoredAnnotIds, other.reanchoredAnnotIds) &&
+                Objects.equals(this.orphanedAnnotIds, other.orphanedAnnotIds);
+    }
+}
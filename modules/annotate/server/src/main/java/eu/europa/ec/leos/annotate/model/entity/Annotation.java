@@ -27,7 +27,9 @@ import java.util.Objects;
 @Entity
 @Table(name = "ANNOTATIONS", indexes = {
         @Index(columnList = "USER_ID", name = "ANNOTATIONS_IX_USERS"),
-        @Index(columnList = "METADATA_ID", name = "ANNOTATIONS_IX_METADATA"),
+        @Index(columnList = "METADATA_ID, STATUS, ROOT", name = "ANNOTATIONS_IX_METADATA_STATUS_ROOT"),
+        @Index(columnList = "METADATA_ID, REVISION", name = "ANNOTATIONS_IX_METADATA_REVISION"),
+        @Index(columnList = "METADATA_ID, ANNOTATION_TYPE", name = "ANNOTATIONS_IX_METADATA_TYPE"),
         @Index(columnList = "STATUS, ROOT", name = "ANNOTATIONS_IX_STATUS_ROOT")})
 public class Annotation {
 
@@ -135,6 +137,21 @@ public class Annotation {
     // the response version with which the annotation was sentDeleted
     @Column(name = "RESP_VERSION_SENT_DELETED", nullable = true)
     private long respVersionSentDeleted;
+
+    // flag indicating whether the annotation's target could not be found any more in the latest version of its document
+    @Column(name = "ORPHANED", nullable = false)
+    private boolean orphaned;
+
+    // revision of the last change of the annotation, taken from a sequence shared with the metadata sets
+    // note: set by the services upon each change, allows clients to synchronise incrementally
+    @Column(name = "REVISION", nullable = false)
+    private long revision;
+
+    // type of the annotation, derived from its tags whenever they are set (see {@link #updateType()})
+    // note: allows filtering by type in the database without joining the tags
+    @Column(name = "ANNOTATION_TYPE", nullable = false)
+    @Enumerated(EnumType.ORDINAL)
+    private AnnotationType type = AnnotationType.OTHER;
     
     // -------------------------------------
     // constructor
@@ -196,9 +213,40 @@ public class Annotation {
         }
     }
 
+    // represents the type of the annotation, as denoted by its tags
+    public enum AnnotationType {
+
+        // note: page notes and replies don't have any type tag
+        OTHER, COMMENT, SUGGESTION, HIGHLIGHT;
+
+        public static AnnotationType fromTags(final List<Tag> tags) {
+
+            if (tags == null || tags.isEmpty()) {
+                return OTHER;
+            }
+            AnnotationType result = OTHER;
+            for (final Tag tag : tags) {
+                if (ANNOTATION_SUGGESTION.equals(tag.getName())) {
+                    return SUGGESTION;
+                } else if (ANNOTATION_HIGHLIGHT.equals(tag.getName())) {
+                    result = HIGHLIGHT;
+                } else if (ANNOTATION_COMMENT.equals(tag.getName()) && result == OTHER) {
+                    result = COMMENT;
+                }
+            }
+            return result;
+        }
+    }
+
     // -------------------------------------
     // Help functions (partially) exceeding pure POJO getters and setters
     // -------------------------------------
+
+    // precompute the type from the tags; to be called when the list of tags was modified
+    // note: no JPA callback is used as the tags are not yet copied when a new annotation is merged
+    public void updateType() {
+        this.type = AnnotationType.fromTags(this.tags);
+    }
     public List<String> getReferencesList() {
         if (this.references == null || this.references.isEmpty()) {
             return null;
@@ -352,9 +400,14 @@ public class Annotation {
         return tags;
     }
 
-    @Generated
     public void setTags(final List<Tag> tags) {
         this.tags = tags;
+        updateType();
+    }
+
+    @Generated
+    public AnnotationType getType() {
+        return type;
     }
 
     @Generated
@@ -446,6 +499,26 @@ public class Annotation {
     public void setRespVersionSentDeleted(final long rvsd) {
         this.respVersionSentDeleted = rvsd;
     }
+
+    @Generated
+    public boolean isOrphaned() {
+        return orphaned;
+    }
+
+    @Generated
+    public void setOrphaned(final boolean orphaned) {
+        this.orphaned = orphaned;
+    }
+
+    @Generated
+    public long getRevision() {
+        return revision;
+    }
+
+    @Generated
+    public void setRevision(final long revision) {
+        this.revision = revision;
+    }
     
     // -------------------------------------
     // equals and hashCode
@@ -456,7 +529,7 @@ public class Annotation {
     public int hashCode() {
         return Objects.hash(created, updated, id, linkedAnnotationId, userId, rootAnnotationId, 
                 shared, text, targetSelectors, references, metadataId, metadata, tags, 
-                user, status, statusUpdated, statusUpdatedBy, sentDeleted, respVersionSentDeleted);
+                user, status, statusUpdated, statusUpdatedBy, sentDeleted, respVersionSentDeleted, orphaned);
     }
 
     @Generated
@@ -482,6 +555,7 @@ public class Annotation {
                 Objects.equals(this.statusUpdatedBy, other.statusUpdatedBy) &&
                 Objects.equals(this.sentDeleted, other.sentDeleted) &&                
                 Objects.equals(this.respVersionSentDeleted, other.respVersionSentDeleted) &&
+                Objects.equals(this.orphaned, other.orphaned) &&
                 Objects.equals(this.linkedAnnotationId, other.linkedAnnotationId) &&
                 Objects.equals(this.targetSelectors, other.targetSelectors) &&
                 Objects.equals(this.metadataId, other.metadataId) &&
@@ -24,6 +24,9 @@ import org.springframework.util.StringUtils;
 import javax.annotation.Nonnull;
 import javax.persistence.*;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -32,7 +35,8 @@ import java.util.*;
 @Table(name = "METADATA", indexes = {
         @Index(columnList = "SYSTEM_ID", name = "METADATA_IX_SYSTEM_ID"),
         @Index(columnList = "RESPONSE_STATUS", name = "METADATA_IX_RESPONSE_STATUS"),
-        @Index(columnList = "VERSION", name = "METADATA_IX_VERSION")})
+        @Index(columnList = "VERSION", name = "METADATA_IX_VERSION"),
+        @Index(columnList = "DOCUMENT_ID, GROUP_ID, SYSTEM_ID", name = "METADATA_IX_DOC_GROUP_SYSTEM")})
 public class Metadata {
 
     /**
@@ -52,6 +56,10 @@ public class Metadata {
     public static final String PROP_ISC_REF = "ISCReference";
     private static final List<String> PROPS_OWN_COLS = Arrays.asList(PROP_SYSTEM_ID, PROP_RESPONSE_STATUS, PROP_VERSION);
 
+    // longer values are stored as their hash in the normalized key-value table (size of the KV_VALUE column)
+    public static final int MAX_INDEXED_VALUE_LENGTH = 1000;
+    private static final String HASHED_VALUE_PREFIX = "#SHA256:";
+
     // -------------------------------------
     // column definitions
     // -------------------------------------
@@ -101,6 +109,14 @@ public class Metadata {
     @Column(name = "KEYVALUES")
     private String keyValuePairs;
 
+    // normalized copy of the key-value pairs (one row per pair), always derived from keyValuePairs;
+    // allows matching metadata sets using indexed SQL queries instead of parsing the key-values column
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "METADATA_KEYVALUES", joinColumns = @JoinColumn(name = "METADATA_ID"))
+    @MapKeyColumn(name = "KV_KEY")
+    @Column(name = "KV_VALUE")
+    private Map<String, String> keyValueItems = new HashMap<>();
+
     // track the datetime of modification of the response status
     // note: NOT auto-filled by DB trigger as this would require different implementations for Oracle and H2
     @Column(name = "RESPONSE_STATUS_UPDATED", nullable = true)
@@ -111,6 +127,11 @@ public class Metadata {
     @Column(name = "RESPONSE_STATUS_UPDATED_BY", nullable = true)
     private Long responseStatusUpdatedBy;
 
+    // revision of the last change of the metadata set, taken from a sequence shared with the annotations
+    // note: not copied by the copy constructor, a copy receives its own revision when being saved
+    @Column(name = "REVISION", nullable = false)
+    private long revision;
+
     // -----------------------------------------------------------
     // Constructors
     // -----------------------------------------------------------
@@ -139,6 +160,7 @@ public class Metadata {
         this.systemId = other.systemId;
         this.version = other.version;
         this.keyValuePairs = other.keyValuePairs;
+        this.keyValueItems = getIndexedItems(other.keyValuePairs);
         this.responseStatus = other.responseStatus;
         this.responseStatusUpdated = other.responseStatusUpdated;
         this.responseStatusUpdatedBy = other.responseStatusUpdatedBy;
@@ -208,6 +230,7 @@ public class Metadata {
             }
         });
         this.keyValuePairs = dbKeyValueList.toString();
+        this.keyValueItems = getIndexedItems(this.keyValuePairs);
     }
 
     /**
@@ -217,10 +240,19 @@ public class Metadata {
     @Nonnull
     public SimpleMetadata getKeyValuePropertyAsSimpleMetadata() {
 
+        return parseKeyValuePairs(this.keyValuePairs);
+    }
+
+    /**
+     * converts the content of the key-values column into a {@link SimpleMetadata}
+     */
+    @Nonnull
+    private static SimpleMetadata parseKeyValuePairs(final String keyValuePairs) {
+
         final SimpleMetadata result = new SimpleMetadata();
 
-        if (!StringUtils.isEmpty(this.keyValuePairs)) {
-            final List<String> parts = Arrays.asList(this.keyValuePairs.split("\n"));
+        if (!StringUtils.isEmpty(keyValuePairs)) {
+            final List<String> parts = Arrays.asList(keyValuePairs.split("\n"));
             for (final String part : parts) {
                 // each part has the format: key:"value"
                 if (part.contains(":")) {
@@ -234,6 +266,45 @@ public class Metadata {
         return result;
     }
 
+    /**
+     * converts the content of the key-values column into the items stored in the normalized key-value table
+     */
+    @Nonnull
+    private static Map<String, String> getIndexedItems(final String keyValuePairs) {
+
+        final Map<String, String> result = new HashMap<>();
+        parseKeyValuePairs(keyValuePairs).forEach((key, value) -> result.put(key, getIndexedValue(value)));
+        return result;
+    }
+
+    /**
+     * returns the form in which a metadata value is stored in the normalized key-value table:
+     * the value itself, or its SHA-256 hash if it does not fit into the column
+     * note: the complete value remains available in the key-values column
+     * 
+     * @param value
+     *        the metadata value
+     * @return value to be stored and compared in the normalized key-value table
+     */
+    public static String getIndexedValue(final String value) {
+
+        if (value == null || value.codePointCount(0, value.length()) <= MAX_INDEXED_VALUE_LENGTH) {
+            return value;
+        }
+
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder hashed = new StringBuilder(HASHED_VALUE_PREFIX);
+            for (final byte hashByte : hash) {
+                hashed.append(String.format("%02X", hashByte));
+            }
+            return hashed.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available on every Java platform
+            throw new IllegalStateException("Unable to hash metadata value", e);
+        }
+    }
+
     /**
      * returns a {@link SimpleMetadata} (={@link Map}) containing all metadata items, 
      * including the system ID and response status! 
@@ -411,14 +482,24 @@ public class Metadata {
         this.responseStatusUpdatedBy = userId;
     }
 
+    @Generated
+    public long getRevision() {
+        return revision;
+    }
+
+    @Generated
+    public void setRevision(final long revision) {
+        this.revision = revision;
+    }
+
     @Generated
     public String getKeyValuePairs() {
         return keyValuePairs;
     }
 
-    @Generated
     public void setKeyValuePairs(final String keyValuePairs) {
         this.keyValuePairs = keyValuePairs;
+        this.keyValueItems = getIndexedItems(keyValuePairs);
     }
 
     // -------------------------------------
@@ -22,12 +22,12 @@ import javax.persistence.*;
 import java.util.Objects;
 
 @Entity
-@Table(name = "TAGS", uniqueConstraints = @UniqueConstraint(columnNames = {"NAME", "ANNOTATION_ID"}))
+@Table(name = "TAGS", uniqueConstraints = @UniqueConstraint(columnNames = {"TAG_NAME_ID", "ANNOTATION_ID"}))
 @SuppressWarnings("PMD.ShortClassName")
 public class Tag {
 
     /**
-     * Class representing a tag given to an annotation 
+     * Class representing a tag given to an annotation, i.e. the assignment of an entry of the tag dictionary to an annotation
      */
 
     // -------------------------------------
@@ -45,8 +45,10 @@ public class Tag {
     @SuppressWarnings("PMD.ShortVariable")
     private long id;
 
-    @Column(name = "NAME", nullable = false)
-    private String name;
+    // the tag name, mapped by hibernate using TAG_NAMES.TAG_NAME_ID column; see {@link TagName}
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "TAG_NAME_ID", nullable = false)
+    private TagName tagName;
 
     // ID of the associate annotation; mapped by hibernate using ANNOTATION.ANNOTATION_ID column
     @ManyToOne
@@ -61,9 +63,9 @@ public class Tag {
         // default constructor required by JPA
     }
 
-    public Tag(final String name, final Annotation annotation) {
+    public Tag(final TagName tagName, final Annotation annotation) {
         this.annotation = annotation;
-        this.name = name;
+        this.tagName = tagName;
     }
 
     // -----------------------------------------------------------
@@ -81,13 +83,19 @@ public class Tag {
     }
 
     @Generated
-    public String getName() {
-        return name;
+    public TagName getTagName() {
+        return tagName;
     }
 
     @Generated
-    public void setName(final String name) {
-        this.name = name;
+    public void setTagName(final TagName tagName) {
+        this.tagName = tagName;
+    }
+
+    // shortcut to access the name of the tag
+    @Transient
+    public String getName() {
+        return tagName == null ? null : tagName.getName();
     }
 
     @Generated
@@ -107,7 +115,7 @@ public class Tag {
     @Generated
     @Override
     public int hashCode() {
-        return Objects.hash(id, name, annotation);
+        return Objects.hash(id, tagName, annotation);
     }
 
     @Generated
@@ -121,7 +129,7 @@ public class Tag {
         }
         final Tag other = (Tag) obj;
         return Objects.equals(this.id, other.id) &&
-                Objects.equals(this.name, other.name) &&
+                Objects.equals(this.tagName, other.tagName) &&
                 Objects.equals(this.annotation, other.annotation);
     }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.model.entity;
+
+import eu.europa.ec.leos.annotate.Generated;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+
+import java.util.Objects;
+
+@Entity
+@Table(name = "TAG_NAMES", uniqueConstraints = @UniqueConstraint(columnNames = {"NAME"}))
+public class TagName {
+
+    /**
+     * Class representing an entry of the tag dictionary; each distinct tag name is stored once only
+     * and referenced by the {@link Tag} items assigning it to annotations
+     */
+
+    // -------------------------------------
+    // column definitions
+    // -------------------------------------
+
+    @Id
+    @Column(name = "TAG_NAME_ID", nullable = false)
+    @GenericGenerator(name = "tagNamesSequenceGenerator", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = "TAG_NAMES_SEQ"),
+            @Parameter(name = "increment_size", value = "1")
+    })
+    @GeneratedValue(generator = "tagNamesSequenceGenerator")
+    @SuppressWarnings("PMD.ShortVariable")
+    private long id;
+
+    @Column(name = "NAME", nullable = false, unique = true)
+    private String name;
+
+    // -----------------------------------------------------------
+    // Constructors
+    // -----------------------------------------------------------
+
+    public TagName() {
+        // default constructor required by JPA
+    }
+
+    public TagName(final String name) {
+        this.name = name;
+    }
+
+    // -----------------------------------------------------------
+    // Getters & setters
+    // -----------------------------------------------------------
+
+    @Generated
+    public Long getId() {
+        return id;
+    }
+
+    @Generated
+    public void setId(final Long newId) {
+        this.id = newId;
+    }
+
+    @Generated
+    public String getName() {
+        return name;
+    }
+
+    @Generated
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    // -------------------------------------
+    // equals and hashCode
+    // -------------------------------------
+
+    @Generated
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name);
+    }
+
+    @Generated
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final TagName other = (TagName) obj;
+        return Objects.equals(this.id, other.id) &&
+                Objects.equals(this.name, other.name);
+    }
+}
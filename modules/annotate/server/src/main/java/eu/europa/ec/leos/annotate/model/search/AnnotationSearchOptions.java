@@ -17,6 +17,7 @@ import eu.europa.ec.leos.annotate.Generated;
 import eu.europa.ec.leos.annotate.model.AnnotationComparator;
 import eu.europa.ec.leos.annotate.model.SimpleMetadataWithStatuses;
 import eu.europa.ec.leos.annotate.model.entity.Annotation.AnnotationStatus;
+import eu.europa.ec.leos.annotate.model.entity.Annotation.AnnotationType;
 import eu.europa.ec.leos.annotate.model.web.IncomingSearchOptions;
 import eu.europa.ec.leos.annotate.model.web.helper.JsonConverter;
 import org.slf4j.Logger;
@@ -71,6 +72,12 @@ public class AnnotationSearchOptions {
     // information which type of user executes the search
     private Consts.SearchUserType searchUser;
 
+    // revision after which annotations must have been changed in order to be found (incremental synchronisation); optional
+    private Long sinceRevision;
+
+    // types of annotations to be found; optional, all types are found if not set
+    private List<AnnotationType> types;
+
     // -------------------------------------
     // Constructors
     // -------------------------------------
@@ -288,6 +295,26 @@ public class AnnotationSearchOptions {
         this.searchUser = sUser;
     }
 
+    @Generated
+    public Long getSinceRevision() {
+        return sinceRevision;
+    }
+
+    @Generated
+    public void setSinceRevision(final Long sinceRevision) {
+        this.sinceRevision = sinceRevision;
+    }
+
+    @Generated
+    public List<AnnotationType> getTypes() {
+        return types;
+    }
+
+    @Generated
+    public void setTypes(final List<AnnotationType> types) {
+        this.types = types;
+    }
+
     // sets the statuses of all metadata sets defined
     public void setStatuses(final List<AnnotationStatus> statuses) {
         if (this.metadataMapsWithStatusesList == null) {
@@ -319,7 +346,7 @@ public class AnnotationSearchOptions {
     @Override
     public int hashCode() {
         return Objects.hash(separateReplies, itemLimit, itemOffset, order, sortColumn, uri, user,
-                group, searchUser, metadataMapsWithStatusesList);
+                group, searchUser, metadataMapsWithStatusesList, sinceRevision, types);
     }
 
     @Generated
@@ -342,6 +369,8 @@ public class AnnotationSearchOptions {
                 Objects.equals(this.user, other.user) &&
                 Objects.equals(this.group, other.group) &&
                 Objects.equals(this.searchUser, other.searchUser) &&
-                Objects.equals(this.metadataMapsWithStatusesList, other.metadataMapsWithStatusesList);
+                Objects.equals(this.metadataMapsWithStatusesList, other.metadataMapsWithStatusesList) &&
+                Objects.equals(this.sinceRevision, other.sinceRevision) &&
+                Objects.equals(this.types, other.types);
     }
 }
@@ -17,6 +17,7 @@ import eu.europa.ec.leos.annotate.Generated;
 import eu.europa.ec.leos.annotate.model.SimpleMetadataWithStatuses;
 import eu.europa.ec.leos.annotate.model.entity.Annotation.AnnotationStatus;
 import eu.europa.ec.leos.annotate.model.web.helper.JsonConverter;
+import eu.europa.ec.leos.annotate.model.entity.Annotation.AnnotationType;
 import eu.europa.ec.leos.annotate.model.entity.Document;
 import eu.europa.ec.leos.annotate.model.entity.Group;
 import eu.europa.ec.leos.annotate.model.entity.Token;
@@ -39,6 +40,8 @@ public class ResolvedSearchOptions {
     private Token executingUserToken;
     private List<SimpleMetadataWithStatuses> metadataWithStatusesList;
     private boolean userIsMemberOfGroup;
+    private Long sinceRevision;
+    private List<AnnotationType> types;
 
     // -------------------------------------
     // Constructor
@@ -144,6 +147,26 @@ public class ResolvedSearchOptions {
         this.userIsMemberOfGroup = isMember;
     }
 
+    @Generated
+    public Long getSinceRevision() {
+        return sinceRevision;
+    }
+
+    @Generated
+    public void setSinceRevision(final Long sinceRevision) {
+        this.sinceRevision = sinceRevision;
+    }
+
+    @Generated
+    public List<AnnotationType> getTypes() {
+        return types;
+    }
+
+    @Generated
+    public void setTypes(final List<AnnotationType> types) {
+        this.types = types;
+    }
+
     // -------------------------------------
     // equals and hashCode
     // -------------------------------------
@@ -152,7 +175,7 @@ public class ResolvedSearchOptions {
     @Override
     public int hashCode() {
         return Objects.hash(group, executingUser, filterUser, document,
-                executingUserToken, userIsMemberOfGroup, metadataWithStatusesList);
+                executingUserToken, userIsMemberOfGroup, metadataWithStatusesList, sinceRevision, types);
     }
 
     @Generated
@@ -171,7 +194,9 @@ public class ResolvedSearchOptions {
                 Objects.equals(this.document, other.document) &&
                 Objects.equals(this.executingUserToken, other.executingUserToken) &&
                 Objects.equals(this.userIsMemberOfGroup, other.userIsMemberOfGroup) &&
-                Objects.equals(this.metadataWithStatusesList, other.metadataWithStatusesList);
+                Objects.equals(this.metadataWithStatusesList, other.metadataWithStatusesList) &&
+                Objects.equals(this.sinceRevision, other.sinceRevision) &&
+                Objects.equals(this.types, other.types);
     }
 
 }
@@ -14,7 +14,7 @@
 package eu.europa.ec.leos.annotate.model.search;
 
 import eu.europa.ec.leos.annotate.Generated;
-import eu.europa.ec.leos.annotate.model.MetadataIdsAndStatuses;
+import eu.europa.ec.leos.annotate.model.MetadataCandidatesAndStatuses;
 import eu.europa.ec.leos.annotate.model.entity.Annotation;
 import eu.europa.ec.leos.annotate.model.search.Consts.SearchModelMode;
 import eu.europa.ec.leos.annotate.repository.impl.AnnotationSearchSpec;
@@ -40,7 +40,7 @@ public class SearchModel {
 
     private final ResolvedSearchOptions rso;
     private final Specification<Annotation> searchSpec;
-    private final List<MetadataIdsAndStatuses> metaAndStatus;
+    private final List<MetadataCandidatesAndStatuses> metaAndStatus;
     
     // flag indicating if the respective derived model class uses post-filtering functionality
     protected boolean hasPostFiltering;
@@ -51,7 +51,7 @@ public class SearchModel {
     // -------------------------------------
     // Constructors
     // -------------------------------------
-    public SearchModel(final ResolvedSearchOptions rso, final List<MetadataIdsAndStatuses> metaAndStatus,
+    public SearchModel(final ResolvedSearchOptions rso, final List<MetadataCandidatesAndStatuses> metaAndStatus,
             final SearchModelMode searchModeToUse) {
 
         this.rso = rso;
@@ -88,7 +88,7 @@ public class SearchModel {
     }
 
     @Generated
-    public List<MetadataIdsAndStatuses> getMetadataAndStatusesList() {
+    public List<MetadataCandidatesAndStatuses> getMetadataAndStatusesList() {
         return this.metaAndStatus;
     }
 
@@ -14,25 +14,27 @@
 package eu.europa.ec.leos.annotate.model.search;
 
 import eu.europa.ec.leos.annotate.Authorities;
-import eu.europa.ec.leos.annotate.model.MetadataIdsAndStatuses;
+import eu.europa.ec.leos.annotate.model.MetadataCandidatesAndStatuses;
 import eu.europa.ec.leos.annotate.model.SimpleMetadataWithStatuses;
 import eu.europa.ec.leos.annotate.model.entity.Metadata;
+import eu.europa.ec.leos.annotate.model.entity.Metadata.ResponseStatus;
+import eu.europa.ec.leos.annotate.repository.impl.MetadataCandidatesSearchSpec;
+import eu.europa.ec.leos.annotate.repository.impl.MetadataMatchSearchSpec;
 import eu.europa.ec.leos.annotate.services.GroupService;
-import eu.europa.ec.leos.annotate.services.MetadataMatchingService;
 import eu.europa.ec.leos.annotate.services.MetadataService;
-import eu.europa.ec.leos.annotate.services.impl.MetadataListHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.domain.Specifications;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Component
 public class SearchModelFactory {
@@ -47,9 +49,6 @@ public class SearchModelFactory {
 
     @Autowired
     private MetadataService metadataService;
-    
-    @Autowired
-    private MetadataMatchingService metadataMatchingService;
 
     // -------------------------------------
     // Main factory function
@@ -144,27 +143,20 @@ public class SearchModelFactory {
 
         // desired annotations may
         // a) belong to LEOS system, any group of the user
-        final List<Metadata> metaLeos = metadataService.findMetadataOfDocumentSystemidGroupIds(rso.getDocument(), Authorities.EdiT, groupIds);
+        final Specification<Metadata> metaLeos = new MetadataCandidatesSearchSpec(rso.getDocument(), Authorities.EdiT, groupIds, null);
 
         // b) belong to ISC system, any group (independent of the user), and have responseStatus SENT
-        final List<Metadata> metaIsc = metadataService.findMetadataOfDocumentSystemidSent(rso.getDocument(), Authorities.ISC);
+        final Specification<Metadata> metaIsc = new MetadataCandidatesSearchSpec(rso.getDocument(), Authorities.ISC, null, ResponseStatus.SENT);
 
-        final List<MetadataIdsAndStatuses> resolvedCandidates = new ArrayList<MetadataIdsAndStatuses>();
+        final List<MetadataCandidatesAndStatuses> candidates = new ArrayList<MetadataCandidatesAndStatuses>();
 
         // note: we want all LEOS and all ISC items matching the given metadata sets, so we have to multiply them all
         for (final SimpleMetadataWithStatuses smws : rso.getMetadataWithStatusesList()) {
-            final List<Long> metadataIdsLeos = metadataMatchingService.getIdsOfMatchingMetadatas(metaLeos, smws.getMetadata());
-            if (metadataIdsLeos != null) { // our function returns {@literal null} or a list with content, but no empty list
-                resolvedCandidates.add(new MetadataIdsAndStatuses(metadataIdsLeos, smws.getStatuses()));
-            }
-
-            final List<Long> metadataIdsIsc = metadataMatchingService.getIdsOfMatchingMetadatas(metaIsc, smws.getMetadata());
-            if (metadataIdsIsc != null) { // our function returns {@literal null} or a list with content, but no empty list
-                resolvedCandidates.add(new MetadataIdsAndStatuses(metadataIdsIsc, smws.getStatuses()));
-            }
+            candidates.add(new MetadataCandidatesAndStatuses(matching(metaLeos, smws), smws.getStatuses()));
+            candidates.add(new MetadataCandidatesAndStatuses(matching(metaIsc, smws), smws.getStatuses()));
         }
 
-        return new SearchModelLeosAllGroups(rso, resolvedCandidates);
+        return new SearchModelLeosAllGroups(rso, candidates);
     }
 
     private SearchModel getSearchModelEdiT1(final ResolvedSearchOptions rso) {
@@ -173,47 +165,46 @@ public class SearchModelFactory {
 
         // desired annotations may
         // a) belong to LEOS system, any group of the user
-        final List<Metadata> metaLeos = metadataService.findMetadataOfDocumentSystemidGroupIds(rso.getDocument(), Authorities.EdiT, groupIds);
-
         // b) belong to ISC system, any group (independent of the user), and have responseStatus SENT
-        final List<Metadata> metaIsc = metadataService.findMetadataOfDocumentSystemidSent(rso.getDocument(), Authorities.ISC);
+        final Specification<Metadata> metaCandidates = Specifications
+                .where(new MetadataCandidatesSearchSpec(rso.getDocument(), Authorities.EdiT, groupIds, null))
+                .or(new MetadataCandidatesSearchSpec(rso.getDocument(), Authorities.ISC, null, ResponseStatus.SENT));
 
-        final List<Long> metadataIds = MetadataListHelper.getMetadataSetIds(metaLeos, metaIsc);
-        if (metadataIds == null) { // our function returns {@literal null} or a list with content, but no empty list
+        if (!metadataService.existsMetadata(metaCandidates)) {
             LOG.info("No corresponding metadata fulfilling search model EdiT.1 found in DB");
             return null;
         }
 
-        final List<MetadataIdsAndStatuses> resolvedCandidates = new ArrayList<MetadataIdsAndStatuses>();
+        final List<MetadataCandidatesAndStatuses> candidates = new ArrayList<MetadataCandidatesAndStatuses>();
         for (final SimpleMetadataWithStatuses smws : rso.getMetadataWithStatusesList()) {
-            resolvedCandidates.add(new MetadataIdsAndStatuses(metadataIds, smws.getStatuses()));
+            candidates.add(new MetadataCandidatesAndStatuses(metaCandidates, smws.getStatuses()));
         }
 
-        return new SearchModelLeosAllGroups(rso, resolvedCandidates);
+        return new SearchModelLeosAllGroups(rso, candidates);
     }
 
     private SearchModel getSearchModelEdiT2(final ResolvedSearchOptions rso) {
 
+        final List<Long> groupIds = Collections.singletonList(rso.getGroup().getId());
+
         // desired annotations may
         // a) belong to LEOS system
-        final List<Metadata> metaLeos = metadataService.findMetadataOfDocumentGroupSystemid(rso.getDocument(), rso.getGroup(), Authorities.EdiT);
-
         // b) belong to ISC system and have responseStatus SENT
-        final List<Metadata> metaIsc = metadataService.findMetadataOfDocumentGroupSystemidSent(rso.getDocument(),
-                rso.getGroup(), Authorities.ISC);
+        final Specification<Metadata> metaCandidates = Specifications
+                .where(new MetadataCandidatesSearchSpec(rso.getDocument(), Authorities.EdiT, groupIds, null))
+                .or(new MetadataCandidatesSearchSpec(rso.getDocument(), Authorities.ISC, groupIds, ResponseStatus.SENT));
 
-        final List<Long> metadataIds = MetadataListHelper.getMetadataSetIds(metaLeos, metaIsc);
-        if (metadataIds == null) { // our function returns {@literal null} or a list with content, but no empty list
+        if (!metadataService.existsMetadata(metaCandidates)) {
             LOG.info("No corresponding metadata fulfilling search model EdiT.2 found in DB");
             return null;
         }
 
-        final List<MetadataIdsAndStatuses> resolvedCandidates = new ArrayList<MetadataIdsAndStatuses>();
+        final List<MetadataCandidatesAndStatuses> candidates = new ArrayList<MetadataCandidatesAndStatuses>();
         for (final SimpleMetadataWithStatuses smws : rso.getMetadataWithStatusesList()) {
-            resolvedCandidates.add(new MetadataIdsAndStatuses(metadataIds, smws.getStatuses()));
+            candidates.add(new MetadataCandidatesAndStatuses(metaCandidates, smws.getStatuses()));
         }
 
-        return new SearchModelLeosSingleGroup(rso, resolvedCandidates);
+        return new SearchModelLeosSingleGroup(rso, candidates);
     }
 
     private SearchModel getSearchModelIsc1And2(final ResolvedSearchOptions rso) {
@@ -227,37 +218,28 @@ public class SearchModelFactory {
         // example for "of the searched group if the user is member": DIGIT user runs search for DIGIT; DIGIT user runs search for AGRI and is member of AGRI
         // counterexample: DIGIT user runs search for EMPL, but is not member of EMPL
         
-        // find matching metadata - search for candidates associated to document and authority and being SENT
-        final List<Metadata> metaCandidatesSent = metadataService.findMetadataOfDocumentSystemidSent(rso.getDocument(), Authorities.ISC);
-
-        // retrieve the same, but being IN_PREPARATION
-        List<Metadata> metaCandidatesInPrep = new ArrayList<Metadata>();
-        if(rso.isUserIsMemberOfGroup()) {
-            metaCandidatesInPrep = metadataService.findMetadataOfDocumentGroupSystemidInPreparation(rso.getDocument(), rso.getGroup(), Authorities.ISC);
+        // candidate metadata - associated to document and authority and being SENT
+        Specifications<Metadata> metaCandidates = Specifications
+                .where(new MetadataCandidatesSearchSpec(rso.getDocument(), Authorities.ISC, null, ResponseStatus.SENT));
+
+        // the same, but being IN_PREPARATION
+        if (rso.isUserIsMemberOfGroup()) {
+            metaCandidates = metaCandidates.or(new MetadataCandidatesSearchSpec(rso.getDocument(), Authorities.ISC,
+                    Collections.singletonList(rso.getGroup().getId()), ResponseStatus.IN_PREPARATION));
         }
         
-        if (metaCandidatesSent.isEmpty() && metaCandidatesInPrep.isEmpty()) {
+        if (!metadataService.existsMetadata(metaCandidates)) {
             LOG.info("No corresponding metadata fulfilling search model ISC.1/ISC.2 found in DB (based on document/group/systemId");
             return null;
         }
-        
-        // there are candidates -> merge the lists
-        final List<Metadata> metaCandidates = Stream.of(metaCandidatesSent, metaCandidatesInPrep).flatMap(item -> item == null ? null : item.stream())
-                .collect(Collectors.toList());
 
-        final List<MetadataIdsAndStatuses> resolvedCandidates = new ArrayList<MetadataIdsAndStatuses>();
+        // the candidates must have at least the metadata received via the search options
+        final List<MetadataCandidatesAndStatuses> candidates = new ArrayList<MetadataCandidatesAndStatuses>();
         for (final SimpleMetadataWithStatuses smws : rso.getMetadataWithStatusesList()) {
-
-            // now check if these candidates have at least the metadata received via the search options
-            final List<Long> metadataIds = metadataMatchingService.getIdsOfMatchingMetadatas(metaCandidates, smws.getMetadata());
-            if (metadataIds == null) { // our function returns {@literal null} or a list with content, but no empty list
-                continue;
-            }
-            resolvedCandidates.add(new MetadataIdsAndStatuses(metadataIds, smws.getStatuses()));
+            candidates.add(new MetadataCandidatesAndStatuses(matching(metaCandidates, smws), smws.getStatuses()));
         }
 
-        // when this point is reached, all requested metadata matches - feed the search model
-        return new SearchModelIscSingleGroup(rso, resolvedCandidates);
+        return new SearchModelIscSingleGroup(rso, candidates);
     }
 
     // note: probably this search model is not being used any more in production; could maybe be removed in the future
@@ -267,25 +249,25 @@ public class SearchModelFactory {
         // -> retrieve all groups of the user...
         final List<Long> groupIds = groupService.getGroupIdsOfUser(rso.getExecutingUser()); // won't be empty as at least the default group is present
 
-        // ... find all associate metadata sets...
-        final List<Metadata> metaIsc = metadataService.findMetadataOfDocumentSystemidGroupIds(rso.getDocument(),
-                Authorities.ISC, groupIds);
-        if (metaIsc.isEmpty()) { // service returns empty list when nothing is found, but not {@literal null}
+        // ... consider all associate metadata sets...
+        final Specification<Metadata> metaIsc = new MetadataCandidatesSearchSpec(rso.getDocument(), Authorities.ISC, groupIds, null);
+        if (!metadataService.existsMetadata(metaIsc)) {
             LOG.info("No metadata to the document of any of the user's groups found");
             return null;
         }
 
-        final List<MetadataIdsAndStatuses> resolvedCandidates = new ArrayList<MetadataIdsAndStatuses>();
+        // ... that match the given criteria
+        final List<MetadataCandidatesAndStatuses> candidates = new ArrayList<MetadataCandidatesAndStatuses>();
         for (final SimpleMetadataWithStatuses smws : rso.getMetadataWithStatusesList()) {
-
-            // ... filter out those sets that match the given criteria...
-            final List<Long> metadataIds = metadataMatchingService.getIdsOfMatchingMetadatas(metaIsc, smws.getMetadata());
-            if (metadataIds == null) { // our function returns {@literal null} or a list with content, but no empty list
-                continue;
-            }
-            resolvedCandidates.add(new MetadataIdsAndStatuses(metadataIds, smws.getStatuses()));
+            candidates.add(new MetadataCandidatesAndStatuses(matching(metaIsc, smws), smws.getStatuses()));
         }
 
-        return new SearchModelIscAllGroups(rso, resolvedCandidates);
+        return new SearchModelIscAllGroups(rso, candidates);
+    }
+
+    // restricts candidate metadata sets to those having at least the metadata received via the search options
+    private static Specification<Metadata> matching(final Specification<Metadata> metaCandidates, final SimpleMetadataWithStatuses smws) {
+
+        return Specifications.where(metaCandidates).and(new MetadataMatchSearchSpec(smws.getMetadata()));
     }
 }
@@ -13,7 +13,7 @@
  */
 package eu.europa.ec.leos.annotate.model.search;
 
-import eu.europa.ec.leos.annotate.model.MetadataIdsAndStatuses;
+import eu.europa.ec.leos.annotate.model.MetadataCandidatesAndStatuses;
 
 import java.util.List;
 
@@ -28,8 +28,8 @@ public class SearchModelIscAllGroups extends SearchModel {
     // Constructors
     // -------------------------------------
 
-    public SearchModelIscAllGroups(final ResolvedSearchOptions rso, final List<MetadataIdsAndStatuses> metadataIds) {
-        super(rso, metadataIds, Consts.SearchModelMode.StandardSearch);
+    public SearchModelIscAllGroups(final ResolvedSearchOptions rso, final List<MetadataCandidatesAndStatuses> metadataCandidates) {
+        super(rso, metadataCandidates, Consts.SearchModelMode.StandardSearch);
     }
 
 }
@@ -13,7 +13,7 @@
  */
 package eu.europa.ec.leos.annotate.model.search;
 
-import eu.europa.ec.leos.annotate.model.MetadataIdsAndStatuses;
+import eu.europa.ec.leos.annotate.model.MetadataCandidatesAndStatuses;
 import eu.europa.ec.leos.annotate.model.entity.Annotation;
 import eu.europa.ec.leos.annotate.model.entity.Metadata;
 import org.slf4j.Logger;
@@ -38,8 +38,8 @@ public class SearchModelIscSingleGroup extends SearchModel {
     // Constructors
     // -------------------------------------
 
-    public SearchModelIscSingleGroup(final ResolvedSearchOptions rso, final List<MetadataIdsAndStatuses> metadataIds) {
-        super(rso, metadataIds, Consts.SearchModelMode.ConsiderUserMembership);
+    public SearchModelIscSingleGroup(final ResolvedSearchOptions rso, final List<MetadataCandidatesAndStatuses> metadataCandidates) {
+        super(rso, metadataCandidates, Consts.SearchModelMode.ConsiderUserMembership);
         this.hasPostFiltering = true;
         this.addDeletedHistoryItems = true;
     }
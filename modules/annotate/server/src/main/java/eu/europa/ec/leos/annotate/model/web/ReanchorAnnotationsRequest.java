@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.model.web;
+
+import eu.europa.ec.leos.annotate.Generated;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Class hosting the parameters given for a request to re-anchor the annotations of a document
+ * after a new version of the document was saved
+ */
+public class ReanchorAnnotationsRequest {
+
+    // -----------------------------------------------------------
+    // Fields
+    // -----------------------------------------------------------
+    private String uri;
+    private String content; // the new AKN content of the document
+    private Map<String, String> idMappings; // the IDs of elements whose ID changed (old ID -> new ID)
+
+    // -----------------------------------------------------------
+    // Constructors
+    // -----------------------------------------------------------
+
+    public ReanchorAnnotationsRequest() {
+        // default constructor required for JSON deserialisation
+    }
+
+    public ReanchorAnnotationsRequest(final String uri, final String content, final Map<String, String> idMappings) {
+
+        this.uri = uri;
+        this.content = content;
+        this.idMappings = idMappings;
+    }
+
+    // -----------------------------------------------------------
+    // Getters & setters
+    // -----------------------------------------------------------
+
+    @Generated
+    public String getUri() {
+        return uri;
+    }
+
+    @Generated
+    public void setUri(final String uri) {
+        this.uri = uri;
+    }
+
+    @Generated
+    public String getContent() {
+        return content;
+    }
+
+    @Generated
+    public void setContent(final String content) {
+        this.content = content;
+    }
+
+    @Generated
+    public Map<String, String> getIdMappings() {
+        return idMappings;
+    }
+
+    @Generated
+    public void setIdMappings(final Map<String, String> idMappings) {
+        this.idMappings = idMappings;
+    }
+
+    // -------------------------------------
+    // equals and hashCode
+    // -------------------------------------
+
+    @Generated
+    @Override
+    public int hashCode() {
+        return Objects.hash(uri, content, idMappings);
+    }
+
+    @Generated
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final ReanchorAnnotationsRequest other = (ReanchorAnnotationsRequest) obj;
+        return Objects.equals(this.uri, other.uri) &&
+                Objects.equals(this.content, other.content) &&
+                Objects.equals(this.idMappings, other.idMappings);
+    }
+}
@@ -14,6 +14,7 @@
 package eu.europa.ec.leos.annotate.model.web.annotation;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -71,6 +72,11 @@ public class JsonAnnotation {
     // annotation status
     private JsonAnnotationStatus status;
 
+    // flag set when the annotated text was not found any more in the latest document version (only transmitted when set);
+    // advisory only, as the server does not see the rendered content the clients anchor on
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean orphaned;
+
     // -----------------------------------------------------------
     // Constructors
     // -----------------------------------------------------------
@@ -96,6 +102,7 @@ public class JsonAnnotation {
             orig.references.forEach(refstring -> this.references.add(refstring));
         }
         this.status = orig.status;
+        this.orphaned = orig.orphaned;
         if(orig.tags != null) {
             this.tags = new ArrayList<String>();
             orig.tags.forEach(tag -> this.tags.add(tag));
@@ -267,6 +274,16 @@ public class JsonAnnotation {
         this.status = newStatus;
     }
 
+    @Generated
+    public Boolean getOrphaned() {
+        return orphaned;
+    }
+
+    @Generated
+    public void setOrphaned(final Boolean orphaned) {
+        this.orphaned = orphaned;
+    }
+
     // -------------------------------------
     // Helper functions
     // -------------------------------------
@@ -315,7 +332,7 @@ public class JsonAnnotation {
     public int hashCode() {
         return Objects.hash(id, linkedAnnotationId, created, document, text, group, tags,
                 uri, target, references, user, permissions, updated, user_info,
-                status);
+                status, orphaned);
     }
 
     @Generated
@@ -342,6 +359,7 @@ public class JsonAnnotation {
                 Objects.equals(this.target, other.target) &&
                 Objects.equals(this.permissions, other.permissions) &&
                 Objects.equals(this.user_info, other.user_info) &&
-                Objects.equals(this.status, other.status);
+                Objects.equals(this.status, other.status) &&
+                Objects.equals(this.orphaned, other.orphaned);
     }
 }
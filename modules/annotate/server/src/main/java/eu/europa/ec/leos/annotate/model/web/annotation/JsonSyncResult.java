@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.model.web.annotation;
+
+import eu.europa.ec.leos.annotate.Generated;
+
+import java.util.List;
+import java.util.Objects;
+
+public class JsonSyncResult {
+
+    /**
+     * Class representing the result of an incremental synchronisation of annotations, i.e. the changes after a given revision
+     */
+
+    // the revision to be handed over for the next synchronisation
+    private long revision;
+
+    // the annotation threads created or changed after the given revision, with all their replies
+    private JsonSearchResult changes;
+
+    // the IDs of the annotations changed after the given revision and not being visible any more, e.g. deleted ones
+    private List<String> removed;
+
+    // -------------------------------------
+    // Constructors
+    // -------------------------------------
+    public JsonSyncResult() {
+        // default constructor required for deserialisation
+    }
+
+    public JsonSyncResult(final long revision, final JsonSearchResult changes, final List<String> removed) {
+        this.revision = revision;
+        this.changes = changes;
+        this.removed = removed;
+    }
+
+    // -------------------------------------
+    // Getters & setters
+    // -------------------------------------
+
+    @Generated
+    public long getRevision() {
+        return revision;
+    }
+
+    @Generated
+    public void setRevision(final long revision) {
+        this.revision = revision;
+    }
+
+    @Generated
+    public JsonSearchResult getChanges() {
+        return changes;
+    }
+
+    @Generated
+    public void setChanges(final JsonSearchResult changes) {
+        this.changes = changes;
+    }
+
+    @Generated
+    public List<String> getRemoved() {
+        return removed;
+    }
+
+    @Generated
+    public void setRemoved(final List<String> removed) {
+        this.removed = removed;
+    }
+
+    // -------------------------------------
+    // equals and hashCode
+    // -------------------------------------
+
+    @Generated
+    @Override
+    public int hashCode() {
+        return Objects.hash(revision, changes, removed);
+    }
+
+    @Generated
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final JsonSyncResult other = (JsonSyncResult) obj;
+        return Objects.equals(this.revision, other.revision) &&
+                Objects.equals(this.changes, other.changes) &&
+                Objects.equals(this.removed, other.removed);
+    }
+}
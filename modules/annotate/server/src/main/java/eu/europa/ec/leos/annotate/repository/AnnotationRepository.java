@@ -15,25 +15,30 @@ package eu.europa.ec.leos.annotate.repository;
 
 import eu.europa.ec.leos.annotate.model.entity.Annotation;
 import eu.europa.ec.leos.annotate.model.entity.Annotation.AnnotationStatus;
+import eu.europa.ec.leos.annotate.model.entity.Metadata;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * the repository for all {@link Annotation} objects
  * 
- * note: we use a {@link PagingAndSortingRepository} here, which is an extension of {@link CrudRepository}
- *       in particular, it allows to apply sorting and paging easily by passing a {@link Pageable}
+ * note: we use a {@link JpaRepository} here, which is an extension of {@link PagingAndSortingRepository} and {@link CrudRepository}
+ *       in particular, it allows to apply sorting and paging easily by passing a {@link Pageable},
+ *       and to flush pending changes before running bulk updates
  */
 @Repository("annotationRepos")
-public interface AnnotationRepository extends PagingAndSortingRepository<Annotation, String>, AnnotationRepositoryCustom, JpaSpecificationExecutor<Annotation> {
+public interface AnnotationRepository extends JpaRepository<Annotation, String>, AnnotationRepositoryCustom, JpaSpecificationExecutor<Annotation> {
 
     /**
      * find an annotation with a given ID and having a specific status
@@ -47,6 +52,66 @@ public interface AnnotationRepository extends PagingAndSortingRepository<Annotat
      */
     Annotation findByIdAndStatus(String annotId, AnnotationStatus status);
 
+    /**
+     * find the annotations with given IDs and having one of given statuses
+     * 
+     * @param annotIds 
+     *        the annotations' IDs
+     * @param statuses 
+     *        the desired {@link AnnotationStatus}es of the annotations
+     * 
+     * @return found annotations
+     */
+    List<Annotation> findByIdIsInAndStatusIsIn(List<String> annotIds, List<AnnotationStatus> statuses);
+
+    /**
+     * update the status of the annotations with given IDs in a single statement
+     * 
+     * @param annotIds 
+     *        the annotations' IDs
+     * @param newStatus 
+     *        the {@link AnnotationStatus} to be applied
+     * @param statusUpdated 
+     *        the date of the status change
+     * @param statusUpdatedBy 
+     *        internal DB id of the user requesting the status change
+     * @param revision 
+     *        the revision to be stamped on the annotations
+     * 
+     * @return number of updated annotations
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Annotation a set a.status = :newStatus, a.statusUpdated = :statusUpdated, a.statusUpdatedBy = :statusUpdatedBy, "
+            + "a.revision = :revision where a.id in :annotIds")
+    int updateStatusById(@Param("annotIds") List<String> annotIds, @Param("newStatus") AnnotationStatus newStatus,
+            @Param("statusUpdated") LocalDateTime statusUpdated, @Param("statusUpdatedBy") Long statusUpdatedBy,
+            @Param("revision") long revision);
+
+    /**
+     * update the status of all replies of given thread roots having a specific status in a single statement
+     * 
+     * @param rootAnnotIds 
+     *        the IDs of the thread root annotations
+     * @param status 
+     *        the {@link AnnotationStatus} of the replies to be updated
+     * @param newStatus 
+     *        the {@link AnnotationStatus} to be applied
+     * @param statusUpdated 
+     *        the date of the status change
+     * @param statusUpdatedBy 
+     *        internal DB id of the user requesting the status change
+     * @param revision 
+     *        the revision to be stamped on the replies
+     * 
+     * @return number of updated replies
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Annotation a set a.status = :newStatus, a.statusUpdated = :statusUpdated, a.statusUpdatedBy = :statusUpdatedBy, "
+            + "a.revision = :revision where a.rootAnnotationId in :rootAnnotIds and a.status = :status")
+    int updateStatusByRootAnnotationIdAndStatus(@Param("rootAnnotIds") List<String> rootAnnotIds, @Param("status") AnnotationStatus status,
+            @Param("newStatus") AnnotationStatus newStatus, @Param("statusUpdated") LocalDateTime statusUpdated,
+            @Param("statusUpdatedBy") Long statusUpdatedBy, @Param("revision") long revision);
+
     /**
      * delete all annotations from the database
      * 
@@ -92,6 +157,46 @@ public interface AnnotationRepository extends PagingAndSortingRepository<Annotat
      * @return found {@link Annotation}s
      */
     List<Annotation> findByMetadataIdIsIn(List<Long> metadataIds);
+
+    /**
+     * find all annotations of a document having a certain status
+     * 
+     * @param documentId 
+     *        the ID of the document
+     * @param status 
+     *        the desired {@link AnnotationStatus} of the annotations
+     * 
+     * @return found annotations
+     */
+    @Query("select a from Annotation a where a.metadata.documentId = :documentId and a.status = :status")
+    List<Annotation> findByDocumentIdAndStatus(@Param("documentId") long documentId, @Param("status") AnnotationStatus status);
+
+    /**
+     * find the IDs of the annotations of given metadata sets changed after a given revision, 
+     * i.e. the annotations themselves or their metadata sets have a higher revision;
+     * only public annotations and those of the given user are considered
+     * 
+     * @param metadataIds 
+     *        the IDs of the metadata sets
+     * @param revision 
+     *        the revision after which the changes are wanted
+     * @param userId
+     *        the ID of the user whose private annotations are considered as well
+     * 
+     * @return found annotation IDs, whatever the status of the annotations
+     */
+    @Query("select a.id from Annotation a where a.metadataId in :metadataIds and (a.revision > :revision or a.metadata.revision > :revision) "
+            + "and (a.shared = true or a.userId = :userId)")
+    List<String> findIdsByMetadataIdIsInChangedAfterRevision(@Param("metadataIds") List<Long> metadataIds, @Param("revision") long revision,
+            @Param("userId") long userId);
+
+    /**
+     * retrieve a new revision from the sequence shared by annotations and metadata sets
+     * 
+     * @return new revision
+     */
+    @Query(value = "select REVISIONS_SEQ.nextval from dual", nativeQuery = true)
+    Number getNextRevision();
     
     /**
      * keep the following signatures commented out here to remind what is easily possible using Spring Data framework
@@ -124,4 +229,92 @@ public interface AnnotationRepository extends PagingAndSortingRepository<Annotat
      * @return
      */
     List<Annotation> findByMetadataIdIsInAndStatusIsInAndSentDeletedIsTrue(List<Long> metadataIds, List<AnnotationStatus> status);
+
+    /**
+     * search for the IDs of annotations having sentDeleted=true and certain metadata IDs and certain status IDs
+     * 
+     * @param metadataIds
+     *        the IDs of the desired metadata sets
+     * @param statuses
+     *        the statuses that the annotations should have
+     * @return found annotation IDs
+     */
+    @Query("select a.id from Annotation a where a.metadataId in :metadataIds and a.status in :statuses and a.sentDeleted = true")
+    List<String> findIdsByMetadataIdIsInAndStatusIsInAndSentDeletedIsTrue(@Param("metadataIds") List<Long> metadataIds,
+            @Param("statuses") List<AnnotationStatus> statuses);
+
+    /**
+     * find the IDs of all annotations having one of given metadata Ids and a certain status
+     * 
+     * @param metadataIds 
+     *        the IDs of the associated metadata
+     * @param status 
+     *        the desired {@link AnnotationStatus} of the annotations
+     * 
+     * @return found annotation IDs
+     */
+    @Query("select a.id from Annotation a where a.metadataId in :metadataIds and a.status = :status")
+    List<String> findIdsByMetadataIdIsInAndStatus(@Param("metadataIds") List<Long> metadataIds, @Param("status") AnnotationStatus status);
+
+    /**
+     * find the annotations linked to annotations having one of given metadata Ids, both having a certain status
+     * 
+     * @param metadataIds 
+     *        the IDs of the metadata associated to the linking annotations
+     * @param status 
+     *        the desired {@link AnnotationStatus} of the linking and linked annotations
+     * 
+     * @return IDs of the linked annotations
+     */
+    @Query("select linked.id from Annotation a, Annotation linked where linked.id = a.linkedAnnotationId "
+            + "and a.metadataId in :metadataIds and a.status = :status and linked.status = :status")
+    List<String> findLinkedIdsByMetadataIdIsInAndStatus(@Param("metadataIds") List<Long> metadataIds, @Param("status") AnnotationStatus status);
+
+    /**
+     * remove the links to other annotations from all annotations having one of given metadata Ids and a certain status
+     * 
+     * @param metadataIds 
+     *        the IDs of the associated metadata
+     * @param status 
+     *        the desired {@link AnnotationStatus} of the annotations
+     * @param revision 
+     *        the revision to be stamped on the annotations
+     * 
+     * @return number of updated annotations
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Annotation a set a.linkedAnnotationId = null, a.revision = :revision "
+            + "where a.metadataId in :metadataIds and a.status = :status and a.linkedAnnotationId is not null")
+    int removeLinksByMetadataIdIsInAndStatus(@Param("metadataIds") List<Long> metadataIds, @Param("status") AnnotationStatus status,
+            @Param("revision") long revision);
+
+    /**
+     * make the annotations with given IDs become shared in a single statement
+     * 
+     * @param annotIds 
+     *        the annotations' IDs
+     * @param revision 
+     *        the revision to be stamped on the annotations
+     * 
+     * @return number of updated annotations
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Annotation a set a.shared = true, a.revision = :revision where a.id in :annotIds")
+    int updateSharedById(@Param("annotIds") List<String> annotIds, @Param("revision") long revision);
+
+    /**
+     * assign the annotations with given IDs to a metadata set in a single statement
+     * 
+     * @param annotIds 
+     *        the annotations' IDs
+     * @param metadata 
+     *        the {@link Metadata} to be assigned
+     * @param revision 
+     *        the revision to be stamped on the annotations
+     * 
+     * @return number of updated annotations
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Annotation a set a.metadata = :metadata, a.revision = :revision where a.id in :annotIds")
+    int updateMetadataById(@Param("annotIds") List<String> annotIds, @Param("metadata") Metadata metadata, @Param("revision") long revision);
 }
@@ -30,6 +30,9 @@ public interface MetadataRepository extends CrudRepository<Metadata, Long>, JpaS
     // finding metadata sets assigned to a document, a group and having a given system id
     List<Metadata> findByDocumentAndGroupAndSystemId(Document document, Group group, String systemId);
 
+    // counting metadata sets assigned to a document, a group and having a given system id
+    long countByDocumentAndGroupAndSystemId(Document document, Group group, String systemId);
+
     // finding metadata sets assigned to a document and a group, having a given system id and response status
     List<Metadata> findByDocumentAndGroupAndSystemIdAndResponseStatus(Document document, Group group, String systemId, ResponseStatus responseStatus);
 
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.repository;
+
+import eu.europa.ec.leos.annotate.model.entity.TagName;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * the repository for all {@link TagName} objects forming the dictionary of tag names
+ */
+public interface TagNameRepository extends CrudRepository<TagName, Long> {
+
+    /**
+     * search for the dictionary entries of several tag names at once
+     * 
+     * @param names the tag names to be looked up
+     * @return list of found {@link TagName}s; names not yet contained in the dictionary are missing
+     */
+    List<TagName> findByNameIn(Collection<String> names);
+}
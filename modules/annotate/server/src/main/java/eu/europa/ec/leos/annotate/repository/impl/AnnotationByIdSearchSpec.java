@@ -62,7 +62,7 @@ public class AnnotationByIdSearchSpec implements Specification<Annotation> {
         final List<Predicate> predicates = new ArrayList<>();
 
         // the id must be one of our given values
-        predicates.add(root.get("id").in(this.annotationIds));
+        predicates.add(SearchPredicates.isIn(critBuilder, root.<String>get("id"), this.annotationIds));
 
         // note: predicate stating whether the executing user has the permission to see an annotation is not evaluated here
         return critBuilder.and(predicates.toArray(new Predicate[0]));
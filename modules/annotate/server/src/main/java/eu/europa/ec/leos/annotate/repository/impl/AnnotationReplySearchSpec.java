@@ -69,7 +69,7 @@ public class AnnotationReplySearchSpec implements Specification<Annotation> {
         final List<Predicate> predicates = new ArrayList<>();
 
         // the rootAnnotationId must be one of our given values - this denotes that an annotation is a reply to any of our given annotations
-        predicates.add(root.get("rootAnnotationId").in(this.annotationIds));
+        predicates.add(SearchPredicates.isIn(critBuilder, root.<String>get("rootAnnotationId"), this.annotationIds));
 
         // note: we no longer filter on the statuses here; this will be done in a postprocessing step due to new interrelation with metadata
 
@@ -86,7 +86,7 @@ public class AnnotationReplySearchSpec implements Specification<Annotation> {
                 // b) user must be member of the group in which the annotation was published
                 // aka: groupService.isUserMemberOfGroup(user, annot.getGroup())
                 critBuilder.and(critBuilder.isTrue(root.get("shared")),
-                        root.get("userId").in(this.userIdsOfThisGroup)));
+                        SearchPredicates.isIn(critBuilder, root.<Long>get("userId"), this.userIdsOfThisGroup)));
         predicates.add(hasPermissionToSee);
 
         return critBuilder.and(predicates.toArray(new Predicate[0]));
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.repository.impl;
+
+import eu.europa.ec.leos.annotate.model.entity.Annotation;
+import eu.europa.ec.leos.annotate.model.entity.Metadata;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+/**
+ * Search specification class for annotation threads changed after a given revision (incremental synchronisation):
+ * the annotation itself, its metadata set or one of its replies must have a higher revision
+ */
+public class AnnotationRevisionSearchSpec implements Specification<Annotation> {
+
+    private static final String REVISION_PROP = "revision";
+
+    // -------------------------------------
+    // Private variables
+    // -------------------------------------
+
+    private final long sinceRevision;
+
+    // -------------------------------------
+    // Constructor
+    // -------------------------------------
+
+    /**
+     * receives the following parameters:
+     * 
+     * @param sinceRevision
+     *        the revision after which the annotations must have been changed
+     */
+    public AnnotationRevisionSearchSpec(final long sinceRevision) {
+
+        this.sinceRevision = sinceRevision;
+    }
+
+    // -------------------------------------
+    // Search predicate
+    // -------------------------------------
+    @Override
+    public Predicate toPredicate(final Root<Annotation> root, final CriteriaQuery<?> query, final CriteriaBuilder critBuilder) {
+
+        // a thread is reported as a whole, so a changed reply makes its root annotation being found
+        final Subquery<String> changedReplies = query.subquery(String.class);
+        final Root<Annotation> reply = changedReplies.from(Annotation.class);
+        changedReplies.select(reply.<String>get("id")).where(
+                critBuilder.equal(reply.<String>get("rootAnnotationId"), root.<String>get("id")),
+                critBuilder.greaterThan(reply.<Long>get(REVISION_PROP), this.sinceRevision));
+
+        return critBuilder.or(
+                critBuilder.greaterThan(root.<Long>get(REVISION_PROP), this.sinceRevision),
+                critBuilder.greaterThan(root.<Metadata>get("metadata").<Long>get(REVISION_PROP), this.sinceRevision),
+                critBuilder.exists(changedReplies));
+    }
+}
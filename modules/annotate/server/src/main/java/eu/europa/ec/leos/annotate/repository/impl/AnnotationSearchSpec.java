@@ -13,8 +13,9 @@
  */
 package eu.europa.ec.leos.annotate.repository.impl;
 
-import eu.europa.ec.leos.annotate.model.MetadataIdsAndStatuses;
+import eu.europa.ec.leos.annotate.model.MetadataCandidatesAndStatuses;
 import eu.europa.ec.leos.annotate.model.entity.Annotation;
+import eu.europa.ec.leos.annotate.model.entity.Annotation.AnnotationStatus;
 import eu.europa.ec.leos.annotate.model.entity.Group;
 import eu.europa.ec.leos.annotate.model.entity.Metadata;
 import eu.europa.ec.leos.annotate.model.search.Consts.SearchModelMode;
@@ -31,12 +32,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Search specification class for all search models: search depending on user ID(s), metadata IDs, and annotation statuses
+ * Search specification class for all search models: search depending on user ID(s), candidate metadata sets, and annotation statuses
  */
 public class AnnotationSearchSpec implements Specification<Annotation> {
 
     private static final Logger LOG = LoggerFactory.getLogger(AnnotationSearchSpec.class);
     private static final String METADATA_PROP = "metadata";
+    private static final String GROUP_ID_PROP = "groupId";
     
     // -------------------------------------
     // Private variables
@@ -44,8 +46,9 @@ public class AnnotationSearchSpec implements Specification<Annotation> {
 
     private final long executingUserId;
     private final Long optionalUserIdToFilter;
-    private final List<MetadataIdsAndStatuses> metadataIdsAndStatuses;
+    private final List<MetadataCandidatesAndStatuses> metadataCandidatesAndStatuses;
     private final String groupName;
+    private final Long groupId;
     private final SearchModelMode searchMode;
     
     // -------------------------------------
@@ -60,20 +63,21 @@ public class AnnotationSearchSpec implements Specification<Annotation> {
      * @param optionalUserIdToFilter
      *        optional user ID if only annotations of a specific user are wanted
      * @param metadataAndStatus
-     *        list of IDs of associate metadata sets of the annotations (implicitly replaces groupId and documentId), combined with statuses wanted
+     *        specifications of the candidate metadata sets of the annotations (implicitly replace groupId and documentId), combined with statuses wanted
      * @param group
      *        the group for which search is run
      * @param searchModeToUse
      *        the {@link SearchMode}; indicates if specific items have to be filtered out (used in ISC context)
      */
     public AnnotationSearchSpec(final long executingUserId, final Long optionalUserIdToFilter,
-            final List<MetadataIdsAndStatuses> metadataAndStatus,
+            final List<MetadataCandidatesAndStatuses> metadataAndStatus,
             final Group group, final SearchModelMode searchModeToUse) {
 
         this.executingUserId = executingUserId;
         this.optionalUserIdToFilter = optionalUserIdToFilter;
-        this.metadataIdsAndStatuses = metadataAndStatus;
+        this.metadataCandidatesAndStatuses = metadataAndStatus;
         this.groupName = group.getName();
+        this.groupId = group.getId();
         this.searchMode = searchModeToUse;
     }
 
@@ -96,28 +100,19 @@ public class AnnotationSearchSpec implements Specification<Annotation> {
         }
 
         // filter for metadata and status
-        // we have a list of metadata x status pairs; they should all be OR-combined,
+        // we have a list of metadata candidates x status pairs; they should all be OR-combined,
         // i.e. (meta1 AND status1) OR (meta2 AND status2) OR ... (metaN AND statusN)
         final List<Predicate> metadataStatusPreds = new ArrayList<Predicate>();
-        for (final MetadataIdsAndStatuses mias : this.metadataIdsAndStatuses) {
+        for (final MetadataCandidatesAndStatuses mias : this.metadataCandidatesAndStatuses) {
 
-            Predicate metaPred;
-            LOG.trace("filter metadataIds={}", mias.getMetadataIds().toString());
-            if (mias.getMetadataIds().size() > 1) {
-                metaPred = root.<Long>get("metadataId").in(mias.getMetadataIds());
-            } else {
-                // small fine-tuning of the internal generated query if there is only one element; becomes slightly more efficient this way
-                metaPred = critBuilder.equal(root.<Long>get("metadataId"), mias.getMetadataIds().get(0));
-            }
+            // note: the metadata sets are matched by a subquery instead of retrieving their IDs before;
+            //       this avoids IN lists getting larger than the 1000 items Oracle accepts
+            final Predicate metaPred = SearchPredicates.isInMetadataSets(critBuilder, query, root.<Long>get("metadataId"),
+                    mias.getMetadataCandidates());
 
             // the annotations must have a particular status (or one of a given list of possible statuses)
             LOG.trace("filter status={}", mias.getStatuses().toString());
-            Predicate statusPred;
-            if (mias.getStatuses().size() > 1) {
-                statusPred = root.<Integer>get("status").in(mias.getStatuses());
-            } else {
-                statusPred = critBuilder.equal(root.<Integer>get("status"), mias.getStatuses().get(0));
-            }
+            final Predicate statusPred = SearchPredicates.isIn(critBuilder, root.<AnnotationStatus>get("status"), mias.getStatuses());
 
             metadataStatusPreds.add(critBuilder.and(metaPred, statusPred));
         }
@@ -152,13 +147,14 @@ public class AnnotationSearchSpec implements Specification<Annotation> {
             // -> orPredOtherRespStatus: allow other response status
             // note: since ANOT-101, we do not filter for "linkedAnnotationId"=null any more (edited after being SENT)
             
+            // note: the group is compared by the ID stored in the metadata, so that no join to the groups is required
             LOG.trace("filter out sentDeleted and linked items for the user's group ({})", groupName);
-            final Predicate orPredOtherGroup = critBuilder.notEqual(root.<Metadata>get(METADATA_PROP).<Group>get("group").<String>get("name"), groupName);
+            final Predicate orPredOtherGroup = critBuilder.notEqual(root.<Metadata>get(METADATA_PROP).<Long>get(GROUP_ID_PROP), groupId);
             final Predicate orPredOtherRespStatus = critBuilder.notEqual(root.<Metadata>get(METADATA_PROP).<Integer>get("responseStatus"), 2);
             
             final Predicate orPredDontSeeOwnSentItems = critBuilder.and(critBuilder.equal(root.get(METADATA_PROP).get("responseStatus"), 2),
                     critBuilder.isFalse(root.<Boolean>get("sentDeleted")), // deleted after SENT
-                    critBuilder.equal(root.<Metadata>get(METADATA_PROP).<Group>get("group").<String>get("name"), groupName)); // only hide them from the user's own group
+                    critBuilder.equal(root.<Metadata>get(METADATA_PROP).<Long>get(GROUP_ID_PROP), groupId)); // only hide them from the user's own group
             predicates.add(critBuilder.or(orPredOtherGroup, orPredDontSeeOwnSentItems, orPredOtherRespStatus));
         }
         return andTogether(predicates, critBuilder);
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.repository.impl;
+
+import eu.europa.ec.leos.annotate.model.entity.Annotation;
+import eu.europa.ec.leos.annotate.model.entity.Annotation.AnnotationType;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import java.util.List;
+
+/**
+ * Search specification class for annotations of given types; uses the precomputed type of the annotations,
+ * i.e. the tags need not be joined
+ */
+public class AnnotationTypeSearchSpec implements Specification<Annotation> {
+
+    // -------------------------------------
+    // Private variables
+    // -------------------------------------
+
+    private final List<AnnotationType> types;
+
+    // -------------------------------------
+    // Constructor
+    // -------------------------------------
+
+    /**
+     * receives the following parameters:
+     * 
+     * @param types
+     *        the types of annotations to be found
+     */
+    public AnnotationTypeSearchSpec(final List<AnnotationType> types) {
+
+        this.types = types;
+    }
+
+    // -------------------------------------
+    // Search predicate
+    // -------------------------------------
+    @Override
+    public Predicate toPredicate(final Root<Annotation> root, final CriteriaQuery<?> query, final CriteriaBuilder critBuilder) {
+
+        return root.<AnnotationType>get("type").in(this.types);
+    }
+}
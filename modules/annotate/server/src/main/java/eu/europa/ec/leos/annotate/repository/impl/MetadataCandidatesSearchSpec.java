@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.repository.impl;
+
+import eu.europa.ec.leos.annotate.model.entity.Document;
+import eu.europa.ec.leos.annotate.model.entity.Metadata;
+import eu.europa.ec.leos.annotate.model.entity.Metadata.ResponseStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * search specification for the candidate {@link Metadata} sets of a search model:
+ * metadata sets of a document and system, optionally restricted to some groups and to a response status
+ */
+public class MetadataCandidatesSearchSpec implements Specification<Metadata> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetadataCandidatesSearchSpec.class);
+
+    // -------------------------------------
+    // Private variables
+    // -------------------------------------
+
+    private final Document document;
+    private final String systemId;
+    private final List<Long> groupIds;
+    private final ResponseStatus responseStatus;
+
+    // -------------------------------------
+    // Constructor
+    // -------------------------------------
+
+    /**
+     * receives the following parameters:
+     *
+     * @param document
+     *        the document to which the metadata sets belong
+     * @param systemId
+     *        the system ID of the metadata sets
+     * @param groupIds
+     *        IDs of the groups to which the metadata sets may belong; {@literal null} for any group
+     * @param responseStatus
+     *        the response status the metadata sets must have; {@literal null} for any response status
+     */
+    public MetadataCandidatesSearchSpec(final Document document, final String systemId,
+            final List<Long> groupIds, final ResponseStatus responseStatus) {
+
+        this.document = document;
+        this.systemId = systemId;
+        this.groupIds = groupIds;
+        this.responseStatus = responseStatus;
+    }
+
+    // -------------------------------------
+    // Search predicate
+    // -------------------------------------
+    @Override
+    @SuppressWarnings("PMD.OptimizableToArrayCall")
+    public Predicate toPredicate(final Root<Metadata> root, final CriteriaQuery<?> query, final CriteriaBuilder critBuilder) {
+
+        final List<Predicate> predicates = new ArrayList<>();
+
+        predicates.add(critBuilder.equal(root.get("document"), this.document));
+        predicates.add(critBuilder.equal(root.get("systemId"), this.systemId));
+
+        if (this.groupIds != null) {
+            LOG.trace("filter groupIds={}", this.groupIds);
+            predicates.add(SearchPredicates.isIn(critBuilder, root.<Long>get("groupId"), this.groupIds));
+        }
+        if (this.responseStatus != null) {
+            LOG.trace("filter responseStatus={}", this.responseStatus);
+            predicates.add(critBuilder.equal(root.get("responseStatus"), this.responseStatus));
+        }
+
+        return critBuilder.and(predicates.toArray(new Predicate[0]));
+    }
+}
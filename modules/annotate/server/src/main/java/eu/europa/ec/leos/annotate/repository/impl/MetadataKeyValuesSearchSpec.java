@@ -0,0 +1,195 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.repository.impl;
+
+import eu.europa.ec.leos.annotate.model.SimpleMetadata;
+import eu.europa.ec.leos.annotate.model.entity.Document;
+import eu.europa.ec.leos.annotate.model.entity.Group;
+import eu.europa.ec.leos.annotate.model.entity.Metadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.MapJoin;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * search specification matching {@link Metadata} sets by their key-value pairs,
+ * using the normalized METADATA_KEYVALUES table
+ */
+public class MetadataKeyValuesSearchSpec implements Specification<Metadata> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetadataKeyValuesSearchSpec.class);
+
+    private static final String KEYVALUE_ITEMS = "keyValueItems";
+
+    // -------------------------------------
+    // Private variables
+    // -------------------------------------
+
+    private final Document document;
+    private final Group group;
+    private final String systemId;
+    private final List<Long> metadataIds;
+    private final SimpleMetadata keyValues;
+    private final boolean exactMatch;
+    private final String ignoredKey;
+
+    // -------------------------------------
+    // Constructors
+    // -------------------------------------
+
+    /**
+     * search for metadata sets of a document, group and system having exactly the given key-value pairs
+     *
+     * @param document
+     *        the document to which the metadata sets belong
+     * @param group
+     *        the group to which the metadata sets belong
+     * @param systemId
+     *        the system ID of the metadata sets
+     * @param keyValues
+     *        the key-value pairs that must be present; no other key-value pair may be present
+     * @param ignoredKey
+     *        optional key not to be taken into account for the comparison, may be {@literal null}
+     */
+    public MetadataKeyValuesSearchSpec(final Document document, final Group group, final String systemId,
+            final SimpleMetadata keyValues, final String ignoredKey) {
+
+        this.document = document;
+        this.group = group;
+        this.systemId = systemId;
+        this.metadataIds = null;
+        this.keyValues = keyValues == null ? new SimpleMetadata() : keyValues;
+        this.exactMatch = true;
+        this.ignoredKey = ignoredKey;
+    }
+
+    /**
+     * search for metadata sets containing (at least) the given key-value pairs
+     *
+     * @param keyValues
+     *        the key-value pairs that must be present; other key-value pairs may be present
+     */
+    public MetadataKeyValuesSearchSpec(final SimpleMetadata keyValues) {
+
+        this(null, keyValues);
+    }
+
+    /**
+     * search for metadata sets among given candidates containing (at least) the given key-value pairs
+     *
+     * @param metadataIds
+     *        list of IDs of the candidate metadata sets; {@literal null} for any metadata set
+     * @param keyValues
+     *        the key-value pairs that must be present; other key-value pairs may be present
+     */
+    public MetadataKeyValuesSearchSpec(final List<Long> metadataIds, final SimpleMetadata keyValues) {
+
+        this.document = null;
+        this.group = null;
+        this.systemId = null;
+        this.metadataIds = metadataIds;
+        this.keyValues = keyValues == null ? new SimpleMetadata() : keyValues;
+        this.exactMatch = false;
+        this.ignoredKey = null;
+    }
+
+    // -------------------------------------
+    // Search predicate
+    // -------------------------------------
+    @Override
+    @SuppressWarnings("PMD.OptimizableToArrayCall")
+    public Predicate toPredicate(final Root<Metadata> root, final CriteriaQuery<?> query, final CriteriaBuilder critBuilder) {
+
+        final List<Predicate> predicates = new ArrayList<>();
+
+        if (this.document != null) {
+            predicates.add(critBuilder.equal(root.get("document"), this.document));
+        }
+        if (this.group != null) {
+            predicates.add(critBuilder.equal(root.get("group"), this.group));
+        }
+        if (!StringUtils.isEmpty(this.systemId)) {
+            predicates.add(critBuilder.equal(root.get("systemId"), this.systemId));
+        }
+        if (this.metadataIds != null) {
+            LOG.trace("filter metadataIds={}", this.metadataIds);
+            predicates.add(SearchPredicates.isIn(critBuilder, root.<Long>get("id"), this.metadataIds));
+        }
+
+        // all requested pairs must be found...
+        if (!this.keyValues.isEmpty()) {
+            LOG.trace("filter keyValues={}", this.keyValues);
+            predicates.add(critBuilder.equal(countMatchingPairs(root, query, critBuilder), (long) this.keyValues.size()));
+        }
+
+        // ... and for an exact match, there must not be any other pair
+        if (this.exactMatch) {
+            predicates.add(critBuilder.equal(countAllPairs(root, query, critBuilder), (long) this.keyValues.size()));
+        }
+
+        return critBuilder.and(predicates.toArray(new Predicate[0]));
+    }
+
+    // correlated subquery counting how many of the requested key-value pairs are stored for the metadata set
+    private Subquery<Long> countMatchingPairs(final Root<Metadata> root, final CriteriaQuery<?> query, final CriteriaBuilder critBuilder) {
+
+        final Subquery<Long> subquery = query.subquery(Long.class);
+        final MapJoin<Metadata, String, String> items = subquery.correlate(root).joinMap(KEYVALUE_ITEMS);
+
+        final List<Predicate> pairPredicates = new ArrayList<>();
+        for (final Map.Entry<String, String> pair : this.keyValues.entrySet()) {
+            pairPredicates.add(critBuilder.and(critBuilder.equal(items.key(), pair.getKey()),
+                    valueMatches(items, critBuilder, pair.getValue())));
+        }
+
+        return subquery.select(critBuilder.count(critBuilder.literal(1)))
+                .where(critBuilder.or(pairPredicates.toArray(new Predicate[0])));
+    }
+
+    // compares a stored value with the requested one in the form it is stored (see Metadata#getIndexedValue)
+    // note: an empty value is stored as NULL on Oracle, so it has to be matched explicitly
+    //       (and the rows are counted instead of the values)
+    private static Predicate valueMatches(final MapJoin<Metadata, String, String> items, final CriteriaBuilder critBuilder,
+            final String value) {
+
+        if (StringUtils.isEmpty(value)) {
+            return critBuilder.or(critBuilder.isNull(items.value()), critBuilder.equal(items.value(), ""));
+        }
+        return critBuilder.equal(items.value(), Metadata.getIndexedValue(value));
+    }
+
+    // correlated subquery counting all key-value pairs stored for the metadata set (except the ignored one)
+    private Subquery<Long> countAllPairs(final Root<Metadata> root, final CriteriaQuery<?> query, final CriteriaBuilder critBuilder) {
+
+        final Subquery<Long> subquery = query.subquery(Long.class);
+        final MapJoin<Metadata, String, String> items = subquery.correlate(root).joinMap(KEYVALUE_ITEMS);
+        subquery.select(critBuilder.count(critBuilder.literal(1)));
+
+        if (!StringUtils.isEmpty(this.ignoredKey)) {
+            subquery.where(critBuilder.notEqual(items.key(), this.ignoredKey));
+        }
+        return subquery;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.repository.impl;
+
+import eu.europa.ec.leos.annotate.model.SimpleMetadata;
+import eu.europa.ec.leos.annotate.model.entity.Metadata;
+import eu.europa.ec.leos.annotate.model.entity.Metadata.ResponseStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * search specification matching {@link Metadata} sets containing (at least) the metadata requested by a search;
+ * database counterpart of the matching done by {@link eu.europa.ec.leos.annotate.services.MetadataMatchingService#getIdsOfMatchingMetadatas}
+ */
+public class MetadataMatchSearchSpec implements Specification<Metadata> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetadataMatchSearchSpec.class);
+
+    private static final String SYSTEM_ID = "systemId";
+    private static final String VERSION = "version";
+
+    // -------------------------------------
+    // Private variables
+    // -------------------------------------
+
+    private final SimpleMetadata requested;
+
+    // -------------------------------------
+    // Constructor
+    // -------------------------------------
+
+    /**
+     * receives the following parameters:
+     *
+     * @param requested
+     *        the requested metadata; the version may contain a "<=" prefix to match several versions at once;
+     *        {@literal null} or empty metadata match all metadata sets
+     */
+    public MetadataMatchSearchSpec(final SimpleMetadata requested) {
+
+        this.requested = requested == null ? new SimpleMetadata() : requested;
+    }
+
+    // -------------------------------------
+    // Search predicate
+    // -------------------------------------
+    @Override
+    @SuppressWarnings("PMD.OptimizableToArrayCall")
+    public Predicate toPredicate(final Root<Metadata> root, final CriteriaQuery<?> query, final CriteriaBuilder critBuilder) {
+
+        final List<Predicate> predicates = new ArrayList<>();
+
+        // the properties having their own columns are compared directly...
+        if (this.requested.containsKey(SYSTEM_ID)) {
+            LOG.trace("filter systemId={}", this.requested.get(SYSTEM_ID));
+            predicates.add(critBuilder.equal(root.get(SYSTEM_ID), this.requested.get(SYSTEM_ID)));
+        }
+        if (this.requested.containsKey(Metadata.PROP_RESPONSE_STATUS)) {
+            LOG.trace("filter responseStatus={}", this.requested.get(Metadata.PROP_RESPONSE_STATUS));
+            predicates.add(responseStatusMatches(root, critBuilder, this.requested.get(Metadata.PROP_RESPONSE_STATUS)));
+        }
+
+        final String version = this.requested.get(VERSION);
+        if (!StringUtils.isEmpty(version)) {
+            if (version.startsWith(MetadataVersionUpToSearchSpec.VERSION_SEARCH_UP_TO)) {
+                final String maxVersion = version.substring(MetadataVersionUpToSearchSpec.VERSION_SEARCH_UP_TO.length());
+                predicates.add(new MetadataVersionUpToSearchSpec(maxVersion, Collections.emptyList()).toPredicate(root, query, critBuilder));
+            } else {
+                LOG.trace("filter version={}", version);
+                predicates.add(critBuilder.equal(root.get(VERSION), version));
+            }
+        }
+
+        // ... all others are looked up in the key-value pairs
+        final Metadata metaHelp = new Metadata();
+        metaHelp.setKeyValuePropertyFromSimpleMetadata(this.requested);
+        final SimpleMetadata requestedKeyValues = metaHelp.getKeyValuePropertyAsSimpleMetadata();
+        if (!requestedKeyValues.isEmpty()) {
+            predicates.add(new MetadataKeyValuesSearchSpec(requestedKeyValues).toPredicate(root, query, critBuilder));
+        }
+
+        return critBuilder.and(predicates.toArray(new Predicate[0]));
+    }
+
+    // an unknown response status is not matched by any metadata set
+    private static Predicate responseStatusMatches(final Root<Metadata> root, final CriteriaBuilder critBuilder, final String responseStatus) {
+
+        if (StringUtils.isEmpty(responseStatus)) {
+            return critBuilder.disjunction();
+        }
+        try {
+            return critBuilder.equal(root.get(Metadata.PROP_RESPONSE_STATUS), ResponseStatus.valueOf(responseStatus));
+        } catch (IllegalArgumentException e) {
+            LOG.debug("Unknown response status '{}' requested", responseStatus);
+            return critBuilder.disjunction();
+        }
+    }
+}
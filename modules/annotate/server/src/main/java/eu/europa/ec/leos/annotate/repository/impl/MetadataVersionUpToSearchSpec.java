@@ -31,6 +31,9 @@ public class MetadataVersionUpToSearchSpec implements Specification<Metadata> {
 
     private static final Logger LOG = LoggerFactory.getLogger(MetadataVersionUpToSearchSpec.class);
 
+    // prefix of a requested version denoting that all versions up to the given one are wanted
+    public static final String VERSION_SEARCH_UP_TO = "<=";
+
     // -------------------------------------
     // Private variables
     // -------------------------------------
@@ -61,7 +64,7 @@ public class MetadataVersionUpToSearchSpec implements Specification<Metadata> {
     // Search predicate
     // -------------------------------------
     @Override
-    @SuppressWarnings({"PMD.AvoidLiteralsInIfCondition", "PMD.OptimizableToArrayCall", "PMD.EmptyIfStmt"})
+    @SuppressWarnings("PMD.OptimizableToArrayCall")
     public Predicate toPredicate(final Root<Metadata> root, final CriteriaQuery<?> query, final CriteriaBuilder critBuilder) {
 
         final List<Predicate> predicates = new ArrayList<>();
@@ -73,20 +76,10 @@ public class MetadataVersionUpToSearchSpec implements Specification<Metadata> {
         }
 
         // filter for metadata IDs
-        Predicate metaPred = null;
         LOG.trace("filter metadataIds={}", this.metadataIds.toString());
         
-        if (this.metadataIds.size() == 0) {
-            // don't include the predicate
-        } else if (this.metadataIds.size() > 1) {
-            metaPred = root.get("id").in(this.metadataIds);
-        } else {
-            // small fine-tuning of the internal generated query if there is only one element; becomes slightly more efficient this way
-            metaPred = critBuilder.equal(root.get("id"), this.metadataIds.get(0));
-        }
-        
-        if(metaPred != null) {
-            predicates.add(metaPred);
+        if (!this.metadataIds.isEmpty()) { // an empty list does not restrict the search
+            predicates.add(SearchPredicates.isIn(critBuilder, root.<Long>get("id"), this.metadataIds));
         }
 
         return andTogether(predicates, critBuilder);
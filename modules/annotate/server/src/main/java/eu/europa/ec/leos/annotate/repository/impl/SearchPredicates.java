@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.repository.impl;
+
+import eu.europa.ec.leos.annotate.model.entity.Metadata;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * helper for building the predicates shared by the search specifications
+ */
+public final class SearchPredicates {
+
+    // Oracle does not accept more than 1000 expressions in an IN list
+    public static final int MAX_IN_LIST_SIZE = 1000;
+
+    private SearchPredicates() {
+        // utility class
+    }
+
+    /**
+     * build a predicate stating that an expression has one of the given values
+     * 
+     * @param critBuilder
+     *        {@link CriteriaBuilder} creating the predicate
+     * @param expression
+     *        the expression to be checked, e.g. a property of the searched entity
+     * @param values
+     *        the accepted values
+     * @return an equality check for a single value, an IN list for up to {@link #MAX_IN_LIST_SIZE} values,
+     *         and several OR-combined IN lists for more values; no value is never matched
+     */
+    @SuppressWarnings("PMD.OptimizableToArrayCall")
+    public static <T> Predicate isIn(final CriteriaBuilder critBuilder, final Expression<T> expression, final List<T> values) {
+
+        if (values == null || values.isEmpty()) {
+            return critBuilder.disjunction();
+        }
+        if (values.size() == 1) {
+            // small fine-tuning of the internal generated query if there is only one element; becomes slightly more efficient this way
+            return critBuilder.equal(expression, values.get(0));
+        }
+        if (values.size() <= MAX_IN_LIST_SIZE) {
+            return expression.in(values);
+        }
+
+        final List<Predicate> inLists = new ArrayList<Predicate>();
+        for (int start = 0; start < values.size(); start += MAX_IN_LIST_SIZE) {
+            inLists.add(expression.in(values.subList(start, Math.min(start + MAX_IN_LIST_SIZE, values.size()))));
+        }
+        return critBuilder.or(inLists.toArray(new Predicate[0]));
+    }
+
+    /**
+     * build a predicate stating that a metadata ID belongs to one of the {@link Metadata} sets matching a specification;
+     * the metadata sets are matched by a subquery, so that they don't need to be retrieved before running the search
+     * 
+     * @param critBuilder
+     *        {@link CriteriaBuilder} creating the predicate
+     * @param query
+     *        the query in which the predicate is used
+     * @param metadataId
+     *        the metadata ID to be checked, e.g. the metadata ID of the searched annotations
+     * @param metadataSpec
+     *        the specification the metadata sets have to match
+     * @return an IN predicate on a subquery retrieving the IDs of the matching metadata sets
+     */
+    public static Predicate isInMetadataSets(final CriteriaBuilder critBuilder, final CriteriaQuery<?> query,
+            final Expression<Long> metadataId, final Specification<Metadata> metadataSpec) {
+
+        final Subquery<Long> matchingMetadata = query.subquery(Long.class);
+        final Root<Metadata> metadata = matchingMetadata.from(Metadata.class);
+        matchingMetadata.select(metadata.<Long>get("id"));
+
+        final Predicate matches = metadataSpec.toPredicate(metadata, query, critBuilder);
+        if (matches != null) {
+            matchingMetadata.where(matches);
+        }
+        return metadataId.in(matchingMetadata);
+    }
+}
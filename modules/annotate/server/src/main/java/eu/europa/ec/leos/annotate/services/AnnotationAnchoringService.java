@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.services;
+
+import eu.europa.ec.leos.annotate.model.ReanchorAnnotationsResult;
+import eu.europa.ec.leos.annotate.model.UserInformation;
+import eu.europa.ec.leos.annotate.model.web.ReanchorAnnotationsRequest;
+import eu.europa.ec.leos.annotate.services.exceptions.CannotReanchorAnnotationsException;
+import eu.europa.ec.leos.annotate.services.exceptions.MissingPermissionException;
+
+import javax.annotation.Nonnull;
+
+/**
+ * service responsible for anchoring annotations on the content of their document on server side,
+ * so that the annotations follow the changed element IDs and the annotations whose text was removed are known after the document was modified
+ */
+public interface AnnotationAnchoringService {
+
+    /**
+     * re-anchor the annotations of a document on a new version of its content:
+     * the selectors of the annotations are updated to the new IDs of their elements,
+     * annotations whose text is not found any more in their element are flagged as being orphaned;
+     * the flag is advisory, the clients still anchor the annotations on the rendered content
+     * 
+     * @param reanchorRequest 
+     *        the {@link ReanchorAnnotationsRequest} giving the document URI, its new content and the changed element IDs
+     * @param userInfo 
+     *        information about the user launching the re-anchoring
+     * 
+     * @return {@link ReanchorAnnotationsResult} containing lists of annotation IDs affected by the re-anchoring
+     * 
+     * @throws CannotReanchorAnnotationsException
+     *         thrown when required information is missing or the content cannot be parsed
+     * @throws MissingPermissionException
+     *         thrown when requesting user does not have appropriate permissions for re-anchoring the annotations
+     */
+    @Nonnull
+    ReanchorAnnotationsResult reanchorAnnotations(ReanchorAnnotationsRequest reanchorRequest, UserInformation userInfo)
+            throws CannotReanchorAnnotationsException, MissingPermissionException;
+}
@@ -13,6 +13,7 @@
  */
 package eu.europa.ec.leos.annotate.services;
 
+import eu.europa.ec.leos.annotate.model.UserDetails;
 import eu.europa.ec.leos.annotate.model.UserInformation;
 import eu.europa.ec.leos.annotate.model.entity.Annotation;
 import eu.europa.ec.leos.annotate.model.search.AnnotationSearchOptions;
@@ -22,6 +23,7 @@ import eu.europa.ec.leos.annotate.model.web.annotation.JsonAnnotationStatus;
 import eu.europa.ec.leos.annotate.model.web.annotation.JsonSearchResult;
 
 import java.util.List;
+import java.util.Map;
 
 public interface AnnotationConversionService {
 
@@ -35,6 +37,19 @@ public interface AnnotationConversionService {
      * @return the wrapped JsonAnnotation object
      */
     JsonAnnotation convertToJsonAnnotation(Annotation annot, UserInformation userInfo);
+
+    /**
+     * convert a given {@link Annotation} object into {@link JsonAnnotation} format for an export
+     * an export is read-only: no permissions are computed for the requesting user, and the details
+     * of each user are retrieved from the UD repo once per export instead of once per annotation
+     * 
+     * @param annot
+     *        the Annotation object to be converted
+     * @param knownUserDetails
+     *        the user details already retrieved during the export, by login; completed with the users retrieved for the annotation
+     * @return the wrapped JsonAnnotation object
+     */
+    JsonAnnotation convertToJsonAnnotationForExport(Annotation annot, Map<String, UserDetails> knownUserDetails);
     
     /**
      * convert a given list of Annotation objects into JsonSearchResult format, taking search options into account
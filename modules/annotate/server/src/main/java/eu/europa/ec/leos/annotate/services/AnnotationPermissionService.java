@@ -18,6 +18,8 @@ import eu.europa.ec.leos.annotate.model.entity.Annotation;
 import eu.europa.ec.leos.annotate.model.entity.User;
 import eu.europa.ec.leos.annotate.model.web.annotation.JsonAnnotationPermissions;
 
+import java.util.List;
+
 public interface AnnotationPermissionService {
 
     /**
@@ -72,6 +74,30 @@ public interface AnnotationPermissionService {
      */
     boolean hasUserPermissionToRejectSuggestion(Annotation sugg, User user);
 
+    /**
+     * retrieve the suggestions that a user may accept (bulk variant of {@link #hasUserPermissionToAcceptSuggestion(Annotation, User)})
+     * 
+     * @param suggs
+     *        the suggestions to be accepted
+     * @param user
+     *        user requesting to accept the suggestions
+     *        
+     * @return the given suggestions that the user may accept
+     */
+    List<Annotation> getSuggestionsUserMayAccept(List<Annotation> suggs, User user);
+
+    /**
+     * retrieve the suggestions that a user may reject (bulk variant of {@link #hasUserPermissionToRejectSuggestion(Annotation, User)})
+     * 
+     * @param suggs
+     *        the suggestions to be rejected
+     * @param user
+     *        user requesting to reject the suggestions
+     *        
+     * @return the given suggestions that the user may reject
+     */
+    List<Annotation> getSuggestionsUserMayReject(List<Annotation> suggs, User user);
+
     /**
      * check for a given user whether he is permitted to publish a contributor's annotations
      * 
@@ -80,6 +106,15 @@ public interface AnnotationPermissionService {
      * @return flag indicating whether he is allowed to execute the publication process
      */
     boolean userMayPublishContributions(final UserInformation userInfo);
+
+    /**
+     * check for a given user whether he is permitted to re-anchor the annotations of a document on its new content
+     * 
+     * @param userInfo 
+     *        information about the user requesting the re-anchoring
+     * @return flag indicating whether he is allowed to re-anchor the annotations
+     */
+    boolean userMayReanchorAnnotations(final UserInformation userInfo);
     
     /**
      * get the permissions
@@ -77,6 +77,17 @@ public interface AnnotationService {
      */
     Annotation findAnnotationById(String annotId);
 
+    /**
+     * simple function that just looks up several annotations based on their IDs WITHOUT permission checks
+     * to be used only from tests or from services layer
+     *  
+     * @param annotIds
+     *        the IDs of the wanted annotations
+     *        
+     * @return returns the found annotations, in the order of the IDs; note: only non-deleted annotations are returned
+     */
+    List<Annotation> findAnnotationsById(List<String> annotIds);
+
     /**
      * look up an annotation based on its ID, taking permissions into account
      * 
@@ -127,6 +138,60 @@ public interface AnnotationService {
      */
     @Nonnull
     List<Annotation> findByMetadata(final List<Long> metadataIds);
+
+    /**
+     * count the annotations having a certain metadata ID, whatever their status
+     * 
+     * @param metadataId
+     *        the {@link Metadata} ID to match
+     * @return number of annotations assigned to the metadata
+     */
+    long countByMetadata(final long metadataId);
+
+    /**
+     * find the IDs of annotations having certain status and metadata IDs
+     * 
+     * @param metadataIds
+     *        list of {@link Metadata} IDs to match
+     * @param status
+     *        the {@link AnnotationStatus} to match
+     * @return found list of annotation IDs, or empty list
+     */
+    @Nonnull
+    List<String> findIdsByMetadataAndStatus(final List<Long> metadataIds, final AnnotationStatus status);
+
+    /**
+     * find the IDs of sentDeleted annotations having certain statuses and metadata IDs
+     * 
+     * @param metadataIds
+     *        list of {@link Metadata} IDs to match
+     * @param statuses
+     *        list of {@link AnnotationStatus} to match
+     * @return found list of annotation IDs, or empty list
+     */
+    @Nonnull
+    List<String> findSentDeletedIdsByMetadataIdAndStatus(final List<Long> metadataIds, final List<AnnotationStatus> statuses);
+
+    /**
+     * break the links of the existing annotations having certain metadata IDs to other annotations
+     * (the other link direction is kept)
+     * 
+     * @param metadataIds
+     *        list of {@link Metadata} IDs to match
+     * @return IDs of the existing annotations that were linked
+     */
+    @Nonnull
+    List<String> removeLinksToAnnotations(final List<Long> metadataIds);
+
+    /**
+     * assign a set of annotations to a given metadata set, in a few statements
+     * 
+     * @param annotIds
+     *        the IDs of the annotations
+     * @param metadata
+     *        the {@link Metadata} to be assigned
+     */
+    void reassignMetadata(final List<String> annotIds, final Metadata metadata);
     
     /**
      * save a given list of {@link Annotation}s
@@ -155,6 +220,7 @@ public interface AnnotationService {
 
     /**
      * delete a set of annotations in the database based on their IDs
+     * the annotations are loaded, checked and deleted together in one transaction; annotations that cannot be deleted are skipped
      * 
      * @param annotationIds
      *        the list of IDs of the annotation to be deleted
@@ -217,6 +283,23 @@ public interface AnnotationService {
      */
     List<Annotation> searchRepliesForAnnotations(AnnotationSearchResult searchRes, AnnotationSearchOptions options, UserInformation userInfo);
 
+    /**
+     * find the IDs of the annotations that were changed after a given revision, whatever their status, within the scope of a search:
+     * only the annotations of the metadata sets considered by the search are taken into account, being public or belonging to the user;
+     * used for incremental synchronisation, where the changed annotations not being found by the search any more are to be removed by clients
+     * 
+     * @param searchResult
+     *        result of the search, containing the search model used
+     * @param revision
+     *        the revision after which the changes are wanted
+     * @param userInfo
+     *        information about the user having run the search
+     *        
+     * @return IDs of the changed annotations; empty list if the search did not consider any metadata set
+     */
+    @Nonnull
+    List<String> findAnnotationIdsChangedAfterRevision(AnnotationSearchResult searchResult, long revision, UserInformation userInfo);
+
     /**
      * retrieve the number of annotations for a given document/group/metadata
      * hereby, only public annotations are counted, and highlights are ignored
@@ -282,6 +365,38 @@ public interface AnnotationService {
             MissingPermissionException, CannotDeleteAnnotationException,
             CannotRejectSentSuggestionException;
 
+    /**
+     * accept a set of suggestions, taking permissions and authority into account
+     * the suggestions are loaded, checked and accepted together in one transaction; annotations that cannot be accepted are skipped
+     * 
+     * @param suggestionIds
+     *        the list of IDs of the suggestions (annotations) to be accepted
+     * @param userInfo
+     *        information about the user requesting to accept the suggestions
+     *        
+     * @return returns a list of suggestions that were successfully accepted
+     * 
+     * @throws MissingPermissionException 
+     *         this exception is thrown when no user is given
+     */
+    List<String> acceptSuggestionsById(List<String> suggestionIds, UserInformation userInfo) throws MissingPermissionException;
+
+    /**
+     * reject a set of suggestions, taking permissions and authority into account
+     * the suggestions are loaded, checked and rejected together in one transaction; annotations that cannot be rejected are skipped
+     * 
+     * @param suggestionIds
+     *        the list of IDs of the suggestions (annotations) to be rejected
+     * @param userInfo
+     *        information about the user requesting to reject the suggestions
+     *        
+     * @return returns a list of suggestions that were successfully rejected
+     * 
+     * @throws MissingPermissionException 
+     *         this exception is thrown when no user is given
+     */
+    List<String> rejectSuggestionsById(List<String> suggestionIds, UserInformation userInfo) throws MissingPermissionException;
+
     /**
      * soft deletion of an annotation
      * (recursive if annotation is a root annotation)
@@ -297,7 +412,20 @@ public interface AnnotationService {
     void softDeleteAnnotation(final Annotation annot, final long userId) throws CannotDeleteAnnotationException;
 
     /**
-     * change a given set of annotations to become public and save them
+     * soft deletion of a set of annotations in a few statements, without checking permissions
+     * (recursive for root annotations); annotations already deleted are skipped
+     *  
+     * @param annotIds 
+     *        the IDs of the annotations to be deleted
+     * @param userId 
+     *        ID of the user requesting deletion
+     * 
+     * @return the IDs of the deleted annotations
+     */
+    List<String> softDeleteAnnotationsById(final List<String> annotIds, final long userId);
+
+    /**
+     * change a given set of annotations to become public and save them in a few statements
      * 
      * @param annots
      *        list of {@link Annotation}s to be made public
@@ -21,6 +21,7 @@ import eu.europa.ec.leos.annotate.model.web.StatusUpdateRequest;
 import eu.europa.ec.leos.annotate.services.exceptions.CannotCreateMetadataException;
 import eu.europa.ec.leos.annotate.services.exceptions.CannotUpdateAnnotationStatusException;
 import eu.europa.ec.leos.annotate.services.exceptions.MissingPermissionException;
+import org.springframework.data.jpa.domain.Specification;
 
 import javax.annotation.Nonnull;
 
@@ -129,6 +130,29 @@ public interface MetadataService {
     List<Metadata> findMetadataOfDocumentGroupSystemidInPreparation(final Document document,
             final Group group, final String systemId);
 
+    /**
+     * check whether there is any {@link Metadata} object matching a given specification
+     * 
+     * @param metadataSpec 
+     *        the specification to be matched, e.g. the candidate metadata sets of a search model
+     * 
+     * @return {@literal true} if at least one metadata set matches
+     */
+    boolean existsMetadata(Specification<Metadata> metadataSpec);
+
+    /**
+     * find the IDs of the {@link Metadata} objects matching a given specification
+     * 
+     * @param metadataSpec 
+     *        the specification to be matched, e.g. the candidate metadata sets of a search model
+     * @param amongIds 
+     *        optional list of IDs to which the search is restricted; {@literal null} for searching all metadata sets
+     * 
+     * @return found IDs, or empty list
+     */
+    @Nonnull
+    List<Long> findIdsOfMetadata(Specification<Metadata> metadataSpec, List<Long> amongIds);
+
     /**
      * removal of given {@link Metadata} set identified by its ID
      * 
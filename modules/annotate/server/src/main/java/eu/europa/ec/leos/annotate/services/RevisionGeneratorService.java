@@ -0,0 +1,32 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.services;
+
+public interface RevisionGeneratorService {
+
+    /**
+     * generation of a new revision, to be stamped on annotations and metadata sets when they are changed
+     * 
+     * @return new revision, higher than the revisions generated before
+     */
+    long generateRevision();
+
+    /**
+     * determination of the revision up to which all changes are committed, i.e. no change stamped with a lower or equal revision 
+     * may become visible later on; used as starting point of the next incremental synchronisation
+     * 
+     * @return highest revision being completed, lower than the revisions still pending
+     */
+    long getCompletedRevision();
+}
@@ -22,7 +22,8 @@ import java.util.List;
 public interface TagsService {
 
     /**
-     * conversion of string list of tags to {@link Tag} objects associated to an annotation
+     * conversion of string list of tags to {@link Tag} objects associated to an annotation;
+     * the tag names are taken from the tag dictionary, new names are added to it
      * 
      * @param tags
      *        list of tag names to be converted
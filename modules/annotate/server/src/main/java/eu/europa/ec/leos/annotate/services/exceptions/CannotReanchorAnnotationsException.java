@@ -0,0 +1,31 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.services.exceptions;
+
+/**
+ * Exception that is thrown when it's not possible to re-anchor the annotations of a document on its new content
+ * The message gives more details about the reason
+ */
+public class CannotReanchorAnnotationsException extends Exception {
+
+    private static final long serialVersionUID = 2316452088514723377L;
+
+    public CannotReanchorAnnotationsException(final String msg) {
+        super(msg);
+    }
+
+    public CannotReanchorAnnotationsException(final String msg, final Throwable cause) {
+        super(msg, cause);
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.services.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.europa.ec.leos.annotate.model.ReanchorAnnotationsResult;
+import eu.europa.ec.leos.annotate.model.UserInformation;
+import eu.europa.ec.leos.annotate.model.entity.Annotation;
+import eu.europa.ec.leos.annotate.model.entity.Annotation.AnnotationStatus;
+import eu.europa.ec.leos.annotate.model.entity.Document;
+import eu.europa.ec.leos.annotate.model.web.ReanchorAnnotationsRequest;
+import eu.europa.ec.leos.annotate.repository.AnnotationRepository;
+import eu.europa.ec.leos.annotate.services.AnnotationAnchoringService;
+import eu.europa.ec.leos.annotate.services.AnnotationPermissionService;
+import eu.europa.ec.leos.annotate.services.DocumentService;
+import eu.europa.ec.leos.annotate.services.RevisionGeneratorService;
+import eu.europa.ec.leos.annotate.services.exceptions.CannotReanchorAnnotationsException;
+import eu.europa.ec.leos.annotate.services.exceptions.MissingPermissionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.annotation.Nonnull;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Service responsible for anchoring annotations on the content of their document
+ * 
+ * the annotations are anchored via their LeosSelector, which denotes the annotated text by the ID of the element containing it,
+ * the text itself and its surroundings, and its position within the text of the element
+ * 
+ * note: the positions of the LeosSelector refer to the text rendered by the clients, which differs from the text of the AKN content
+ *       (e.g. in whitespace or in the rendering of some elements); therefore, the positions are not touched here, and the annotated text
+ *       is only searched for in the text of its element, ignoring differences in whitespace - the orphaned flag resulting is advisory,
+ *       the clients still anchor the annotations on the rendered text
+ */
+@Service
+public class AnnotationAnchoringServiceImpl implements AnnotationAnchoringService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AnnotationAnchoringServiceImpl.class);
+
+    private static final String LEOS_SELECTOR = "LeosSelector";
+    private static final String SELECTOR_TYPE = "type";
+    private static final String SELECTOR_ID = "id";
+    private static final String SELECTOR_EXACT = "exact";
+    private static final String ATTR_ID = "id";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // -------------------------------------
+    // Required services and repositories
+    // -------------------------------------
+
+    @Autowired
+    @Qualifier("annotationRepos")
+    private AnnotationRepository annotRepos;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private AnnotationPermissionService annotPermService;
+
+    @Autowired
+    private RevisionGeneratorService revisionService;
+
+    // -------------------------------------
+    // Service functionality
+    // -------------------------------------
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    @Nonnull
+    public ReanchorAnnotationsResult reanchorAnnotations(final ReanchorAnnotationsRequest reanchorRequest, final UserInformation userInfo)
+            throws CannotReanchorAnnotationsException, MissingPermissionException {
+
+        if (reanchorRequest == null || StringUtils.isEmpty(reanchorRequest.getUri()) || StringUtils.isEmpty(reanchorRequest.getContent())) {
+            throw new CannotReanchorAnnotationsException("Cannot re-anchor annotations without document URI and content");
+        }
+
+        Assert.notNull(userInfo, "No valid user information given");
+
+        if (!annotPermService.userMayReanchorAnnotations(userInfo)) {
+            throw new MissingPermissionException(userInfo.getLogin());
+        }
+
+        final Document document = documentService.findDocumentByUri(reanchorRequest.getUri());
+        if (document == null) {
+            LOG.debug("Document '{}' is not annotated, nothing to re-anchor", reanchorRequest.getUri());
+            return new ReanchorAnnotationsResult();
+        }
+
+        final ElementTexts elementTexts = new ElementTexts(reanchorRequest.getContent());
+        final Map<String, String> idMappings = reanchorRequest.getIdMappings() == null ? Collections.emptyMap() : reanchorRequest.getIdMappings();
+
+        final List<String> reanchoredIds = new ArrayList<String>();
+        final List<String> orphanedIds = new ArrayList<String>();
+        final List<Annotation> modified = new ArrayList<Annotation>();
+
+        for (final Annotation annot : annotRepos.findByDocumentIdAndStatus(document.getId(), AnnotationStatus.NORMAL)) {
+
+            // replies are not anchored in the document, but displayed with their thread
+            if (annot.isReply() || StringUtils.isEmpty(annot.getTargetSelectors())) {
+                continue;
+            }
+
+            final List<Map<String, Object>> targets = deserializeTargets(annot);
+            final Map<String, Object> leosSelector = findLeosSelector(targets);
+            if (leosSelector == null) {
+                continue; // not anchored via LEOS (e.g. page note), nothing to be done
+            }
+
+            final boolean moved = reanchor(leosSelector, idMappings);
+            final boolean found = elementTexts.contains(leosSelector);
+
+            if (found) {
+                if (moved) {
+                    annot.setTargetSelectors(serializeTargets(targets, annot));
+                }
+                if (moved || annot.isOrphaned()) {
+                    annot.setOrphaned(false);
+                    reanchoredIds.add(annot.getId());
+                    modified.add(annot);
+                }
+            } else if (!annot.isOrphaned()) {
+                annot.setOrphaned(true);
+                orphanedIds.add(annot.getId());
+                modified.add(annot);
+            }
+        }
+
+        // note: the update date of the annotations is not changed, as their content remains the same
+        if (!modified.isEmpty()) {
+            final long revision = revisionService.generateRevision();
+            modified.forEach(annot -> annot.setRevision(revision));
+            annotRepos.save(modified);
+        }
+
+        LOG.info("{} annotations re-anchored, {} annotations orphaned in document '{}'", reanchoredIds.size(), orphanedIds.size(),
+                reanchorRequest.getUri());
+        return new ReanchorAnnotationsResult(reanchoredIds, orphanedIds);
+    }
+
+    // -------------------------------------
+    // Help functions
+    // -------------------------------------
+
+    /**
+     * update a LeosSelector in place to denote the new ID of the element containing its text
+     * 
+     * @return flag indicating whether the selector was modified, i.e. the ID of the element changed
+     */
+    private boolean reanchor(final Map<String, Object> leosSelector, final Map<String, String> idMappings) {
+
+        final String oldId = (String) leosSelector.get(SELECTOR_ID);
+        final String newId = idMappings.get(oldId);
+        if (newId == null || newId.equals(oldId)) {
+            return false;
+        }
+
+        leosSelector.put(SELECTOR_ID, newId);
+        return true;
+    }
+
+    // collapses all whitespace sequences into a single blank, as done when rendering the content
+    private static String normalizeWhitespace(final String text) {
+        return WHITESPACE.matcher(text).replaceAll(" ").trim();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> findLeosSelector(final List<Map<String, Object>> targets) {
+
+        for (final Map<String, Object> target : targets) {
+            final Object selectors = target.get("selector");
+            if (selectors instanceof List) {
+                for (final Object selector : (List<Object>) selectors) {
+                    if (selector instanceof Map && LEOS_SELECTOR.equals(((Map<String, Object>) selector).get(SELECTOR_TYPE))) {
+                        return (Map<String, Object>) selector;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<Map<String, Object>> deserializeTargets(final Annotation annot) {
+
+        try {
+            final List<Map<String, Object>> targets = MAPPER.readValue(annot.getTargetSelectors(), new TypeReference<List<Map<String, Object>>>() {
+            });
+            return targets == null ? Collections.emptyList() : targets;
+        } catch (IOException e) {
+            LOG.error("Target selectors of annotation '" + annot.getId() + "' could not be deserialized", e);
+            return Collections.emptyList();
+        }
+    }
+
+    private static String serializeTargets(final List<Map<String, Object>> targets, final Annotation annot) {
+
+        try {
+            return MAPPER.writeValueAsString(targets);
+        } catch (IOException e) {
+            LOG.error("Target selectors of annotation '" + annot.getId() + "' could not be serialized", e);
+            return annot.getTargetSelectors();
+        }
+    }
+
+    /**
+     * the texts of the elements of a document, identified by their IDs, with normalized whitespace;
+     * the text of an element is only computed when it is requested
+     */
+    private static class ElementTexts {
+
+        private final Map<String, Element> elements = new HashMap<String, Element>();
+        private final Map<String, String> texts = new HashMap<String, String>();
+
+        ElementTexts(final String content) throws CannotReanchorAnnotationsException {
+
+            final org.w3c.dom.Document xmlDocument;
+            try {
+                final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+                factory.setNamespaceAware(true);
+                factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+                factory.setExpandEntityReferences(false);
+                xmlDocument = factory.newDocumentBuilder().parse(new InputSource(new StringReader(content)));
+            } catch (ParserConfigurationException | SAXException | IOException e) {
+                throw new CannotReanchorAnnotationsException("The document content could not be parsed", e);
+            }
+
+            final NodeList nodes = xmlDocument.getElementsByTagName("*");
+            for (int i = 0; i < nodes.getLength(); i++) {
+                final Element element = (Element) nodes.item(i);
+                String elementId = element.getAttributeNS(XMLConstants.XML_NS_URI, ATTR_ID); // AKN: xml:id
+                if (elementId.isEmpty()) {
+                    elementId = element.getAttribute(ATTR_ID);
+                }
+                if (!elementId.isEmpty()) {
+                    elements.putIfAbsent(elementId, element);
+                }
+            }
+        }
+
+        String getText(final String elementId) {
+
+            final Element element = elementId == null ? null : elements.get(elementId);
+            if (element == null) {
+                return null;
+            }
+            return texts.computeIfAbsent(elementId, key -> normalizeWhitespace(element.getTextContent()));
+        }
+
+        // checks whether the selector's text is found in its element, whatever its position
+        boolean contains(final Map<String, Object> leosSelector) {
+
+            final String text = getText((String) leosSelector.get(SELECTOR_ID));
+            final String exact = (String) leosSelector.get(SELECTOR_EXACT);
+            return text != null && !StringUtils.isEmpty(exact) && text.contains(normalizeWhitespace(exact));
+        }
+    }
+}
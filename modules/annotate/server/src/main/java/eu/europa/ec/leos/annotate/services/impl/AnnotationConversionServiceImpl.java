@@ -41,6 +41,9 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -101,6 +104,54 @@ public class AnnotationConversionServiceImpl implements AnnotationConversionServ
             return null;
         }
 
+        return convertToJsonAnnotation(annot, userService::getUserDetailsFromUserRepo,
+                (groupName, userAccountForHypo) -> annotPermService.getJsonAnnotationPermissions(annot, groupName, userAccountForHypo, userInfo));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JsonAnnotation convertToJsonAnnotationForExport(final Annotation annot, final Map<String, UserDetails> knownUserDetails) {
+
+        if (annot == null) {
+            LOG.error("Received null for annotation to be exported");
+            return null;
+        }
+
+        final Function<String, UserDetails> userDetailsProvider = login -> {
+            // the UD repo may not know the user: remember that as well
+            if (!knownUserDetails.containsKey(login)) {
+                knownUserDetails.put(login, userService.getUserDetailsFromUserRepo(login));
+            }
+            return knownUserDetails.get(login);
+        };
+
+        // exported annotations can only be read
+        return convertToJsonAnnotation(annot, userDetailsProvider, (groupName, userAccountForHypo) -> {
+            final JsonAnnotationPermissions permissions = new JsonAnnotationPermissions();
+            permissions.setRead(Arrays.asList(annot.isShared() ? "group:" + groupName : userAccountForHypo));
+            permissions.setAdmin(Arrays.asList(""));
+            permissions.setUpdate(Arrays.asList(""));
+            permissions.setDelete(Arrays.asList(""));
+            return permissions;
+        });
+    }
+
+    /**
+     * convert a given {@link Annotation} object into {@link JsonAnnotation} format
+     * 
+     * @param annot
+     *        the Annotation object to be converted
+     * @param userDetailsProvider
+     *        function retrieving the {@link UserDetails} of a user given by his login
+     * @param permissionsProvider
+     *        function computing the permissions of the annotation given its group name and the account of its author
+     * @return the wrapped JsonAnnotation object
+     */
+    private JsonAnnotation convertToJsonAnnotation(final Annotation annot, final Function<String, UserDetails> userDetailsProvider,
+            final BiFunction<String, String, JsonAnnotationPermissions> permissionsProvider) {
+
         URI docUri = null;
         try {
             docUri = new URI(annot.getDocument().getUri()); // document is mandatory property of annotation (thus not null)
@@ -114,6 +165,9 @@ public class AnnotationConversionServiceImpl implements AnnotationConversionServ
         result.setText(annot.getText());
         result.setUpdated(annot.getUpdated());
         result.setUri(docUri);
+        if (annot.isOrphaned()) {
+            result.setOrphaned(Boolean.TRUE);
+        }
 
         // document info
         final JsonAnnotationDocument doc = new JsonAnnotationDocument();
@@ -142,9 +196,9 @@ public class AnnotationConversionServiceImpl implements AnnotationConversionServ
         result.setGroup(groupName);
 
         final String userAccountForHypo = userService.getHypothesisUserAccountFromUser(annot.getUser(), annotAuthority);
-        setUserInfo(result, annot, anonymizeUser, userAccountForHypo);
+        setUserInfo(result, annot, anonymizeUser, userAccountForHypo, userDetailsProvider);
 
-        result.setPermissions(annotPermService.getJsonAnnotationPermissions(annot, groupName, userAccountForHypo, userInfo));
+        result.setPermissions(permissionsProvider.apply(groupName, userAccountForHypo));
 
         // tags
         if (!CollectionUtils.isEmpty(annot.getTags())) {
@@ -156,7 +210,7 @@ public class AnnotationConversionServiceImpl implements AnnotationConversionServ
         result.setReferences(annot.getReferencesList());
 
         // annotation status
-        result.setStatus(getJsonAnnotationStatus(annot, annotAuthority));
+        result.setStatus(getJsonAnnotationStatus(annot, annotAuthority, userDetailsProvider));
 
         return result;
     }
@@ -172,13 +226,16 @@ public class AnnotationConversionServiceImpl implements AnnotationConversionServ
      *        flag indicating whether user name etc. should be anonymised
      * @param userAccountForHypo
      *        the user account (used when user is not to be anonymised)
+     * @param userDetailsProvider
+     *        function retrieving the {@link UserDetails} of a user given by his login
      */
-    private void setUserInfo(final JsonAnnotation result, final Annotation annot, final boolean anonymizeUser, final String userAccountForHypo) {
+    private void setUserInfo(final JsonAnnotation result, final Annotation annot, final boolean anonymizeUser, final String userAccountForHypo,
+            final Function<String, UserDetails> userDetailsProvider) {
 
         // user info
         if (anonymizeUser) {
             String entityName = "";
-            final UserDetails userDetails = userService.getUserDetailsFromUserRepo(annot.getUser().getLogin());
+            final UserDetails userDetails = userDetailsProvider.apply(annot.getUser().getLogin());
             if (userDetails == null) {
                 entityName = "unknown";
             } else {
@@ -209,7 +266,7 @@ public class AnnotationConversionServiceImpl implements AnnotationConversionServ
             // retrieve user's display name to have "nice names" being displayed for each annotation
             String displayName = "";
             String entityName = "";
-            final UserDetails userDetails = userService.getUserDetailsFromUserRepo(annot.getUser().getLogin());
+            final UserDetails userDetails = userDetailsProvider.apply(annot.getUser().getLogin());
             if (userDetails == null) {
                 // usually, all users should be found in the UD repo, so this case is unlikely to occur...
                 // ... but the network could be down or whatever, therefore we use a fallback
@@ -290,7 +347,7 @@ public class AnnotationConversionServiceImpl implements AnnotationConversionServ
      * {@inheritDoc}
      */
     public JsonAnnotationStatus getJsonAnnotationStatus(final Annotation annot) {
-        return getJsonAnnotationStatus(annot, "");
+        return getJsonAnnotationStatus(annot, "", userService::getUserDetailsFromUserRepo);
     }
 
     /**
@@ -300,9 +357,12 @@ public class AnnotationConversionServiceImpl implements AnnotationConversionServ
      *        {@link Annotation} for which to assemble the information
      * @param authority 
      *        the user's authority; if empty, the authority will be read from metadata
+     * @param userDetailsProvider
+     *        function retrieving the {@link UserDetails} of a user given by his login
      * @return filled-in {@link JsonAnnotationStatus} object
      */
-    private JsonAnnotationStatus getJsonAnnotationStatus(final Annotation annot, final String authority) {
+    private JsonAnnotationStatus getJsonAnnotationStatus(final Annotation annot, final String authority,
+            final Function<String, UserDetails> userDetailsProvider) {
 
         final JsonAnnotationStatus status = new JsonAnnotationStatus();
         status.setStatus(annot.getStatus());
@@ -324,7 +384,7 @@ public class AnnotationConversionServiceImpl implements AnnotationConversionServ
                 status.setUser_info(userService.getHypothesisUserAccountFromUser(modifyingUser, annotAuthority));
 
                 try {
-                    final UserDetails userDetails = userService.getUserDetailsFromUserRepo(modifyingUser.getLogin());
+                    final UserDetails userDetails = userDetailsProvider.apply(modifyingUser.getLogin());
                     if (userDetails != null) {
                         // use main entity of user
                         status.setUpdated_by(userDetails.getEntities().get(0).getName());
@@ -29,10 +29,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class AnnotationPermissionServiceImpl implements AnnotationPermissionServiceWithTestFunctions {
@@ -135,6 +140,30 @@ public class AnnotationPermissionServiceImpl implements AnnotationPermissionServ
         return groupService.isUserMemberOfGroup(user, sugg.getGroup());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Annotation> getSuggestionsUserMayAccept(final List<Annotation> suggs, final User user) {
+
+        // note: same rule as for a single suggestion
+        Assert.notNull(user, "No user given for checking permission to accept suggestions");
+
+        return filterSuggestionsOfUserGroups(suggs, user);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Annotation> getSuggestionsUserMayReject(final List<Annotation> suggs, final User user) {
+
+        // note: same rule as for a single suggestion
+        Assert.notNull(user, "No user given for checking permission to reject suggestions");
+
+        return filterSuggestionsOfUserGroups(suggs, user);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -146,6 +175,18 @@ public class AnnotationPermissionServiceImpl implements AnnotationPermissionServ
         return Authorities.isIsc(userInfo.getAuthority());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean userMayReanchorAnnotations(final UserInformation userInfo) {
+
+        Assert.notNull(userInfo, "No valid user data given for checking re-anchoring permissions");
+
+        // the new content of a document is only known by LEOS when saving it
+        return Authorities.isLeos(userInfo.getAuthority());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -364,6 +405,18 @@ public class AnnotationPermissionServiceImpl implements AnnotationPermissionServ
      *        
      * @return true if user created the annotation
      */
+    // retrieve the suggestions belonging to a group of the user; the groups of the user are retrieved only once
+    private List<Annotation> filterSuggestionsOfUserGroups(final List<Annotation> suggs, final User user) {
+
+        if (CollectionUtils.isEmpty(suggs)) {
+            return new ArrayList<Annotation>();
+        }
+
+        final List<Long> groupIds = groupService.getGroupIdsOfUser(user);
+        final Set<Long> userGroupIds = groupIds == null ? new HashSet<Long>() : new HashSet<Long>(groupIds);
+        return suggs.stream().filter(sugg -> userGroupIds.contains(sugg.getGroup().getId())).collect(Collectors.toList());
+    }
+
     private boolean isAnnotationOfUser(final Annotation annot, final String userlogin) {
 
         final User user = userService.findByLogin(userlogin);
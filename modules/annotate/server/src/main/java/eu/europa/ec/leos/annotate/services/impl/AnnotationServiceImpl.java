@@ -14,12 +14,13 @@
 package eu.europa.ec.leos.annotate.services.impl;
 
 import eu.europa.ec.leos.annotate.Authorities;
-import eu.europa.ec.leos.annotate.model.MetadataIdsAndStatuses;
+import eu.europa.ec.leos.annotate.model.MetadataCandidatesAndStatuses;
 import eu.europa.ec.leos.annotate.model.SimpleMetadata;
 import eu.europa.ec.leos.annotate.model.SimpleMetadataWithStatuses;
 import eu.europa.ec.leos.annotate.model.UserInformation;
 import eu.europa.ec.leos.annotate.model.entity.*;
 import eu.europa.ec.leos.annotate.model.entity.Annotation.AnnotationStatus;
+import eu.europa.ec.leos.annotate.model.entity.Annotation.AnnotationType;
 import eu.europa.ec.leos.annotate.model.search.*;
 import eu.europa.ec.leos.annotate.model.web.IncomingSearchOptions;
 import eu.europa.ec.leos.annotate.model.web.annotation.JsonAnnotation;
@@ -27,6 +28,9 @@ import eu.europa.ec.leos.annotate.model.web.annotation.JsonAnnotationPermissions
 import eu.europa.ec.leos.annotate.repository.AnnotationRepository;
 import eu.europa.ec.leos.annotate.repository.impl.AnnotationByIdSearchSpec;
 import eu.europa.ec.leos.annotate.repository.impl.AnnotationReplySearchSpec;
+import eu.europa.ec.leos.annotate.repository.impl.AnnotationRevisionSearchSpec;
+import eu.europa.ec.leos.annotate.repository.impl.AnnotationTypeSearchSpec;
+import eu.europa.ec.leos.annotate.repository.impl.SearchPredicates;
 import eu.europa.ec.leos.annotate.services.*;
 import eu.europa.ec.leos.annotate.services.exceptions.*;
 import org.hibernate.collection.internal.PersistentBag;
@@ -36,18 +40,28 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.domain.Specifications;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
 import javax.annotation.Nonnull;
 
+import java.net.URI;
 import java.rmi.activation.UnknownGroupException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -59,6 +73,7 @@ public class AnnotationServiceImpl implements AnnotationService {
 
     private static final Logger LOG = LoggerFactory.getLogger(AnnotationServiceImpl.class);
     private static final String ERROR_USERINFO_MISSING = "Required user information missing.";
+    private static final int MAX_IDS_PER_QUERY = SearchPredicates.MAX_IN_LIST_SIZE;
 
     // -------------------------------------
     // Required services and repositories
@@ -94,6 +109,9 @@ public class AnnotationServiceImpl implements AnnotationService {
     @Autowired
     private UUIDGeneratorService uuidService;
 
+    @Autowired
+    private RevisionGeneratorService revisionService;
+
     @Autowired
     private SearchModelFactory searchModelFactory;
 
@@ -124,6 +142,18 @@ public class AnnotationServiceImpl implements AnnotationService {
         return annotRepos.findByIdAndStatus(annotId, AnnotationStatus.NORMAL);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Annotation> findAnnotationsById(final List<String> annotIds) {
+
+        if (CollectionUtils.isEmpty(annotIds)) {
+            return new ArrayList<Annotation>();
+        }
+        return findAnnotationsById(annotIds, Arrays.asList(AnnotationStatus.NORMAL));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -183,14 +213,75 @@ public class AnnotationServiceImpl implements AnnotationService {
 
         return annotRepos.findByMetadataIdIsIn(metadataIds);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long countByMetadata(final long metadataId) {
+
+        return annotRepos.countByMetadataId(metadataId);
+    }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Nonnull
+    public List<String> findIdsByMetadataAndStatus(final List<Long> metadataIds, final AnnotationStatus status) {
+
+        return annotRepos.findIdsByMetadataIdIsInAndStatus(metadataIds, status);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Nonnull
+    public List<String> findSentDeletedIdsByMetadataIdAndStatus(final List<Long> metadataIds, final List<AnnotationStatus> statuses) {
+
+        return annotRepos.findIdsByMetadataIdIsInAndStatusIsInAndSentDeletedIsTrue(metadataIds, statuses);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Nonnull
+    @Transactional
+    public List<String> removeLinksToAnnotations(final List<Long> metadataIds) {
+
+        final List<String> linkedIds = annotRepos.findLinkedIdsByMetadataIdIsInAndStatus(metadataIds, AnnotationStatus.NORMAL);
+        // pending changes (e.g. of metadata saved before) are written first, as the bulk update clears the persistence context
+        annotRepos.flush();
+        annotRepos.removeLinksByMetadataIdIsInAndStatus(metadataIds, AnnotationStatus.NORMAL, revisionService.generateRevision());
+        return linkedIds;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void reassignMetadata(final List<String> annotIds, final Metadata metadata) {
+
+        // pending changes (e.g. of metadata saved before) are written first, as the bulk update clears the persistence context
+        annotRepos.flush();
+        final long revision = revisionService.generateRevision();
+        for (final List<String> ids : partition(annotIds)) {
+            annotRepos.updateMetadataById(ids, metadata, revision);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public List<Annotation> saveAll(final List<Annotation> annots) {
 
-        return (List<Annotation>) annotRepos.save(annots);
+        final long revision = revisionService.generateRevision();
+        annots.forEach(annot -> annot.setRevision(revision));
+        return annotRepos.save(annots);
     }
 
     /**
@@ -247,7 +338,7 @@ public class AnnotationServiceImpl implements AnnotationService {
         }
 
         try {
-            annot = annotRepos.save(annot);
+            annot = saveWithNewRevision(annot);
         } catch (Exception e) {
             throw new CannotCreateAnnotationException(e);
         }
@@ -489,7 +580,7 @@ public class AnnotationServiceImpl implements AnnotationService {
         updateGroup(webAnnot, ann, userInfo.getAuthority());
 
         try {
-            annotRepos.save(ann);
+            saveWithNewRevision(ann);
         } catch (Exception e) {
             throw new CannotUpdateAnnotationException(e);
         }
@@ -548,7 +639,7 @@ public class AnnotationServiceImpl implements AnnotationService {
 
         // assign the ID of the new annotation to the original
         annot.setLinkedAnnotationId(newWebAnnot.getId());
-        annotRepos.save(annot);
+        saveWithNewRevision(annot);
 
         return newWebAnnot;
     }
@@ -634,6 +725,9 @@ public class AnnotationServiceImpl implements AnnotationService {
         if (!tagsToAdd.isEmpty()) {
             annot.getTags().addAll(tagsService.getTagList(tagsToAdd, annot));
         }
+        if (!tagsToRemove.isEmpty() || !tagsToAdd.isEmpty()) {
+            annot.updateType();
+        }
     }
 
     /**
@@ -700,7 +794,7 @@ public class AnnotationServiceImpl implements AnnotationService {
                 LOG.debug("Annotation '{}' has response status SENT and will be sentDeleted now", ann.getId());
                 ann.setSentDeleted(true); // note: we only set the flag, NOT the DELETED status!
                 ann.setRespVersionSentDeleted(metadataMatchingService.getHighestResponseVersion(ann));
-                annotRepos.save(ann);
+                saveWithNewRevision(ann);
                 
                 // make sure there is at least a dummy Metadata item in the DB for this response version
                 metadataMatchingService.findOrCreateInPrepItemForAnnotToDelete(ann);
@@ -719,6 +813,7 @@ public class AnnotationServiceImpl implements AnnotationService {
      * {@inheritDoc}
      */
     @Override
+    @Transactional
     public List<String> deleteAnnotationsById(final List<String> annotationIds, final UserInformation userInfo) {
 
         Assert.notNull(userInfo, ERROR_USERINFO_MISSING);
@@ -729,21 +824,38 @@ public class AnnotationServiceImpl implements AnnotationService {
             return deleted;
         }
 
-        final List<String> errors = new ArrayList<String>();
+        // same rules as for deleting a single annotation, but the annotations are loaded and updated in a few statements
+        final boolean isIscUser = Authorities.isIsc(userInfo.getAuthority());
+        Set<Long> userGroupIds = null;
 
-        // simply call the method for deleting a single annotation and keep track of success and errors
-        for (final String annotationId : annotationIds) {
-            try {
-                deleteAnnotationById(annotationId, userInfo);
-                deleted.add(annotationId);
-            } catch (RuntimeException e) {
-                LOG.warn("Error while deleting one of several annotations", e);
-                throw e;
-            } catch (Exception e) {
-                errors.add(annotationId);
+        final List<Annotation> toDelete = new ArrayList<Annotation>();
+        for (final Annotation ann : findAnnotationsById(annotationIds, Arrays.asList(AnnotationStatus.NORMAL))) {
+
+            // from now on (ANOT-95), ISC users may delete a SENT annotation, but with special handling
+            if (ann.isResponseStatusSent() && isIscUser) {
+                if (userGroupIds == null) {
+                    userGroupIds = getGroupIdsOfUser(userInfo.getUser());
+                }
+                if (userGroupIds.contains(ann.getGroup().getId())) {
+                    LOG.debug("Annotation '{}' has response status SENT and will be sentDeleted now", ann.getId());
+                    ann.setSentDeleted(true); // note: we only set the flag, NOT the DELETED status!
+                    ann.setRespVersionSentDeleted(metadataMatchingService.getHighestResponseVersion(ann));
+                    saveWithNewRevision(ann);
+                    metadataMatchingService.findOrCreateInPrepItemForAnnotToDelete(ann);
+                    deleted.add(ann.getId());
+                } else {
+                    LOG.info("Annotation '{}' has response status SENT and thus cannot be deleted by user of other group", ann.getId());
+                }
+            } else {
+                toDelete.add(ann);
             }
         }
-        LOG.info("Annotation bulk deletion: {} annotations deleted successfully, {} errors", deleted.size(), errors.size());
+
+        if (!toDelete.isEmpty()) {
+            final User user = userService.findByLogin(userInfo.getLogin());
+            deleted.addAll(updateAnnotationsStatus(toDelete, AnnotationStatus.DELETED, user.getId()));
+        }
+        LOG.info("Annotation bulk deletion: {} annotations deleted successfully, {} errors", deleted.size(), annotationIds.size() - deleted.size());
 
         return deleted;
     }
@@ -810,6 +922,8 @@ public class AnnotationServiceImpl implements AnnotationService {
             rso.setFilterUser(user);
             rso.setMetadataWithStatusesList(options.getMetadataMapsWithStatusesList());
             rso.setUserIsMemberOfGroup(groupService.isUserMemberOfGroup(executingUser, group));
+            rso.setSinceRevision(options.getSinceRevision());
+            rso.setTypes(options.getTypes());
 
             return executeSearch(rso, pageable);
 
@@ -878,24 +992,33 @@ public class AnnotationServiceImpl implements AnnotationService {
             } else {
                 final List<Annotation> filtered = searchModel.postFilterSearchResults(rawData);
 
+                // now search again and apply the paging - in that way paging works as expected and is done by the DB
+                // note: instead of searching for the IDs of all remaining items (which are many for large documents),
+                //       the search is repeated without the few items filtered out, and with the historical items
+                final Set<String> filteredIds = filtered.stream().map(Annotation::getId).collect(Collectors.toSet());
+                final List<String> removedIds = rawData.stream().map(Annotation::getId).filter(annotId -> !filteredIds.contains(annotId))
+                        .collect(Collectors.toList());
+                Specifications<Annotation> pagedSearchSpec = Specifications.where(searchModel.getSearchSpecification());
+                if (!removedIds.isEmpty()) {
+                    pagedSearchSpec = pagedSearchSpec.and(Specifications.not(new AnnotationByIdSearchSpec(removedIds)));
+                }
+
                 if (searchModel.isAddDeletedHistoryItems()) {
                     final List<Annotation> historicalItems = addDeletedHistoryItems(searchModel, rso);
                     if (!CollectionUtils.isEmpty(historicalItems)) {
-                        filtered.addAll(historicalItems);
+                        pagedSearchSpec = pagedSearchSpec.or(new AnnotationByIdSearchSpec(
+                                historicalItems.stream().map(Annotation::getId).collect(Collectors.toList())));
                     }
                 }
 
-                // now search again for the IDs and apply the paging
-                // not the nicest way, but in that way paging works as expected and is done by the DB
-                resultPage = annotRepos.findAll(new AnnotationByIdSearchSpec(filtered.stream().map(Annotation::getId).collect(Collectors.toList())),
-                        pageable);
+                resultPage = annotRepos.findAll(restrictResult(pagedSearchSpec, rso), pageable);
                 result.setItems(resultPage.getContent());
                 result.setTotalItems(resultPage.getTotalElements());
             }
         } else {
 
             // hand over the desired pageable directly
-            resultPage = annotRepos.findAll(searchModel.getSearchSpecification(), pageable);
+            resultPage = annotRepos.findAll(restrictResult(searchModel.getSearchSpecification(), rso), pageable);
             result.setItems(resultPage.getContent());
             result.setTotalItems(resultPage.getTotalElements());
         }
@@ -903,6 +1026,30 @@ public class AnnotationServiceImpl implements AnnotationService {
         return result;
     }
 
+    /**
+     * restrict a search to the annotation threads changed after the revision given in the search options, if any,
+     * and to the annotation types given in the search options, if any
+     * 
+     * note: the restrictions are applied after the post-filtering only, since the post-filtering depends on the other annotations as well
+     * 
+     * @param searchSpec
+     *        the search specification to be restricted
+     * @param rso
+     *        search parameters, containing the revision and types
+     * @return the restricted search specification
+     */
+    private Specification<Annotation> restrictResult(final Specification<Annotation> searchSpec, final ResolvedSearchOptions rso) {
+
+        Specifications<Annotation> restricted = Specifications.where(searchSpec);
+        if (rso.getSinceRevision() != null) {
+            restricted = restricted.and(new AnnotationRevisionSearchSpec(rso.getSinceRevision()));
+        }
+        if (!CollectionUtils.isEmpty(rso.getTypes())) {
+            restricted = restricted.and(new AnnotationTypeSearchSpec(rso.getTypes()));
+        }
+        return restricted;
+    }
+
     /**
      * add annotations that were already soft-deleted (and are sentDeleted), e.g. when considering historical response versions in ISC
      * 
@@ -920,17 +1067,15 @@ public class AnnotationServiceImpl implements AnnotationService {
             return new ArrayList<Annotation>();
         }
 
-        // extract all metadata IDs required into a flat list
-        final List<Long> metadataIds = new ArrayList<Long>();
-        for (final MetadataIdsAndStatuses mias : searchModel.getMetadataAndStatusesList()) {
-            if (!CollectionUtils.isEmpty(mias.getMetadataIds())) {
-                metadataIds.addAll(mias.getMetadataIds());
-            }
-        }
+        // retrieve the IDs of all candidate metadata sets into a flat list
+        final List<Long> metadataIds = findIdsOfCandidateMetadata(searchModel);
 
         // check which of these metadata items have NORMAL or DELETED status and are sentDeleted
-        final List<Annotation> deletedAnnots = annotRepos.findByMetadataIdIsInAndStatusIsInAndSentDeletedIsTrue(metadataIds,
-                Arrays.asList(AnnotationStatus.NORMAL, AnnotationStatus.DELETED));
+        final List<Annotation> deletedAnnots = new ArrayList<Annotation>();
+        for (final List<Long> ids : partition(metadataIds)) {
+            deletedAnnots.addAll(annotRepos.findByMetadataIdIsInAndStatusIsInAndSentDeletedIsTrue(ids,
+                    Arrays.asList(AnnotationStatus.NORMAL, AnnotationStatus.DELETED)));
+        }
 
         // finally check which of these were not yet deleted at the responseVersion wanted
         final List<Annotation> annotsToAdd = new ArrayList<Annotation>();
@@ -1043,7 +1188,13 @@ public class AnnotationServiceImpl implements AnnotationService {
             // now we need to filter out such replies which should not be found according to their status
             // note: this would be too complicated to do on the database level, therefore it is performed as a postprocessing step
             final List<Annotation> filteredList = new ArrayList<Annotation>();
-            final List<MetadataIdsAndStatuses> metaIdsStats = annotSearchRes.getSearchModelUsed().getMetadataAndStatusesList();
+            // note: only the metadata sets of the found annotations need to be checked against the candidates of the search model
+            final List<Long> parentMetaIds = annotSearchRes.getItems().stream().map(Annotation::getMetadataId).distinct()
+                    .collect(Collectors.toList());
+            final Map<MetadataCandidatesAndStatuses, Set<Long>> metaIdsStats = new HashMap<MetadataCandidatesAndStatuses, Set<Long>>();
+            for (final MetadataCandidatesAndStatuses mcas : annotSearchRes.getSearchModelUsed().getMetadataAndStatusesList()) {
+                metaIdsStats.put(mcas, new HashSet<Long>(metadataService.findIdsOfMetadata(mcas.getMetadataCandidates(), parentMetaIds)));
+            }
             for (final Annotation rep : result) {
                 final String parentId = rep.getRootAnnotationId();
                 final Annotation parentAnnot = annotSearchRes.getItems().stream().filter(ann -> ann.getId().equals(parentId)).findFirst().get(); // must be
@@ -1051,9 +1202,9 @@ public class AnnotationServiceImpl implements AnnotationService {
                                                                                                                                                  // construction
                 final long parentMetaId = parentAnnot.getMetadataId();
 
-                final List<AnnotationStatus> allowedStatus = metaIdsStats.stream()
-                        .filter(mis -> mis.getMetadataIds().contains(parentMetaId))
-                        .map(MetadataIdsAndStatuses::getStatuses)
+                final List<AnnotationStatus> allowedStatus = metaIdsStats.entrySet().stream()
+                        .filter(mis -> mis.getValue().contains(parentMetaId))
+                        .map(mis -> mis.getKey().getStatuses())
                         .flatMap(list -> list.stream()) // removes nested lists
                         .distinct() // filter out duplicates
                         .collect(Collectors.toList());
@@ -1071,6 +1222,35 @@ public class AnnotationServiceImpl implements AnnotationService {
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Nonnull
+    public List<String> findAnnotationIdsChangedAfterRevision(final AnnotationSearchResult searchResult, final long revision,
+            final UserInformation userInfo) {
+
+        final List<String> result = new ArrayList<String>();
+        if (searchResult == null || searchResult.getSearchModelUsed() == null) {
+            LOG.debug("No metadata sets were considered by the search, so there cannot be any changes");
+            return result;
+        }
+
+        final List<Long> metadataIds = findIdsOfCandidateMetadata(searchResult.getSearchModelUsed());
+        User user = userInfo.getUser();
+        if (user == null) {
+            user = userService.findByLogin(userInfo.getLogin());
+        }
+        if (metadataIds.isEmpty() || user == null) {
+            return result;
+        }
+
+        for (final List<Long> ids : partition(metadataIds)) {
+            result.addAll(annotRepos.findIdsByMetadataIdIsInChangedAfterRevision(ids, revision, user.getId()));
+        }
+        return result;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1129,6 +1309,7 @@ public class AnnotationServiceImpl implements AnnotationService {
         // 2) then have the "external search options" converted to the "internal ones" (which takes care of metadata
         // deserialisation and stuff)
         final AnnotationSearchOptions searchOptions = AnnotationSearchOptions.fromIncomingSearchOptions(fakedSearchOpts, false);
+        searchOptions.setTypes(Arrays.asList(AnnotationType.OTHER, AnnotationType.COMMENT, AnnotationType.SUGGESTION)); // highlights are not counted
 
         // p4) final precondition: check that ISC authority is requested, or no authority (and we thus assume ISC)
         if (!searchOptions.getMetadataMapsWithStatusesList().isEmpty()) {
@@ -1140,8 +1321,8 @@ public class AnnotationServiceImpl implements AnnotationService {
         // 3) finally search
         final AnnotationSearchResult asr = searchAnnotations(searchOptions, userInfo);
 
-        // 4) post-filtering: we remove all highlights and all private items
-        final List<Annotation> withoutHighlight = asr.getItems().stream().filter(ann -> !isHighlight(ann) && ann.isShared()).collect(Collectors.toList());
+        // 4) post-filtering: we remove all private items (highlights were excluded by the search already)
+        final List<Annotation> withoutHighlight = asr.getItems().stream().filter(Annotation::isShared).collect(Collectors.toList());
         return withoutHighlight.size();
     }
 
@@ -1252,6 +1433,99 @@ public class AnnotationServiceImpl implements AnnotationService {
         rejectAnnotation(ann, user.getId());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public List<String> acceptSuggestionsById(final List<String> suggestionIds, final UserInformation userInfo) throws MissingPermissionException {
+
+        return updateSuggestionsStatus(suggestionIds, userInfo, AnnotationStatus.ACCEPTED);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public List<String> rejectSuggestionsById(final List<String> suggestionIds, final UserInformation userInfo) throws MissingPermissionException {
+
+        return updateSuggestionsStatus(suggestionIds, userInfo, AnnotationStatus.REJECTED);
+    }
+
+    /**
+     * accepts or rejects several suggestions at once; suggestions that cannot be accepted/rejected are skipped
+     * 
+     * @param suggestionIds 
+     *        the IDs of the suggestions
+     * @param userInfo 
+     *        information about the user requesting the status change
+     * @param newStatus 
+     *        the new status: {@link AnnotationStatus#ACCEPTED} or {@link AnnotationStatus#REJECTED}
+     *        
+     * @return the IDs of the suggestions accepted/rejected
+     * 
+     * @throws MissingPermissionException
+     *         exception thrown when no user is given
+     */
+    private List<String> updateSuggestionsStatus(final List<String> suggestionIds, final UserInformation userInfo,
+            final AnnotationStatus newStatus) throws MissingPermissionException {
+
+        Assert.notNull(userInfo, ERROR_USERINFO_MISSING);
+
+        if (suggestionIds == null || suggestionIds.isEmpty()) {
+            LOG.warn("No suggestions received for changing their status to {}.", newStatus);
+            return new ArrayList<String>();
+        }
+
+        final User user = userInfo.getUser();
+        if (user == null) {
+            throw new MissingPermissionException("No user given for changing the status of suggestions");
+        }
+
+        final boolean isLeosUser = Authorities.isLeos(userInfo.getAuthority());
+
+        final List<Annotation> candidates = new ArrayList<Annotation>();
+        for (final Annotation ann : findAnnotationsById(suggestionIds, Arrays.asList(AnnotationStatus.NORMAL))) {
+            if (!isSuggestion(ann)) {
+                LOG.info("Given ID '{}' does not represent a suggestion", ann.getId());
+            } else if (ann.isResponseStatusSent() && !isLeosUser) {
+                // in ISC, accepting or rejecting a suggestion is not allowed - but in LEOS!
+                LOG.info("Annotation/suggestion '{}' has response status SENT and thus its status cannot be changed in {}", ann.getId(),
+                        userInfo.getAuthority());
+            } else {
+                candidates.add(ann);
+            }
+        }
+
+        final List<Annotation> toUpdate = newStatus == AnnotationStatus.ACCEPTED
+                ? annotPermService.getSuggestionsUserMayAccept(candidates, user)
+                : annotPermService.getSuggestionsUserMayReject(candidates, user);
+        if (toUpdate.size() < candidates.size()) {
+            LOG.warn("User '{}' does not have permission to change the status of {} suggestions", user.getLogin(),
+                    candidates.size() - toUpdate.size());
+        }
+
+        final List<String> updated = updateAnnotationsStatus(toUpdate, newStatus, user.getId());
+        LOG.info("Suggestion bulk status change to {}: {} suggestions updated successfully, {} errors", newStatus, updated.size(),
+                suggestionIds.size() - updated.size());
+
+        return updated;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public List<String> softDeleteAnnotationsById(final List<String> annotIds, final long userId) {
+
+        if (CollectionUtils.isEmpty(annotIds)) {
+            return new ArrayList<String>();
+        }
+        return updateAnnotationsStatus(findAnnotationsById(annotIds, AnnotationStatus.getNonDeleted()), AnnotationStatus.DELETED, userId);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1260,7 +1534,8 @@ public class AnnotationServiceImpl implements AnnotationService {
 
         Assert.notNull(sugg, "Required annotation missing");
 
-        return tagsService.hasSuggestionTag(sugg.getTags());
+        // note: the type is derived from the tags whenever they are set
+        return sugg.getType() == AnnotationType.SUGGESTION;
     }
 
     /**
@@ -1271,7 +1546,7 @@ public class AnnotationServiceImpl implements AnnotationService {
 
         Assert.notNull(ann, "Required annotation missing");
 
-        return tagsService.hasHighlightTag(ann.getTags());
+        return ann.getType() == AnnotationType.HIGHLIGHT;
     }
 
     /**
@@ -1368,7 +1643,7 @@ public class AnnotationServiceImpl implements AnnotationService {
             annot.setStatus(newStatus);
             annot.setStatusUpdated(LocalDateTime.now());
             annot.setStatusUpdatedBy(userId);
-            annotRepos.save(annot);
+            saveWithNewRevision(annot);
         } catch (Exception e) {
             LOG.error("Error updating annotation status for annotation with ID '" + annot.getId() + "' to status '" + newStatus.toString() + '"', e);
             throw new CannotUpdateAnnotationException(e);
@@ -1385,7 +1660,7 @@ public class AnnotationServiceImpl implements AnnotationService {
                 child.setStatusUpdated(LocalDateTime.now());
                 child.setStatusUpdatedBy(userId);
                 try {
-                    annotRepos.save(child);
+                    saveWithNewRevision(child);
                 } catch (Exception e) {
                     LOG.error("Error soft-deleting child '" + child.getId() + "' of annotation '" + annot.getId() + "'", e);
                 }
@@ -1393,6 +1668,103 @@ public class AnnotationServiceImpl implements AnnotationService {
         }
     }
 
+    /**
+     * set-based variant of {@link #updateAnnotationStatus}: updates the status of several annotations and of the replies of the thread roots among them
+     * 
+     * the result is the same as when updating the annotations one after the other in the given order: 
+     * an annotation following its thread root is updated together with the root, and not reported as updated itself
+     * 
+     * @param annots 
+     *        annotations to be updated
+     * @param newStatus 
+     *        the new status to be applied
+     * @param userId 
+     *        internal DB id of the user requesting status change
+     *        
+     * @return the IDs of the annotations updated
+     */
+    private List<String> updateAnnotationsStatus(final List<Annotation> annots, final AnnotationStatus newStatus, final long userId) {
+
+        final List<String> updatedIds = new ArrayList<String>();
+        final Set<String> rootIds = new LinkedHashSet<String>();
+        for (final Annotation annot : annots) {
+            if (StringUtils.isEmpty(annot.getRootAnnotationId())) {
+                rootIds.add(annot.getId());
+                updatedIds.add(annot.getId());
+            } else if (!rootIds.contains(annot.getRootAnnotationId())) {
+                updatedIds.add(annot.getId());
+            }
+        }
+
+        final LocalDateTime now = LocalDateTime.now();
+        final long revision = revisionService.generateRevision();
+        // pending changes (e.g. of metadata saved before) are written first, as the bulk update clears the persistence context
+        annotRepos.flush();
+        for (final List<String> ids : partition(updatedIds)) {
+            annotRepos.updateStatusById(ids, newStatus, now, userId, revision);
+        }
+
+        // the replies still being in "NORMAL" state (since e.g. we don't want to change an already DELETED item to ACCEPTED)
+        for (final List<String> ids : partition(new ArrayList<String>(rootIds))) {
+            annotRepos.updateStatusByRootAnnotationIdAndStatus(ids, AnnotationStatus.NORMAL, newStatus, now, userId, revision);
+        }
+
+        return updatedIds;
+    }
+
+    /**
+     * retrieve the annotations having the given IDs and statuses, in the order of the IDs; unknown IDs and duplicates are ignored
+     */
+    private List<Annotation> findAnnotationsById(final List<String> annotIds, final List<AnnotationStatus> statuses) {
+
+        final List<String> distinctIds = new ArrayList<String>(new LinkedHashSet<String>(annotIds));
+        final Map<String, Annotation> annotsById = new HashMap<String, Annotation>();
+        for (final List<String> ids : partition(distinctIds)) {
+            for (final Annotation annot : annotRepos.findByIdIsInAndStatusIsIn(ids, statuses)) {
+                annotsById.put(annot.getId(), annot);
+            }
+        }
+
+        return distinctIds.stream().map(annotsById::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * stamp an annotation with a new revision and save it, so that incrementally synchronising clients receive the change
+     */
+    private Annotation saveWithNewRevision(final Annotation annot) {
+
+        annot.setRevision(revisionService.generateRevision());
+        return annotRepos.save(annot);
+    }
+
+    private Set<Long> getGroupIdsOfUser(final User user) {
+
+        final List<Long> groupIds = groupService.getGroupIdsOfUser(user);
+        return groupIds == null ? new HashSet<Long>() : new HashSet<Long>(groupIds);
+    }
+
+    /**
+     * retrieve the IDs of the candidate metadata sets of a search model, for features not covered by the search query itself
+     */
+    private List<Long> findIdsOfCandidateMetadata(final SearchModel searchModel) {
+
+        return searchModel.getMetadataAndStatusesList().stream()
+                .flatMap(mcas -> metadataService.findIdsOfMetadata(mcas.getMetadataCandidates(), null).stream())
+                .distinct().collect(Collectors.toList());
+    }
+
+    /**
+     * split a list of IDs into lists that can be used in an IN clause (limited to 1000 items by Oracle)
+     */
+    private static <T> List<List<T>> partition(final List<T> ids) {
+
+        final List<List<T>> partitions = new ArrayList<List<T>>();
+        for (int start = 0; start < ids.size(); start += MAX_IDS_PER_QUERY) {
+            partitions.add(ids.subList(start, Math.min(start + MAX_IDS_PER_QUERY, ids.size())));
+        }
+        return partitions;
+    }
+
     /**
      * checks if an annotation is visible for "only me" this is done based on the read permissions set: 
      *  if it is readable for the user only, it is private
@@ -1429,15 +1801,24 @@ public class AnnotationServiceImpl implements AnnotationService {
      * {@inheritDoc}
      */
     @Override
+    @Transactional
     public void makeShared(final List<Annotation> items) {
         
         if(CollectionUtils.isEmpty(items)) {
             LOG.debug("No annotations received for making them shared");
             return;
         }
-        
-        items.stream().forEach(annot -> annot.setShared(true));
-        annotRepos.save(items);
+
+        // pending changes (e.g. of metadata saved before) are written first, as the bulk update clears the persistence context
+        annotRepos.flush();
+        final long revision = revisionService.generateRevision();
+        for (final List<String> ids : partition(items.stream().map(Annotation::getId).collect(Collectors.toList()))) {
+            annotRepos.updateSharedById(ids, revision);
+        }
+        items.stream().forEach(annot -> {
+            annot.setShared(true);
+            annot.setRevision(revision);
+        });
     }
 
 }
\ No newline at end of file
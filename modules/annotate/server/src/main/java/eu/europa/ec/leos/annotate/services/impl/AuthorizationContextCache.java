@@ -0,0 +1,141 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.services.impl;
+
+import eu.europa.ec.leos.annotate.model.AuthorizationContext;
+import eu.europa.ec.leos.annotate.model.entity.Token;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache for the group memberships of authenticated users, keyed by their access token, to avoid
+ *   looking them up in the database for each annotation being checked or searched
+ * An entry is valid as long as its token, but for a given time at most, since memberships may be changed 
+ *   by another instance of the server; changes done by this instance invalidate the entries of the user
+ */
+@Component
+public class AuthorizationContextCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AuthorizationContextCache.class);
+
+    private final Map<String, AuthorizationContext> contexts = new ConcurrentHashMap<String, AuthorizationContext>();
+
+    // incremented with each invalidation, contexts loaded meanwhile are not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private LocalDateTime nextCacheCleanupTime = LocalDateTime.now();
+
+    // time in seconds during which a context may be used at most
+    @Value("${authorization.cache.seconds:60}")
+    private long cacheSeconds;
+
+    // -------------------------------------
+    // Service functionality
+    // -------------------------------------
+
+    /**
+     * retrieve the context cached for an access token
+     * 
+     * @param token the access token serving as cache key
+     * @return found context, or {@literal null} when none is cached or the cached one expired
+     */
+    public AuthorizationContext getContext(final Token token) {
+
+        final AuthorizationContext context = contexts.get(token.getAccessToken());
+        if (context != null && context.isExpired(LocalDateTime.now())) {
+            contexts.remove(token.getAccessToken(), context);
+            return null;
+        }
+        return context;
+    }
+
+    /**
+     * @return the number of invalidations done so far; to be retrieved before loading a context
+     */
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /**
+     * compute the time until which a context loaded now for an access token may be used
+     */
+    public LocalDateTime getValidUntil(final Token token) {
+
+        final LocalDateTime maxValidity = LocalDateTime.now().plusSeconds(cacheSeconds);
+        final LocalDateTime tokenExpiry = token.getAccessTokenExpires();
+        return tokenExpiry != null && tokenExpiry.isBefore(maxValidity) ? tokenExpiry : maxValidity;
+    }
+
+    /**
+     * add a context to the cache, unless an invalidation occurred while it was loaded
+     * 
+     * @param token the access token serving as cache key
+     * @param context the context to be cached
+     * @param invalidationsBeforeLoad number of invalidations retrieved before the context was loaded
+     */
+    public void cache(final Token token, final AuthorizationContext context, final long invalidationsBeforeLoad) {
+
+        removeExpiredContexts();
+        if (invalidationsBeforeLoad == invalidations.get()) {
+            contexts.put(token.getAccessToken(), context);
+        }
+    }
+
+    /**
+     * remove the contexts of a user, after the group memberships of the user changed
+     * 
+     * @param userId the internal DB id of the user
+     */
+    public void invalidate(final long userId) {
+
+        invalidations.incrementAndGet();
+        contexts.values().removeIf(context -> context.getUserId() == userId);
+    }
+
+    /**
+     * clean the cache
+     */
+    public void clear() {
+
+        invalidations.incrementAndGet();
+        contexts.clear();
+    }
+
+    /**
+     * report the number of cached items
+     * 
+     * @return number of cached items
+     */
+    public int size() {
+        return contexts.size();
+    }
+
+    // the contexts of tokens no longer used are removed from time to time, so that the cache does not grow forever
+    private void removeExpiredContexts() {
+
+        final LocalDateTime now = LocalDateTime.now();
+        if (nextCacheCleanupTime.isBefore(now)) {
+            nextCacheCleanupTime = now.plusSeconds(cacheSeconds);
+            contexts.values().removeIf(context -> context.isExpired(now));
+            LOG.debug("Expired authorization contexts removed, {} remaining", contexts.size());
+        }
+    }
+}
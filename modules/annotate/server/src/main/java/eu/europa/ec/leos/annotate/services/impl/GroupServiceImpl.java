@@ -14,9 +14,11 @@
 package eu.europa.ec.leos.annotate.services.impl;
 
 import eu.europa.ec.leos.annotate.Authorities;
+import eu.europa.ec.leos.annotate.model.AuthorizationContext;
 import eu.europa.ec.leos.annotate.model.GroupComparator;
 import eu.europa.ec.leos.annotate.model.UserInformation;
 import eu.europa.ec.leos.annotate.model.entity.Group;
+import eu.europa.ec.leos.annotate.model.entity.Token;
 import eu.europa.ec.leos.annotate.model.entity.User;
 import eu.europa.ec.leos.annotate.model.entity.UserGroup;
 import eu.europa.ec.leos.annotate.model.web.user.JsonGroupWithDetails;
@@ -60,6 +62,12 @@ public class GroupServiceImpl implements GroupService {
     @Autowired
     private UserGroupRepository userGroupRepos;
 
+    @Autowired
+    private AuthenticatedUserStore authUser;
+
+    @Autowired
+    private AuthorizationContextCache authContextCache;
+
     // -------------------------------------
     // Service functionality
     // -------------------------------------
@@ -214,6 +222,7 @@ public class GroupServiceImpl implements GroupService {
         final long groupId = group.getId();
         final UserGroup foundUserGroup = new UserGroup(userId, groupId);
         userGroupRepos.save(foundUserGroup);
+        authContextCache.invalidate(userId);
         LOG.info("Saved user '{}' (id {}) as member of group '{}' (id {})", user.getLogin(), userId, group.getName(), groupId);
 
         return true;
@@ -243,6 +252,7 @@ public class GroupServiceImpl implements GroupService {
         final long userId = user.getId();
         final long groupId = group.getId();
         userGroupRepos.deleteByUserIdAndGroupId(userId, groupId);
+        authContextCache.invalidate(userId);
         LOG.info("Removed user '{}' (id {}) as member of group '{}' (id {})", user.getLogin(), userId, group.getName(), groupId);
 
         return true;
@@ -278,6 +288,11 @@ public class GroupServiceImpl implements GroupService {
         Assert.notNull(user, "Cannot check if user is group member when no user is given");
         Assert.notNull(group, "Cannot check if user is group member when no group is given");
 
+        final AuthorizationContext context = getAuthorizationContext(user);
+        if (context != null) {
+            return context.isMemberOfGroup(group.getId());
+        }
+
         final UserGroup membership = userGroupRepos.findByUserIdAndGroupId(user.getId(), group.getId());
         LOG.debug("User '{}' (id {}) is member of group '{}' (id {}): {}", user.getLogin(), user.getId(), group.getName(), group.getId(), membership != null);
         return membership != null;
@@ -296,6 +311,11 @@ public class GroupServiceImpl implements GroupService {
 
         Assert.notNull(user, "Cannot search for groups of undefined User (null)");
 
+        final AuthorizationContext context = getAuthorizationContext(user);
+        if (context != null) {
+            return new ArrayList<Group>(context.getGroups());
+        }
+
         final List<UserGroup> foundUserGroups = userGroupRepos.findByUserId(user.getId());
         LOG.debug("Found {} groups in which user '{}' is member", foundUserGroups == null ? 0 : foundUserGroups.size(), user.getLogin());
 
@@ -321,6 +341,11 @@ public class GroupServiceImpl implements GroupService {
             return null;
         }
 
+        final AuthorizationContext context = getAuthorizationContext(user);
+        if (context != null) {
+            return new ArrayList<Long>(context.getGroupIds());
+        }
+
         final List<UserGroup> userGroups = userGroupRepos.findByUserId(user.getId());
         if (userGroups == null) return null;
 
@@ -409,4 +434,38 @@ public class GroupServiceImpl implements GroupService {
 
         return results;
     }
+
+    /**
+     * retrieve the group memberships of the user authenticated by the current request, 
+     * loading them once per access token
+     * 
+     * @param user the user whose group memberships are wanted
+     * @return the user's {@link AuthorizationContext}, or {@literal null} if the user is not the authenticated one 
+     *         (the memberships then have to be retrieved from the database)
+     */
+    private AuthorizationContext getAuthorizationContext(final User user) {
+
+        final UserInformation userInfo = authUser.getUserInfo();
+        if (userInfo == null || userInfo.getCurrentToken() == null || userInfo.getUser() == null || 
+                !userInfo.getUser().getId().equals(user.getId())) {
+            return null;
+        }
+
+        final Token token = userInfo.getCurrentToken();
+        AuthorizationContext context = authContextCache.getContext(token);
+        if (context == null || context.getUserId() != user.getId()) {
+            final long invalidationsBeforeLoad = authContextCache.getInvalidations();
+            final List<UserGroup> userGroups = userGroupRepos.findByUserId(user.getId());
+            if (userGroups == null) {
+                return null;
+            }
+
+            final List<Long> groupIds = userGroups.stream().map(UserGroup::getGroupId).distinct().collect(Collectors.toList());
+            final List<Group> groups = groupIds.isEmpty() ? new ArrayList<Group>() : groupRepos.findByIdIn(groupIds);
+            context = new AuthorizationContext(user.getId(), groups, groupIds, authContextCache.getValidUntil(token));
+            authContextCache.cache(token, context, invalidationsBeforeLoad);
+            LOG.debug("Loaded group memberships of user '{}': {} groups", user.getLogin(), groupIds.size());
+        }
+        return context;
+    }
 }
@@ -22,10 +22,12 @@ import eu.europa.ec.leos.annotate.model.entity.Group;
 import eu.europa.ec.leos.annotate.model.entity.Metadata;
 import eu.europa.ec.leos.annotate.model.entity.Metadata.ResponseStatus;
 import eu.europa.ec.leos.annotate.repository.MetadataRepository;
+import eu.europa.ec.leos.annotate.repository.impl.MetadataKeyValuesSearchSpec;
 import eu.europa.ec.leos.annotate.repository.impl.MetadataVersionUpToSearchSpec;
 import eu.europa.ec.leos.annotate.services.AnnotationService;
 import eu.europa.ec.leos.annotate.services.MetadataMatchingService;
 import eu.europa.ec.leos.annotate.services.MetadataService;
+import eu.europa.ec.leos.annotate.services.RevisionGeneratorService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -50,7 +52,7 @@ public class MetadataMatchingServiceImpl implements MetadataMatchingService {
     private static final String SYSTEM_ID = "systemId";
     private static final String VERSION = "version";
 
-    private static final String VERSION_SEARCH_UP_TO = "<=";
+    private static final String VERSION_SEARCH_UP_TO = MetadataVersionUpToSearchSpec.VERSION_SEARCH_UP_TO;
 
     private enum VersionSearchType {
         EQUALITY, UP_TO
@@ -64,10 +66,10 @@ public class MetadataMatchingServiceImpl implements MetadataMatchingService {
     private MetadataRepository metadataRepos;
 
     @Autowired
-    private MetadataService metadataService;
+    private AnnotationService annotService;
 
     @Autowired
-    private AnnotationService annotService;
+    private RevisionGeneratorService revisionService;
 
     // -------------------------------------
     // Service functionality
@@ -178,7 +180,8 @@ public class MetadataMatchingServiceImpl implements MetadataMatchingService {
         final List<Metadata> semifilteredMetadata = new ArrayList<Metadata>();
         for (final SimpleMetadata requestedMeta : requested) {
 
-            final List<Metadata> candidates2 = filterCandidatesByVersion(candidates, requestedMeta.get(VERSION));
+            final List<Metadata> candidates2 = filterCandidatesByKeyValues(
+                    filterCandidatesByVersion(candidates, requestedMeta.get(VERSION)), requestedMeta);
 
             semifilteredMetadata.addAll(candidates2.stream()
                     .filter(meta -> areAllMetadataContainedInDbMetadata(requestedMeta, meta, false))
@@ -215,26 +218,20 @@ public class MetadataMatchingServiceImpl implements MetadataMatchingService {
             return null;
         }
 
-        final List<Metadata> candidates = metadataService.findMetadataOfDocumentGroupSystemid(document, group, systemId);
-        if (candidates.isEmpty()) {
-            LOG.debug("Did not find any metadata sets matching given document/group/systemId");
-            return null;
-        }
-
-        // find equality by matching inclusion in both directions (A includes B, B includes A)
-        final List<Metadata> candidatesOneDirection = candidates.stream().filter(meta -> areAllMetadataContainedInDbMetadata(otherMetadataProps, meta))
-                .collect(Collectors.toList());
-
+        // the key-value pairs are compared in the database (equality of the pairs);
+        // the few remaining candidates are checked for the properties having their own columns (response status, version)
         final Metadata metaHelp = new Metadata(document, group, systemId);
         metaHelp.setKeyValuePropertyFromSimpleMetadata(otherMetadataProps);
 
-        for (final Metadata candidateMeta : candidatesOneDirection) {
-            if (areAllMetadataContainedInDbMetadata(candidateMeta.getKeyValuePropertyAsSimpleMetadata(), metaHelp)) {
-                return candidateMeta; // perfect match
-            }
+        final List<Metadata> candidates = metadataRepos.findAll(new MetadataKeyValuesSearchSpec(document, group, systemId,
+                metaHelp.getKeyValuePropertyAsSimpleMetadata(), null));
+        if (candidates.isEmpty()) {
+            LOG.debug("Did not find any metadata sets matching given document/group/systemId/key-values");
+            return null;
         }
 
-        return null;
+        return candidates.stream().filter(meta -> areAllMetadataContainedInDbMetadata(otherMetadataProps, meta))
+                .findFirst().orElse(null);
     }
 
     /**
@@ -260,32 +257,20 @@ public class MetadataMatchingServiceImpl implements MetadataMatchingService {
         }
         otherMetadataProps.remove(Metadata.PROP_RESPONSE_VERSION);
 
-        final List<Metadata> candidates = metadataService.findMetadataOfDocumentGroupSystemid(document, group, systemId);
-        if (candidates.isEmpty()) {
-            LOG.debug("Did not find any metadata sets matching given document/group/systemId");
-            return null;
-        }
-
-        // find equality by matching inclusion in both directions (A includes B, B includes A)
-        final List<Metadata> candidatesOneDirection = candidates.stream().filter(meta -> areAllMetadataContainedInDbMetadata(otherMetadataProps, meta))
-                .collect(Collectors.toList());
-
+        // the key-value pairs (except the response version) are compared in the database;
+        // the few remaining candidates are checked for the properties having their own columns (response status, version)
         final Metadata metaHelp = new Metadata(document, group, systemId);
         metaHelp.setKeyValuePropertyFromSimpleMetadata(otherMetadataProps);
 
-        final List<Metadata> finalCandidates = new ArrayList<Metadata>();
-        for (final Metadata candidateMetaItem : candidatesOneDirection) {
-
-            final Metadata candidateMeta = new Metadata(candidateMetaItem); // create a copy to prevent the item being saved
-            candidateMeta.setId(candidateMetaItem.getId() * -1); // we however need the item's ID; make it negative to "keep" it (hack!)
-            candidateMeta.removeResponseVersion();
-
-            if (areAllMetadataContainedInDbMetadata(candidateMeta.getKeyValuePropertyAsSimpleMetadata(), metaHelp)) {
-                finalCandidates.add(candidateMeta);
-            }
+        final List<Metadata> candidates = metadataRepos.findAll(new MetadataKeyValuesSearchSpec(document, group, systemId,
+                metaHelp.getKeyValuePropertyAsSimpleMetadata(), Metadata.PROP_RESPONSE_VERSION));
+        if (candidates.isEmpty() && metadataRepos.countByDocumentAndGroupAndSystemId(document, group, systemId) == 0) {
+            LOG.debug("Did not find any metadata sets matching given document/group/systemId");
+            return null;
         }
 
-        return finalCandidates.stream().mapToLong(meta -> meta.getId() * -1).boxed().collect(Collectors.toList());
+        return candidates.stream().filter(meta -> areAllMetadataContainedInDbMetadata(otherMetadataProps, meta))
+                .map(Metadata::getId).collect(Collectors.toList());
     }
 
     /**
@@ -401,6 +386,7 @@ public class MetadataMatchingServiceImpl implements MetadataMatchingService {
         }
         metaToMatch.setResponseStatus(Metadata.ResponseStatus.IN_PREPARATION);
         metaToMatch.setResponseVersion(newVersion);
+        metaToMatch.setRevision(revisionService.generateRevision());
         
         return metadataRepos.save(metaToMatch);
     }
@@ -588,6 +574,31 @@ public class MetadataMatchingServiceImpl implements MetadataMatchingService {
         return filtered;
     }
 
+    /**
+     * filter a given list of metadata sets by keeping only those containing the requested key-value pairs;
+     * the comparison is done in the database
+     * 
+     * @param candidates list of metadata sets
+     * @param requested the requested metadata; properties having their own columns (systemId, version, response status) are not considered
+     * @return filtered list of items
+     */
+    @Nonnull
+    private List<Metadata> filterCandidatesByKeyValues(final List<Metadata> candidates, final SimpleMetadata requested) {
+
+        if (CollectionUtils.isEmpty(candidates)) {
+            return candidates;
+        }
+
+        final Metadata metaHelp = new Metadata();
+        metaHelp.setKeyValuePropertyFromSimpleMetadata(requested);
+        final SimpleMetadata requestedKeyValues = metaHelp.getKeyValuePropertyAsSimpleMetadata();
+        if (requestedKeyValues.isEmpty()) {
+            return candidates;
+        }
+
+        return metadataRepos.findAll(new MetadataKeyValuesSearchSpec(MetadataListHelper.getMetadataSetIds(candidates), requestedKeyValues));
+    }
+
     /**
      *  extract the type of version search by looking at the version string
      * 
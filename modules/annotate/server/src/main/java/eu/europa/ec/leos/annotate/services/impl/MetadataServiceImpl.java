@@ -21,16 +21,20 @@ import eu.europa.ec.leos.annotate.model.entity.Metadata;
 import eu.europa.ec.leos.annotate.model.entity.Metadata.ResponseStatus;
 import eu.europa.ec.leos.annotate.model.web.StatusUpdateRequest;
 import eu.europa.ec.leos.annotate.repository.MetadataRepository;
+import eu.europa.ec.leos.annotate.repository.impl.MetadataKeyValuesSearchSpec;
 import eu.europa.ec.leos.annotate.services.DocumentService;
 import eu.europa.ec.leos.annotate.services.GroupService;
 import eu.europa.ec.leos.annotate.services.MetadataMatchingService;
 import eu.europa.ec.leos.annotate.services.MetadataService;
+import eu.europa.ec.leos.annotate.services.RevisionGeneratorService;
 import eu.europa.ec.leos.annotate.services.exceptions.CannotCreateMetadataException;
 import eu.europa.ec.leos.annotate.services.exceptions.CannotUpdateAnnotationStatusException;
 import eu.europa.ec.leos.annotate.services.exceptions.MissingPermissionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.domain.Specifications;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
@@ -64,6 +68,9 @@ public class MetadataServiceImpl implements MetadataService {
     @Autowired
     private MetadataRepository metadataRepos;
 
+    @Autowired
+    private RevisionGeneratorService revisionService;
+
     // -------------------------------------
     // Service functionality
     // -------------------------------------
@@ -144,6 +151,32 @@ public class MetadataServiceImpl implements MetadataService {
         return metadataRepos.findByDocumentAndGroupAndSystemIdAndResponseStatus(document, group, systemId, ResponseStatus.IN_PREPARATION);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean existsMetadata(final Specification<Metadata> metadataSpec) {
+
+        return metadataRepos.count(metadataSpec) > 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Nonnull
+    public List<Long> findIdsOfMetadata(final Specification<Metadata> metadataSpec, final List<Long> amongIds) {
+
+        if (amongIds == null) {
+            return MetadataListHelper.getNonNullMetadataSetIds(metadataRepos.findAll(metadataSpec));
+        }
+        if (amongIds.isEmpty()) {
+            return new ArrayList<Long>();
+        }
+        return MetadataListHelper.getNonNullMetadataSetIds(metadataRepos.findAll(
+                Specifications.where(metadataSpec).and(new MetadataKeyValuesSearchSpec(amongIds, null))));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -157,6 +190,8 @@ public class MetadataServiceImpl implements MetadataService {
 
         Metadata modifiedMetadata = null;
         try {
+            // the annotations of the metadata set are reported as changed to incrementally synchronising clients
+            metadata.setRevision(revisionService.generateRevision());
             modifiedMetadata = metadataRepos.save(metadata);
         } catch (Exception e) {
             LOG.error("Exception upon saving metadata");
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.services.impl;
+
+import eu.europa.ec.leos.annotate.repository.AnnotationRepository;
+import eu.europa.ec.leos.annotate.services.RevisionGeneratorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * generation of the revisions stamped on changed annotations and metadata sets
+ * 
+ * the revisions handed out are kept as pending until they are known to be committed: 
+ * - when generated within a transaction, until the transaction completes
+ * - otherwise (the stamped item being saved in its own transaction by the repository), during a grace period
+ * this allows to determine a revision up to which all changes are visible, even if transactions commit in another order than they stamped
+ * 
+ * the pending revisions are tracked per server instance only; as several instances may share the database, the revisions
+ * handed out by the other instances are only considered as committed once a safety margin has passed since they were handed out:
+ * the revision sequence is sampled periodically, all revisions lower than a sample having been handed out at the time of the sample;
+ * the safety margin must therefore exceed the duration of the longest transaction stamping revisions
+ */
+@Service
+public class RevisionGeneratorServiceImpl implements RevisionGeneratorService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RevisionGeneratorServiceImpl.class);
+
+    @Autowired
+    @Qualifier("annotationRepos")
+    private AnnotationRepository annotRepos;
+
+    // time in milliseconds during which a revision generated outside of a transaction is considered as not being committed yet
+    @Value("${sync.revision.graceperiod:10000}")
+    private long gracePeriod;
+
+    // time in milliseconds after which a revision handed out by any server instance is considered as committed (or rolled back)
+    @Value("${sync.revision.safetymargin:60000}")
+    private long safetyMargin;
+
+    // number of samples of the revision sequence kept per safety margin
+    private static final long SAMPLES_PER_SAFETY_MARGIN = 10;
+
+    // pending revisions, mapped to the time after which they are considered as committed in any case (none while their transaction runs)
+    private final ConcurrentNavigableMap<Long, Long> pendingRevisions = new ConcurrentSkipListMap<Long, Long>();
+
+    // samples of the revision sequence: end of the sampling interval mapped to the highest next revision read during the interval,
+    // i.e. all lower revisions had been handed out (by any server instance) at the end of the interval
+    private final ConcurrentNavigableMap<Long, Long> sequenceSamples = new ConcurrentSkipListMap<Long, Long>();
+
+    // shared by the generation of revisions, exclusive for determining the completed revision;
+    // makes sure that a revision taken from the sequence is registered as pending before the completed revision is determined
+    private final ReadWriteLock revisionLock = new ReentrantReadWriteLock();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long generateRevision() {
+
+        final boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        final long revision;
+        revisionLock.readLock().lock();
+        try {
+            revision = annotRepos.getNextRevision().longValue();
+            pendingRevisions.put(revision, inTransaction ? Long.MAX_VALUE : System.currentTimeMillis() + gracePeriod);
+        } finally {
+            revisionLock.readLock().unlock();
+        }
+        sampleSequence(revision + 1, System.currentTimeMillis());
+
+        if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(final int status) {
+                    pendingRevisions.remove(revision);
+                }
+            });
+        } else {
+            LOG.trace("Revision {} generated outside of a transaction, considered as pending during {} ms", revision, gracePeriod);
+        }
+        return revision;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getCompletedRevision() {
+
+        final long nextRevision;
+        revisionLock.writeLock().lock();
+        try {
+            nextRevision = annotRepos.getNextRevision().longValue();
+        } finally {
+            revisionLock.writeLock().unlock();
+        }
+
+        final long now = System.currentTimeMillis();
+        sampleSequence(nextRevision, now);
+
+        // revisions handed out by other server instances may still be pending unless the safety margin has passed
+        final Map.Entry<Long, Long> safeSample = sequenceSamples.floorEntry(now - safetyMargin);
+        if (safeSample == null) {
+            LOG.debug("No revision known to be handed out more than {} ms ago", safetyMargin);
+            return 0;
+        }
+        final long completedRevision = Math.min(safeSample.getValue(), nextRevision) - 1;
+
+        for (final Map.Entry<Long, Long> pending : pendingRevisions.entrySet()) {
+            if (pending.getValue() > now) {
+                LOG.debug("Revision {} is still pending", pending.getKey());
+                return Math.min(completedRevision, pending.getKey() - 1);
+            }
+            pendingRevisions.remove(pending.getKey(), pending.getValue());
+        }
+        return completedRevision;
+    }
+
+    // records that all revisions lower than the given next revision were handed out at the given time;
+    // only the latest sample older than the safety margin is kept among the older samples
+    private void sampleSequence(final long nextRevision, final long time) {
+
+        final long interval = Math.max(1, safetyMargin / SAMPLES_PER_SAFETY_MARGIN);
+        sequenceSamples.merge((time + interval - 1) / interval * interval, nextRevision, Math::max);
+
+        final Long safeTime = sequenceSamples.floorKey(time - safetyMargin);
+        if (safeTime != null) {
+            sequenceSamples.headMap(safeTime).clear();
+        }
+    }
+}
@@ -29,9 +29,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.StringUtils;
 
 import javax.annotation.Nonnull;
 
@@ -74,6 +74,7 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
      */
     @Override
     @Nonnull
+    @Transactional
     @SuppressWarnings("PMD.ConfusingTernary")
     public ResponseStatusUpdateResult updateAnnotationResponseStatus(final StatusUpdateRequest updateRequest, final UserInformation userInfo)
             throws CannotUpdateAnnotationStatusException, MissingPermissionException {
@@ -86,16 +87,17 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
 
         // we send a websocket update for all annotations associated to this metadata
         final List<Long> metadataIds = metadataUpdated.stream().map(Metadata::getId).collect(Collectors.toList());
-        final List<Annotation> annots = annotService.findByMetadataAndStatus(metadataIds, AnnotationStatus.NORMAL);
+        final List<String> updatedIds = metadataIds.isEmpty() ? new ArrayList<String>()
+                : annotService.findIdsByMetadataAndStatus(metadataIds, AnnotationStatus.NORMAL);
 
         // now we need to take a closer look at the annotations being updated:
         // if they are linked to another annotation, we have to
         // - soft-delete the linked annotation
         // - remove the link from the updated annotation to the linked annotation (other link direction is kept)
-        final List<Annotation> annotsToSave = new ArrayList<Annotation>();
         final List<String> annotsToDelete = new ArrayList<String>();
-
-        checkLinkedAnnotations(annots, annotsToSave, annotsToDelete);
+        if (!metadataIds.isEmpty()) {
+            annotsToDelete.addAll(annotService.removeLinksToAnnotations(metadataIds));
+        }
 
         // if no items were found for updating, we create an artificial item in order to evaluate the "sentDeleted" items
         if (metadataUpdated.isEmpty()) {
@@ -128,11 +130,11 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
         }
 
         // from those metadata candidates, we search all associate annotations having "sentDeleted=true" and not DELETED status
-        final List<Annotation> annotsSentDeletedToDelete = annotService.findSentDeletedByMetadataIdAndStatus(
-                metaCandIdsSentDelete, AnnotationStatus.getNonDeleted());
+        final List<String> annotsSentDeletedToDelete = metaCandIdsSentDelete.isEmpty() ? new ArrayList<String>()
+                : annotService.findSentDeletedIdsByMetadataIdAndStatus(metaCandIdsSentDelete, AnnotationStatus.getNonDeleted());
         if (!CollectionUtils.isEmpty(annotsSentDeletedToDelete)) {
             // add found items to the list of annotations to be deleted
-            annotsSentDeletedToDelete.forEach(ann -> annotsToDelete.add(ann.getId()));
+            annotsToDelete.addAll(annotsSentDeletedToDelete);
         } else if (!metadataItemsUpdated) {
             // no items to delete and no metadata items updated -> throw error (as we did in the past)
             LOG.warn("No items to update, no items to be logically deleted");
@@ -140,57 +142,24 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
         }
 
         // persist the changes
+        final List<String> deletedIds;
         try {
-            annotService.saveAll(annotsToSave);
-
-            for (final String annId : annotsToDelete) {
-                final Annotation ann = annotService.findAnnotationById(annId);
-                annotService.softDeleteAnnotation(ann, userInfo.getUser().getId());
-            }
-        } catch (IllegalArgumentException | CannotDeleteAnnotationException e) {
+            deletedIds = annotService.softDeleteAnnotationsById(annotsToDelete, userInfo.getUser().getId());
+        } catch (RuntimeException e) {
             throw new CannotUpdateAnnotationStatusException("Error updating dependent annotations", e);
         }
 
         // we return the list of annotation IDs affected by the response status transition
         // (in order to be able to publish updates via websockets)
-        final List<String> updatedIds = annots.stream().map(Annotation::getId).collect(Collectors.toList());
-        LOG.info("{} annotations updated, {} annotations logically deleted", updatedIds.size(), annotsToDelete.size());
-        return new ResponseStatusUpdateResult(updatedIds, annotsToDelete);
-    }
-
-    /**
-     * check a given list of annotations for the presence of links to other annotations
-     * if so, break the link and delete the linked item
-     * 
-     * @param annots
-     *        list of {@link Annotation}s to be checked
-     * @param annotsToSave
-     *        returned list of {@link Annotation}s modified and requiring to be saved
-     * @param annotsToDelete
-     *        returned list of {@link Annotation}s to be deleted
-     */
-    private void checkLinkedAnnotations(final List<Annotation> annots,
-            final List<Annotation> annotsToSave,
-            final List<String> annotsToDelete) {
-
-        for (final Annotation annCheck : annots) {
-
-            if (!StringUtils.isEmpty(annCheck.getLinkedAnnotationId())) {
-
-                // soft-delete the linked item
-                annotsToDelete.add(annCheck.getLinkedAnnotationId());
-
-                // break the link and save
-                annCheck.setLinkedAnnotationId(null);
-                annotsToSave.add(annCheck);
-            }
-        }
+        LOG.info("{} annotations updated, {} annotations logically deleted", updatedIds.size(), deletedIds.size());
+        return new ResponseStatusUpdateResult(updatedIds, deletedIds);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
+    @Transactional
     public PublishContributionsResult publishContributions(final PublishContributionsRequest publishRequest,
             final UserInformation userInfo)
             throws CannotPublishContributionsException, MissingPermissionException, CannotCreateMetadataException {
@@ -261,25 +230,22 @@ public class StatusUpdateServiceImpl implements StatusUpdateService {
 
         for (final Metadata meta : allMetadata) {
 
-            // retrieve all annotations assigned to this metadata item - considering all statuses!
-            final List<Annotation> linkedAnnots = annotService.findByMetadata(Arrays.asList(meta.getId()));
-            final List<Annotation> assignedAnnots = linkedAnnots.stream().filter(
-                    annot -> publishResult.getUpdatedAnnotIds().contains(annot.getId())).collect(Collectors.toList());
+            // count all annotations assigned to this metadata item - considering all statuses!
+            final long linkedAnnotsCount = annotService.countByMetadata(meta.getId());
+            final List<String> assignedAnnotIds = searchRes.getItems().stream().filter(annot -> annot.getMetadataId() == meta.getId())
+                    .map(Annotation::getId).collect(Collectors.toList());
 
-            if (assignedAnnots.size() == linkedAnnots.size()) {
+            if (assignedAnnotIds.size() == linkedAnnotsCount) {
 
                 // all linked annotations have been published - just add new metadata property and we are done
                 addOriginModeAndSave(meta);
             } else {
 
-                // not all of the linked annotations have been published - i.e. that those contained in assignedAnnots must be reassigned
+                // not all of the linked annotations have been published - i.e. that those contained in assignedAnnotIds must be reassigned
                 final Metadata newMetadata = new Metadata(meta);
                 addOriginModeAndSave(newMetadata);
 
-                for (final Annotation annot : assignedAnnots) {
-                    annot.setMetadata(newMetadata);
-                }
-                annotService.saveAll(assignedAnnots);
+                annotService.reassignMetadata(assignedAnnotIds, newMetadata);
             }
         }
 
@@ -15,17 +15,24 @@ package eu.europa.ec.leos.annotate.services.impl;
 
 import eu.europa.ec.leos.annotate.model.entity.Annotation;
 import eu.europa.ec.leos.annotate.model.entity.Tag;
+import eu.europa.ec.leos.annotate.model.entity.TagName;
+import eu.europa.ec.leos.annotate.repository.TagNameRepository;
 import eu.europa.ec.leos.annotate.repository.TagRepository;
 import eu.europa.ec.leos.annotate.services.TagsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.CollectionUtils;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service responsible for managing tags associated to annotations 
@@ -37,6 +44,12 @@ public class TagsServiceImpl implements TagsService {
 
     @Autowired
     private TagRepository tagRepos;
+
+    @Autowired
+    private TagNameRepository tagNameRepos;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
     
     /**
      * {@inheritDoc}
@@ -54,12 +67,53 @@ public class TagsServiceImpl implements TagsService {
             return null;
         }
 
+        final Map<String, TagName> tagNames = getTagNames(tags);
+
         final List<Tag> preparedTags = new ArrayList<Tag>();
-        tags.forEach(tag -> preparedTags.add(new Tag(tag, annotation)));
+        tags.stream().distinct().forEach(tag -> preparedTags.add(new Tag(tagNames.get(tag), annotation)));
 
         return preparedTags;
     }
 
+    /**
+     * retrieve the dictionary entries for the given tag names; names not yet known are added to the dictionary in one go
+     * 
+     * note: the new names are inserted in a separate transaction; if another annotation introduced the same new tag name
+     * concurrently, the insert fails due to the unique constraint on the name and the entries created meanwhile are used
+     * 
+     * @param names
+     *        the tag names
+     * @return map of the tag names and their dictionary entries
+     */
+    private Map<String, TagName> getTagNames(final List<String> names) {
+
+        final Set<String> distinctNames = new HashSet<>(names);
+        final Map<String, TagName> tagNames = tagNameRepos.findByNameIn(distinctNames).stream()
+                .collect(Collectors.toMap(TagName::getName, Function.identity()));
+
+        final List<TagName> newTagNames = distinctNames.stream()
+                .filter(name -> !tagNames.containsKey(name))
+                .map(TagName::new)
+                .collect(Collectors.toList());
+        if (!newTagNames.isEmpty()) {
+            final Set<String> newNames = newTagNames.stream().map(TagName::getName).collect(Collectors.toSet());
+            try {
+                final TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+                newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                newTransaction.execute(status -> tagNameRepos.save(newTagNames));
+            } catch (DataIntegrityViolationException dive) {
+                LOG.info("Tag names {} were added to the dictionary concurrently, using the existing entries", newNames);
+            }
+
+            // read in the calling transaction: entries inserted in the separate transaction are not attached to it
+            tagNameRepos.findByNameIn(newNames).forEach(tagName -> tagNames.put(tagName.getName(), tagName));
+            if (!tagNames.keySet().containsAll(newNames)) {
+                throw new IllegalStateException("Tag names could not be added to the dictionary: " + newNames);
+            }
+        }
+        return tagNames;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -16,16 +16,20 @@ package eu.europa.ec.leos.annotate.services.impl;
 import eu.europa.ec.leos.annotate.model.UserDetails;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Cache for temporarily storing user detail information to avoid unnecessarily repeating calls to
  *   the external UD-repo within a short time frame
+ * Entries older than a given time are still served, but should be refreshed in the background;
+ *   users unknown to the UD-repo are remembered for a short time as well
  * The cache cleans itself during first access after a given time period  
  */
 @Component
@@ -33,17 +37,27 @@ public class UserDetailsCache {
 
     private static final Logger LOG = LoggerFactory.getLogger(UserDetailsCache.class);
 
-    private final Map<String, UserDetails> udcache;
-    private LocalDateTime nextCacheCleanupTime; // time after which cache should be wiped
+    private final Map<String, CachedUserDetails> udcache;
+    private final Set<String> refreshing; // logins whose details are being refreshed
+    private volatile LocalDateTime nextCacheCleanupTime; // time after which cache should be wiped
 
     // time in minutes after which cache should be wiped
     private final static int CLEANUP_TIME_MINUTES = 10;
 
+    // time in seconds after which cached details should be refreshed
+    @Value("${user.repository.cache.refresh.seconds:60}")
+    private long refreshSeconds = 60;
+
+    // time in seconds during which a user unknown to the UD-repo is not searched again
+    @Value("${user.repository.cache.unknown.seconds:30}")
+    private long unknownSeconds = 30;
+
     // -------------------------------------
     // Constructor
     // -------------------------------------
     public UserDetailsCache() {
-        this.udcache = new HashMap<String, UserDetails>();
+        this.udcache = new ConcurrentHashMap<String, CachedUserDetails>();
+        this.refreshing = ConcurrentHashMap.newKeySet();
     }
 
     // -------------------------------------
@@ -59,24 +73,56 @@ public class UserDetailsCache {
      */
     public UserDetails getCachedUserDetails(final String login) {
 
-        if (StringUtils.isEmpty(login)) {
-            LOG.warn("Cannot search for cached user details based on empty login");
-            return null;
-        }
+        final CachedUserDetails cached = getCachedEntry(login);
+        return cached == null ? null : cached.getDetails();
+    }
 
-        if (nextCacheCleanupTime == null) {
-            // initially schedule the first cleanup
-            setNextCacheCleanupInterval();
+    /**
+     * check whether a user was recently reported to be unknown by the UD-repo
+     * 
+     * @param login the login serving as cache key
+     * @return flag indicating that the UD-repo should not be asked again yet
+     */
+    public boolean isCachedAsUnknown(final String login) {
 
-        } else if (nextCacheCleanupTime.isBefore(LocalDateTime.now())) {
+        final CachedUserDetails cached = getCachedEntry(login);
+        if (cached == null || cached.getDetails() != null) {
+            return false;
+        }
+        if (cached.getCachedAt().plusSeconds(unknownSeconds).isBefore(LocalDateTime.now())) {
+            udcache.remove(login, cached);
+            return false;
+        }
+        return true;
+    }
 
-            // time for cleaning the cache (we do not want it to grow forever)
-            LOG.debug("User details cache will be cleared now");
-            clear();
-            setNextCacheCleanupInterval();
+    /**
+     * check whether the cached details of a user are outdated and mark them as being refreshed
+     * note: the details are marked for a single caller only, in order to launch one refresh at a time
+     * 
+     * @param login the login serving as cache key
+     * @return flag indicating that the caller should refresh the details
+     */
+    public boolean startRefreshIfOutdated(final String login) {
+
+        final CachedUserDetails cached = getCachedEntry(login);
+        if (cached == null || cached.getDetails() == null ||
+                !cached.getCachedAt().plusSeconds(refreshSeconds).isBefore(LocalDateTime.now())) {
+            return false;
         }
+        return refreshing.add(login);
+    }
 
-        return udcache.get(login);
+    /**
+     * notify that refreshing the details of a user failed; the cached details are kept
+     * 
+     * @param login the login serving as cache key
+     */
+    public void refreshFailed(final String login) {
+
+        if (!StringUtils.isEmpty(login)) {
+            refreshing.remove(login);
+        }
     }
 
     /**
@@ -97,7 +143,25 @@ public class UserDetailsCache {
             return;
         }
 
-        udcache.put(login, details);
+        udcache.put(login, new CachedUserDetails(details));
+        refreshing.remove(login);
+    }
+
+    /**
+     * remember that a user is unknown to the UD-repo
+     * note: details cached before are kept, as the user might only be unknown temporarily
+     * 
+     * @param login the user's login, serving as cache key
+     */
+    public void cacheUnknown(final String login) {
+
+        if (StringUtils.isEmpty(login)) {
+            LOG.warn("Cannot cache unknown user without key");
+            return;
+        }
+
+        udcache.putIfAbsent(login, new CachedUserDetails(null));
+        refreshing.remove(login);
     }
 
     /**
@@ -105,6 +169,7 @@ public class UserDetailsCache {
      */
     public void clear() {
         udcache.clear();
+        refreshing.clear();
     }
 
     /**
@@ -127,6 +192,33 @@ public class UserDetailsCache {
             nextCacheCleanupTime = nextTime;
         }
     }
+
+    /**
+     * retrieve the cache entry of a user
+     * note: might initiate a cache clean, if necessary
+     */
+    private CachedUserDetails getCachedEntry(final String login) {
+
+        if (StringUtils.isEmpty(login)) {
+            LOG.warn("Cannot search for cached user details based on empty login");
+            return null;
+        }
+
+        if (nextCacheCleanupTime == null) {
+            // initially schedule the first cleanup
+            setNextCacheCleanupInterval();
+
+        } else if (nextCacheCleanupTime.isBefore(LocalDateTime.now())) {
+
+            // time for cleaning the cache (we do not want it to grow forever)
+            LOG.debug("User details cache will be cleared now");
+            clear();
+            setNextCacheCleanupInterval();
+        }
+
+        return udcache.get(login);
+    }
+
     /**
      *  schedule next time after which user details cache should be cleaned
      */
@@ -135,4 +227,26 @@ public class UserDetailsCache {
         nextCacheCleanupTime = LocalDateTime.now().plusMinutes(CLEANUP_TIME_MINUTES);
         LOG.debug("Next user cache cleanup time scheduled for {}", nextCacheCleanupTime);
     }
+
+    /**
+     * cached details of a user, or {@literal null} details for a user unknown to the UD-repo
+     */
+    private static class CachedUserDetails {
+
+        private final UserDetails details;
+        private final LocalDateTime cachedAt;
+
+        public CachedUserDetails(final UserDetails details) {
+            this.details = details;
+            this.cachedAt = LocalDateTime.now();
+        }
+
+        public UserDetails getDetails() {
+            return details;
+        }
+
+        public LocalDateTime getCachedAt() {
+            return cachedAt;
+        }
+    }
 }
@@ -33,11 +33,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
@@ -82,6 +86,9 @@ public class UserServiceImpl implements UserService, UserServiceWithTestFunction
     @Autowired
     private UserDetailsCache userDetailsCache;
 
+    // executor refreshing outdated user details in the background
+    private final ThreadPoolTaskExecutor refreshExecutor = userDetailsRefreshExecutor();
+
     // -------------------------------------
     // Constructors and other functions used for testing; these test functions are not part of the UserService interface
     // -------------------------------------
@@ -218,46 +225,57 @@ public class UserServiceImpl implements UserService, UserServiceWithTestFunction
             return false;
         }
 
-        boolean result = true;
-        final List<UserEntity> entitiesToAssign = Collections.synchronizedList(userDetails.getEntities());
+        // the user is associated to the entities reported as its own and to all entities it belongs to
+        // note: the cached user details are not modified, they are reused for subsequent calls
+        final Set<String> entityNamesToAssign = new LinkedHashSet<String>();
+        userDetails.getEntities().forEach(entity -> entityNamesToAssign.add(entity.getName()));
+        if (!CollectionUtils.isEmpty(userDetails.getAllEntities())) {
+            userDetails.getAllEntities().forEach(entity -> entityNamesToAssign.add(entity.getName()));
+        }
+
+        // compare with the current group memberships, so that only the changes are written
+        final List<Group> groupsOfUser = groupService.getGroupsOfUser(user);
+        final Set<String> groupNamesOfUser = groupsOfUser == null ? new HashSet<String>()
+                : groupsOfUser.stream().map(Group::getName).collect(Collectors.toSet());
+
+        // note: as the group name might have been modified in order to be URL-compliant, we need to map these group names in the same way
+        final Map<String, String> internalNames = new HashMap<String, String>();
+        entityNamesToAssign.forEach(name -> internalNames.put(name, groupService.getInternalGroupName(name)));
 
-        synchronized (entitiesToAssign) {
-            if (!CollectionUtils.isEmpty(userDetails.getAllEntities())) {
-                entitiesToAssign.addAll(userDetails.getAllEntities());
+        boolean result = true;
+        for (final String entityName : entityNamesToAssign) {
+            if (groupNamesOfUser.contains(internalNames.get(entityName))) {
+                // user is member already
+                continue;
             }
 
-            // if we reach this point, the user is associated to at least one entity
-            // -> for each entity: retrieve or create the corresponding group, and assign
-            for (final UserEntity entity : entitiesToAssign) {
-                Group entityGroup = groupService.findGroupByName(entity.getName());
-                if (entityGroup == null) {
+            Group entityGroup = groupService.findGroupByName(entityName);
+            if (entityGroup == null) {
 
-                    // group not yet defined, so this must be the first user associated to the entity logging in -> create non-public group
-                    try {
-                        entityGroup = groupService.createGroup(entity.getName(), false);
-                    } catch (Exception e) {
-                        LOG.error("Received error creating group:", e);
-                    }
-                    if (entityGroup == null) {
-                        LOG.warn("It seems the new group with name '{}' could not be created! Cannot assign user '{}' to it.", entity.getName(),
-                                userDetails.getLogin());
-                        return false;
-                    }
+                // group not yet defined, so this must be the first user associated to the entity logging in -> create non-public group
+                try {
+                    entityGroup = groupService.createGroup(entityName, false);
+                } catch (Exception e) {
+                    LOG.error("Received error creating group:", e);
+                }
+                if (entityGroup == null) {
+                    LOG.warn("It seems the new group with name '{}' could not be created! Cannot assign user '{}' to it.", entityName,
+                            userDetails.getLogin());
+                    return false;
                 }
-
-                // now the group is available - either was already, or has newly been created -> assign user
-                result = groupService.assignUserToGroup(user, entityGroup) && result;
             }
+
+            // now the group is available - either was already, or has newly been created -> assign user
+            result = groupService.assignUserToGroup(user, entityGroup) && result;
         }
 
-        // remove all group memberships not covered by the given entities any more
-        // to identify these, get all groups and filter out the ones given from UD-repo and the default group
-        final List<Group> groupsOfUser = groupService.getGroupsOfUser(user);
+        if (groupsOfUser == null) {
+            return result;
+        }
 
-        // note: as the group name might have been modified in order to be URL-compliant, we need to map these group names in the same way
-        final List<String> entityNames = userDetails.getEntities().stream().map(ent -> groupService.getInternalGroupName(ent.getName()))
-                .collect(Collectors.toList());
-        
+        // remove all group memberships not covered by the given entities any more
+        // to identify these, filter out the groups of the entities and the default group
+        final Collection<String> entityNames = internalNames.values();
         final String defGroupName = groupService.getDefaultGroupName();
         final List<Group> superfluousGroups = groupsOfUser.stream().filter(
                 grp -> !grp.getName().equals(defGroupName) && !entityNames.contains(grp.getName()))
@@ -471,9 +489,47 @@ public class UserServiceImpl implements UserService, UserServiceWithTestFunction
         final UserDetails cachedDetails = userDetailsCache.getCachedUserDetails(login);
         if (cachedDetails != null) {
             LOG.debug("User details for user '{}' still cached, use cached info", login);
+            if (userDetailsCache.startRefreshIfOutdated(login)) {
+                refreshUserDetails(login);
+            }
             return cachedDetails;
         }
 
+        if (userDetailsCache.isCachedAsUnknown(login)) {
+            LOG.debug("User '{}' recently not found in user repository, do not search again", login);
+            return null;
+        }
+
+        return loadUserDetails(login);
+    }
+
+    /**
+     * refresh the cached details of a user in the background, so that callers do not wait for the UD-repo
+     * 
+     * @param login the login of the user for which details are to be refreshed
+     */
+    private void refreshUserDetails(final String login) {
+
+        try {
+            refreshExecutor.execute(() -> {
+                if (loadUserDetails(login) == null) {
+                    userDetailsCache.refreshFailed(login);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            LOG.debug("Too many pending refreshes of user details, user '{}' will be refreshed later", login);
+            userDetailsCache.refreshFailed(login);
+        }
+    }
+
+    /**
+     * retrieve user details from the external user repository and cache the result
+     * 
+     * @param login the login of the user for which details are required
+     * @return {@link UserDetails} object containing all user properties, or {@literal null}
+     */
+    private UserDetails loadUserDetails(final String login) {
+
         final Map<String, String> params = new ConcurrentHashMap<String, String>();
         params.put("userId", login);
 
@@ -481,26 +537,43 @@ public class UserServiceImpl implements UserService, UserServiceWithTestFunction
         try {
             LOG.debug("Searching for user '{}' in user repository", login);
             final UserDetails foundUser = restOperations.getForObject(repositoryUrl, UserDetails.class, params);
+            if (foundUser == null) {
+                userDetailsCache.cacheUnknown(login);
+                return null;
+            }
 
-            if (foundUser != null) {
-                try {
-                    // additionally retrieve the list of total entities
-                    // note: using a wrapper class didn't work, JSON deserialisation problem;
-                    // so we use an array for simplicity
-                    final UserEntity[] allEnts = restOperations.getForObject(repositoryUrlEntities, UserEntity[].class, params);
-                    if (allEnts != null) {
-                        foundUser.setAllEntities(Arrays.asList(allEnts));
-                    }
-                } catch (RestClientException rce) {
-                    LOG.warn("Exception while getting user entities: {}", rce.getMessage());
+            try {
+                // additionally retrieve the list of total entities
+                // note: using a wrapper class didn't work, JSON deserialisation problem;
+                // so we use an array for simplicity
+                final UserEntity[] allEnts = restOperations.getForObject(repositoryUrlEntities, UserEntity[].class, params);
+                if (allEnts != null) {
+                    foundUser.setAllEntities(Arrays.asList(allEnts));
                 }
+            } catch (RestClientException rce) {
+                LOG.warn("Exception while getting user entities: {}", rce.getMessage());
             }
 
             userDetailsCache.cache(login, foundUser);
             return foundUser;
+        } catch (HttpClientErrorException e) {
+            LOG.warn("Exception while getting user by login: {}", e.getMessage());
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                userDetailsCache.cacheUnknown(login);
+            }
+            return null;
         } catch (RestClientException e) {
             LOG.warn("Exception while getting user by login: {}", e.getMessage());
             return null;
         }
     }
+
+    private ThreadPoolTaskExecutor userDetailsRefreshExecutor() {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("UserDetailsRefresh-");
+        executor.setCorePoolSize(2);
+        executor.setQueueCapacity(100);
+        executor.initialize();
+        return executor;
+    }
 }
@@ -21,6 +21,7 @@ import eu.europa.ec.leos.annotate.services.AuthenticationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.socket.*;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 import java.io.IOException;
@@ -40,12 +41,27 @@ public class AnnotateWebSocketHandler extends TextWebSocketHandler {
     private final MessageBroker messageBroker;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    public static final int DEFAULT_SEND_TIME_LIMIT = 10 * 1000;
+    public static final int DEFAULT_BUFFER_SIZE_LIMIT = 512 * 1024;
+
+    // time (ms) a single send may take and size (bytes) of the messages buffered meanwhile before a session is considered slow
+    private int sendTimeLimit = DEFAULT_SEND_TIME_LIMIT;
+    private int bufferSizeLimit = DEFAULT_BUFFER_SIZE_LIMIT;
+
+    /* thread-safe, bounded wrappers of the open sessions used for all outgoing messages */
+    private final Map<String, WebSocketSession> outboundSessions = new ConcurrentHashMap<>();
+
     public AnnotateWebSocketHandler(final AuthenticationService authService, final WebSessionRegistry webSessionRegistry, final MessageBroker messageBroker) {
         this.authService = authService;
         this.webSessionRegistry = webSessionRegistry;
         this.messageBroker = messageBroker;
     }
 
+    public void setOutboundLimits(final int sendTimeLimit, final int bufferSizeLimit) {
+        this.sendTimeLimit = sendTimeLimit;
+        this.bufferSizeLimit = bufferSizeLimit;
+    }
+
     @Override
     public void handleTextMessage(final WebSocketSession session, final TextMessage message) throws IOException {
         try {
@@ -113,7 +129,7 @@ public class AnnotateWebSocketHandler extends TextWebSocketHandler {
         response.put("type", "pong");
         response.put("ok", Boolean.TRUE);
         response.put("reply_to", jsonObject.get("id"));
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response), true));
+        getOutboundSession(session).sendMessage(new TextMessage(objectMapper.writeValueAsString(response), true));
     }
 
     private void handleClientId(final Map<String, Object> jsonObject, final WebSocketSession session) throws IOException {
@@ -137,7 +153,7 @@ public class AnnotateWebSocketHandler extends TextWebSocketHandler {
         response.put("ok", Boolean.TRUE);
         response.put("reply_to", jsonObject.get("id"));
         response.put("userid", String.format("acct:%s@%s", userInformation.getLogin(), userInformation.getAuthority()));
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response), true));
+        getOutboundSession(session).sendMessage(new TextMessage(objectMapper.writeValueAsString(response), true));
     }
 
     private void handleFilter(final TextMessage message, final WebSocketSession session) throws IOException {
@@ -150,8 +166,18 @@ public class AnnotateWebSocketHandler extends TextWebSocketHandler {
         // Subscribe based on filter.actions.[create/delete/update]
         // [match_policy] [clauses.[field][operator][List{value}]]
         final SubscriptionRequest subscriptionRequest = objectMapper.readValue(message.asBytes(), SubscriptionRequest.class);
-        messageBroker.subscribe(subscriptionRequest, session, webSessionRegistry.getUserInfo(session.getId()));
+        messageBroker.subscribe(subscriptionRequest, getOutboundSession(session), webSessionRegistry.getUserInfo(session.getId()));
+
+    }
 
+    /**
+     * the broker's notifications and the replies to the client are sent from different threads, which the underlying session
+     * does not support; therefore all messages are sent via a decorator serialising them, which also bounds the messages
+     * buffered for a slow client (exceeding the limits raises an exception leading to the session being closed)
+     */
+    private WebSocketSession getOutboundSession(final WebSocketSession session) {
+        final WebSocketSession outbound = outboundSessions.get(session.getId());
+        return outbound == null ? session : outbound;
     }
 
     @SuppressWarnings("unchecked")
@@ -181,6 +207,7 @@ public class AnnotateWebSocketHandler extends TextWebSocketHandler {
     public void afterConnectionEstablished(final WebSocketSession session) {
         // the messages will be broadcasted to all users.
         LOG.trace("Websocket opened :{}", session.getId());
+        outboundSessions.put(session.getId(), new ConcurrentWebSocketSessionDecorator(session, sendTimeLimit, bufferSizeLimit));
         if (webSessionRegistry.getSession(session.getId()) == null && session.getUri().getQuery() != null) {
             final String accessToken = decodeQueryString(session.getUri().getQuery()).get("access_token");
             authenticateAndStore(accessToken, session);
@@ -191,6 +218,7 @@ public class AnnotateWebSocketHandler extends TextWebSocketHandler {
     @Override
     public void afterConnectionClosed(final WebSocketSession session, final CloseStatus status) {
         LOG.trace("Websocket closed :{}", session.getId());
+        outboundSessions.remove(session.getId());
         webSessionRegistry.unregisterSession(session.getId());
         messageBroker.unsubscribe(session.getId());
     }
@@ -24,22 +24,52 @@ import eu.europa.ec.leos.annotate.services.AnnotationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * collects the changes published by annotation writes and notifies the subscribed websocket sessions
+ * 
+ * writers only enqueue their change; the queue is drained periodically, consecutive changes of the same kind
+ * being batched into a single notification per subscriber, which is sent asynchronously
+ * 
+ * the backpressure statistics are exposed as JMX attributes
+ */
 @Component
+@ManagedResource(objectName = MessageBroker.OBJECT_NAME, description = "Websocket notifications of annotation changes")
 public class MessageBroker {
     private static final Logger LOG = LoggerFactory.getLogger(MessageBroker.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static final String OBJECT_NAME = "eu.europa.ec.leos.annotate:type=MessageBroker";
+
+    // changes published beyond this number before the next run are dropped
+    private static final int MAX_PENDING_MESSAGES = 10_000;
+
     private final AbstractQueue<Subscription> subscriptions = new ConcurrentLinkedQueue<>();
-    private final AbstractQueue<Message> pendingMessages = new ConcurrentLinkedQueue<>();
+    private final AbstractQueue<Message> pendingMessages = new LinkedBlockingQueue<>(MAX_PENDING_MESSAGES);
     private final ThreadPoolTaskExecutor threadPoolTaskExecutor = messageExecutor();
 
+    // backpressure statistics
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private final AtomicLong sentNotifications = new AtomicLong();
+    private final AtomicLong droppedNotifications = new AtomicLong();
+    private final AtomicLong closedSessions = new AtomicLong();
+
     final private AnnotationService annotationService;
 
     final private AnnotationConversionService conversionService;
@@ -87,37 +117,139 @@ public class MessageBroker {
 
     public void publish(final String annotationId, final ACTION action, final String sender) {
         if (action != null && annotationId != null) {
-            pendingMessages.add(new Message(action, annotationId, sender));
+            enqueue(new Message(action, Collections.singletonList(annotationId), sender));
+        }
+    }
+
+    /**
+     * publishes a change of several annotations; each subscriber receives a single notification for all of them
+     */
+    public void publish(final List<String> annotationIds, final ACTION action, final String sender) {
+        if (action != null && annotationIds != null && !annotationIds.isEmpty()) {
+            enqueue(new Message(action, new ArrayList<>(annotationIds), sender));
+        }
+    }
+
+    // never blocks the publishing (writing) thread: when too many changes are pending, the change is dropped
+    private void enqueue(final Message message) {
+        if (!pendingMessages.offer(message)) {
+            droppedMessages.incrementAndGet();
+            LOG.warn("Too many pending websocket notifications, dropping {} notification for {}", message.getAction(), message.getIds());
         }
     }
 
-    @Scheduled(fixedDelay = 3000, initialDelay = 15000)
+    @Scheduled(fixedDelayString = "${notification.batch.delay:3000}", initialDelay = 15000)
     public void updateSubscribers() {
-        for (final Message message : pendingMessages) {
-            LOG.debug("updating clients for pending messages");
-            pendingMessages.remove(message);
+        final List<Message> batches = drainPendingMessages();
+        if (!batches.isEmpty()) {
+            LOG.debug("updating clients for {} batches of pending messages", batches.size());
+        }
 
-            // Create the message in format
-            final JsonNotification notification = new JsonNotification(message.getAction().toString().toLowerCase(Locale.ENGLISH));
-            Annotation annotation = null;
+        for (final Message message : batches) {
+            final String action = message.getAction().toString().toLowerCase(Locale.ENGLISH);
             if (message.getAction().equals(ACTION.DELETE)) {
-                notification.addPayload(new JsonDeleteSuccessResponse(message.getId()));
-            } else {
-                annotation = annotationService.findAnnotationById(message.getId());
+                // Create the message in format
+                final JsonNotification notification = new JsonNotification(action);
+                message.getIds().forEach(annotationId -> notification.addPayload(new JsonDeleteSuccessResponse(annotationId)));
+
+                for (final Subscription subs : subscriptions) {
+                    if (checkSubscription(subs, message, null)) {
+                        send(notification, subs);
+                    }
+                }
+                continue;
             }
 
+            // all annotations of the batch are loaded at once
+            final List<Annotation> annotations = annotationService.findAnnotationsById(message.getIds());
+
             for (final Subscription subs : subscriptions) {
-                if (checkSubscription(subs, message, annotation)) {
-                    if (annotation != null) {
+                // each subscriber gets its own notification containing the annotations it may see
+                final JsonNotification notification = new JsonNotification(action);
+                for (final Annotation annotation : annotations) {
+                    if (checkSubscription(subs, message, annotation)) {
                         // the conversion of the annotation to JSON was moved here for two reasons:
                         // a) we only do it when it is actually required
                         // b) we need the subscriber's authority and user info
                         notification.addPayload(conversionService.convertToJsonAnnotation(annotation, subs.getUser()));
                     }
-                    threadPoolTaskExecutor.submit(new SendTask(notification, subs.getSubscriber()));
+                }
+                if (!notification.getPayload().isEmpty()) {
+                    send(notification, subs);
                 }
             }
         }
+
+        LOG.debug("websocket notifications: {} pending, {} sent, {} dropped changes, {} dropped notifications, {} slow sessions closed",
+                pendingMessages.size(), sentNotifications.get(), droppedMessages.get(), droppedNotifications.get(), closedSessions.get());
+    }
+
+    /**
+     * takes all pending messages from the queue; consecutive messages having the same action and sender are merged,
+     * so that each subscriber receives one notification for all annotations of its document(s) instead of one per change
+     * (only consecutive messages are merged in order to keep e.g. a creation before a subsequent deletion)
+     */
+    private List<Message> drainPendingMessages() {
+
+        final List<Message> batches = new ArrayList<>();
+        Message message = pendingMessages.poll();
+        while (message != null) {
+            final int last = batches.size() - 1;
+            if (last >= 0 && batches.get(last).canMerge(message)) {
+                batches.set(last, batches.get(last).merge(message));
+            } else {
+                batches.add(message);
+            }
+            message = pendingMessages.poll();
+        }
+        return batches;
+    }
+
+    private void send(final JsonNotification notification, final Subscription subscription) {
+        try {
+            threadPoolTaskExecutor.execute(new SendTask(notification, subscription));
+        } catch (TaskRejectedException e) {
+            droppedNotifications.incrementAndGet();
+            LOG.warn("Too many notifications being sent, dropping notification for websocket session {}", subscription.getSubscriber().getId());
+        }
+    }
+
+    // a session whose client does not keep up with its notifications is closed - it reconnects and reloads then
+    private void closeSlowSubscriber(final Subscription subscription, final CloseStatus status) {
+        final WebSocketSession session = subscription.getSubscriber();
+        LOG.warn("Websocket session {} does not keep up with its notifications, closing it", session.getId());
+        closedSessions.incrementAndGet();
+        unsubscribe(session.getId());
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            LOG.error("Failure while closing websocket session", e);
+        }
+    }
+
+    @ManagedAttribute(description = "Changes waiting for the next notification run")
+    public int getPendingMessageCount() {
+        return pendingMessages.size();
+    }
+
+    @ManagedAttribute(description = "Changes dropped since too many were pending")
+    public long getDroppedMessageCount() {
+        return droppedMessages.get();
+    }
+
+    @ManagedAttribute(description = "Notifications sent to websocket sessions")
+    public long getSentNotificationCount() {
+        return sentNotifications.get();
+    }
+
+    @ManagedAttribute(description = "Notifications dropped since too many were being sent")
+    public long getDroppedNotificationCount() {
+        return droppedNotifications.get();
+    }
+
+    @ManagedAttribute(description = "Websocket sessions closed since they did not keep up with their notifications")
+    public long getClosedSessionCount() {
+        return closedSessions.get();
     }
 
     // annotation would be null for delete case
@@ -145,21 +277,25 @@ public class MessageBroker {
 
     // This is async not to block the main http request
     @SuppressWarnings("PMD.DoNotUseThreads")
-    private static class SendTask implements Runnable {
+    private class SendTask implements Runnable {
 
         private final JsonNotification inputMessage;
-        private final WebSocketSession messageHandler;
+        private final Subscription subscription;
 
-        public SendTask(final JsonNotification message, final WebSocketSession messageHandler) {
+        public SendTask(final JsonNotification message, final Subscription subscription) {
             this.inputMessage = message;
-            this.messageHandler = messageHandler;
+            this.subscription = subscription;
         }
 
         @SuppressWarnings("PMD.AccessorMethodGeneration")
         @Override
         public void run() {
             try {
-                this.messageHandler.sendMessage(new TextMessage(new ObjectMapper().writeValueAsString(this.inputMessage), true));
+                this.subscription.getSubscriber().sendMessage(new TextMessage(MAPPER.writeValueAsString(this.inputMessage), true));
+                sentNotifications.incrementAndGet();
+            } catch (SessionLimitExceededException ex) {
+                // raised by the session decorator when its send buffer or send time limit is exceeded
+                closeSlowSubscriber(this.subscription, ex.getStatus());
             } catch (Exception ex) {
                 LOG.error("Failure while sending message", ex);
             }
@@ -196,24 +332,34 @@ public class MessageBroker {
     private static class Message {
         private final ACTION action;
         
-        @SuppressWarnings("PMD.ShortVariable")
-        private final String id;
+        private final List<String> ids;
         private final String clientId;
 
-        public Message(final ACTION action, final String msgId, final String clientId) {
+        public Message(final ACTION action, final List<String> msgIds, final String clientId) {
             this.action = action;
-            this.id = msgId;
+            this.ids = msgIds;
             this.clientId = clientId;
         }
 
+        public boolean canMerge(final Message other) {
+            return action == other.getAction() && Objects.equals(clientId, other.getClientId());
+        }
+
+        // an annotation changed several times is notified only once
+        public Message merge(final Message other) {
+            final Set<String> mergedIds = new LinkedHashSet<>(ids);
+            mergedIds.addAll(other.getIds());
+            return new Message(action, new ArrayList<>(mergedIds), clientId);
+        }
+
         @Generated
         public ACTION getAction() {
             return action;
         }
 
         @Generated
-        public String getId() {
-            return id;
+        public List<String> getIds() {
+            return ids;
         }
 
         @Generated
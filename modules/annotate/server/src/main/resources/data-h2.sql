@@ -20,6 +20,7 @@ DELETE FROM GROUPS;
 DELETE FROM USERS;
 DELETE FROM USERS_GROUPS;
 DELETE FROM TAGS;
+DELETE FROM TAG_NAMES;
 DELETE FROM DOCUMENTS;
 DELETE FROM ANNOTATIONS;
 DELETE FROM AUTHCLIENTS;
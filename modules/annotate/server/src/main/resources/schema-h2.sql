@@ -119,6 +119,7 @@ CREATE TABLE IF NOT EXISTS METADATA (
   RESPONSE_STATUS                  SMALLINT,
   RESPONSE_STATUS_UPDATED          TIMESTAMP,
   RESPONSE_STATUS_UPDATED_BY       NUMBER,
+  REVISION                         NUMBER DEFAULT 0 NOT NULL,
   CONSTRAINT "METADATA_PK" PRIMARY KEY ("ID"), 
   CONSTRAINT "METADATA_FK_GROUPS" FOREIGN KEY ("GROUP_ID") REFERENCES "GROUPS" ("GROUP_ID") ON DELETE CASCADE, 
   CONSTRAINT "METADATA_FK_DOCUMENTS" FOREIGN KEY ("DOCUMENT_ID") REFERENCES "DOCUMENTS" ("DOCUMENT_ID") ON DELETE CASCADE
@@ -133,17 +134,40 @@ COMMENT ON COLUMN "METADATA"."KEYVALUES" IS 'Key-value pairs of metadata';
 COMMENT ON COLUMN "METADATA"."RESPONSE_STATUS" IS 'Enum denoting status of ISC responses';
 COMMENT ON COLUMN "METADATA"."RESPONSE_STATUS_UPDATED" IS 'Timestamp of response status change';
 COMMENT ON COLUMN "METADATA"."RESPONSE_STATUS_UPDATED_BY" IS 'User id of user that changed response status';
+COMMENT ON COLUMN "METADATA"."REVISION" IS 'Revision of the last change of the metadata set, see REVISIONS_SEQ';
 
 CREATE INDEX IF NOT EXISTS "METADATA_IX_RESPONSE_STATUS" ON "METADATA" ("RESPONSE_STATUS");
 CREATE INDEX IF NOT EXISTS "METADATA_IX_SYSTEM_ID" ON "METADATA" ("SYSTEM_ID");
 CREATE INDEX IF NOT EXISTS "METADATA_IX_VERSION" ON "METADATA" ("VERSION");
+CREATE INDEX IF NOT EXISTS "METADATA_IX_DOC_GROUP_SYSTEM" ON "METADATA" ("DOCUMENT_ID", "GROUP_ID", "SYSTEM_ID");
   
 -- note: for Oracle, we have to create a trigger to update the ID using sequence; this is not needed for H2
 
 
+------------------------------------
+-- table METADATA_KEYVALUES
+------------------------------------
+CREATE TABLE IF NOT EXISTS METADATA_KEYVALUES (
+  METADATA_ID                      NUMBER NOT NULL,
+  KV_KEY                           VARCHAR2(100 CHAR) NOT NULL,
+  KV_VALUE                         VARCHAR2(1000 CHAR),
+  CONSTRAINT "METADATA_KEYVALUES_PK" PRIMARY KEY ("METADATA_ID", "KV_KEY"),
+  CONSTRAINT "METADATA_KEYVALUES_FK_METADATA" FOREIGN KEY ("METADATA_ID") REFERENCES "METADATA" ("ID") ON DELETE CASCADE
+);
+
+COMMENT ON COLUMN "METADATA_KEYVALUES"."METADATA_ID" IS 'ID of the metadata set to which the key-value pair belongs to';
+COMMENT ON COLUMN "METADATA_KEYVALUES"."KV_KEY" IS 'Key of the metadata item';
+COMMENT ON COLUMN "METADATA_KEYVALUES"."KV_VALUE" IS 'Value of the metadata item (its SHA-256 hash if exceeding 1000 characters)';
+
+CREATE INDEX IF NOT EXISTS "METADATA_KEYVALUES_IX_KEY_VALUE" ON "METADATA_KEYVALUES" ("KV_KEY", "KV_VALUE");
+
+
 ------------------------------------
 -- table ANNOTATIONS
 ------------------------------------
+-- revisions stamped on annotations and metadata sets upon each change, used for incremental synchronisation
+CREATE SEQUENCE IF NOT EXISTS "REVISIONS_SEQ" MINVALUE 1 INCREMENT BY 1 START WITH 1;
+
 CREATE TABLE IF NOT EXISTS ANNOTATIONS (
   ANNOTATION_ID                    VARCHAR2(22 CHAR) PRIMARY KEY,
   LINKED_ANNOT_ID                  VARCHAR2(22 CHAR),
@@ -161,6 +185,9 @@ CREATE TABLE IF NOT EXISTS ANNOTATIONS (
   STATUS_UPDATED_BY                NUMBER,
   SENT_DELETED                     NUMBER(1,0) DEFAULT 0 NOT NULL,
   RESP_VERSION_SENT_DELETED        NUMBER DEFAULT 0 NOT NULL,
+  ORPHANED                         NUMBER(1,0) DEFAULT 0 NOT NULL,
+  REVISION                         NUMBER DEFAULT 0 NOT NULL,
+  ANNOTATION_TYPE                  NUMBER DEFAULT 0 NOT NULL,
   CONSTRAINT "ANNOTATIONS_PK" PRIMARY KEY ("ANNOTATION_ID"),
   CONSTRAINT "ANNOTATIONS_FK_USERS" FOREIGN KEY ("USER_ID") REFERENCES "USERS" ("USER_ID") ON DELETE CASCADE, 
   CONSTRAINT "ANNOTATIONS_FK_METADATA" FOREIGN KEY ("METADATA_ID") REFERENCES "METADATA" ("ID") ON DELETE CASCADE,
@@ -183,12 +210,32 @@ COMMENT ON COLUMN "ANNOTATIONS"."STATUS_UPDATED" IS 'Timestamp of status change'
 COMMENT ON COLUMN "ANNOTATIONS"."STATUS_UPDATED_BY" IS 'User id of user that changed status';
 COMMENT ON COLUMN "ANNOTATIONS"."SENT_DELETED" IS 'Flag for pre-deleting annotation';
 COMMENT ON COLUMN "ANNOTATIONS"."RESP_VERSION_SENT_DELETED" IS 'The ISC response version during which the annotation was sent-deleted';
+COMMENT ON COLUMN "ANNOTATIONS"."ORPHANED" IS 'Flag indicating that the annotated text was not found any more in the latest document version';
+COMMENT ON COLUMN "ANNOTATIONS"."REVISION" IS 'Revision of the last change of the annotation, see REVISIONS_SEQ';
+COMMENT ON COLUMN "ANNOTATIONS"."ANNOTATION_TYPE" IS 'Type of the annotation derived from its tags: 0=other (page note, reply), 1=comment, 2=suggestion, 3=highlight';
 
 CREATE INDEX IF NOT EXISTS "ANNOTATIONS_IX_USERS" ON "ANNOTATIONS" ("USER_ID");
-CREATE INDEX IF NOT EXISTS "ANNOTATIONS_IX_METADATA" ON "ANNOTATIONS" ("METADATA_ID");
+CREATE INDEX IF NOT EXISTS "ANNOTATIONS_IX_METADATA_REVISION" ON "ANNOTATIONS" ("METADATA_ID", "REVISION");
+CREATE INDEX IF NOT EXISTS "ANNOTATIONS_IX_METADATA_TYPE" ON "ANNOTATIONS" ("METADATA_ID", "ANNOTATION_TYPE");
+CREATE INDEX IF NOT EXISTS "ANNOTATIONS_IX_METADATA_STATUS_ROOT" ON "ANNOTATIONS" ("METADATA_ID", "STATUS", "ROOT");
 CREATE INDEX IF NOT EXISTS "ANNOTATIONS_IX_STATUS_ROOT" ON "ANNOTATIONS" ("STATUS" ASC, "ROOT" ASC);
 
  
+------------------------------------
+-- table TAG_NAMES
+------------------------------------
+CREATE SEQUENCE IF NOT EXISTS "TAG_NAMES_SEQ" MINVALUE 1 INCREMENT BY 1 START WITH 1;
+
+CREATE TABLE IF NOT EXISTS TAG_NAMES (
+  TAG_NAME_ID                      NUMBER default TAG_NAMES_SEQ.nextval PRIMARY KEY,
+  NAME                             VARCHAR2(50 CHAR) NOT NULL,
+  CONSTRAINT "TAG_NAMES_PK" PRIMARY KEY ("TAG_NAME_ID"), 
+  CONSTRAINT "TAG_NAMES_UK_NAME" UNIQUE ("NAME")
+);
+
+COMMENT ON COLUMN "TAG_NAMES"."NAME" IS 'Tag';
+COMMENT ON COLUMN "TAG_NAMES"."TAG_NAME_ID" IS 'ID';
+
 ------------------------------------
 -- table TAGS
 ------------------------------------
@@ -197,13 +244,14 @@ CREATE SEQUENCE IF NOT EXISTS "TAGS_SEQ" MINVALUE 1 INCREMENT BY 1 START WITH 1;
 CREATE TABLE IF NOT EXISTS TAGS (
   TAG_ID                           NUMBER default TAGS_SEQ.nextval PRIMARY KEY,
   ANNOTATION_ID                    VARCHAR2(22 CHAR) NOT NULL,
-  NAME                             VARCHAR2(50 CHAR) NOT NULL,
+  TAG_NAME_ID                      NUMBER NOT NULL,
   CONSTRAINT "TAGS_PK" PRIMARY KEY ("TAG_ID"), 
-  CONSTRAINT "TAGS_UK_NAME_ANNOT" UNIQUE ("NAME", "ANNOTATION_ID"), 
-  CONSTRAINT "TAGS_FK_ANNOTATION" FOREIGN KEY ("ANNOTATION_ID") REFERENCES "ANNOTATIONS" ("ANNOTATION_ID") ON DELETE CASCADE
+  CONSTRAINT "TAGS_UK_NAME_ANNOT" UNIQUE ("TAG_NAME_ID", "ANNOTATION_ID"), 
+  CONSTRAINT "TAGS_FK_ANNOTATION" FOREIGN KEY ("ANNOTATION_ID") REFERENCES "ANNOTATIONS" ("ANNOTATION_ID") ON DELETE CASCADE,
+  CONSTRAINT "TAGS_FK_TAG_NAMES" FOREIGN KEY ("TAG_NAME_ID") REFERENCES "TAG_NAMES" ("TAG_NAME_ID")
 );
 
-COMMENT ON COLUMN "TAGS"."NAME" IS 'Tag';
+COMMENT ON COLUMN "TAGS"."TAG_NAME_ID" IS 'Tag, see TAG_NAMES';
 COMMENT ON COLUMN "TAGS"."ANNOTATION_ID" IS 'Annotation to which the tag belongs to';
 COMMENT ON COLUMN "TAGS"."TAG_ID" IS 'ID';
 
@@ -175,6 +175,7 @@ CREATE TABLE "METADATA" (
   "RESPONSE_STATUS" NUMBER(*,0),
   "RESPONSE_STATUS_UPDATED" DATE,
   "RESPONSE_STATUS_UPDATED_BY" NUMBER,
+  "REVISION" NUMBER DEFAULT 0 NOT NULL ENABLE,
   CONSTRAINT "METADATA_PK" PRIMARY KEY ("ID") USING INDEX ENABLE, 
   CONSTRAINT "METADATA_FK_GROUPS" FOREIGN KEY ("GROUP_ID") REFERENCES "GROUPS" ("GROUP_ID") ON DELETE CASCADE ENABLE, 
   CONSTRAINT "METADATA_FK_DOCUMENTS" FOREIGN KEY ("DOCUMENT_ID") REFERENCES "DOCUMENTS" ("DOCUMENT_ID") ON DELETE CASCADE ENABLE
@@ -190,10 +191,12 @@ COMMENT ON COLUMN "METADATA"."KEYVALUES" IS 'Key-value pairs of metadata';
 COMMENT ON COLUMN "METADATA"."RESPONSE_STATUS" IS 'Enum denoting status of ISC responses';
 COMMENT ON COLUMN "METADATA"."RESPONSE_STATUS_UPDATED" IS 'Timestamp of response status change';
 COMMENT ON COLUMN "METADATA"."RESPONSE_STATUS_UPDATED_BY" IS 'User id of user that changed response status';
+COMMENT ON COLUMN "METADATA"."REVISION" IS 'Revision of the last change of the metadata set, see REVISIONS_SEQ';
 
 CREATE INDEX "METADATA_IX_RESPONSE_STATUS" ON "METADATA" ("RESPONSE_STATUS");
 CREATE INDEX "METADATA_IX_SYSTEM_ID" ON "METADATA" ("SYSTEM_ID");
 CREATE INDEX "METADATA_IX_VERSION" ON "METADATA" ("VERSION");
+CREATE INDEX "METADATA_IX_DOC_GROUP_SYSTEM" ON "METADATA" ("DOCUMENT_ID", "GROUP_ID", "SYSTEM_ID");
 
 CREATE OR REPLACE TRIGGER "METADATA_TRG" 
 BEFORE INSERT ON METADATA 
@@ -211,9 +214,31 @@ ALTER TRIGGER "METADATA_TRG" ENABLE;
 
 
 ------------------------------------
--- ANNOTATIONS
+-- METADATA_KEYVALUES
 -- requires table, indexes
 ------------------------------------
+CREATE TABLE "METADATA_KEYVALUES" (
+  "METADATA_ID" NUMBER NOT NULL ENABLE,
+  "KV_KEY" VARCHAR2(100 CHAR) NOT NULL ENABLE,
+  "KV_VALUE" VARCHAR2(1000 CHAR),
+  CONSTRAINT "METADATA_KEYVALUES_PK" PRIMARY KEY ("METADATA_ID", "KV_KEY") USING INDEX ENABLE,
+  CONSTRAINT "METADATA_KEYVALUES_FK_METADATA" FOREIGN KEY ("METADATA_ID") REFERENCES "METADATA" ("ID") ON DELETE CASCADE ENABLE
+);
+
+COMMENT ON COLUMN "METADATA_KEYVALUES"."METADATA_ID" IS 'ID of the metadata set to which the key-value pair belongs to';
+COMMENT ON COLUMN "METADATA_KEYVALUES"."KV_KEY" IS 'Key of the metadata item';
+COMMENT ON COLUMN "METADATA_KEYVALUES"."KV_VALUE" IS 'Value of the metadata item (its SHA-256 hash if exceeding 1000 characters)';
+
+CREATE INDEX "METADATA_KEYVALUES_IX_KEY_VALUE" ON "METADATA_KEYVALUES" ("KV_KEY", "KV_VALUE");
+
+
+------------------------------------
+-- ANNOTATIONS
+-- requires sequence, table, indexes
+------------------------------------
+-- revisions stamped on annotations and metadata sets upon each change, used for incremental synchronisation
+CREATE SEQUENCE "REVISIONS_SEQ"  MINVALUE 1 MAXVALUE 9999999999999999999999999999 INCREMENT BY 1 START WITH 1 CACHE 20 NOORDER  NOCYCLE;
+
 CREATE TABLE "ANNOTATIONS" (
   "ANNOTATION_ID" VARCHAR2(22 BYTE) NOT NULL ENABLE, 
   "LINKED_ANNOT_ID" VARCHAR2(22 BYTE),
@@ -231,6 +256,9 @@ CREATE TABLE "ANNOTATIONS" (
   "STATUS_UPDATED_BY" NUMBER,
   "SENT_DELETED" NUMBER(1,0) DEFAULT 0 NOT NULL ENABLE,
   "RESP_VERSION_SENT_DELETED" NUMBER DEFAULT 0 NOT NULL ENABLE,
+  "ORPHANED" NUMBER(1,0) DEFAULT 0 NOT NULL ENABLE,
+  "REVISION" NUMBER DEFAULT 0 NOT NULL ENABLE,
+  "ANNOTATION_TYPE" NUMBER DEFAULT 0 NOT NULL ENABLE,
   CONSTRAINT "ANNOTATIONS_PK" PRIMARY KEY ("ANNOTATION_ID") USING INDEX ENABLE, 
   CONSTRAINT "ANNOTATIONS_FK_USERS" FOREIGN KEY ("USER_ID") REFERENCES "USERS" ("USER_ID") ON DELETE CASCADE ENABLE, 
   CONSTRAINT "ANNOTATIONS_FK_METADATA" FOREIGN KEY ("METADATA_ID") REFERENCES "METADATA" ("ID") ON DELETE CASCADE ENABLE,
@@ -256,12 +284,48 @@ COMMENT ON COLUMN "ANNOTATIONS"."STATUS_UPDATED" IS 'Timestamp of status change'
 COMMENT ON COLUMN "ANNOTATIONS"."STATUS_UPDATED_BY" IS 'User id of user that changed status';
 COMMENT ON COLUMN "ANNOTATIONS"."SENT_DELETED" IS 'Flag for pre-deleting annotation';
 COMMENT ON COLUMN "ANNOTATIONS"."RESP_VERSION_SENT_DELETED" IS 'The ISC response version during which the annotation was sent-deleted';
+COMMENT ON COLUMN "ANNOTATIONS"."ORPHANED" IS 'Flag indicating that the annotated text was not found any more in the latest document version';
+COMMENT ON COLUMN "ANNOTATIONS"."REVISION" IS 'Revision of the last change of the annotation, see REVISIONS_SEQ';
+COMMENT ON COLUMN "ANNOTATIONS"."ANNOTATION_TYPE" IS 'Type of the annotation derived from its tags: 0=other (page note, reply), 1=comment, 2=suggestion, 3=highlight';
 
 CREATE INDEX "ANNOTATIONS_IX_USERS" ON "ANNOTATIONS" ("USER_ID");
-CREATE INDEX "ANNOTATIONS_IX_METADATA" ON "ANNOTATIONS" ("METADATA_ID");
+CREATE INDEX "ANNOTATIONS_IX_METADATA_REVISION" ON "ANNOTATIONS" ("METADATA_ID", "REVISION");
+CREATE INDEX "ANNOTATIONS_IX_METADATA_TYPE" ON "ANNOTATIONS" ("METADATA_ID", "ANNOTATION_TYPE");
+CREATE INDEX "ANNOTATIONS_IX_METADATA_STATUS_ROOT" ON "ANNOTATIONS" ("METADATA_ID", "STATUS", "ROOT");
 CREATE INDEX "ANNOTATIONS_IX_STATUS_ROOT" ON "ANNOTATIONS" (STATUS ASC, ROOT ASC);
 
 
+------------------------------------
+-- TAG_NAMES
+-- requires sequence, table, trigger
+------------------------------------
+CREATE SEQUENCE "TAG_NAMES_SEQ"  MINVALUE 1 MAXVALUE 9999999999999999999999999999 INCREMENT BY 1 START WITH 1 CACHE 20 NOORDER  NOCYCLE;
+
+CREATE TABLE "TAG_NAMES" (
+  "TAG_NAME_ID" NUMBER NOT NULL ENABLE, 
+  "NAME" VARCHAR2(50 BYTE) NOT NULL ENABLE, 
+  CONSTRAINT "TAG_NAMES_PK" PRIMARY KEY ("TAG_NAME_ID") USING INDEX ENABLE, 
+  CONSTRAINT "TAG_NAMES_UK_NAME" UNIQUE ("NAME") USING INDEX ENABLE
+);
+
+COMMENT ON COLUMN "TAG_NAMES"."NAME" IS 'Tag';
+COMMENT ON COLUMN "TAG_NAMES"."TAG_NAME_ID" IS 'ID';
+
+CREATE OR REPLACE TRIGGER "TAG_NAMES_TRG" 
+  BEFORE INSERT ON TAG_NAMES 
+  FOR EACH ROW 
+  BEGIN
+    <<COLUMN_SEQUENCES>>
+    BEGIN
+      IF INSERTING AND :NEW.TAG_NAME_ID IS NULL THEN
+        SELECT TAG_NAMES_SEQ.NEXTVAL INTO :NEW.TAG_NAME_ID FROM SYS.DUAL;
+      END IF;
+    END COLUMN_SEQUENCES;
+  END;
+/
+ALTER TRIGGER "TAG_NAMES_TRG" ENABLE;
+
+
 ------------------------------------
 -- TAGS
 -- requires sequence, table, trigger
@@ -269,15 +333,16 @@ CREATE INDEX "ANNOTATIONS_IX_STATUS_ROOT" ON "ANNOTATIONS" (STATUS ASC, ROOT ASC
 CREATE SEQUENCE "TAGS_SEQ"  MINVALUE 1 MAXVALUE 9999999999999999999999999999 INCREMENT BY 1 START WITH 1 CACHE 20 NOORDER  NOCYCLE;
 
 CREATE TABLE "TAGS" (
-  "NAME" VARCHAR2(50 BYTE) NOT NULL ENABLE, 
+  "TAG_NAME_ID" NUMBER NOT NULL ENABLE, 
   "ANNOTATION_ID" VARCHAR2(22 BYTE) NOT NULL ENABLE, 
   "TAG_ID" NUMBER NOT NULL ENABLE, 
   CONSTRAINT "TAGS_PK" PRIMARY KEY ("TAG_ID") USING INDEX ENABLE, 
-  CONSTRAINT "TAGS_UK_NAME_ANNOT" UNIQUE ("NAME", "ANNOTATION_ID") USING INDEX ENABLE, 
-  CONSTRAINT "TAGS_FK_ANNOTATION" FOREIGN KEY ("ANNOTATION_ID") REFERENCES "ANNOTATIONS" ("ANNOTATION_ID") ON DELETE CASCADE ENABLE
+  CONSTRAINT "TAGS_UK_NAME_ANNOT" UNIQUE ("TAG_NAME_ID", "ANNOTATION_ID") USING INDEX ENABLE, 
+  CONSTRAINT "TAGS_FK_ANNOTATION" FOREIGN KEY ("ANNOTATION_ID") REFERENCES "ANNOTATIONS" ("ANNOTATION_ID") ON DELETE CASCADE ENABLE,
+  CONSTRAINT "TAGS_FK_TAG_NAMES" FOREIGN KEY ("TAG_NAME_ID") REFERENCES "TAG_NAMES" ("TAG_NAME_ID") ENABLE
 );
 
-COMMENT ON COLUMN "TAGS"."NAME" IS 'Tag';
+COMMENT ON COLUMN "TAGS"."TAG_NAME_ID" IS 'Tag, see TAG_NAMES';
 COMMENT ON COLUMN "TAGS"."ANNOTATION_ID" IS 'Annotation to which the tag belongs to';
 COMMENT ON COLUMN "TAGS"."TAG_ID" IS 'ID';
 
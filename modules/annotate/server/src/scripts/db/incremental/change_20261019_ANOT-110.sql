@@ -0,0 +1,88 @@
+--
+-- Copyright 2019 European Commission
+--
+-- Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+-- You may not use this work except in compliance with the Licence.
+-- You may obtain a copy of the Licence at:
+--
+--     https://joinup.ec.europa.eu/software/page/eupl
+--
+-- Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the Licence for the specific language governing permissions and limitations under the Licence.
+--
+
+------------------------------------
+-- Changes to initial Oracle 
+-- database creation scripts
+--
+-- add a new table METADATA_KEYVALUES storing the key-value pairs of the METADATA.KEYVALUES column
+-- one row per pair, so that metadata sets can be matched using indexes;
+-- the table is filled with the pairs of the existing metadata sets
+-- 
+-- add a composite index on METADATA for the lookup by document, group and system
+--
+-- change initiated by ANOT-110
+------------------------------------
+CREATE TABLE "METADATA_KEYVALUES" (
+  "METADATA_ID" NUMBER NOT NULL ENABLE,
+  "KV_KEY" VARCHAR2(100 CHAR) NOT NULL ENABLE,
+  "KV_VALUE" VARCHAR2(1000 CHAR),
+  CONSTRAINT "METADATA_KEYVALUES_PK" PRIMARY KEY ("METADATA_ID", "KV_KEY") USING INDEX ENABLE,
+  CONSTRAINT "METADATA_KEYVALUES_FK_METADATA" FOREIGN KEY ("METADATA_ID") REFERENCES "METADATA" ("ID") ON DELETE CASCADE ENABLE
+);
+
+COMMENT ON COLUMN "METADATA_KEYVALUES"."METADATA_ID" IS 'ID of the metadata set to which the key-value pair belongs to';
+COMMENT ON COLUMN "METADATA_KEYVALUES"."KV_KEY" IS 'Key of the metadata item';
+COMMENT ON COLUMN "METADATA_KEYVALUES"."KV_VALUE" IS 'Value of the metadata item (its SHA-256 hash if exceeding 1000 characters)';
+
+CREATE INDEX "METADATA_KEYVALUES_IX_KEY_VALUE" ON "METADATA_KEYVALUES" ("KV_KEY", "KV_VALUE");
+CREATE INDEX "METADATA_IX_DOC_GROUP_SYSTEM" ON "METADATA" ("DOCUMENT_ID", "GROUP_ID", "SYSTEM_ID");
+
+-- each line of the KEYVALUES column has the format key:value
+-- the lines are parsed one by one, so that metadata sets having any number of pairs are migrated;
+-- like done by the application, values exceeding the KV_VALUE column are stored as their SHA-256 hash
+-- (the complete values remain in the KEYVALUES column) and a key found twice keeps its last value
+-- note: empty values are stored as NULL, the application matches them accordingly
+-- note: requires the EXECUTE privilege on DBMS_CRYPTO
+DECLARE
+  V_LENGTH  NUMBER;
+  V_POS     NUMBER;
+  V_EOL     NUMBER;
+  V_SEP     NUMBER;
+  V_LINE    CLOB;
+  V_VALUE   CLOB;
+  V_KEY     VARCHAR2(100 CHAR);
+  V_STORED  VARCHAR2(1000 CHAR);
+BEGIN
+  FOR META IN (SELECT "ID", "KEYVALUES" FROM "METADATA" WHERE "KEYVALUES" IS NOT NULL) LOOP
+    V_LENGTH := LENGTH(META."KEYVALUES");
+    V_POS := 1;
+    WHILE V_POS <= V_LENGTH LOOP
+      V_EOL := INSTR(META."KEYVALUES", CHR(10), V_POS);
+      IF V_EOL = 0 THEN
+        V_EOL := V_LENGTH + 1;
+      END IF;
+      V_LINE := SUBSTR(META."KEYVALUES", V_POS, V_EOL - V_POS);
+      V_SEP := INSTR(V_LINE, ':');
+      IF V_SEP > 1 THEN
+        V_KEY := SUBSTR(V_LINE, 1, V_SEP - 1);
+        V_VALUE := REPLACE(SUBSTR(V_LINE, V_SEP + 1), CHR(13));
+        IF LENGTH(V_VALUE) > 1000 THEN
+          V_STORED := '#SHA256:' || RAWTOHEX(DBMS_CRYPTO.HASH(V_VALUE, DBMS_CRYPTO.HASH_SH256));
+        ELSE
+          V_STORED := V_VALUE;
+        END IF;
+        MERGE INTO "METADATA_KEYVALUES" KV
+        USING (SELECT META."ID" AS "METADATA_ID", V_KEY AS "KV_KEY" FROM DUAL) PAIR
+        ON (KV."METADATA_ID" = PAIR."METADATA_ID" AND KV."KV_KEY" = PAIR."KV_KEY")
+        WHEN MATCHED THEN UPDATE SET KV."KV_VALUE" = V_STORED
+        WHEN NOT MATCHED THEN INSERT ("METADATA_ID", "KV_KEY", "KV_VALUE") VALUES (PAIR."METADATA_ID", PAIR."KV_KEY", V_STORED);
+      END IF;
+      V_POS := V_EOL + 1;
+    END LOOP;
+  END LOOP;
+END;
+/
+
+COMMIT;
@@ -0,0 +1,34 @@
+--
+-- Copyright 2019 European Commission
+--
+-- Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+-- You may not use this work except in compliance with the Licence.
+-- You may obtain a copy of the Licence at:
+--
+--     https://joinup.ec.europa.eu/software/page/eupl
+--
+-- Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the Licence for the specific language governing permissions and limitations under the Licence.
+--
+
+------------------------------------
+-- Changes to initial Oracle 
+-- database creation scripts
+--
+-- add a new sequence: REVISIONS_SEQ
+-- add a new column on ANNOTATIONS and METADATA tables: REVISION
+-- add a new index on ANNOTATIONS table: ANNOTATIONS_IX_METADATA_REVISION
+-- 
+-- change initiated by ANOT-113
+-- note: existing items keep revision 0, i.e. they are reported to clients synchronising from scratch only
+------------------------------------
+CREATE SEQUENCE "REVISIONS_SEQ"  MINVALUE 1 MAXVALUE 9999999999999999999999999999 INCREMENT BY 1 START WITH 1 CACHE 20 NOORDER  NOCYCLE;
+
+ALTER TABLE "METADATA" ADD "REVISION" NUMBER DEFAULT 0 NOT NULL ENABLE;
+COMMENT ON COLUMN "METADATA"."REVISION" IS 'Revision of the last change of the metadata set, see REVISIONS_SEQ';
+
+ALTER TABLE "ANNOTATIONS" ADD "REVISION" NUMBER DEFAULT 0 NOT NULL ENABLE;
+COMMENT ON COLUMN "ANNOTATIONS"."REVISION" IS 'Revision of the last change of the annotation, see REVISIONS_SEQ';
+
+CREATE INDEX "ANNOTATIONS_IX_METADATA_REVISION" ON "ANNOTATIONS" ("METADATA_ID", "REVISION");
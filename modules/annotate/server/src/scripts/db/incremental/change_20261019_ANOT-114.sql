@@ -0,0 +1,79 @@
+--
+-- Copyright 2019 European Commission
+--
+-- Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+-- You may not use this work except in compliance with the Licence.
+-- You may obtain a copy of the Licence at:
+--
+--     https://joinup.ec.europa.eu/software/page/eupl
+--
+-- Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the Licence for the specific language governing permissions and limitations under the Licence.
+--
+
+------------------------------------
+-- Changes to initial Oracle 
+-- database creation scripts
+--
+-- add a new sequence and table: TAG_NAMES_SEQ, TAG_NAMES (dictionary of tag names)
+-- change TAGS table: replace NAME column by TAG_NAME_ID referencing TAG_NAMES
+-- add a new column on ANNOTATIONS table: ANNOTATION_TYPE, derived from the tags
+-- add a new index on ANNOTATIONS table: ANNOTATIONS_IX_METADATA_TYPE
+-- 
+-- change initiated by ANOT-114
+------------------------------------
+CREATE SEQUENCE "TAG_NAMES_SEQ"  MINVALUE 1 MAXVALUE 9999999999999999999999999999 INCREMENT BY 1 START WITH 1 CACHE 20 NOORDER  NOCYCLE;
+
+CREATE TABLE "TAG_NAMES" (
+  "TAG_NAME_ID" NUMBER NOT NULL ENABLE, 
+  "NAME" VARCHAR2(50 BYTE) NOT NULL ENABLE, 
+  CONSTRAINT "TAG_NAMES_PK" PRIMARY KEY ("TAG_NAME_ID") USING INDEX ENABLE, 
+  CONSTRAINT "TAG_NAMES_UK_NAME" UNIQUE ("NAME") USING INDEX ENABLE
+);
+
+COMMENT ON COLUMN "TAG_NAMES"."NAME" IS 'Tag';
+COMMENT ON COLUMN "TAG_NAMES"."TAG_NAME_ID" IS 'ID';
+
+CREATE OR REPLACE TRIGGER "TAG_NAMES_TRG" 
+  BEFORE INSERT ON TAG_NAMES 
+  FOR EACH ROW 
+  BEGIN
+    <<COLUMN_SEQUENCES>>
+    BEGIN
+      IF INSERTING AND :NEW.TAG_NAME_ID IS NULL THEN
+        SELECT TAG_NAMES_SEQ.NEXTVAL INTO :NEW.TAG_NAME_ID FROM SYS.DUAL;
+      END IF;
+    END COLUMN_SEQUENCES;
+  END;
+/
+ALTER TRIGGER "TAG_NAMES_TRG" ENABLE;
+
+-- fill the dictionary with the tag names used so far
+INSERT INTO "TAG_NAMES" ("NAME") SELECT DISTINCT "NAME" FROM "TAGS";
+
+-- let the tags refer to the dictionary
+ALTER TABLE "TAGS" ADD "TAG_NAME_ID" NUMBER;
+UPDATE "TAGS" t SET t."TAG_NAME_ID" = (SELECT n."TAG_NAME_ID" FROM "TAG_NAMES" n WHERE n."NAME" = t."NAME");
+ALTER TABLE "TAGS" MODIFY "TAG_NAME_ID" NOT NULL ENABLE;
+
+ALTER TABLE "TAGS" DROP CONSTRAINT "TAGS_UK_NAME_ANNOT" DROP INDEX;
+ALTER TABLE "TAGS" DROP COLUMN "NAME";
+ALTER TABLE "TAGS" ADD CONSTRAINT "TAGS_UK_NAME_ANNOT" UNIQUE ("TAG_NAME_ID", "ANNOTATION_ID") USING INDEX ENABLE;
+ALTER TABLE "TAGS" ADD CONSTRAINT "TAGS_FK_TAG_NAMES" FOREIGN KEY ("TAG_NAME_ID") REFERENCES "TAG_NAMES" ("TAG_NAME_ID") ENABLE;
+COMMENT ON COLUMN "TAGS"."TAG_NAME_ID" IS 'Tag, see TAG_NAMES';
+
+-- precompute the type of the existing annotations; precedence: suggestion, highlight, comment
+ALTER TABLE "ANNOTATIONS" ADD "ANNOTATION_TYPE" NUMBER DEFAULT 0 NOT NULL ENABLE;
+COMMENT ON COLUMN "ANNOTATIONS"."ANNOTATION_TYPE" IS 'Type of the annotation derived from its tags: 0=other (page note, reply), 1=comment, 2=suggestion, 3=highlight';
+
+UPDATE "ANNOTATIONS" a SET a."ANNOTATION_TYPE" = 
+  CASE 
+    WHEN EXISTS (SELECT 1 FROM "TAGS" t JOIN "TAG_NAMES" n ON n."TAG_NAME_ID" = t."TAG_NAME_ID" WHERE t."ANNOTATION_ID" = a."ANNOTATION_ID" AND n."NAME" = 'suggestion') THEN 2
+    WHEN EXISTS (SELECT 1 FROM "TAGS" t JOIN "TAG_NAMES" n ON n."TAG_NAME_ID" = t."TAG_NAME_ID" WHERE t."ANNOTATION_ID" = a."ANNOTATION_ID" AND n."NAME" = 'highlight') THEN 3
+    WHEN EXISTS (SELECT 1 FROM "TAGS" t JOIN "TAG_NAMES" n ON n."TAG_NAME_ID" = t."TAG_NAME_ID" WHERE t."ANNOTATION_ID" = a."ANNOTATION_ID" AND n."NAME" = 'comment') THEN 1
+    ELSE 0
+  END
+WHERE EXISTS (SELECT 1 FROM "TAGS" t WHERE t."ANNOTATION_ID" = a."ANNOTATION_ID");
+
+CREATE INDEX "ANNOTATIONS_IX_METADATA_TYPE" ON "ANNOTATIONS" ("METADATA_ID", "ANNOTATION_TYPE");
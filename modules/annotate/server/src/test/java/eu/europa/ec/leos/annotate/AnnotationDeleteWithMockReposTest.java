@@ -99,6 +99,9 @@ public class AnnotationDeleteWithMockReposTest {
     @Mock
     private UUIDGeneratorService uuidService;
 
+    @Mock
+    private RevisionGeneratorService revisionService;
+
     @Mock
     private TagsService tagsService;
 
@@ -172,7 +175,7 @@ public class AnnotationDeleteWithMockReposTest {
         annotService.createAnnotation(jsAnnot, userInfo);
 
         Mockito.when(annotService.findAnnotationById("1")).thenReturn(ann);
-        Mockito.when(tagsService.hasSuggestionTag(Mockito.anyListOf(Tag.class))).thenReturn(true);
+        ann.setTags(Arrays.asList(new Tag(new TagName(Annotation.ANNOTATION_SUGGESTION), ann)));
         Mockito.when(annotPermService.hasUserPermissionToRejectSuggestion(Mockito.any(Annotation.class), Mockito.any(User.class))).thenReturn(true);
 
         // accept it - should fail as repository throws an exception upon saving the annotation
@@ -19,6 +19,7 @@ import eu.europa.ec.leos.annotate.helper.TestDbHelper;
 import eu.europa.ec.leos.annotate.model.UserInformation;
 import eu.europa.ec.leos.annotate.model.entity.*;
 import eu.europa.ec.leos.annotate.repository.*;
+import eu.europa.ec.leos.annotate.services.TagsService;
 import eu.europa.ec.leos.annotate.services.exceptions.CannotDeleteAnnotationException;
 import eu.europa.ec.leos.annotate.services.impl.AnnotationServiceImpl;
 import org.junit.After;
@@ -36,6 +37,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(properties = "spring.config.name=anot")
@@ -77,6 +79,9 @@ public class AnnotationDeleteWithMockTest {
     @Autowired
     private MetadataRepository metadataRepos;
 
+    @Autowired
+    private TagsService tagsService;
+
     // -------------------------------------
     // Cleanup of database content before running new test
     // -------------------------------------
@@ -127,9 +132,6 @@ public class AnnotationDeleteWithMockTest {
         group.setDescription("description");
         groupRepos.save(group);
 
-        final Tag tag = new Tag();
-        tag.setName("thetag");
-
         final Metadata meta = new Metadata(doc, group, "sys");
         metadataRepos.save(meta);
 
@@ -141,8 +143,7 @@ public class AnnotationDeleteWithMockTest {
         annot.setTargetSelectors("a");
         annot.setMetadata(meta);
 
-        tag.setAnnotation(annot);
-        annot.getTags().add(tag);
+        annot.getTags().addAll(tagsService.getTagList(Arrays.asList("thetag"), annot));
 
         annot = realAnnotRepos.save(annot);
 
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import eu.europa.ec.leos.annotate.helper.SpotBugsAnnotations;
+import eu.europa.ec.leos.annotate.helper.TestData;
+import eu.europa.ec.leos.annotate.helper.TestDbHelper;
+import eu.europa.ec.leos.annotate.model.ReanchorAnnotationsResult;
+import eu.europa.ec.leos.annotate.model.UserInformation;
+import eu.europa.ec.leos.annotate.model.entity.Annotation;
+import eu.europa.ec.leos.annotate.model.entity.Annotation.AnnotationStatus;
+import eu.europa.ec.leos.annotate.model.entity.User;
+import eu.europa.ec.leos.annotate.model.web.ReanchorAnnotationsRequest;
+import eu.europa.ec.leos.annotate.model.web.annotation.JsonAnnotation;
+import eu.europa.ec.leos.annotate.model.web.annotation.JsonAnnotationTargets;
+import eu.europa.ec.leos.annotate.repository.AnnotationRepository;
+import eu.europa.ec.leos.annotate.repository.GroupRepository;
+import eu.europa.ec.leos.annotate.repository.UserRepository;
+import eu.europa.ec.leos.annotate.services.AnnotationAnchoringService;
+import eu.europa.ec.leos.annotate.services.AnnotationConversionService;
+import eu.europa.ec.leos.annotate.services.AnnotationService;
+import eu.europa.ec.leos.annotate.services.exceptions.*;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import java.util.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.config.name=anot")
+@WebAppConfiguration
+@ActiveProfiles("test")
+public class AnnotationReanchoringTest {
+
+    /**
+     * tests on re-anchoring annotations on a new version of their document
+     */
+    private static final String DOC_URI = "https://a.com";
+    private static final String ELEMENT_ID = "art_1_par_1";
+    private static final String TEXT = "The quick brown fox jumps over the lazy dog.";
+
+    private UserInformation leosUserInfo;
+    private String annotId;
+
+    // -------------------------------------
+    // Required services and repositories
+    // -------------------------------------
+    @Autowired
+    private AnnotationService annotService;
+
+    @Autowired
+    private AnnotationAnchoringService anchoringService;
+
+    @Autowired
+    private AnnotationConversionService conversionService;
+
+    @Autowired
+    @Qualifier("annotationTestRepos")
+    private AnnotationRepository annotRepos;
+
+    @Autowired
+    private GroupRepository groupRepos;
+
+    @Autowired
+    private UserRepository userRepos;
+
+    // -------------------------------------
+    // Cleanup of database content and preparation of an annotation
+    // -------------------------------------
+    @Before
+    public void setupTests() throws CannotCreateAnnotationException {
+
+        TestDbHelper.cleanupRepositories(this);
+        TestDbHelper.insertDefaultGroup(groupRepos);
+
+        final User user = new User("demo");
+        userRepos.save(user);
+        leosUserInfo = new UserInformation(user, Authorities.EdiT);
+
+        // annotation of "brown fox" in the paragraph
+        final JsonAnnotation annot = TestData.getTestAnnotationObject("acct:user@" + Authorities.EdiT);
+        final Map<String, Object> leosSelector = new LinkedHashMap<String, Object>();
+        leosSelector.put("type", "LeosSelector");
+        leosSelector.put("id", ELEMENT_ID);
+        leosSelector.put("exact", "brown fox");
+        leosSelector.put("prefix", "The quick ");
+        leosSelector.put("suffix", " jumps");
+        leosSelector.put("start", 10);
+        leosSelector.put("end", 19);
+        final JsonAnnotationTargets targets = new JsonAnnotationTargets(Arrays.asList(leosSelector));
+        targets.setSource(annot.getUri());
+        annot.setTarget(Arrays.asList(targets));
+
+        annotId = annotService.createAnnotation(annot, leosUserInfo).getId();
+    }
+
+    @After
+    public void cleanDatabaseAfterTests() {
+        TestDbHelper.cleanupRepositories(this);
+    }
+
+    // -------------------------------------
+    // Tests
+    // -------------------------------------
+
+    /**
+     * the annotated text did not move: nothing is updated
+     */
+    @Test
+    @SuppressFBWarnings(value = SpotBugsAnnotations.FieldNotInitialized, justification = SpotBugsAnnotations.FieldNotInitializedReason)
+    public void testUnchangedTextNotReanchored() throws Exception {
+
+        final String selectorsBefore = getAnnotation().getTargetSelectors();
+
+        final ReanchorAnnotationsResult result = anchoringService.reanchorAnnotations(
+                new ReanchorAnnotationsRequest(DOC_URI, getContent(ELEMENT_ID, TEXT), null), leosUserInfo);
+
+        Assert.assertTrue(result.getReanchoredAnnotIds().isEmpty());
+        Assert.assertTrue(result.getOrphanedAnnotIds().isEmpty());
+        Assert.assertEquals(selectorsBefore, getAnnotation().getTargetSelectors());
+    }
+
+    /**
+     * text was inserted before the annotated text: the annotation is not orphaned, and its positions are kept,
+     * as they refer to the text rendered by the clients
+     */
+    @Test
+    @SuppressFBWarnings(value = SpotBugsAnnotations.FieldNotInitialized, justification = SpotBugsAnnotations.FieldNotInitializedReason)
+    public void testMovedTextNotOrphaned() throws Exception {
+
+        final String selectorsBefore = getAnnotation().getTargetSelectors();
+
+        final ReanchorAnnotationsResult result = anchoringService.reanchorAnnotations(
+                new ReanchorAnnotationsRequest(DOC_URI, getContent(ELEMENT_ID, "A brown fox sleeps. The very quick brown fox jumps."), null),
+                leosUserInfo);
+
+        Assert.assertTrue(result.getReanchoredAnnotIds().isEmpty());
+        Assert.assertTrue(result.getOrphanedAnnotIds().isEmpty());
+        Assert.assertFalse(getAnnotation().isOrphaned());
+        Assert.assertEquals(selectorsBefore, getAnnotation().getTargetSelectors());
+    }
+
+    /**
+     * the annotated text is spread over inline elements and formatted differently in the AKN content than when rendered: 
+     * the annotation is not orphaned
+     */
+    @Test
+    @SuppressFBWarnings(value = SpotBugsAnnotations.FieldNotInitialized, justification = SpotBugsAnnotations.FieldNotInitializedReason)
+    public void testTextWithMarkupNotOrphaned() throws Exception {
+
+        final ReanchorAnnotationsResult result = anchoringService.reanchorAnnotations(
+                new ReanchorAnnotationsRequest(DOC_URI, getContent(ELEMENT_ID, "The quick <i>brown</i>\n        fox jumps over the lazy dog."), null),
+                leosUserInfo);
+
+        Assert.assertTrue(result.getOrphanedAnnotIds().isEmpty());
+        Assert.assertFalse(getAnnotation().isOrphaned());
+    }
+
+    /**
+     * the element containing the annotated text got a new ID
+     */
+    @Test
+    @SuppressFBWarnings(value = SpotBugsAnnotations.FieldNotInitialized, justification = SpotBugsAnnotations.FieldNotInitializedReason)
+    public void testChangedElementIdReanchored() throws Exception {
+
+        final String newId = "art_1_par_2";
+        final ReanchorAnnotationsResult result = anchoringService.reanchorAnnotations(
+                new ReanchorAnnotationsRequest(DOC_URI, getContent(newId, TEXT), Collections.singletonMap(ELEMENT_ID, newId)), leosUserInfo);
+
+        Assert.assertEquals(Arrays.asList(annotId), result.getReanchoredAnnotIds());
+        Assert.assertTrue(getAnnotation().getTargetSelectors().contains("\"id\":\"" + newId + "\""));
+    }
+
+    /**
+     * the annotated text was removed: the annotation is orphaned, until the text comes back
+     */
+    @Test
+    @SuppressFBWarnings(value = SpotBugsAnnotations.FieldNotInitialized, justification = SpotBugsAnnotations.FieldNotInitializedReason)
+    public void testRemovedTextOrphaned() throws Exception {
+
+        ReanchorAnnotationsResult result = anchoringService.reanchorAnnotations(
+                new ReanchorAnnotationsRequest(DOC_URI, getContent(ELEMENT_ID, "The quick fox jumps over the lazy dog."), null), leosUserInfo);
+
+        Assert.assertTrue(result.getReanchoredAnnotIds().isEmpty());
+        Assert.assertEquals(Arrays.asList(annotId), result.getOrphanedAnnotIds());
+        Assert.assertTrue(getAnnotation().isOrphaned());
+
+        // the flag is given to the clients
+        Assert.assertEquals(Boolean.TRUE, conversionService.convertToJsonAnnotation(getAnnotation(), leosUserInfo).getOrphaned());
+
+        // the text is restored
+        result = anchoringService.reanchorAnnotations(new ReanchorAnnotationsRequest(DOC_URI, getContent(ELEMENT_ID, TEXT), null), leosUserInfo);
+
+        Assert.assertEquals(Arrays.asList(annotId), result.getReanchoredAnnotIds());
+        Assert.assertTrue(result.getOrphanedAnnotIds().isEmpty());
+        Assert.assertFalse(getAnnotation().isOrphaned());
+        Assert.assertNull(conversionService.convertToJsonAnnotation(getAnnotation(), leosUserInfo).getOrphaned());
+    }
+
+    /**
+     * only LEOS may re-anchor the annotations
+     */
+    @Test(expected = MissingPermissionException.class)
+    @SuppressFBWarnings(value = SpotBugsAnnotations.FieldNotInitialized, justification = SpotBugsAnnotations.FieldNotInitializedReason)
+    public void testReanchorWithoutPermission() throws Exception {
+
+        final UserInformation iscUserInfo = new UserInformation(leosUserInfo.getUser(), Authorities.ISC);
+        anchoringService.reanchorAnnotations(new ReanchorAnnotationsRequest(DOC_URI, getContent(ELEMENT_ID, TEXT), null), iscUserInfo);
+    }
+
+    // -------------------------------------
+    // Help functions
+    // -------------------------------------
+
+    private Annotation getAnnotation() {
+        return annotRepos.findByIdAndStatus(annotId, AnnotationStatus.NORMAL);
+    }
+
+    private static String getContent(final String paragraphId, final String text) {
+        return "<akomaNtoso xmlns=\"http://docs.oasis-open.org/legaldocml/ns/akn/3.0\"><bill><body>" +
+                "<article xml:id=\"art_1\"><num>Article 1</num>" +
+                "<paragraph xml:id=\"" + paragraphId + "\"><content><p>" + text + "</p></content></paragraph>" +
+                "</article></body></bill></akomaNtoso>";
+    }
+}
@@ -40,6 +40,7 @@ import org.springframework.util.StringUtils;
 
 import java.net.URISyntaxException;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 
 @RunWith(SpringRunner.class)
@@ -126,9 +127,6 @@ public class AnnotationSaveTest {
         group.setDescription("description");
         groupRepos.save(group);
 
-        final Tag tag = new Tag();
-        tag.setName("thetag");
-
         final Metadata meta = new Metadata(doc, group, "sys");
         metadataRepos.save(meta);
 
@@ -140,8 +138,7 @@ public class AnnotationSaveTest {
         annot.setTargetSelectors("a");
         annot.setMetadata(meta);
 
-        tag.setAnnotation(annot);
-        annot.getTags().add(tag);
+        annot.getTags().addAll(tagService.getTagList(Arrays.asList("thetag"), annot));
 
         annotRepos.save(annot);
 
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate;
+
+import eu.europa.ec.leos.annotate.helper.TestDbHelper;
+import eu.europa.ec.leos.annotate.model.MetadataCandidatesAndStatuses;
+import eu.europa.ec.leos.annotate.model.SimpleMetadata;
+import eu.europa.ec.leos.annotate.model.UserDetails;
+import eu.europa.ec.leos.annotate.model.UserEntity;
+import eu.europa.ec.leos.annotate.model.UserInformation;
+import eu.europa.ec.leos.annotate.model.entity.*;
+import eu.europa.ec.leos.annotate.model.search.AnnotationSearchOptions;
+import eu.europa.ec.leos.annotate.model.search.AnnotationSearchResult;
+import eu.europa.ec.leos.annotate.repository.*;
+import eu.europa.ec.leos.annotate.repository.impl.SearchPredicates;
+import eu.europa.ec.leos.annotate.services.AnnotationService;
+import eu.europa.ec.leos.annotate.services.MetadataService;
+import eu.europa.ec.leos.annotate.services.impl.UserDetailsCache;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.config.name=anot")
+@WebAppConfiguration
+@ActiveProfiles("test")
+public class IscSearchWithManyMetadataTest {
+
+    /**
+     * test for searching in a document having more metadata sets and annotations 
+     * than the items allowed in an IN list by Oracle
+     */
+
+    private static final String uriString = "uri://LEOS/dummy_bill_for_test";
+    private static final String dummySelector = "[{\"selector\":null,\"source\":\"" + uriString + "\"}]";
+    private static final String DIGIT = "DIGIT";
+    private static final int SENT_ITEMS = SearchPredicates.MAX_IN_LIST_SIZE + 200;
+    private static final String LINKED_ANNOT = "sent0";
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 10;
+
+    private static final Logger LOG = LoggerFactory.getLogger(IscSearchWithManyMetadataTest.class);
+
+    private User digitWorldUser;
+
+    // -------------------------------------
+    // Required services and repositories
+    // -------------------------------------
+
+    @Autowired
+    private AnnotationService annotService;
+
+    @Autowired
+    @Qualifier("annotationTestRepos")
+    private AnnotationTestRepository annotRepos;
+
+    @Autowired
+    private DocumentRepository documentRepos;
+
+    @Autowired
+    private MetadataRepository metadataRepos;
+
+    @Autowired
+    private MetadataService metadataService;
+
+    @Autowired
+    private GroupRepository groupRepos;
+
+    @Autowired
+    private UserGroupRepository userGroupRepos;
+
+    @Autowired
+    private UserRepository userRepos;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    // -------------------------------------
+    // Cleanup of database content
+    // -------------------------------------
+    @Before
+    public void setupTests() {
+
+        TestDbHelper.cleanupRepositories(this);
+
+        createTestData();
+    }
+
+    @After
+    public void cleanDatabaseAfterTests() {
+
+        TestDbHelper.cleanupRepositories(this);
+    }
+
+    // -------------------------------------
+    // Test data
+    // -------------------------------------
+
+    private void createTestData() {
+
+        final Group groupWorld = TestDbHelper.insertDefaultGroup(groupRepos);
+        final Group groupDigit = new Group(DIGIT, DIGIT, DIGIT, true);
+        groupRepos.save(groupDigit);
+
+        digitWorldUser = new User("digitAndWorld");
+        userRepos.save(digitWorldUser);
+
+        final List<UserEntity> entitiesDigit = Arrays.asList(new UserEntity("2", DIGIT, DIGIT));
+
+        // cache info for users in order to speed up test execution
+        userDetailsCache.cache(digitWorldUser.getLogin(), new UserDetails(digitWorldUser.getLogin(), Long.valueOf(2), DIGIT, "user2", entitiesDigit, "", null));
+
+        userGroupRepos.save(new UserGroup(digitWorldUser.getId(), groupWorld.getId()));
+        userGroupRepos.save(new UserGroup(digitWorldUser.getId(), groupDigit.getId()));
+
+        final Document document = new Document(URI.create(uriString), "title");
+        documentRepos.save(document);
+
+        // many responses were SENT (responseVersion 1), each one having its own metadata set and an annotation
+        final List<Metadata> metaSent = new ArrayList<Metadata>();
+        for (int i = 0; i < SENT_ITEMS; i++) {
+            final SimpleMetadata metaHelpSentV1 = new SimpleMetadata(Metadata.PROP_RESPONSE_VERSION, "1");
+            metaHelpSentV1.put(Metadata.PROP_RESPONSE_STATUS, Metadata.ResponseStatus.SENT.toString());
+            metaHelpSentV1.put(Metadata.PROP_RESPONSE_ID, "resp" + i);
+            metaSent.add(new Metadata(document, groupDigit, Authorities.ISC, metaHelpSentV1));
+        }
+        metadataRepos.save(metaSent);
+
+        final List<Annotation> annots = new ArrayList<Annotation>();
+        for (int i = 0; i < SENT_ITEMS; i++) {
+            annots.add(createAnnotation("sent" + i, metaSent.get(i)));
+        }
+
+        // the next response is IN_PREPARATION (responseVersion 2); its annotation is linked to the first SENT annotation
+        final SimpleMetadata metaHelpInPrepV2 = new SimpleMetadata(Metadata.PROP_RESPONSE_VERSION, "2");
+        metaHelpInPrepV2.put(Metadata.PROP_RESPONSE_STATUS, Metadata.ResponseStatus.IN_PREPARATION.toString());
+        metaHelpInPrepV2.put(Metadata.PROP_RESPONSE_ID, "resp0");
+        final Metadata metaInPrep = new Metadata(document, groupDigit, Authorities.ISC, metaHelpInPrepV2);
+        metadataRepos.save(metaInPrep);
+
+        final Annotation annotInPrep = createAnnotation("inPrep", metaInPrep);
+        annotInPrep.setLinkedAnnotationId(LINKED_ANNOT);
+        annots.add(annotInPrep);
+
+        annotRepos.save(annots);
+    }
+
+    private Annotation createAnnotation(final String annotId, final Metadata meta) {
+
+        final Annotation annot = new Annotation();
+        annot.setId(annotId);
+        annot.setUser(digitWorldUser);
+        annot.setMetadata(meta);
+        annot.setCreated(LocalDateTime.now());
+        annot.setUpdated(LocalDateTime.now());
+        annot.setTargetSelectors(dummySelector);
+        annot.setShared(true);
+        return annot;
+    }
+
+    // -------------------------------------
+    // Tests
+    // -------------------------------------
+
+    /**
+     * search with post-filtering and paging: the linked SENT annotation is filtered out,
+     * all others are found in pages
+     */
+    @Test
+    public void testSearchPagedWithPostFiltering() {
+
+        final UserInformation userInfo = getUserInfoWithToken();
+
+        final AnnotationSearchOptions firstPageOptions = new AnnotationSearchOptions(uriString, DIGIT, false, 100, 0, "asc", "created");
+        final AnnotationSearchResult firstPage = annotService.searchAnnotations(firstPageOptions, userInfo);
+        Assert.assertEquals(SENT_ITEMS, firstPage.getTotalItems());
+        Assert.assertEquals(100, firstPage.size());
+
+        final AnnotationSearchOptions allOptions = new AnnotationSearchOptions(uriString, DIGIT, false, -1, 0, "asc", "created");
+        final AnnotationSearchResult all = annotService.searchAnnotations(allOptions, userInfo);
+        Assert.assertEquals(SENT_ITEMS, all.size());
+        Assert.assertTrue(all.getItems().stream().noneMatch(ann -> ann.getId().equals(LINKED_ANNOT)));
+        Assert.assertTrue(all.getItems().stream().anyMatch(ann -> ann.getId().equals("inPrep")));
+
+        // there are no replies to be found for all these annotations
+        Assert.assertTrue(annotService.searchRepliesForAnnotations(all, allOptions, userInfo).isEmpty());
+    }
+
+    /**
+     * comparison of the annotation query matching the candidate metadata sets by a subquery
+     * with the previous plan, which retrieved the IDs of the matching metadata sets first and passed them as IN lists:
+     * both must find the same annotations; their average durations are logged
+     */
+    @Test
+    public void testMetadataSubqueryComparedToResolvedMetadataIds() {
+
+        final UserInformation userInfo = getUserInfoWithToken();
+        final AnnotationSearchOptions options = new AnnotationSearchOptions(uriString, DIGIT, false, -1, 0, "asc", "created");
+        final List<MetadataCandidatesAndStatuses> candidates = annotService.searchAnnotations(options, userInfo)
+                .getSearchModelUsed().getMetadataAndStatusesList();
+        Assert.assertFalse(candidates.isEmpty());
+
+        // current plan: a single query, the metadata sets are matched by a subquery
+        final Supplier<List<String>> subqueryPlan = () -> candidates.stream()
+                .flatMap(mcas -> annotRepos.findAll(withStatuses(mcas,
+                        (root, query, critBuilder) -> SearchPredicates.isInMetadataSets(critBuilder, query, root.<Long>get("metadataId"),
+                                mcas.getMetadataCandidates()))).stream())
+                .map(Annotation::getId).sorted().collect(Collectors.toList());
+
+        // previous plan: the IDs of the metadata sets are retrieved first, and then passed as (split) IN lists
+        final Supplier<List<String>> resolvedIdsPlan = () -> candidates.stream()
+                .flatMap(mcas -> {
+                    final List<Long> metadataIds = metadataService.findIdsOfMetadata(mcas.getMetadataCandidates(), null);
+                    return annotRepos.findAll(withStatuses(mcas,
+                            (root, query, critBuilder) -> SearchPredicates.isIn(critBuilder, root.<Long>get("metadataId"), metadataIds))).stream();
+                })
+                .map(Annotation::getId).sorted().collect(Collectors.toList());
+
+        final List<String> foundBySubquery = subqueryPlan.get();
+        Assert.assertEquals(SENT_ITEMS + 1, foundBySubquery.size());
+        Assert.assertEquals(resolvedIdsPlan.get(), foundBySubquery);
+
+        LOG.info("Search in {} metadata sets: {} ms with metadata subquery, {} ms with resolved metadata IDs (average of {} runs)",
+                SENT_ITEMS + 1, averageMillis(subqueryPlan), averageMillis(resolvedIdsPlan), MEASURED_RUNS);
+    }
+
+    private static Specification<Annotation> withStatuses(final MetadataCandidatesAndStatuses mcas, final Specification<Annotation> metadataSpec) {
+
+        return (root, query, critBuilder) -> critBuilder.and(metadataSpec.toPredicate(root, query, critBuilder),
+                SearchPredicates.isIn(critBuilder, root.<Annotation.AnnotationStatus>get("status"), mcas.getStatuses()));
+    }
+
+    private static double averageMillis(final Supplier<List<String>> plan) {
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            plan.get();
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            plan.get();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_RUNS;
+    }
+
+    private UserInformation getUserInfoWithToken() {
+
+        return new UserInformation(new Token(digitWorldUser, Authorities.ISC, "acc1",
+                LocalDateTime.now().plusMinutes(5), "ref1", LocalDateTime.now().plusMinutes(5)));
+    }
+}
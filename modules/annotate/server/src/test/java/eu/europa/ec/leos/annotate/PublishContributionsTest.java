@@ -381,7 +381,7 @@ public class PublishContributionsTest {
         annotService.makeShared(null);
         
         // check that nothing was changed in the repository
-        final List<Annotation> allAnnots = (List<Annotation>) annotRepos.findAll();
+        final List<Annotation> allAnnots = annotRepos.findAll();
         Assert.assertFalse(allAnnots.get(0).isShared());
     }
     
@@ -416,7 +416,7 @@ public class PublishContributionsTest {
         annotService.makeShared(Arrays.asList(annot));
         
         // check that the single item was changed in the repository
-        final List<Annotation> allAnnots = (List<Annotation>) annotRepos.findAll();
+        final List<Annotation> allAnnots = annotRepos.findAll();
         Assert.assertEquals(1, allAnnots.size());
         Assert.assertTrue(allAnnots.get(0).isShared());
     }
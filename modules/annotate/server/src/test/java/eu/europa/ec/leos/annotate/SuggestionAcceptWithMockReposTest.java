@@ -99,6 +99,9 @@ public class SuggestionAcceptWithMockReposTest {
     @Mock
     private UUIDGeneratorService uuidService;
 
+    @Mock
+    private RevisionGeneratorService revisionService;
+
     @Mock
     private TagsService tagsService;
 
@@ -161,7 +164,7 @@ public class SuggestionAcceptWithMockReposTest {
         ann.setId("1");
         ann.setUpdated(LocalDateTime.now());
         ann.setStatus(AnnotationStatus.NORMAL);
-        ann.setTags(Arrays.asList(new Tag("suggestion", ann)));
+        ann.setTags(Arrays.asList(new Tag(new TagName("suggestion"), ann)));
 
         final JsonAnnotationStatus jsonStatus = new JsonAnnotationStatus();
         jsonStatus.setStatus(AnnotationStatus.NORMAL);
@@ -173,7 +176,6 @@ public class SuggestionAcceptWithMockReposTest {
         annotService.createAnnotation(jsAnnot, userInfo);
 
         Mockito.when(annotService.findAnnotationById("1")).thenReturn(ann);
-        Mockito.when(tagsService.hasSuggestionTag(Mockito.anyListOf(Tag.class))).thenReturn(true);
         Mockito.when(annotPermService.hasUserPermissionToAcceptSuggestion(Mockito.any(Annotation.class), Mockito.any(User.class))).thenReturn(true);
 
         // accept it - should fail as repository throws an exception upon saving the annotation
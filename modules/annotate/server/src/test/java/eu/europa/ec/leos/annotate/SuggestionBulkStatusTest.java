@@ -0,0 +1,208 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import eu.europa.ec.leos.annotate.helper.SpotBugsAnnotations;
+import eu.europa.ec.leos.annotate.helper.TestData;
+import eu.europa.ec.leos.annotate.helper.TestDbHelper;
+import eu.europa.ec.leos.annotate.helper.TestHelper;
+import eu.europa.ec.leos.annotate.model.UserInformation;
+import eu.europa.ec.leos.annotate.model.entity.Annotation;
+import eu.europa.ec.leos.annotate.model.entity.Annotation.AnnotationStatus;
+import eu.europa.ec.leos.annotate.model.entity.Group;
+import eu.europa.ec.leos.annotate.model.entity.Metadata;
+import eu.europa.ec.leos.annotate.model.entity.User;
+import eu.europa.ec.leos.annotate.model.entity.UserGroup;
+import eu.europa.ec.leos.annotate.model.web.annotation.JsonAnnotation;
+import eu.europa.ec.leos.annotate.repository.*;
+import eu.europa.ec.leos.annotate.services.AnnotationService;
+import eu.europa.ec.leos.annotate.services.exceptions.MissingPermissionException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.config.name=anot")
+@ActiveProfiles("test")
+public class SuggestionBulkStatusTest {
+
+    /**
+     * This class contains tests for accepting and rejecting several suggestions at once
+     */
+
+    // -------------------------------------
+    // Required services and repositories
+    // -------------------------------------
+    @Autowired
+    private AnnotationService annotService;
+
+    @Autowired
+    @Qualifier("annotationTestRepos")
+    private AnnotationTestRepository annotRepos;
+
+    @Autowired
+    private MetadataRepository metadataRepos;
+
+    @Autowired
+    private GroupRepository groupRepos;
+
+    @Autowired
+    private UserRepository userRepos;
+
+    @Autowired
+    private UserGroupRepository userGroupRepos;
+
+    // -------------------------------------
+    // Help variables
+    // -------------------------------------
+    private final static String LOGIN = "demo";
+    private final static String HYPO_USER_ACCOUNT = "acct:" + LOGIN + "@" + Authorities.ISC;
+    private User theUser;
+
+    // -------------------------------------
+    // Cleanup of database content before running new test
+    // -------------------------------------
+    @Before
+    public void cleanDatabaseBeforeTests() {
+
+        TestDbHelper.cleanupRepositories(this);
+        final Group defaultGroup = TestDbHelper.insertDefaultGroup(groupRepos);
+
+        theUser = userRepos.save(new User(LOGIN));
+        userGroupRepos.save(new UserGroup(theUser.getId(), defaultGroup.getId()));
+    }
+
+    @After
+    public void cleanDatabaseAfterTests() {
+        TestDbHelper.cleanupRepositories(this);
+    }
+
+    // -------------------------------------
+    // Tests
+    // -------------------------------------
+
+    /**
+     * accept two suggestions, one of them having a reply, together with an annotation and an unknown ID
+     * -> the suggestions and the reply are accepted, the annotation and the unknown ID are skipped
+     */
+    @Test
+    @SuppressFBWarnings(value = SpotBugsAnnotations.FieldNotInitialized, justification = SpotBugsAnnotations.FieldNotInitializedReason)
+    public void testBulkAcceptSuggestions() throws Exception {
+
+        final UserInformation userInfo = new UserInformation(theUser, Authorities.ISC);
+
+        final JsonAnnotation jsSugg = TestData.getTestSuggestionObject(HYPO_USER_ACCOUNT);
+        annotService.createAnnotation(jsSugg, userInfo);
+        final JsonAnnotation jsSugg2 = TestData.getTestSuggestionObject(HYPO_USER_ACCOUNT);
+        annotService.createAnnotation(jsSugg2, userInfo);
+        final JsonAnnotation jsReply = TestData.getTestReplyToAnnotation(HYPO_USER_ACCOUNT, jsSugg.getUri(), jsSugg);
+        annotService.createAnnotation(jsReply, userInfo);
+        final JsonAnnotation jsAnnot = TestData.getTestAnnotationObject(HYPO_USER_ACCOUNT);
+        annotService.createAnnotation(jsAnnot, userInfo);
+
+        Assert.assertEquals(4, annotRepos.count());
+
+        final List<String> accepted = annotService.acceptSuggestionsById(
+                Arrays.asList(jsSugg.getId(), jsAnnot.getId(), "unknown", jsSugg2.getId(), jsSugg.getId()), userInfo);
+        Assert.assertEquals(Arrays.asList(jsSugg.getId(), jsSugg2.getId()), accepted);
+
+        TestHelper.assertHasStatus(annotRepos, jsSugg.getId(), AnnotationStatus.ACCEPTED, theUser.getId());
+        TestHelper.assertHasStatus(annotRepos, jsSugg2.getId(), AnnotationStatus.ACCEPTED, theUser.getId());
+        TestHelper.assertHasStatus(annotRepos, jsReply.getId(), AnnotationStatus.ACCEPTED, theUser.getId());
+        TestHelper.assertHasStatus(annotRepos, jsAnnot.getId(), AnnotationStatus.NORMAL, null);
+    }
+
+    /**
+     * reject two suggestions in ISC, one of them having response status SENT
+     * -> only the other suggestion is rejected
+     */
+    @Test
+    @SuppressFBWarnings(value = SpotBugsAnnotations.FieldNotInitialized, justification = SpotBugsAnnotations.FieldNotInitializedReason)
+    public void testBulkRejectSuggestions_SentSuggestionSkipped() throws Exception {
+
+        final UserInformation userInfo = new UserInformation(theUser, Authorities.ISC);
+
+        final JsonAnnotation jsSugg = TestData.getTestSuggestionObject(HYPO_USER_ACCOUNT);
+        annotService.createAnnotation(jsSugg, userInfo);
+        final JsonAnnotation jsSugg2 = TestData.getTestSuggestionObject(HYPO_USER_ACCOUNT);
+        annotService.createAnnotation(jsSugg2, userInfo);
+
+        // the second suggestion gets other metadata having response status SENT
+        final Metadata sentMeta = new Metadata(annotService.findAnnotationById(jsSugg.getId()).getMetadata());
+        sentMeta.setResponseStatus(Metadata.ResponseStatus.SENT);
+        metadataRepos.save(sentMeta);
+        final Annotation sugg2 = annotService.findAnnotationById(jsSugg2.getId());
+        sugg2.setMetadata(sentMeta);
+        annotRepos.save(sugg2);
+
+        final List<String> rejected = annotService.rejectSuggestionsById(Arrays.asList(jsSugg.getId(), jsSugg2.getId()), userInfo);
+        Assert.assertEquals(Arrays.asList(jsSugg.getId()), rejected);
+
+        TestHelper.assertHasStatus(annotRepos, jsSugg.getId(), AnnotationStatus.REJECTED, theUser.getId());
+        TestHelper.assertHasStatus(annotRepos, jsSugg2.getId(), AnnotationStatus.NORMAL, null);
+    }
+
+    /**
+     * reject suggestions as a user not being member of the suggestions' group
+     * -> nothing is rejected
+     */
+    @Test
+    @SuppressFBWarnings(value = SpotBugsAnnotations.FieldNotInitialized, justification = SpotBugsAnnotations.FieldNotInitializedReason)
+    public void testBulkRejectSuggestions_OtherGroup() throws Exception {
+
+        final UserInformation userInfo = new UserInformation(theUser, Authorities.ISC);
+        final JsonAnnotation jsSugg = TestData.getTestSuggestionObject(HYPO_USER_ACCOUNT);
+        annotService.createAnnotation(jsSugg, userInfo);
+
+        final User otherUser = userRepos.save(new User("other"));
+        final List<String> rejected = annotService.rejectSuggestionsById(Arrays.asList(jsSugg.getId()),
+                new UserInformation(otherUser, Authorities.ISC));
+        Assert.assertTrue(rejected.isEmpty());
+
+        TestHelper.assertHasStatus(annotRepos, jsSugg.getId(), AnnotationStatus.NORMAL, null);
+    }
+
+    /**
+     * accept suggestions without a user
+     * -> permission exception
+     */
+    @Test(expected = MissingPermissionException.class)
+    public void testBulkAcceptSuggestions_NoUser() throws Exception {
+
+        annotService.acceptSuggestionsById(Arrays.asList("id"), new UserInformation("login", Authorities.ISC));
+    }
+
+    /**
+     * accept without suggestion IDs
+     * -> nothing is done
+     */
+    @Test
+    public void testBulkAcceptSuggestions_NoIds() throws Exception {
+
+        final UserInformation userInfo = new UserInformation(theUser, Authorities.ISC);
+        Assert.assertTrue(annotService.acceptSuggestionsById(null, userInfo).isEmpty());
+        Assert.assertTrue(annotService.acceptSuggestionsById(Arrays.asList(), userInfo).isEmpty());
+    }
+}
@@ -96,6 +96,44 @@ public class UserDetailsCacheTest {
         userCache.cache("", null);
     }
 
+    /**
+     * test that users unknown to the UD-repo are remembered, but do not hide details cached later
+     */
+    @Test
+    public void testUnknownUserCached() {
+
+        final String LOGIN = "unknownuser";
+
+        Assert.assertFalse(userCache.isCachedAsUnknown(LOGIN));
+
+        userCache.cacheUnknown(LOGIN);
+        Assert.assertTrue(userCache.isCachedAsUnknown(LOGIN));
+        Assert.assertNull(userCache.getCachedUserDetails(LOGIN));
+
+        final UserDetails details = new UserDetails(LOGIN, (long) 47, "Santa", "Clause", null, "santa@clause.europa.eu", null);
+        userCache.cache(LOGIN, details);
+        Assert.assertFalse(userCache.isCachedAsUnknown(LOGIN));
+        Assert.assertEquals(details, userCache.getCachedUserDetails(LOGIN));
+
+        // an unknown user does not replace details cached before
+        userCache.cacheUnknown(LOGIN);
+        Assert.assertEquals(details, userCache.getCachedUserDetails(LOGIN));
+    }
+
+    /**
+     * test that details just cached do not need to be refreshed
+     */
+    @Test
+    public void testFreshDetailsNotRefreshed() {
+
+        final String LOGIN = "freshuser";
+
+        Assert.assertFalse(userCache.startRefreshIfOutdated(LOGIN));
+
+        userCache.cache(LOGIN, new UserDetails(LOGIN, (long) 47, "Santa", "Clause", null, "santa@clause.europa.eu", null));
+        Assert.assertFalse(userCache.startRefreshIfOutdated(LOGIN));
+    }
+
     /**
      * test that the cache cleanup works
      */
@@ -144,6 +144,30 @@ public class UserDetailsFromExternalRepoTest {
         Mockito.verify(restOperations, Mockito.times(1)).getForObject(null, UserDetails.class, secondCallParams);
     }
 
+    /**
+     * Test that a user unknown to the UD-repo is not searched again immediately
+     * (using a Mock for the REST template used for launching REST calls)
+     */
+    @Test
+    public void testUnknownUserNotSearchedAgain() {
+
+        final String login = "unknown";
+
+        // mock the RestTemplate and inject it into the UserService; it does not know the user
+        final RestTemplate restOperations = Mockito.mock(RestTemplate.class);
+        final UserService userService = new UserServiceImpl(restOperations);
+
+        final Map<String, String> params = new ConcurrentHashMap<String, String>();
+        params.put("userId", login);
+
+        Assert.assertNull(userService.getUserDetailsFromUserRepo(login));
+        Assert.assertNull(userService.getUserDetailsFromUserRepo(login));
+
+        // verify that the UD-repo was asked only once
+        Mockito.verify(restOperations, Mockito.times(1)).getForObject(null, UserDetails.class, params);
+        Mockito.verify(restOperations, Mockito.never()).getForObject(null, UserEntity[].class, params);
+    }
+
     /**
      * Test retrieving user data from UD repo and return a display name for the user
      * when calling the user profile
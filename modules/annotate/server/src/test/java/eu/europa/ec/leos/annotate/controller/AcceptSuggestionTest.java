@@ -21,6 +21,7 @@ import eu.europa.ec.leos.annotate.model.entity.*;
 import eu.europa.ec.leos.annotate.model.entity.Annotation.AnnotationStatus;
 import eu.europa.ec.leos.annotate.model.web.JsonFailureResponse;
 import eu.europa.ec.leos.annotate.model.web.annotation.JsonAnnotation;
+import eu.europa.ec.leos.annotate.model.web.annotation.JsonIdList;
 import eu.europa.ec.leos.annotate.model.web.annotation.JsonSuggestionAcceptSuccessResponse;
 import eu.europa.ec.leos.annotate.repository.*;
 import eu.europa.ec.leos.annotate.services.AnnotationService;
@@ -33,6 +34,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
@@ -265,4 +267,51 @@ public class AcceptSuggestionTest {
         Assert.assertNotNull(jsResponse);
         Assert.assertTrue(!jsResponse.getReason().isEmpty());
     }
+
+    /**
+     * accept several suggestions at once, one of the IDs not being a suggestion, expected HTTP 200 and IDs of the accepted suggestions
+     */
+    @SuppressFBWarnings(value = SpotBugsAnnotations.FieldNotInitialized, justification = SpotBugsAnnotations.FieldNotInitializedReason)
+    @Test
+    public void testBulkAcceptSuggestionsOk() throws Exception {
+
+        final String authority = DEFAULT_AUTHORITY;
+        final String hypothesisUserAccount = "acct:user@" + authority;
+        final UserInformation userInfo = new UserInformation(user, authority);
+
+        // preparation: save two suggestions and an annotation
+        JsonAnnotation jsSugg = TestData.getTestAnnotationObject(hypothesisUserAccount);
+        jsSugg.setTags(Arrays.asList(Annotation.ANNOTATION_SUGGESTION));
+        jsSugg = annotService.createAnnotation(jsSugg, userInfo);
+        JsonAnnotation jsSugg2 = TestData.getTestAnnotationObject(hypothesisUserAccount);
+        jsSugg2.setTags(Arrays.asList(Annotation.ANNOTATION_SUGGESTION));
+        jsSugg2 = annotService.createAnnotation(jsSugg2, userInfo);
+        final JsonAnnotation jsAnnot = annotService.createAnnotation(TestData.getTestAnnotationObject(hypothesisUserAccount), userInfo);
+
+        final JsonIdList idList = new JsonIdList();
+        idList.setIds(Arrays.asList(jsSugg.getId(), jsAnnot.getId(), jsSugg2.getId()));
+
+        // send request
+        final MockHttpServletRequestBuilder builder = MockMvcRequestBuilders.delete("/api/annotations/accept")
+                .header(TestHelper.AUTH_HEADER, TestHelper.AUTH_BEARER + ACCESS_TOKEN)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(SerialisationHelper.serialize(idList));
+
+        final ResultActions result = this.mockMvc.perform(builder);
+
+        // expected: Http 200
+        result.andExpect(MockMvcResultMatchers.status().isOk());
+
+        final MvcResult resultContent = result.andReturn();
+        final String responseString = resultContent.getResponse().getContentAsString();
+
+        // the IDs of the suggestions are returned
+        final JsonIdList jsResponse = SerialisationHelper.deserializeJsonIdList(responseString);
+        Assert.assertNotNull(jsResponse);
+        Assert.assertEquals(Arrays.asList(jsSugg.getId(), jsSugg2.getId()), jsResponse.getIds());
+
+        TestHelper.assertHasStatus(annotRepos, jsSugg.getId(), AnnotationStatus.ACCEPTED, user.getId());
+        TestHelper.assertHasStatus(annotRepos, jsSugg2.getId(), AnnotationStatus.ACCEPTED, user.getId());
+        TestHelper.assertHasStatus(annotRepos, jsAnnot.getId(), AnnotationStatus.NORMAL, null);
+    }
 }
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import eu.europa.ec.leos.annotate.Authorities;
+import eu.europa.ec.leos.annotate.helper.*;
+import eu.europa.ec.leos.annotate.model.UserInformation;
+import eu.europa.ec.leos.annotate.model.entity.Group;
+import eu.europa.ec.leos.annotate.model.entity.Token;
+import eu.europa.ec.leos.annotate.model.entity.User;
+import eu.europa.ec.leos.annotate.model.entity.UserGroup;
+import eu.europa.ec.leos.annotate.model.web.JsonFailureResponse;
+import eu.europa.ec.leos.annotate.model.web.annotation.JsonAnnotation;
+import eu.europa.ec.leos.annotate.model.web.annotation.JsonSearchResultWithSeparateReplies;
+import eu.europa.ec.leos.annotate.repository.GroupRepository;
+import eu.europa.ec.leos.annotate.repository.TokenRepository;
+import eu.europa.ec.leos.annotate.repository.UserGroupRepository;
+import eu.europa.ec.leos.annotate.repository.UserRepository;
+import eu.europa.ec.leos.annotate.services.AnnotationService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.DefaultMockMvcBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.config.name=anot")
+@WebAppConfiguration
+@ActiveProfiles("test")
+public class ExportAnnotationsTest {
+
+    private static final String EXPORT_URL = "/api/export?group=__world__";
+
+    // -------------------------------------
+    // Required services and repositories
+    // -------------------------------------
+
+    @Autowired
+    private AnnotationService annotService;
+
+    @Autowired
+    private GroupRepository groupRepos;
+
+    @Autowired
+    private UserGroupRepository userGroupRepos;
+
+    @Autowired
+    private UserRepository userRepos;
+
+    @Autowired
+    private TokenRepository tokenRepos;
+
+    @Autowired
+    private WebApplicationContext wac;
+
+    private MockMvc mockMvc;
+
+    private final static String ACCESS_TOKEN = "demoaccesstoken", REFRESH_TOKEN = "refr";
+    private static final String AUTHORITY = Authorities.EdiT;
+    private final static String LOGIN1 = "demo", LOGIN2 = "john";
+    private final static String USER1 = "acct:" + LOGIN1 + "@" + AUTHORITY, USER2 = "acct:" + LOGIN2 + "@" + AUTHORITY;
+    private final static String OTHER_URI = "uri://LEOS/bill_test";
+    private User user2;
+    private UserInformation userInfo1;
+
+    // -------------------------------------
+    // Cleanup of database content
+    // -------------------------------------
+    @Before
+    public void setupTests() {
+
+        TestDbHelper.cleanupRepositories(this);
+        final Group defaultGroup = TestDbHelper.insertDefaultGroup(groupRepos);
+
+        // create two users of same group
+        final User user1 = new User(LOGIN1);
+        userRepos.save(user1);
+        final Token token = new Token(user1, AUTHORITY, ACCESS_TOKEN, LocalDateTime.now().plusMinutes(5), REFRESH_TOKEN, LocalDateTime.now());
+        tokenRepos.save(token);
+        userInfo1 = new UserInformation(token);
+
+        user2 = userRepos.save(new User(LOGIN2));
+        userGroupRepos.save(new UserGroup(user1.getId(), defaultGroup.getId()));
+        userGroupRepos.save(new UserGroup(user2.getId(), defaultGroup.getId()));
+
+        final DefaultMockMvcBuilder builder = MockMvcBuilders.webAppContextSetup(this.wac);
+        this.mockMvc = builder.build();
+    }
+
+    @After
+    public void cleanDatabaseAfterTests() {
+
+        TestDbHelper.cleanupRepositories(this);
+    }
+
+    // -------------------------------------
+    // Tests
+    // -------------------------------------
+
+    /**
+     * successfully export the annotations of two documents, expected HTTP 200 and the search result of each document
+     */
+    @SuppressFBWarnings(value = SpotBugsAnnotations.FieldNotInitialized, justification = SpotBugsAnnotations.FieldNotInitializedReason)
+    @Test
+    public void testExportAnnotationsOfSeveralDocuments() throws Exception {
+
+        final UserInformation userInfo2 = new UserInformation(user2, AUTHORITY);
+
+        // preparation: save an annotation and a reply for it in a first document
+        JsonAnnotation jsAnnotFirst = TestData.getTestAnnotationObject(USER1);
+        jsAnnotFirst = annotService.createAnnotation(jsAnnotFirst, userInfo1);
+        final String idFirst = jsAnnotFirst.getId();
+
+        JsonAnnotation jsAnnotReply = TestData.getTestReplyToAnnotation(USER2, jsAnnotFirst.getUri(), Arrays.asList(idFirst));
+        jsAnnotReply = annotService.createAnnotation(jsAnnotReply, userInfo2);
+        final String idReply = jsAnnotReply.getId();
+
+        // save an annotation in a second document
+        final URI otherUri = new URI(OTHER_URI);
+        JsonAnnotation jsAnnotSecond = TestData.getTestAnnotationObject(USER2);
+        jsAnnotSecond.setUri(otherUri);
+        jsAnnotSecond.getDocument().getLink().get(0).setHref(otherUri);
+        jsAnnotSecond.getTarget().get(0).setSource(otherUri);
+        jsAnnotSecond = annotService.createAnnotation(jsAnnotSecond, userInfo2);
+        final String idSecond = jsAnnotSecond.getId();
+
+        // send export request for both documents and a document without annotations
+        final MockHttpServletRequestBuilder builder = MockMvcRequestBuilders
+                .get(EXPORT_URL + "&uri=" + jsAnnotFirst.getUri().toString() + "&uri=" + OTHER_URI + "&uri=uri://LEOS/annex_test")
+                .header(TestHelper.AUTH_HEADER, TestHelper.AUTH_BEARER + ACCESS_TOKEN);
+        final ResultActions result = this.mockMvc.perform(builder);
+
+        // expected: Http 200
+        result.andExpect(MockMvcResultMatchers.status().isOk());
+
+        final String responseString = result.andReturn().getResponse().getContentAsString();
+        final Map<String, JsonSearchResultWithSeparateReplies> jsResponse = new ObjectMapper().readValue(responseString,
+                new TypeReference<Map<String, JsonSearchResultWithSeparateReplies>>() {});
+        Assert.assertEquals(Arrays.asList(jsAnnotFirst.getUri().toString(), OTHER_URI, "uri://LEOS/annex_test"),
+                Arrays.asList(jsResponse.keySet().toArray()));
+
+        // first document: one annotation and its reply
+        final JsonSearchResultWithSeparateReplies firstDocument = jsResponse.get(jsAnnotFirst.getUri().toString());
+        Assert.assertEquals(1, firstDocument.getTotal());
+        Assert.assertEquals(1, firstDocument.getRows().size());
+        Assert.assertEquals(idFirst, firstDocument.getRows().get(0).getId());
+        Assert.assertEquals(1, firstDocument.getReplies().size());
+        Assert.assertEquals(idReply, firstDocument.getReplies().get(0).getId());
+
+        // second document: one annotation, exported read-only
+        final JsonSearchResultWithSeparateReplies secondDocument = jsResponse.get(OTHER_URI);
+        Assert.assertEquals(1, secondDocument.getRows().size());
+        final JsonAnnotation exported = secondDocument.getRows().get(0);
+        Assert.assertEquals(idSecond, exported.getId());
+        Assert.assertEquals(USER2, exported.getUser());
+        Assert.assertEquals(Arrays.asList("group:__world__"), exported.getPermissions().getRead());
+        Assert.assertEquals(Arrays.asList(""), exported.getPermissions().getUpdate());
+        Assert.assertEquals(Arrays.asList(""), exported.getPermissions().getDelete());
+        Assert.assertEquals(Arrays.asList(""), exported.getPermissions().getAdmin());
+        Assert.assertEquals(Arrays.asList("firsttag", "secondtag"), exported.getTags());
+
+        // third document: no annotations
+        final JsonSearchResultWithSeparateReplies thirdDocument = jsResponse.get("uri://LEOS/annex_test");
+        Assert.assertEquals(0, thirdDocument.getTotal());
+        Assert.assertEquals(Collections.emptyList(), thirdDocument.getRows());
+        Assert.assertEquals(Collections.emptyList(), thirdDocument.getReplies());
+    }
+
+    /**
+     * export with an invalid document URI, expected HTTP 400 and failure notice
+     */
+    @Test
+    public void testExportAnnotationsWithInvalidUri() throws Exception {
+
+        final MockHttpServletRequestBuilder builder = MockMvcRequestBuilders
+                .get(EXPORT_URL + "&uri=uri://LEOS/bill_test&uri=in valid")
+                .header(TestHelper.AUTH_HEADER, TestHelper.AUTH_BEARER + ACCESS_TOKEN);
+        final ResultActions result = this.mockMvc.perform(builder);
+
+        // expected: Http 400
+        result.andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        final JsonFailureResponse jsResponse = SerialisationHelper.deserializeJsonFailureResponse(result.andReturn().getResponse().getContentAsString());
+        Assert.assertNotNull(jsResponse);
+    }
+}
@@ -28,6 +28,7 @@ import eu.europa.ec.leos.annotate.model.web.annotation.JsonAnnotation;
 import eu.europa.ec.leos.annotate.model.web.annotation.JsonSearchCount;
 import eu.europa.ec.leos.annotate.model.web.annotation.JsonSearchResult;
 import eu.europa.ec.leos.annotate.repository.*;
+import eu.europa.ec.leos.annotate.services.TagsService;
 import eu.europa.ec.leos.annotate.services.impl.UserDetailsCache;
 import org.assertj.core.api.StringAssert;
 import org.junit.After;
@@ -106,6 +107,9 @@ public class IscSearchModelAnot96Test {
     @Autowired
     private MetadataRepository metadataRepos;
 
+    @Autowired
+    private TagsService tagsService;
+
     @Autowired
     private GroupRepository groupRepos;
 
@@ -474,7 +478,7 @@ public class IscSearchModelAnot96Test {
         final Annotation refAnnot = annotRepos.findById(ANNOT_C);
         
         final Annotation newHighlight = createAnnotation("highl", digitWorldUser, refAnnot.getMetadata());
-        newHighlight.setTags(Arrays.asList(new Tag(Annotation.ANNOTATION_HIGHLIGHT, newHighlight)));
+        newHighlight.setTags(tagsService.getTagList(Arrays.asList(Annotation.ANNOTATION_HIGHLIGHT), newHighlight));
         annotRepos.save(newHighlight);
         
         final Annotation privAnnot = createAnnotation("private", digitWorldUser, refAnnot.getMetadata());
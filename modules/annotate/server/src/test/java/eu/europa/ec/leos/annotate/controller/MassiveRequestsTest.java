@@ -297,7 +297,7 @@ public class MassiveRequestsTest {
                 for (final Document doc : theDocuments) {
                     final Long docId = doc.getId();
 
-                    final List<String> expectedAnnotationIds = ((List<Annotation>) annotRepos.findAll()).stream()
+                    final List<String> expectedAnnotationIds = annotRepos.findAll().stream()
                             .filter(annot -> annot.getDocument().getId().equals(docId) &&
                                     annot.getUserId() == userId &&
                                     annot.getGroup().getId().equals(groupId))
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.controller;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import eu.europa.ec.leos.annotate.Authorities;
+import eu.europa.ec.leos.annotate.helper.*;
+import eu.europa.ec.leos.annotate.model.UserInformation;
+import eu.europa.ec.leos.annotate.model.entity.Group;
+import eu.europa.ec.leos.annotate.model.entity.Token;
+import eu.europa.ec.leos.annotate.model.entity.User;
+import eu.europa.ec.leos.annotate.model.entity.UserGroup;
+import eu.europa.ec.leos.annotate.model.web.annotation.JsonAnnotation;
+import eu.europa.ec.leos.annotate.model.web.annotation.JsonSyncResult;
+import eu.europa.ec.leos.annotate.repository.GroupRepository;
+import eu.europa.ec.leos.annotate.repository.TokenRepository;
+import eu.europa.ec.leos.annotate.repository.UserGroupRepository;
+import eu.europa.ec.leos.annotate.repository.UserRepository;
+import eu.europa.ec.leos.annotate.services.AnnotationService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.DefaultMockMvcBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.*;
+
+@RunWith(SpringRunner.class)
+// the changes made outside of transactions are committed once the service calls return here, so no grace period is needed for them
+@SpringBootTest(properties = {"spring.config.name=anot", "sync.revision.graceperiod=0", "sync.revision.safetymargin=0"})
+@WebAppConfiguration
+@ActiveProfiles("test")
+public class SyncAnnotationsTest {
+
+    private static final String SYNC_URL = "/api/sync?_separate_replies=false&sort=created&order=asc&group=__world__&since=%d&uri=%s";
+
+    // -------------------------------------
+    // Required services and repositories
+    // -------------------------------------
+
+    @Autowired
+    private AnnotationService annotService;
+
+    @Autowired
+    private GroupRepository groupRepos;
+
+    @Autowired
+    private UserGroupRepository userGroupRepos;
+
+    @Autowired
+    private UserRepository userRepos;
+
+    @Autowired
+    private TokenRepository tokenRepos;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private WebApplicationContext wac;
+
+    private MockMvc mockMvc;
+
+    private final static String ACCESS_TOKEN = "demoaccesstoken", REFRESH_TOKEN = "refr";
+    private static final String AUTHORITY = Authorities.EdiT;
+    private final static String LOGIN1 = "demo", LOGIN2 = "john";
+    private final static String USER1 = "acct:" + LOGIN1 + "@" + AUTHORITY, USER2 = "acct:" + LOGIN2 + "@" + AUTHORITY;
+    private UserInformation userInfo1, userInfo2;
+    private Group otherGroup;
+
+    // -------------------------------------
+    // Cleanup of database content
+    // -------------------------------------
+    @Before
+    public void setupTests() {
+
+        TestDbHelper.cleanupRepositories(this);
+        final Group defaultGroup = TestDbHelper.insertDefaultGroup(groupRepos);
+
+        // create two users of same group
+        final User user1 = new User(LOGIN1);
+        userRepos.save(user1);
+        final Token token = new Token(user1, AUTHORITY, ACCESS_TOKEN, LocalDateTime.now().plusMinutes(5), REFRESH_TOKEN, LocalDateTime.now());
+        tokenRepos.save(token);
+        userInfo1 = new UserInformation(token);
+
+        final User user2 = userRepos.save(new User(LOGIN2));
+        userInfo2 = new UserInformation(user2, AUTHORITY);
+        userGroupRepos.save(new UserGroup(user1.getId(), defaultGroup.getId()));
+        userGroupRepos.save(new UserGroup(user2.getId(), defaultGroup.getId()));
+
+        // the second user is member of another group as well
+        otherGroup = groupRepos.save(new Group("othergroup", true));
+        userGroupRepos.save(new UserGroup(user2.getId(), otherGroup.getId()));
+
+        final DefaultMockMvcBuilder builder = MockMvcBuilders.webAppContextSetup(this.wac);
+        this.mockMvc = builder.build();
+    }
+
+    @After
+    public void cleanDatabaseAfterTests() {
+
+        TestDbHelper.cleanupRepositories(this);
+    }
+
+    // -------------------------------------
+    // Tests
+    // -------------------------------------
+
+    /**
+     * first synchronisation of a client: all annotations and replies are returned, nothing is to be removed
+     */
+    @SuppressFBWarnings(value = SpotBugsAnnotations.FieldNotInitialized, justification = SpotBugsAnnotations.FieldNotInitializedReason)
+    @Test
+    public void testInitialSyncReturnsAllAnnotations() throws Exception {
+
+        final JsonAnnotation first = annotService.createAnnotation(TestData.getTestAnnotationObject(USER1), userInfo1);
+        final JsonAnnotation reply = annotService.createAnnotation(
+                TestData.getTestReplyToAnnotation(USER2, first.getUri(), Arrays.asList(first.getId())), userInfo2);
+        final JsonAnnotation second = annotService.createAnnotation(TestData.getTestAnnotationObject(USER2), userInfo2);
+
+        final JsonSyncResult syncResult = sync(0, first);
+
+        Assert.assertTrue(syncResult.getRevision() > 0);
+        Assert.assertThat(syncResult.getChanges().getRows().stream().map(JsonAnnotation::getId).toArray(),
+                arrayContainingInAnyOrder(first.getId(), reply.getId(), second.getId()));
+        Assert.assertEquals(0, syncResult.getRemoved().size());
+    }
+
+    /**
+     * synchronisation after a previous one: only the threads changed in between are returned, as a whole
+     */
+    @SuppressFBWarnings(value = SpotBugsAnnotations.FieldNotInitialized, justification = SpotBugsAnnotations.FieldNotInitializedReason)
+    @Test
+    public void testSyncReturnsChangedThreadsOnly() throws Exception {
+
+        final JsonAnnotation first = annotService.createAnnotation(TestData.getTestAnnotationObject(USER1), userInfo1);
+        final JsonAnnotation second = annotService.createAnnotation(TestData.getTestAnnotationObject(USER1), userInfo1);
+        final long firstRevision = sync(0, first).getRevision();
+
+        // nothing changed in between
+        JsonSyncResult syncResult = sync(firstRevision, first);
+        Assert.assertEquals(0, syncResult.getChanges().getRows().size());
+        Assert.assertEquals(0, syncResult.getRemoved().size());
+
+        // a reply makes the whole thread being returned
+        final JsonAnnotation reply = annotService.createAnnotation(
+                TestData.getTestReplyToAnnotation(USER2, first.getUri(), Arrays.asList(first.getId())), userInfo2);
+        syncResult = sync(firstRevision, first);
+        Assert.assertThat(syncResult.getChanges().getRows().stream().map(JsonAnnotation::getId).toArray(),
+                arrayContainingInAnyOrder(first.getId(), reply.getId()));
+        final long secondRevision = syncResult.getRevision();
+        Assert.assertTrue(secondRevision > firstRevision);
+
+        // an updated annotation is returned
+        second.setText("updated text");
+        annotService.updateAnnotation(second.getId(), second, userInfo1);
+        syncResult = sync(secondRevision, first);
+        Assert.assertThat(syncResult.getChanges().getRows().stream().map(JsonAnnotation::getId).toArray(),
+                arrayContaining(second.getId()));
+        Assert.assertEquals("updated text", syncResult.getChanges().getRows().get(0).getText());
+    }
+
+    /**
+     * synchronisation after annotations were deleted: their IDs are returned for being removed
+     */
+    @SuppressFBWarnings(value = SpotBugsAnnotations.FieldNotInitialized, justification = SpotBugsAnnotations.FieldNotInitializedReason)
+    @Test
+    public void testSyncReturnsRemovedAnnotations() throws Exception {
+
+        final JsonAnnotation first = annotService.createAnnotation(TestData.getTestAnnotationObject(USER1), userInfo1);
+        final JsonAnnotation reply = annotService.createAnnotation(
+                TestData.getTestReplyToAnnotation(USER2, first.getUri(), Arrays.asList(first.getId())), userInfo2);
+        final JsonAnnotation second = annotService.createAnnotation(TestData.getTestAnnotationObject(USER1), userInfo1);
+        final long revision = sync(0, first).getRevision();
+
+        // deleting the reply changes its thread; deleting the second annotation removes it
+        annotService.deleteAnnotationById(reply.getId(), userInfo2);
+        annotService.deleteAnnotationById(second.getId(), userInfo1);
+
+        final JsonSyncResult syncResult = sync(revision, first);
+        Assert.assertThat(syncResult.getChanges().getRows().stream().map(JsonAnnotation::getId).toArray(),
+                arrayContaining(first.getId()));
+        Assert.assertThat(syncResult.getRemoved(), containsInAnyOrder(reply.getId(), second.getId()));
+    }
+
+    /**
+     * synchronisation after annotations of another group and private annotations of another user were deleted: 
+     * they are not returned for being removed, as they were never visible for the user
+     */
+    @SuppressFBWarnings(value = SpotBugsAnnotations.FieldNotInitialized, justification = SpotBugsAnnotations.FieldNotInitializedReason)
+    @Test
+    public void testSyncDoesNotReturnRemovedAnnotationsOutOfScope() throws Exception {
+
+        final JsonAnnotation first = annotService.createAnnotation(TestData.getTestAnnotationObject(USER1), userInfo1);
+        final JsonAnnotation privateAnnot = annotService.createAnnotation(TestData.getTestPrivateAnnotationObject(USER2), userInfo2);
+        final JsonAnnotation otherGroupAnnot = TestData.getTestAnnotationObject(USER2);
+        otherGroupAnnot.setGroup(otherGroup.getName());
+        final JsonAnnotation otherGroupCreated = annotService.createAnnotation(otherGroupAnnot, userInfo2);
+        final JsonAnnotation second = annotService.createAnnotation(TestData.getTestAnnotationObject(USER2), userInfo2);
+        final long revision = sync(0, first).getRevision();
+
+        annotService.deleteAnnotationById(privateAnnot.getId(), userInfo2);
+        annotService.deleteAnnotationById(otherGroupCreated.getId(), userInfo2);
+        annotService.deleteAnnotationById(second.getId(), userInfo2);
+
+        final JsonSyncResult syncResult = sync(revision, first);
+        Assert.assertEquals(0, syncResult.getChanges().getRows().size());
+        Assert.assertThat(syncResult.getRemoved(), contains(second.getId()));
+    }
+
+    /**
+     * synchronisation while a transaction having stamped a change is still running and another one committed a later change meanwhile:
+     * the revision returned does not cover the pending change, which is thus returned by the next synchronisation
+     */
+    @SuppressFBWarnings(value = SpotBugsAnnotations.FieldNotInitialized, justification = SpotBugsAnnotations.FieldNotInitializedReason)
+    @Test
+    public void testSyncReturnsChangesCommittedAfterLaterOnes() throws Exception {
+
+        final JsonAnnotation first = annotService.createAnnotation(TestData.getTestAnnotationObject(USER1), userInfo1);
+        final long firstRevision = sync(0, first).getRevision();
+
+        // first transaction: creates an annotation and waits before committing
+        final CountDownLatch stamped = new CountDownLatch(1);
+        final CountDownLatch commit = new CountDownLatch(1);
+        final AtomicReference<JsonAnnotation> pending = new AtomicReference<JsonAnnotation>();
+        final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+        final Thread pendingTransaction = new Thread(() -> new TransactionTemplate(transactionManager).execute(status -> {
+            try {
+                pending.set(annotService.createAnnotation(TestData.getTestAnnotationObject(USER2), userInfo2));
+                stamped.countDown();
+                Assert.assertTrue(commit.await(30, TimeUnit.SECONDS));
+            } catch (Exception e) {
+                failure.set(e);
+                stamped.countDown();
+            }
+            return null;
+        }));
+        pendingTransaction.start();
+        Assert.assertTrue(stamped.await(30, TimeUnit.SECONDS));
+        Assert.assertNull(failure.get());
+
+        // second transaction: updates an annotation and commits before the first one
+        first.setText("updated text");
+        annotService.updateAnnotation(first.getId(), first, userInfo1);
+
+        JsonSyncResult syncResult = sync(firstRevision, first);
+        Assert.assertThat(syncResult.getChanges().getRows().stream().map(JsonAnnotation::getId).toArray(),
+                arrayContaining(first.getId()));
+        final long secondRevision = syncResult.getRevision();
+
+        // the first transaction commits: its annotation is returned by the next synchronisation, as is the update (to be deduplicated by the client)
+        commit.countDown();
+        pendingTransaction.join(30000);
+        Assert.assertNull(failure.get());
+
+        syncResult = sync(secondRevision, first);
+        Assert.assertThat(syncResult.getChanges().getRows().stream().map(JsonAnnotation::getId).toArray(),
+                hasItemInArray(pending.get().getId()));
+        Assert.assertEquals(0, syncResult.getRemoved().size());
+    }
+
+    // runs a synchronisation of the annotations of the document of the given annotation, expecting success
+    private JsonSyncResult sync(final long since, final JsonAnnotation annotOfDocument) throws Exception {
+
+        final MockHttpServletRequestBuilder builder = MockMvcRequestBuilders
+                .get(String.format(SYNC_URL, since, annotOfDocument.getUri().toString()))
+                .header(TestHelper.AUTH_HEADER, TestHelper.AUTH_BEARER + ACCESS_TOKEN);
+        final ResultActions result = this.mockMvc.perform(builder);
+
+        // expected: Http 200
+        result.andExpect(MockMvcResultMatchers.status().isOk());
+
+        final JsonSyncResult syncResult = SerialisationHelper.deserializeJsonSyncResult(result.andReturn().getResponse().getContentAsString());
+        Assert.assertNotNull(syncResult);
+        return syncResult;
+    }
+}
@@ -175,6 +175,12 @@ public final class SerialisationHelper {
         return mapper.readValue(input, JsonSuggestionAcceptSuccessResponse.class);
     }
 
+    public static JsonIdList deserializeJsonIdList(final String input)
+            throws JsonParseException, JsonMappingException, IOException {
+        final ObjectMapper mapper = new ObjectMapper();
+        return mapper.readValue(input, JsonIdList.class);
+    }
+
     public static JsonSuggestionRejectSuccessResponse deserializeJsonSuggestionRejectSuccessResponse(final String input)
             throws JsonParseException, JsonMappingException, IOException {
         final ObjectMapper mapper = new ObjectMapper();
@@ -198,4 +204,9 @@ public final class SerialisationHelper {
         return mapper.readValue(input, PublishContributionsSuccessResponse.class);
     }
 
+    public static JsonSyncResult deserializeJsonSyncResult(final String input) throws JsonParseException, JsonMappingException, IOException {
+        final ObjectMapper mapper = new ObjectMapper();
+        return mapper.readValue(input, JsonSyncResult.class);
+    }
+
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.repository;
+
+import eu.europa.ec.leos.annotate.Authorities;
+import eu.europa.ec.leos.annotate.helper.TestDbHelper;
+import eu.europa.ec.leos.annotate.model.SimpleMetadata;
+import eu.europa.ec.leos.annotate.model.entity.Document;
+import eu.europa.ec.leos.annotate.model.entity.Group;
+import eu.europa.ec.leos.annotate.model.entity.Metadata;
+import eu.europa.ec.leos.annotate.repository.impl.MetadataMatchSearchSpec;
+import eu.europa.ec.leos.annotate.services.MetadataMatchingService;
+import eu.europa.ec.leos.annotate.services.impl.MetadataListHelper;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * tests for the search Specification class {@link MetadataMatchSearchSpec}:
+ * it must match the same metadata sets as the {@link MetadataMatchingService} does
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.config.name=anot")
+@WebAppConfiguration
+@ActiveProfiles("test")
+public class MetadataMatchSearchSpecTest {
+
+    private static final String RESPONSE_ID = "responseId";
+    private static final String ISC_REF = "ISCReference";
+
+    private final List<Metadata> allMetadata = new ArrayList<Metadata>();
+
+    // -------------------------------------
+    // Required services and repositories
+    // -------------------------------------
+
+    @Autowired
+    private MetadataRepository metadataRepos;
+
+    @Autowired
+    private GroupRepository groupRepos;
+
+    @Autowired
+    private DocumentRepository documentRepos;
+
+    @Autowired
+    private MetadataMatchingService metadataMatchingService;
+
+    // -------------------------------------
+    // Cleanup of database content
+    // -------------------------------------
+    @Before
+    public void setupTests() throws URISyntaxException {
+
+        TestDbHelper.cleanupRepositories(this);
+        final Group defaultGroup = TestDbHelper.insertDefaultGroup(groupRepos);
+
+        final Document document = new Document(new URI("https://leos/4"), "document's title");
+        documentRepos.save(document);
+
+        allMetadata.add(createMetadata(document, defaultGroup, Authorities.EdiT, "1.0", null, Collections.emptyMap()));
+        allMetadata.add(createMetadata(document, defaultGroup, Authorities.EdiT, "2.0", null, Collections.singletonMap(ISC_REF, "ISC/1")));
+        allMetadata.add(createMetadata(document, defaultGroup, Authorities.ISC, "1.0", Metadata.ResponseStatus.SENT,
+                Collections.singletonMap(RESPONSE_ID, "DIGIT")));
+        allMetadata.add(createMetadata(document, defaultGroup, Authorities.ISC, "1.2", Metadata.ResponseStatus.IN_PREPARATION,
+                Collections.singletonMap(RESPONSE_ID, "DIGIT")));
+        allMetadata.add(createMetadata(document, defaultGroup, Authorities.ISC, "1.2", Metadata.ResponseStatus.SENT,
+                Collections.singletonMap(RESPONSE_ID, "AGRI")));
+    }
+
+    @After
+    public void cleanDatabaseAfterTests() {
+
+        TestDbHelper.cleanupRepositories(this);
+    }
+
+    private Metadata createMetadata(final Document document, final Group group, final String systemId, final String version,
+            final Metadata.ResponseStatus responseStatus, final Map<String, String> keyValues) {
+
+        final SimpleMetadata props = new SimpleMetadata();
+        props.putAll(keyValues);
+        final Metadata meta = new Metadata(document, group, systemId, props);
+        meta.setVersion(version);
+        meta.setResponseStatus(responseStatus);
+        return metadataRepos.save(meta);
+    }
+
+    // -------------------------------------
+    // Tests
+    // -------------------------------------
+
+    @Test
+    public void testEmptyRequestMatchesAll() {
+
+        assertSameMatches(new SimpleMetadata(), 5);
+    }
+
+    @Test
+    public void testColumnProperties() {
+
+        assertSameMatches(new SimpleMetadata("systemId", Authorities.ISC), 3);
+        assertSameMatches(new SimpleMetadata(Metadata.PROP_RESPONSE_STATUS, Metadata.ResponseStatus.SENT.toString()), 2);
+        assertSameMatches(new SimpleMetadata(Metadata.PROP_RESPONSE_STATUS, "UNSUPPORTED"), 0);
+        assertSameMatches(new SimpleMetadata("version", "1.2"), 2);
+        assertSameMatches(new SimpleMetadata("version", "<=1.0"), 2);
+    }
+
+    @Test
+    public void testKeyValueProperties() {
+
+        assertSameMatches(new SimpleMetadata(RESPONSE_ID, "DIGIT"), 2);
+        assertSameMatches(new SimpleMetadata(ISC_REF, "ISC/1"), 1);
+        assertSameMatches(new SimpleMetadata(ISC_REF, "ISC/2"), 0);
+    }
+
+    @Test
+    public void testCombinedProperties() {
+
+        final SimpleMetadata requested = new SimpleMetadata(RESPONSE_ID, "DIGIT");
+        requested.put(Metadata.PROP_RESPONSE_STATUS, Metadata.ResponseStatus.SENT.toString());
+        requested.put("version", "<=1.2");
+        assertSameMatches(requested, 1);
+    }
+
+    private void assertSameMatches(final SimpleMetadata requested, final int expectedMatches) {
+
+        // note: the service returns null instead of an empty list
+        final List<Long> idsMatchedByService = metadataMatchingService.getIdsOfMatchingMetadatas(allMetadata, requested);
+        final List<Long> matchedByService = idsMatchedByService == null ? new ArrayList<Long>() : new ArrayList<Long>(idsMatchedByService);
+        final List<Long> matchedBySpec = MetadataListHelper.getNonNullMetadataSetIds(metadataRepos.findAll(new MetadataMatchSearchSpec(requested)));
+
+        Collections.sort(matchedByService);
+        Collections.sort(matchedBySpec);
+        Assert.assertEquals(expectedMatches, matchedBySpec.size());
+        Assert.assertEquals(matchedByService, matchedBySpec);
+    }
+}
@@ -34,6 +34,9 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 @SuppressWarnings("PMD.TooManyMethods")
 @RunWith(MockitoJUnitRunner.class)
@@ -264,6 +267,33 @@ public class AnnotationPermissionServiceTest {
         Assert.assertTrue(callIsResponseFromUsersEntity(annotPermMockService, userInfo, "SJ"));
     }
     
+    // bulk check of suggestions to be accepted or rejected: only those of the user's groups are permitted
+    @Test
+    public void testSuggestionsUserMayAcceptOrReject() throws Exception {
+
+        final User user = new User("theuser");
+        user.setId(Long.valueOf(4));
+        Mockito.when(groupService.getGroupIdsOfUser(user)).thenReturn(Arrays.asList(Long.valueOf(1), Long.valueOf(3)));
+
+        final List<Annotation> suggs = new ArrayList<Annotation>();
+        for (long groupId = 1; groupId <= 3; groupId++) {
+            final Group group = new Group("group" + groupId, false);
+            group.setId(groupId);
+            final Annotation sugg = new Annotation();
+            sugg.setMetadata(new Metadata(null, group, "LEOS"));
+            suggs.add(sugg);
+        }
+
+        final List<Annotation> expected = Arrays.asList(suggs.get(0), suggs.get(2));
+        Assert.assertEquals(expected, annotPermMockService.getSuggestionsUserMayAccept(suggs, user));
+        Assert.assertEquals(expected, annotPermMockService.getSuggestionsUserMayReject(suggs, user));
+
+        // user without groups may not change any suggestion
+        Mockito.when(groupService.getGroupIdsOfUser(user)).thenReturn(null);
+        Assert.assertTrue(annotPermMockService.getSuggestionsUserMayAccept(suggs, user).isEmpty());
+        Assert.assertTrue(annotPermMockService.getSuggestionsUserMayReject(new ArrayList<Annotation>(), user).isEmpty());
+    }
+
     // -------------------------------------
     // Test help methods that make private methods callable for the test purposes
     // -------------------------------------
@@ -19,6 +19,7 @@ import eu.europa.ec.leos.annotate.helper.SpotBugsAnnotations;
 import eu.europa.ec.leos.annotate.helper.TestDbHelper;
 import eu.europa.ec.leos.annotate.model.UserInformation;
 import eu.europa.ec.leos.annotate.model.entity.Group;
+import eu.europa.ec.leos.annotate.model.entity.Token;
 import eu.europa.ec.leos.annotate.model.entity.User;
 import eu.europa.ec.leos.annotate.model.entity.UserGroup;
 import eu.europa.ec.leos.annotate.model.web.user.JsonGroupWithDetails;
@@ -28,6 +29,8 @@ import eu.europa.ec.leos.annotate.repository.UserRepository;
 import eu.europa.ec.leos.annotate.services.exceptions.DefaultGroupNotFoundException;
 import eu.europa.ec.leos.annotate.services.exceptions.GroupAlreadyExistingException;
 import eu.europa.ec.leos.annotate.services.exceptions.UserAlreadyExistingException;
+import eu.europa.ec.leos.annotate.services.impl.AuthenticatedUserStore;
+import eu.europa.ec.leos.annotate.services.impl.AuthorizationContextCache;
 import eu.europa.ec.leos.annotate.services.impl.UUIDGeneratorServiceImpl;
 import org.junit.After;
 import org.junit.Assert;
@@ -39,7 +42,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -67,6 +72,12 @@ public class GroupServiceTest {
     @Autowired
     private UserGroupRepository userGroupRepos;
 
+    @Autowired
+    private AuthenticatedUserStore authUser;
+
+    @Autowired
+    private AuthorizationContextCache authContextCache;
+
     // -------------------------------------
     // Cleanup of database content
     // -------------------------------------
@@ -80,6 +91,8 @@ public class GroupServiceTest {
     public void cleanDatabaseAfterTests() {
 
         TestDbHelper.cleanupRepositories(this);
+        authUser.clear();
+        authContextCache.clear();
     }
 
     // -------------------------------------
@@ -647,4 +660,41 @@ public class GroupServiceTest {
         final Group group = new Group("someGroup", false);
         Assert.assertFalse(groupService.removeUserFromGroup(user, group));
     }
+
+    /**
+     * Test that the group memberships of the authenticated user are loaded once per token,
+     * and loaded again after the user was assigned to another group
+     */
+    @Test
+    @SuppressFBWarnings(value = SpotBugsAnnotations.FieldNotInitialized, justification = SpotBugsAnnotations.FieldNotInitializedReason)
+    public void testGroupMembershipsCachedForAuthenticatedUser() throws GroupAlreadyExistingException {
+
+        final User user = userRepos.save(new User("login"));
+        final Group firstGroup = groupService.createGroup("firstGroup", false);
+        final Group secondGroup = groupService.createGroup("secondGroup", false);
+        final Group thirdGroup = groupService.createGroup("thirdGroup", false);
+        userGroupRepos.save(new UserGroup(user.getId(), firstGroup.getId()));
+
+        authUser.setUserInfo(new UserInformation(new Token(user, Authorities.EdiT, "accesstoken", LocalDateTime.now().plusMinutes(5),
+                "refreshtoken", LocalDateTime.now().plusMinutes(5))));
+
+        Assert.assertEquals(Arrays.asList(firstGroup.getId()), groupService.getGroupIdsOfUser(user));
+        Assert.assertEquals(1, authContextCache.size());
+
+        // a membership not saved by the service is not seen while the context is cached
+        userGroupRepos.save(new UserGroup(user.getId(), secondGroup.getId()));
+        Assert.assertFalse(groupService.isUserMemberOfGroup(user, secondGroup));
+
+        // assigning the user to a group invalidates the context
+        groupService.assignUserToGroup(user, thirdGroup);
+        Assert.assertEquals(0, authContextCache.size());
+        Assert.assertTrue(groupService.isUserMemberOfGroup(user, secondGroup));
+        Assert.assertTrue(groupService.isUserMemberOfGroup(user, thirdGroup));
+        Assert.assertEquals(3, groupService.getGroupsOfUser(user).size());
+
+        // other users are not cached
+        final User otherUser = userRepos.save(new User("otherlogin"));
+        Assert.assertTrue(groupService.getGroupIdsOfUser(otherUser).isEmpty());
+        Assert.assertEquals(1, authContextCache.size());
+    }
 }
@@ -18,6 +18,7 @@ import eu.europa.ec.leos.annotate.model.UserInformation;
 import eu.europa.ec.leos.annotate.model.entity.Group;
 import eu.europa.ec.leos.annotate.model.entity.User;
 import eu.europa.ec.leos.annotate.repository.*;
+import eu.europa.ec.leos.annotate.services.impl.AuthenticatedUserStore;
 import eu.europa.ec.leos.annotate.services.impl.GroupServiceImpl;
 import org.junit.After;
 import org.junit.Assert;
@@ -47,6 +48,9 @@ public class GroupServiceWithMockedUserGroupReposTest {
     @Mock
     private UserGroupRepository userGroupRepos;
 
+    @Mock
+    private AuthenticatedUserStore authUser;
+
     @InjectMocks
     private GroupServiceImpl groupService;
 
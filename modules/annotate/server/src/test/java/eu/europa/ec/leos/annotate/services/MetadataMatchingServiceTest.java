@@ -36,6 +36,7 @@ import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -386,32 +387,30 @@ public class MetadataMatchingServiceTest {
         requestList.add(secondMap);
         requestList.add(thirdMap);
 
-        final Random rand = new Random();
+        // key-value pairs are matched in the database, so the candidates have to be saved
+        final Document doc = documentRepos.save(new Document(URI.create(DOCURI), "title"));
 
         // create three candidate metadata
         // first will match the "common key"
         final List<Metadata> metaList = new ArrayList<Metadata>();
-        final Metadata firstMeta = new Metadata();
-        firstMeta.setId(rand.nextLong());
+        final Metadata firstMeta = new Metadata(doc, defaultGroup, Authorities.EdiT);
         final SimpleMetadata itemsFirstMeta = new SimpleMetadata(firstMap);
         itemsFirstMeta.put("and", "this");
         firstMeta.setKeyValuePropertyFromSimpleMetadata(itemsFirstMeta);
-        metaList.add(firstMeta);
+        metaList.add(metadataRepos.save(firstMeta));
 
         // second won't match
-        final Metadata secondMeta = new Metadata();
-        secondMeta.setId(rand.nextLong());
+        final Metadata secondMeta = new Metadata(doc, defaultGroup, Authorities.EdiT);
         final SimpleMetadata itemsSecondMeta = new SimpleMetadata();
         itemsSecondMeta.put("thisis", "nowhere else");
         secondMeta.setKeyValuePropertyFromSimpleMetadata(itemsSecondMeta);
-        metaList.add(secondMeta);
+        metaList.add(metadataRepos.save(secondMeta));
 
         // third will match the "single key"
-        final Metadata thirdMeta = new Metadata();
-        thirdMeta.setId(rand.nextLong());
+        final Metadata thirdMeta = new Metadata(doc, defaultGroup, Authorities.EdiT);
         final SimpleMetadata itemsThirdMeta = new SimpleMetadata(thirdMap);
         thirdMeta.setKeyValuePropertyFromSimpleMetadata(itemsThirdMeta);
-        metaList.add(thirdMeta);
+        metaList.add(metadataRepos.save(thirdMeta));
 
         // act
         final List<Long> result = metadataMatchingService.getIdsOfMatchingMetadatas(metaList, requestList);
@@ -518,6 +517,36 @@ public class MetadataMatchingServiceTest {
         Assert.assertNotNull(readMeta);
     }
 
+    // tests retrieval of Metadata having values too long for the key-value table, and empty values
+    @Test
+    public void testFindExactMetadataWithLongAndEmptyValues() throws Exception {
+
+        final String systemId = "sys";
+        final Document document = new Document(new URI("leos://9"), "title9");
+        documentRepos.save(document);
+
+        final Group group = new Group("longgroup", false);
+        groupRepos.save(group);
+
+        final String longValue = String.join("", Collections.nCopies(Metadata.MAX_INDEXED_VALUE_LENGTH, "ab"));
+
+        final Metadata metaToSave = new Metadata(document, group, systemId);
+        metaToSave.setKeyValuePairs("long:" + longValue + "\nempty:");
+        metadataService.saveMetadata(metaToSave);
+
+        // the complete value is kept
+        Assert.assertEquals(longValue, metadataRepos.findOne(metaToSave.getId()).getKeyValuePropertyAsSimpleMetadata().get("long"));
+
+        // test and verify: same values -> exact match!
+        final Metadata refMeta = new Metadata(document, group, systemId);
+        refMeta.setKeyValuePairs("empty:\nlong:" + longValue);
+        Assert.assertNotNull(metadataMatchingService.findExactMetadata(document, group, systemId, refMeta));
+
+        // long value differing at its end -> no match
+        refMeta.setKeyValuePairs("empty:\nlong:" + longValue + "c");
+        Assert.assertNull(metadataMatchingService.findExactMetadata(document, group, systemId, refMeta));
+    }
+
     // test retrieval of Metadata returns {@literal null} if mandatory fields are missing
     @Test
     @SuppressFBWarnings(value = SpotBugsAnnotations.KnownNullValue, justification = SpotBugsAnnotations.KnownNullValueReason)
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.services;
+
+import eu.europa.ec.leos.annotate.repository.AnnotationRepository;
+import eu.europa.ec.leos.annotate.services.impl.RevisionGeneratorServiceImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigInteger;
+
+public class RevisionGeneratorServiceTest {
+
+    /**
+     * Test cases on the RevisionGeneratorService; executed using a mocked revision sequence
+     */
+
+    private static final long SAFETY_MARGIN = 200;
+
+    @Mock
+    private AnnotationRepository annotRepos;
+
+    @InjectMocks
+    private RevisionGeneratorServiceImpl revisionService;
+
+    @Before
+    public void setupTests() {
+
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(revisionService, "gracePeriod", 10000L);
+        ReflectionTestUtils.setField(revisionService, "safetyMargin", SAFETY_MARGIN);
+    }
+
+    @After
+    public void cleanupTests() {
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // -------------------------------------
+    // Tests
+    // -------------------------------------
+
+    /**
+     * test that revisions handed out by any server instance are only completed once the safety margin has passed
+     */
+    @Test
+    public void testRevisionsCompletedAfterSafetyMargin() throws InterruptedException {
+
+        // revisions 1 to 9 have been handed out by another server instance
+        Mockito.when(annotRepos.getNextRevision()).thenReturn(BigInteger.valueOf(10));
+        Assert.assertEquals(0, revisionService.getCompletedRevision());
+
+        Thread.sleep(2 * SAFETY_MARGIN);
+
+        // meanwhile, revisions 10 to 19 have been handed out: only those handed out before the safety margin are completed
+        Mockito.when(annotRepos.getNextRevision()).thenReturn(BigInteger.valueOf(20));
+        Assert.assertEquals(9, revisionService.getCompletedRevision());
+
+        Thread.sleep(2 * SAFETY_MARGIN);
+        Assert.assertEquals(19, revisionService.getCompletedRevision());
+    }
+
+    /**
+     * test that a revision handed out within a transaction remains pending until the transaction completes,
+     * even if the transaction lasts longer than the safety margin
+     */
+    @Test
+    public void testRevisionPendingUntilTransactionCompletes() throws InterruptedException {
+
+        TransactionSynchronizationManager.initSynchronization();
+        Mockito.when(annotRepos.getNextRevision()).thenReturn(BigInteger.valueOf(10));
+        Assert.assertEquals(10, revisionService.generateRevision());
+
+        Thread.sleep(2 * SAFETY_MARGIN);
+
+        Mockito.when(annotRepos.getNextRevision()).thenReturn(BigInteger.valueOf(12));
+        Assert.assertEquals(9, revisionService.getCompletedRevision());
+
+        for (final TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        Assert.assertEquals(10, revisionService.getCompletedRevision());
+    }
+}
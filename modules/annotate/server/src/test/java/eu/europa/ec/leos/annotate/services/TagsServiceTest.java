@@ -18,7 +18,9 @@ import eu.europa.ec.leos.annotate.helper.TestData;
 import eu.europa.ec.leos.annotate.helper.TestDbHelper;
 import eu.europa.ec.leos.annotate.model.UserInformation;
 import eu.europa.ec.leos.annotate.model.entity.Annotation;
+import eu.europa.ec.leos.annotate.model.entity.Annotation.AnnotationType;
 import eu.europa.ec.leos.annotate.model.entity.Tag;
+import eu.europa.ec.leos.annotate.model.entity.TagName;
 import eu.europa.ec.leos.annotate.model.entity.User;
 import eu.europa.ec.leos.annotate.model.web.annotation.JsonAnnotation;
 import eu.europa.ec.leos.annotate.repository.GroupRepository;
@@ -36,7 +38,9 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(properties = "spring.config.name=anot")
@@ -192,7 +196,7 @@ public class TagsServiceTest {
         
         final Annotation annot = new Annotation();
         final List<Tag> tagList = new ArrayList<Tag>();
-        tagList.add(new Tag(Annotation.ANNOTATION_SUGGESTION, annot));
+        tagList.add(new Tag(new TagName(Annotation.ANNOTATION_SUGGESTION), annot));
         
         Assert.assertTrue(tagsService.hasSuggestionTag(tagList));
     }
@@ -202,7 +206,7 @@ public class TagsServiceTest {
         
         final Annotation annot = new Annotation();
         final List<Tag> tagList = new ArrayList<Tag>();
-        tagList.add(new Tag("something", annot));
+        tagList.add(new Tag(new TagName("something"), annot));
         
         Assert.assertFalse(tagsService.hasSuggestionTag(tagList));
     }
@@ -224,7 +228,7 @@ public class TagsServiceTest {
         
         final Annotation annot = new Annotation();
         final List<Tag> tagList = new ArrayList<Tag>();
-        tagList.add(new Tag(Annotation.ANNOTATION_HIGHLIGHT, annot));
+        tagList.add(new Tag(new TagName(Annotation.ANNOTATION_HIGHLIGHT), annot));
         
         Assert.assertTrue(tagsService.hasHighlightTag(tagList));
     }
@@ -234,7 +238,7 @@ public class TagsServiceTest {
         
         final Annotation annot = new Annotation();
         final List<Tag> tagList = new ArrayList<Tag>();
-        tagList.add(new Tag("whatever", annot));
+        tagList.add(new Tag(new TagName("whatever"), annot));
         
         Assert.assertFalse(tagsService.hasHighlightTag(tagList));
     }
@@ -250,4 +254,68 @@ public class TagsServiceTest {
         
         Assert.assertFalse(tagsService.hasHighlightTag(new ArrayList<Tag>()));
     }
+
+    /**
+     * test that tag names used by several annotations are stored once only in the tag dictionary
+     */
+    @Test
+    public void testTagNamesAreShared() throws CannotCreateAnnotationException {
+
+        final UserInformation userInfo = new UserInformation(user, Authorities.ISC);
+
+        final JsonAnnotation jsAnnot = TestData.getTestAnnotationObject(user.getLogin());
+        jsAnnot.setTags(Arrays.asList("mytag", "othertag"));
+        annotService.createAnnotation(jsAnnot, userInfo);
+
+        final JsonAnnotation jsAnnot2 = TestData.getTestAnnotationObject(user.getLogin());
+        jsAnnot2.setTags(Arrays.asList("mytag", "thirdtag"));
+        annotService.createAnnotation(jsAnnot2, userInfo);
+
+        // each annotation has its own tags...
+        final List<Tag> tags = (List<Tag>) tagRepos.findAll();
+        Assert.assertEquals(4, tags.size());
+
+        // ... but the same tag name is referenced by both
+        final List<Tag> myTags = tags.stream().filter(tag -> "mytag".equals(tag.getName())).collect(Collectors.toList());
+        Assert.assertEquals(2, myTags.size());
+        Assert.assertNotEquals(myTags.get(0).getAnnotation().getId(), myTags.get(1).getAnnotation().getId());
+        Assert.assertEquals(myTags.get(0).getTagName().getId(), myTags.get(1).getTagName().getId());
+        Assert.assertEquals(3, tags.stream().map(tag -> tag.getTagName().getId()).distinct().count());
+    }
+
+    /**
+     * test that the type of an annotation is derived from its tags when it is saved
+     */
+    @Test
+    public void testAnnotationTypeDerivedFromTags() throws Exception {
+
+        final UserInformation userInfo = new UserInformation(user, Authorities.ISC);
+
+        final JsonAnnotation jsAnnot = TestData.getTestAnnotationObject(user.getLogin());
+        jsAnnot.setTags(Arrays.asList(Annotation.ANNOTATION_COMMENT, "mytag"));
+        final JsonAnnotation created = annotService.createAnnotation(jsAnnot, userInfo);
+        Assert.assertEquals(AnnotationType.COMMENT, annotService.findAnnotationById(created.getId()).getType());
+
+        // change it to a suggestion
+        created.setTags(Arrays.asList(Annotation.ANNOTATION_SUGGESTION, "mytag"));
+        annotService.updateAnnotation(created.getId(), created, userInfo);
+        Assert.assertEquals(AnnotationType.SUGGESTION, annotService.findAnnotationById(created.getId()).getType());
+
+        // without tags, it has no specific type
+        created.setTags(null);
+        annotService.updateAnnotation(created.getId(), created, userInfo);
+        Assert.assertEquals(AnnotationType.OTHER, annotService.findAnnotationById(created.getId()).getType());
+    }
+
+    @Test
+    public void testAnnotationTypeFromTags() {
+
+        final Annotation annot = new Annotation();
+        Assert.assertEquals(AnnotationType.OTHER, AnnotationType.fromTags(null));
+        Assert.assertEquals(AnnotationType.OTHER, AnnotationType.fromTags(Arrays.asList(new Tag(new TagName("mytag"), annot))));
+        Assert.assertEquals(AnnotationType.HIGHLIGHT, AnnotationType.fromTags(Arrays.asList(
+                new Tag(new TagName(Annotation.ANNOTATION_COMMENT), annot), new Tag(new TagName(Annotation.ANNOTATION_HIGHLIGHT), annot))));
+        Assert.assertEquals(AnnotationType.SUGGESTION, AnnotationType.fromTags(Arrays.asList(
+                new Tag(new TagName(Annotation.ANNOTATION_HIGHLIGHT), annot), new Tag(new TagName(Annotation.ANNOTATION_SUGGESTION), annot))));
+    }
 }
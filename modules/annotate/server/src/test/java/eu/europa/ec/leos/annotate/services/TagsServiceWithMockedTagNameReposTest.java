@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.services;
+
+import eu.europa.ec.leos.annotate.helper.TestDbHelper;
+import eu.europa.ec.leos.annotate.model.entity.Annotation;
+import eu.europa.ec.leos.annotate.model.entity.Tag;
+import eu.europa.ec.leos.annotate.model.entity.TagName;
+import eu.europa.ec.leos.annotate.repository.TagNameRepository;
+import eu.europa.ec.leos.annotate.services.impl.TagsServiceImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.config.name=anot")
+@ActiveProfiles("test")
+public class TagsServiceWithMockedTagNameReposTest {
+
+    /**
+     * Test cases on the TagsService; executed using mocked TagNameRepository to simulate concurrent creation of tag names
+     */
+
+    // -------------------------------------
+    // Required services and repositories
+    // -------------------------------------
+
+    // the tagNameRepository used inside the TagsService is mocked
+    @Mock
+    private TagNameRepository tagNameRepos;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private TagsServiceImpl tagsService;
+
+    @Before
+    public void setupTests() {
+
+        MockitoAnnotations.initMocks(this);
+
+        TestDbHelper.cleanupRepositories(this);
+    }
+
+    @After
+    public void cleanDatabaseAfterTests() {
+
+        TestDbHelper.cleanupRepositories(this);
+    }
+
+    // -------------------------------------
+    // Tests
+    // -------------------------------------
+
+    /**
+     * test that a tag name added to the dictionary by a concurrent annotation after our lookup is read again
+     * instead of making the annotation fail on the unique constraint
+     */
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testTagNameCreatedConcurrentlyIsReadAgain() {
+
+        final TagName existingName = new TagName("known");
+        existingName.setId(1L);
+        final TagName concurrentName = new TagName("concurrent");
+        concurrentName.setId(2L);
+
+        Mockito.when(tagNameRepos.findByNameIn(Matchers.anyCollection()))
+                .thenReturn(new ArrayList<>(Collections.singletonList(existingName))) // initial lookup: "concurrent" is not known yet
+                .thenReturn(new ArrayList<>(Collections.singletonList(concurrentName))); // lookup after the failed insert
+        Mockito.when(tagNameRepos.save(Matchers.anyListOf(TagName.class)))
+                .thenThrow(new DataIntegrityViolationException("unique constraint violated on TAG_NAMES"));
+
+        final Annotation annot = new Annotation();
+        final List<Tag> tags = tagsService.getTagList(Arrays.asList("known", "concurrent"), annot);
+
+        Assert.assertNotNull(tags);
+        Assert.assertEquals(2, tags.size());
+        Assert.assertSame(existingName, tags.get(0).getTagName());
+        Assert.assertSame(concurrentName, tags.get(1).getTagName());
+        Assert.assertEquals(annot, tags.get(1).getAnnotation());
+
+        // the insert was attempted for the new name only, in its own transaction, and only the new name was read again
+        final ArgumentCaptor<Iterable> savedNames = ArgumentCaptor.forClass(Iterable.class);
+        Mockito.verify(tagNameRepos).save(savedNames.capture());
+        final List<TagName> saved = new ArrayList<>();
+        savedNames.getValue().forEach(tagName -> saved.add((TagName) tagName));
+        Assert.assertEquals(1, saved.size());
+        Assert.assertEquals("concurrent", saved.get(0).getName());
+        Mockito.verify(transactionManager).getTransaction(Matchers.any());
+
+        final ArgumentCaptor<Collection> readNames = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(tagNameRepos, Mockito.times(2)).findByNameIn(readNames.capture());
+        Assert.assertEquals(Collections.singleton("concurrent"), new HashSet<>(readNames.getAllValues().get(1)));
+    }
+
+    /**
+     * test that a failure to add a tag name which is not due to a concurrent insert is reported
+     */
+    @Test(expected = IllegalStateException.class)
+    @SuppressWarnings("unchecked")
+    public void testTagNameMissingAfterFailedInsert() {
+
+        Mockito.when(tagNameRepos.findByNameIn(Matchers.anyCollection())).thenReturn(new ArrayList<>());
+        Mockito.when(tagNameRepos.save(Matchers.anyListOf(TagName.class)))
+                .thenThrow(new DataIntegrityViolationException("name too long"));
+
+        tagsService.getTagList(Collections.singletonList("invalid"), new Annotation());
+    }
+}
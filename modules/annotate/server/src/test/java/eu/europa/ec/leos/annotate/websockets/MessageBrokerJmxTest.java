@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.annotate.websockets;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+@RunWith(SpringRunner.class)
+// note: JMX is disabled by default in tests
+@SpringBootTest(properties = {"spring.config.name=anot", "spring.jmx.enabled=true"})
+@ActiveProfiles("test")
+public class MessageBrokerJmxTest {
+
+    @Autowired
+    private MBeanServer mbeanServer;
+
+    @Autowired
+    private MessageBroker messageBroker;
+
+    // the backpressure statistics of the websocket notifications are available via JMX
+    @Test
+    public void testStatisticsExposedViaJmx() throws Exception {
+
+        final ObjectName name = new ObjectName(MessageBroker.OBJECT_NAME);
+        Assert.assertTrue(mbeanServer.isRegistered(name));
+
+        Assert.assertEquals(messageBroker.getPendingMessageCount(), mbeanServer.getAttribute(name, "PendingMessageCount"));
+        Assert.assertEquals(messageBroker.getDroppedMessageCount(), mbeanServer.getAttribute(name, "DroppedMessageCount"));
+        Assert.assertEquals(messageBroker.getSentNotificationCount(), mbeanServer.getAttribute(name, "SentNotificationCount"));
+        Assert.assertEquals(messageBroker.getDroppedNotificationCount(), mbeanServer.getAttribute(name, "DroppedNotificationCount"));
+        Assert.assertEquals(messageBroker.getClosedSessionCount(), mbeanServer.getAttribute(name, "ClosedSessionCount"));
+    }
+}
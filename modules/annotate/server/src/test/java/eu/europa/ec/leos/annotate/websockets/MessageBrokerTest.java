@@ -38,8 +38,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
 
 import java.io.IOException;
 import java.net.URI;
@@ -73,7 +75,19 @@ public class MessageBrokerTest {
     
     @Before
     public void setUp() {
-        // nothing to do
+        // the broker loads the annotations of a notification at once; resolve them using the lookups stubbed by the tests
+        Mockito.when(anotService.findAnnotationsById(Mockito.anyListOf(String.class))).thenAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            final List<String> annotIds = (List<String>) invocation.getArguments()[0];
+            final List<Annotation> annots = new ArrayList<>();
+            for (final String annotId : annotIds) {
+                final Annotation annot = anotService.findAnnotationById(annotId);
+                if (annot != null) {
+                    annots.add(annot);
+                }
+            }
+            return annots;
+        });
     }
 
     @Test
@@ -461,6 +475,151 @@ public class MessageBrokerTest {
         Mockito.verify(subscriber2, Mockito.times(1)).sendMessage(Mockito.any(TextMessage.class));
     }
 
+    @Test
+    public void testBroadcast_Several_updates_sent_in_one_notification() throws Exception {
+        // setup
+        final SubscriptionRequest subscriptionRequest1 = Mockito.mock(SubscriptionRequest.class);
+        final Clause clause1 = new Clause(URI, ONEOF, Collections.singleton(TESTURI), false, Collections.emptyList());
+        final Filter filter1 = new Filter(INCL_ANY, Collections.singletonMap(CREATE, Boolean.TRUE), Collections.singletonList(clause1));
+        Mockito.when(subscriptionRequest1.getFilter()).thenReturn(filter1);
+
+        final WebSocketSession subscriber = Mockito.mock(WebSocketSession.class);
+        Mockito.when(subscriber.getId()).thenReturn("s1");
+        final UserInformation userInformation = Mockito.mock(UserInformation.class);
+        Mockito.when(userInformation.getClientId()).thenReturn("x1");
+
+        final Document doc = new Document(new URI(TESTURI), TITLE);
+        final Annotation annotation1 = Mockito.mock(Annotation.class);
+        Mockito.when(annotation1.getDocument()).thenReturn(doc);
+        Mockito.when(annotation1.isShared()).thenReturn(true);
+        Mockito.when(anotService.findAnnotationById(ANN1)).thenReturn(annotation1);
+        final JsonAnnotation jsonAnnotation1 = new JsonAnnotation();
+        jsonAnnotation1.setId(ANN1);
+        Mockito.when(conversionService.convertToJsonAnnotation(Mockito.eq(annotation1), Mockito.any(UserInformation.class))).thenReturn(jsonAnnotation1);
+
+        final Annotation annotation2 = Mockito.mock(Annotation.class);
+        Mockito.when(annotation2.getDocument()).thenReturn(doc);
+        Mockito.when(annotation2.isShared()).thenReturn(true);
+        Mockito.when(anotService.findAnnotationById(ANN2)).thenReturn(annotation2);
+        final JsonAnnotation jsonAnnotation2 = new JsonAnnotation();
+        jsonAnnotation2.setId(ANN2);
+        Mockito.when(conversionService.convertToJsonAnnotation(Mockito.eq(annotation2), Mockito.any(UserInformation.class))).thenReturn(jsonAnnotation2);
+
+        messageBroker.subscribe(subscriptionRequest1, subscriber, userInformation);
+        messageBroker.publish(Arrays.asList(ANN1, ANN2), MessageBroker.ACTION.UPDATE, "x2");
+
+        // call
+        messageBroker.updateSubscribers();
+        Thread.sleep(1000);
+
+        // verify: a single notification contains both updated annotations
+        final ArgumentCaptor<TextMessage> argument = ArgumentCaptor.forClass(TextMessage.class);
+        Mockito.verify(subscriber, Mockito.times(1)).sendMessage(argument.capture());
+        assertEquals(Arrays.asList(ANN1, ANN2), getIds(argument.getValue()));
+    }
+
+    @Test
+    public void testBroadcast_Consecutive_changes_batched_in_one_notification() throws Exception {
+        // setup
+        final SubscriptionRequest subscriptionRequest1 = Mockito.mock(SubscriptionRequest.class);
+        final Clause clause1 = new Clause(URI, ONEOF, Collections.singleton(TESTURI), false, Collections.emptyList());
+        final Filter filter1 = new Filter(INCL_ANY, Collections.singletonMap(CREATE, Boolean.TRUE), Collections.singletonList(clause1));
+        Mockito.when(subscriptionRequest1.getFilter()).thenReturn(filter1);
+
+        final WebSocketSession subscriber = Mockito.mock(WebSocketSession.class);
+        Mockito.when(subscriber.getId()).thenReturn("s1");
+        final UserInformation userInformation = Mockito.mock(UserInformation.class);
+        Mockito.when(userInformation.getClientId()).thenReturn("x1");
+
+        final Document doc = new Document(new URI(TESTURI), TITLE);
+        final Annotation annotation1 = Mockito.mock(Annotation.class);
+        Mockito.when(annotation1.getDocument()).thenReturn(doc);
+        Mockito.when(annotation1.isShared()).thenReturn(true);
+        Mockito.when(anotService.findAnnotationById(ANN1)).thenReturn(annotation1);
+        final JsonAnnotation jsonAnnotation1 = new JsonAnnotation();
+        jsonAnnotation1.setId(ANN1);
+        Mockito.when(conversionService.convertToJsonAnnotation(Mockito.eq(annotation1), Mockito.any(UserInformation.class))).thenReturn(jsonAnnotation1);
+
+        final Annotation annotation2 = Mockito.mock(Annotation.class);
+        Mockito.when(annotation2.getDocument()).thenReturn(doc);
+        Mockito.when(annotation2.isShared()).thenReturn(true);
+        Mockito.when(anotService.findAnnotationById(ANN2)).thenReturn(annotation2);
+        final JsonAnnotation jsonAnnotation2 = new JsonAnnotation();
+        jsonAnnotation2.setId(ANN2);
+        Mockito.when(conversionService.convertToJsonAnnotation(Mockito.eq(annotation2), Mockito.any(UserInformation.class))).thenReturn(jsonAnnotation2);
+
+        messageBroker.subscribe(subscriptionRequest1, subscriber, userInformation);
+
+        // three separate updates, one annotation being updated twice
+        messageBroker.publish(ANN1, MessageBroker.ACTION.UPDATE, "x2");
+        messageBroker.publish(ANN2, MessageBroker.ACTION.UPDATE, "x2");
+        messageBroker.publish(ANN1, MessageBroker.ACTION.UPDATE, "x2");
+
+        // call
+        messageBroker.updateSubscribers();
+        Thread.sleep(1000);
+
+        // verify: a single notification contains each updated annotation once
+        final ArgumentCaptor<TextMessage> argument = ArgumentCaptor.forClass(TextMessage.class);
+        Mockito.verify(subscriber, Mockito.times(1)).sendMessage(argument.capture());
+        assertEquals(Arrays.asList(ANN1, ANN2), getIds(argument.getValue()));
+        assertEquals(1, messageBroker.getSentNotificationCount());
+
+        // the annotations of the batch were loaded at once
+        Mockito.verify(anotService, Mockito.times(1)).findAnnotationsById(Mockito.anyListOf(String.class));
+        assertEquals(0, messageBroker.getPendingMessageCount());
+    }
+
+    @Test
+    public void testBroadcast_Slow_subscriber_is_closed() throws Exception {
+        // setup
+        final SubscriptionRequest subscriptionRequest1 = Mockito.mock(SubscriptionRequest.class);
+        final Clause clause1 = new Clause(URI, ONEOF, Collections.singleton(TESTURI), false, Collections.emptyList());
+        final Filter filter1 = new Filter(INCL_ANY, Collections.singletonMap(CREATE, Boolean.TRUE), Collections.singletonList(clause1));
+        Mockito.when(subscriptionRequest1.getFilter()).thenReturn(filter1);
+
+        // the session's send buffer is exceeded
+        final WebSocketSession subscriber = Mockito.mock(WebSocketSession.class);
+        Mockito.when(subscriber.getId()).thenReturn("s1");
+        Mockito.doThrow(new SessionLimitExceededException("buffer exceeded", CloseStatus.SESSION_NOT_RELIABLE))
+                .when(subscriber).sendMessage(Mockito.any());
+        final UserInformation userInformation = Mockito.mock(UserInformation.class);
+        Mockito.when(userInformation.getClientId()).thenReturn("x1");
+
+        final Annotation annotation1 = Mockito.mock(Annotation.class);
+        Mockito.when(annotation1.getDocument()).thenReturn(new Document(new URI(TESTURI), TITLE));
+        Mockito.when(annotation1.isShared()).thenReturn(true);
+        Mockito.when(anotService.findAnnotationById(ANN1)).thenReturn(annotation1);
+        final JsonAnnotation jsonAnnotation1 = new JsonAnnotation();
+        jsonAnnotation1.setId(ANN1);
+        Mockito.when(conversionService.convertToJsonAnnotation(Mockito.eq(annotation1), Mockito.any(UserInformation.class))).thenReturn(jsonAnnotation1);
+
+        messageBroker.subscribe(subscriptionRequest1, subscriber, userInformation);
+        messageBroker.publish(ANN1, MessageBroker.ACTION.CREATE, "x2");
+
+        // call
+        messageBroker.updateSubscribers();
+        Thread.sleep(1000);
+
+        // verify: session was closed and unsubscribed, i.e. it does not receive further notifications
+        Mockito.verify(subscriber).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1, messageBroker.getClosedSessionCount());
+
+        messageBroker.publish(ANN1, MessageBroker.ACTION.UPDATE, "x2");
+        messageBroker.updateSubscribers();
+        Thread.sleep(1000);
+        Mockito.verify(subscriber, Mockito.times(1)).sendMessage(Mockito.any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> getIds(final TextMessage textMessage) throws JsonParseException, JsonMappingException, IOException {
+        final ObjectMapper objMapper = new ObjectMapper();
+        final Map<String, Object> message = objMapper.readValue(textMessage.getPayload(), Map.class);
+        final List<String> ids = new ArrayList<String>();
+        ((ArrayList<Map<String, Object>>) (message.get("payload"))).forEach(annotation -> ids.add((String) annotation.get("id")));
+        return ids;
+    }
+
     @SuppressWarnings("unchecked")
     private String getId(final TextMessage textMessage) throws JsonParseException, JsonMappingException, IOException {
         final ObjectMapper objMapper = new ObjectMapper();
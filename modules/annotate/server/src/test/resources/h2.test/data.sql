@@ -17,6 +17,7 @@ DELETE FROM GROUPS;
 DELETE FROM USERS;
 DELETE FROM USERS_GROUPS;
 DELETE FROM TAGS;
+DELETE FROM TAG_NAMES;
 DELETE FROM DOCUMENTS;
 DELETE FROM ANNOTATIONS;
 DELETE FROM AUTHCLIENTS;
@@ -26,6 +27,7 @@ ALTER SEQUENCE GROUPS_SEQ RESTART WITH 1;
 ALTER SEQUENCE USERS_SEQ RESTART WITH 1;
 ALTER SEQUENCE USERS_GROUPS_SEQ RESTART WITH 1;
 ALTER SEQUENCE TAGS_SEQ RESTART WITH 1;
+ALTER SEQUENCE TAG_NAMES_SEQ RESTART WITH 1;
 ALTER SEQUENCE DOCUMENTS_SEQ RESTART WITH 1;
 ALTER SEQUENCE AUTHCLIENTS_SEQ RESTART WITH 1;
 ALTER SEQUENCE TOKENS_SEQ RESTART WITH 1;
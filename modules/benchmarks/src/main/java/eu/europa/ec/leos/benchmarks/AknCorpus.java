@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Synthetic AKN documents generated from the bundled bill and annex templates.
+ * The recitals, articles and levels of the templates are replaced by generated ones, so that the documents keep
+ * the template preface, preamble and conclusions and grow only where the real documents grow.
+ * The generation is deterministic: the same size always produces the same content.
+ */
+public final class AknCorpus {
+
+    public static final String BILL_TEMPLATE = "BL-023";
+    public static final String ANNEX_TEMPLATE = "SG-017";
+
+    private static final String TEMPLATES_PATH = "leos/templates/os/";
+
+    private static final Pattern RECITALS = Pattern.compile("(?s)\\s*<recital\\s.*?</recital>");
+    private static final Pattern ARTICLES = Pattern.compile("(?s)\\s*<article\\s.*?</article>");
+    private static final Pattern LEVELS = Pattern.compile("(?s)\\s*<level\\s.*?</level>");
+
+    private static final String TEXT = "The Member States shall ensure that the competent authorities have the powers necessary to apply this Regulation";
+    private static final String AMENDED_TEXT = "The Member States shall ensure that the designated authorities are given the powers needed to enforce this Regulation";
+
+    // every n-th paragraph or level of an amended document has a changed text
+    private static final int AMENDMENT_FREQUENCY = 10;
+
+    public enum Size {
+        SMALL(5, 10, 20),
+        MEDIUM(50, 100, 200),
+        LARGE(500, 1000, 2000);
+
+        private final int recitals;
+        private final int articles;
+        private final int levels;
+
+        Size(int recitals, int articles, int levels) {
+            this.recitals = recitals;
+            this.articles = articles;
+            this.levels = levels;
+        }
+    }
+
+    private AknCorpus() {
+    }
+
+    public static byte[] bill(Size size) {
+        return bill(size, false);
+    }
+
+    /**
+     * @param amended true to get the next version of the bill: some paragraphs have a new text and the last article is removed
+     */
+    public static byte[] bill(Size size, boolean amended) {
+        String template = loadTemplate(BILL_TEMPLATE + ".xml");
+        template = RECITALS.matcher(template).replaceAll("");
+        template = ARTICLES.matcher(template).replaceAll("");
+
+        StringBuilder recitals = new StringBuilder();
+        for (int i = 1; i <= size.recitals; i++) {
+            appendRecital(recitals, i);
+        }
+        StringBuilder articles = new StringBuilder();
+        int articleCount = amended ? size.articles - 1 : size.articles;
+        for (int i = 1; i <= articleCount; i++) {
+            appendArticle(articles, i, amended);
+        }
+        return template.replace("</recitals>", recitals + "</recitals>")
+                .replace("<body xml:id=\"body\">", "<body xml:id=\"body\">" + articles)
+                .getBytes(UTF_8);
+    }
+
+    public static byte[] annex(Size size) {
+        return annex(size, false);
+    }
+
+    /**
+     * @param amended true to get the next version of the annex: some levels have a new text
+     */
+    public static byte[] annex(Size size, boolean amended) {
+        String template = LEVELS.matcher(loadTemplate(ANNEX_TEMPLATE + ".xml")).replaceAll("");
+
+        StringBuilder levels = new StringBuilder();
+        for (int i = 1; i <= size.levels; i++) {
+            appendLevel(levels, i, amended);
+        }
+        return template.replace("<mainBody xml:id=\"body\">", "<mainBody xml:id=\"body\">" + levels)
+                .getBytes(UTF_8);
+    }
+
+    /**
+     * @return the structure configured for the given template, as the template configuration service resolves it
+     */
+    public static byte[] structure(String templateId) {
+        try {
+            String structureName = new ObjectMapper().readTree(loadTemplate(templateId + "-CONF.json"))
+                    .get("structure").get(0).get("name").asText();
+            return loadTemplate(structureName + ".xml").getBytes(UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the configuration of template " + templateId, e);
+        }
+    }
+
+    private static void appendRecital(StringBuilder xml, int index) {
+        String id = "rec_" + index;
+        xml.append("<recital xml:id=\"").append(id).append("\" leos:editable=\"true\">")
+                .append("<num xml:id=\"").append(id).append("__num\">(").append(index).append(")</num>")
+                .append("<p xml:id=\"").append(id).append("__p\">").append(TEXT).append(" (recital ").append(index).append(").</p>")
+                .append("</recital>");
+    }
+
+    private static void appendArticle(StringBuilder xml, int index, boolean amended) {
+        String id = "art_" + index;
+        xml.append("<article xml:id=\"").append(id).append("\" leos:editable=\"true\" leos:deletable=\"true\">")
+                .append("<num xml:id=\"").append(id).append("__num\" leos:editable=\"false\">Article ").append(index).append("</num>")
+                .append("<heading xml:id=\"").append(id).append("__heading\">Heading of article ").append(index).append("</heading>");
+
+        String firstParagraphId = id + "__para_1";
+        xml.append("<paragraph xml:id=\"").append(firstParagraphId).append("\">")
+                .append("<num xml:id=\"").append(firstParagraphId).append("__num\">1.</num>")
+                .append("<content xml:id=\"").append(firstParagraphId).append("__content\">")
+                .append("<p xml:id=\"").append(firstParagraphId).append("__content__p\">")
+                .append(amended && index % AMENDMENT_FREQUENCY == 0 ? AMENDED_TEXT : TEXT).append(".</p>")
+                .append("</content></paragraph>");
+
+        String secondParagraphId = id + "__para_2";
+        xml.append("<paragraph xml:id=\"").append(secondParagraphId).append("\">")
+                .append("<num xml:id=\"").append(secondParagraphId).append("__num\">2.</num>")
+                .append("<list xml:id=\"").append(secondParagraphId).append("__list\">");
+        for (char point = 'a'; point <= 'c'; point++) {
+            String pointId = secondParagraphId + "__point_" + point;
+            xml.append("<point xml:id=\"").append(pointId).append("\">")
+                    .append("<num xml:id=\"").append(pointId).append("__num\">(").append(point).append(")</num>")
+                    .append("<content xml:id=\"").append(pointId).append("__content\">")
+                    .append("<p xml:id=\"").append(pointId).append("__content__p\">").append(TEXT).append(";</p>")
+                    .append("</content></point>");
+        }
+        xml.append("</list></paragraph></article>");
+    }
+
+    private static void appendLevel(StringBuilder xml, int index, boolean amended) {
+        String id = "body_level_" + index;
+        // every third level is a sub level of the previous one
+        int depth = index % 3 == 0 ? 2 : 1;
+        xml.append("<level xml:id=\"").append(id).append("\" leos:depth=\"").append(depth).append("\">")
+                .append("<num xml:id=\"").append(id).append("_num\">").append(index).append(".</num>")
+                .append("<content xml:id=\"").append(id).append("_content\">")
+                .append("<p xml:id=\"").append(id).append("_content_p\">")
+                .append(amended && index % AMENDMENT_FREQUENCY == 0 ? AMENDED_TEXT : TEXT).append(".</p>")
+                .append("</content></level>");
+    }
+
+    private static String loadTemplate(String name) {
+        try (InputStream is = AknCorpus.class.getClassLoader().getResourceAsStream(TEMPLATES_PATH + name)) {
+            if (is == null) {
+                throw new IllegalStateException("Template " + name + " not found in " + TEMPLATES_PATH);
+            }
+            return IOUtils.toString(is, UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read template " + name, e);
+        }
+    }
+}
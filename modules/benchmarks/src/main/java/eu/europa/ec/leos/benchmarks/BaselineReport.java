@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH json result files, typically the results of a change against the ones of the base revision,
+ * and reports the relative change of every benchmark present in both.
+ * <p>
+ * Usage: {@code BaselineReport <current.json> <baseline.json> [threshold %]}
+ * <p>
+ * A benchmark is reported as a regression when it is slower than the baseline by more than the threshold
+ * (10% by default) and by more than the error margins of both measurements. The process exits with status 1
+ * when at least one regression is found, so that the report can be used in a local pre-merge check.
+ */
+public class BaselineReport {
+
+    private static final double DEFAULT_THRESHOLD = 10;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineReport <current.json> <baseline.json> [threshold %]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        Map<String, Score> current = readScores(new File(args[0]));
+        Map<String, Score> baseline = readScores(new File(args[1]));
+
+        int regressions = report(current, baseline, threshold, System.out);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    static int report(Map<String, Score> current, Map<String, Score> baseline, double threshold, PrintStream out) {
+        int regressions = 0;
+        out.println(String.format("%-80s %14s %14s %9s", "Benchmark", "Baseline", "Current", "Change"));
+        for (Map.Entry<String, Score> entry : new TreeMap<>(current).entrySet()) {
+            Score currentScore = entry.getValue();
+            Score baselineScore = baseline.get(entry.getKey());
+            if (baselineScore == null) {
+                out.println(String.format("%-80s %14s %14s %9s", entry.getKey(), "-", currentScore, "new"));
+                continue;
+            }
+            double change = (currentScore.value - baselineScore.value) * 100 / baselineScore.value;
+            boolean regression = change > threshold
+                    && currentScore.value - currentScore.error > baselineScore.value + baselineScore.error;
+            if (regression) {
+                regressions++;
+            }
+            out.println(String.format("%-80s %14s %14s %+8.1f%%%s", entry.getKey(), baselineScore, currentScore, change,
+                    regression ? "  REGRESSION" : ""));
+        }
+        out.println(String.format("%d regression(s) above %.1f%%", regressions, threshold));
+        return regressions;
+    }
+
+    /**
+     * @return the average time scores by benchmark name and parameters
+     */
+    static Map<String, Score> readScores(File resultFile) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(resultFile)) {
+            StringBuilder name = new StringBuilder(result.get("benchmark").asText());
+            JsonNode params = result.get("params");
+            if (params != null) {
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    name.append(':').append(param.getKey()).append('=').append(param.getValue().asText());
+                }
+            }
+            JsonNode metric = result.get("primaryMetric");
+            scores.put(name.toString(), new Score(metric.get("score").asDouble(),
+                    metric.get("scoreError").asDouble(0), metric.get("scoreUnit").asText()));
+        }
+        return scores;
+    }
+
+    static class Score {
+        private final double value;
+        private final double error;
+        private final String unit;
+
+        Score(double value, double error, String unit) {
+            this.value = value;
+            this.error = Double.isNaN(error) ? 0 : error;
+            this.unit = unit;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.3f %s", value, unit);
+        }
+    }
+}
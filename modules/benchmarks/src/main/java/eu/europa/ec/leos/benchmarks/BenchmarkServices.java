@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.benchmarks;
+
+import eu.europa.ec.leos.i18n.LanguageHelper;
+import eu.europa.ec.leos.i18n.MessageHelper;
+import eu.europa.ec.leos.i18n.ProposalMessageHelper;
+import eu.europa.ec.leos.services.compare.ContentComparatorService;
+import eu.europa.ec.leos.services.compare.ProposalXMLContentComparatorServiceImpl;
+import eu.europa.ec.leos.services.content.TemplateStructureService;
+import eu.europa.ec.leos.services.content.processor.TransformationService;
+import eu.europa.ec.leos.services.support.xml.ElementNumberingHelper;
+import eu.europa.ec.leos.services.support.xml.NumberProcessor;
+import eu.europa.ec.leos.services.support.xml.ProposalNumberingProcessor;
+import eu.europa.ec.leos.services.support.xml.VtdXmlContentProcessorForProposal;
+import eu.europa.ec.leos.services.support.xml.XmlContentProcessor;
+import eu.europa.ec.leos.services.support.xml.XmlTableOfContentHelper;
+import eu.europa.ec.leos.services.toc.StructureContext;
+import eu.europa.ec.leos.services.toc.StructureService;
+import eu.europa.ec.leos.services.toc.StructureServiceImpl;
+import eu.europa.ec.leos.vo.toc.TocItem;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.inject.Provider;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The services under benchmark, wired by hand for one document template as the request scoped
+ * structure context would configure them, without repository, security or web dependencies.
+ */
+public class BenchmarkServices {
+
+    private static final String STRUCTURE_SCHEMA = "toc/schema/structure_1.xsd";
+    private static final String MESSAGES = "classpath:messages/message";
+    private static final String DEFAULT_LANGUAGE = "en";
+
+    // the freemarker configuration is immutable once built, one context is shared by all the benchmarks of a fork
+    private static ClassPathXmlApplicationContext applicationContext;
+
+    private final List<TocItem> tocItems;
+    private final Map<TocItem, List<TocItem>> tocRules;
+    private final MessageHelper messageHelper;
+    private final XmlContentProcessor xmlContentProcessor;
+    private final XmlTableOfContentHelper xmlTableOfContentHelper;
+    private final NumberProcessor numberingProcessor;
+    private final ContentComparatorService contentComparatorService;
+
+    public BenchmarkServices(String docTemplate) {
+        TemplateStructureService templateStructureService = AknCorpus::structure;
+        StructureServiceImpl structureService = new StructureServiceImpl();
+        ReflectionTestUtils.setField(structureService, "templateStructureService", templateStructureService);
+        ReflectionTestUtils.setField(structureService, "structureSchema", STRUCTURE_SCHEMA);
+        tocItems = structureService.getTocItems(docTemplate);
+        tocRules = structureService.getTocRules(docTemplate);
+
+        StructureContext structureContext = createStructureContext(structureService, docTemplate);
+        Provider<StructureContext> structureContextProvider = () -> structureContext;
+
+        messageHelper = createMessageHelper();
+
+        xmlContentProcessor = new VtdXmlContentProcessorForProposal();
+        ReflectionTestUtils.setField(xmlContentProcessor, "messageHelper", messageHelper);
+        ReflectionTestUtils.setField(xmlContentProcessor, "structureContextProvider", structureContextProvider);
+
+        xmlTableOfContentHelper = new XmlTableOfContentHelper();
+        ReflectionTestUtils.setField(xmlTableOfContentHelper, "structureContextProvider", structureContextProvider);
+
+        ElementNumberingHelper elementNumberingHelper = new ElementNumberingHelper(messageHelper, structureContextProvider);
+        numberingProcessor = new ProposalNumberingProcessor(elementNumberingHelper, messageHelper);
+
+        contentComparatorService = new ProposalXMLContentComparatorServiceImpl();
+    }
+
+    public List<TocItem> getTocItems() {
+        return tocItems;
+    }
+
+    public Map<TocItem, List<TocItem>> getTocRules() {
+        return tocRules;
+    }
+
+    public MessageHelper getMessageHelper() {
+        return messageHelper;
+    }
+
+    public XmlContentProcessor getXmlContentProcessor() {
+        return xmlContentProcessor;
+    }
+
+    public XmlTableOfContentHelper getXmlTableOfContentHelper() {
+        return xmlTableOfContentHelper;
+    }
+
+    public NumberProcessor getNumberingProcessor() {
+        return numberingProcessor;
+    }
+
+    public ContentComparatorService getContentComparatorService() {
+        return contentComparatorService;
+    }
+
+    public static synchronized TransformationService getTransformationService() {
+        if (applicationContext == null) {
+            applicationContext = new ClassPathXmlApplicationContext("eu/europa/ec/leos/benchmarks/benchmarkContext.xml");
+        }
+        return applicationContext.getBean(TransformationService.class);
+    }
+
+    private static StructureContext createStructureContext(StructureService structureService, String docTemplate) {
+        try {
+            StructureContext structureContext = BeanUtils.instantiateClass(
+                    StructureContext.class.getDeclaredConstructor(StructureService.class), structureService);
+            structureContext.useDocumentTemplate(docTemplate);
+            return structureContext;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Unable to create the structure context", e);
+        }
+    }
+
+    private static MessageHelper createMessageHelper() {
+        ReloadableResourceBundleMessageSource messageSource = new ReloadableResourceBundleMessageSource();
+        messageSource.setBasename(MESSAGES);
+        messageSource.setDefaultEncoding("UTF-8");
+        messageSource.setUseCodeAsDefaultMessage(true);
+        messageSource.setFallbackToSystemLocale(false);
+
+        LanguageHelper languageHelper = new LanguageHelper();
+        ReflectionTestUtils.setField(languageHelper, "defaultLanguageTag", DEFAULT_LANGUAGE);
+
+        MessageHelper messageHelper = new ProposalMessageHelper(messageSource);
+        ReflectionTestUtils.setField(messageHelper, "languageHelper", languageHelper);
+        return messageHelper;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.benchmarks;
+
+import eu.europa.ec.leos.services.compare.ContentComparatorContext;
+import eu.europa.ec.leos.services.compare.ContentComparatorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+import static eu.europa.ec.leos.services.compare.ContentComparatorService.ATTR_NAME;
+import static eu.europa.ec.leos.services.compare.ContentComparatorService.CONTENT_ADDED_CLASS;
+import static eu.europa.ec.leos.services.compare.ContentComparatorService.CONTENT_REMOVED_CLASS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Comparison of two versions of a bill, in the single and two columns views.
+ */
+public class CompareBenchmark extends AbstractDocumentBenchmark {
+
+    private ContentComparatorService contentComparatorService;
+    private String oldVersion;
+    private String newVersion;
+
+    @Setup
+    public void setup() {
+        contentComparatorService = new BenchmarkServices(AknCorpus.BILL_TEMPLATE).getContentComparatorService();
+        oldVersion = new String(AknCorpus.bill(size), UTF_8);
+        newVersion = new String(AknCorpus.bill(size, true), UTF_8);
+    }
+
+    @Benchmark
+    public String compare() {
+        return contentComparatorService.compareContents(new ContentComparatorContext.Builder(oldVersion, newVersion)
+                .withAttrName(ATTR_NAME)
+                .withRemovedValue(CONTENT_REMOVED_CLASS)
+                .withAddedValue(CONTENT_ADDED_CLASS)
+                .build());
+    }
+
+    @Benchmark
+    public String[] twoColumnsCompare() {
+        return contentComparatorService.twoColumnsCompareContents(new ContentComparatorContext.Builder(oldVersion, newVersion).build());
+    }
+}
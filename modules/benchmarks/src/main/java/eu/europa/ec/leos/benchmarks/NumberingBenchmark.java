@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.benchmarks;
+
+import eu.europa.ec.leos.services.support.xml.NumberProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Renumbering of articles, recitals and annex levels, as done after every structural change.
+ */
+public class NumberingBenchmark extends AbstractDocumentBenchmark {
+
+    private NumberProcessor billNumberingProcessor;
+    private NumberProcessor annexNumberingProcessor;
+    private byte[] bill;
+    private byte[] annex;
+
+    @Setup
+    public void setup() {
+        billNumberingProcessor = new BenchmarkServices(AknCorpus.BILL_TEMPLATE).getNumberingProcessor();
+        annexNumberingProcessor = new BenchmarkServices(AknCorpus.ANNEX_TEMPLATE).getNumberingProcessor();
+        bill = AknCorpus.bill(size);
+        annex = AknCorpus.annex(size);
+    }
+
+    @Benchmark
+    public byte[] renumberArticles() {
+        return billNumberingProcessor.renumberArticles(bill);
+    }
+
+    @Benchmark
+    public byte[] renumberRecitals() {
+        return billNumberingProcessor.renumberRecitals(bill);
+    }
+
+    @Benchmark
+    public byte[] renumberLevels() {
+        return annexNumberingProcessor.renumberLevel(annex);
+    }
+}
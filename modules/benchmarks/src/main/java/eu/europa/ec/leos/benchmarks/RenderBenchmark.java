@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.benchmarks;
+
+import eu.europa.ec.leos.services.content.processor.TransformationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+
+/**
+ * Rendering of bills and annexes to the editable HTML view with the application freemarker templates.
+ */
+public class RenderBenchmark extends AbstractDocumentBenchmark {
+
+    private static final String CONTEXT_PATH = "/leos-pilot";
+
+    private TransformationService transformationService;
+    private byte[] bill;
+    private byte[] annex;
+
+    @Setup
+    public void setup() {
+        transformationService = BenchmarkServices.getTransformationService();
+        bill = AknCorpus.bill(size);
+        annex = AknCorpus.annex(size);
+    }
+
+    @Benchmark
+    public String renderBill() {
+        return transformationService.formatToHtml(new ByteArrayInputStream(bill), CONTEXT_PATH, Collections.emptyList());
+    }
+
+    @Benchmark
+    public String renderAnnex() {
+        return transformationService.formatToHtml(new ByteArrayInputStream(annex), CONTEXT_PATH, Collections.emptyList());
+    }
+}
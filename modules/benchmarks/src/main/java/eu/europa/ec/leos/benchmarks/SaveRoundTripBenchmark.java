@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.benchmarks;
+
+import eu.europa.ec.leos.domain.common.TocMode;
+import eu.europa.ec.leos.model.user.Entity;
+import eu.europa.ec.leos.model.user.User;
+import eu.europa.ec.leos.services.support.xml.NumberProcessor;
+import eu.europa.ec.leos.services.support.xml.XmlContentProcessor;
+import eu.europa.ec.leos.services.support.xml.XmlTableOfContentHelper;
+import eu.europa.ec.leos.vo.toc.TableOfContentItemVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.Collections;
+import java.util.List;
+
+import static eu.europa.ec.leos.services.support.xml.XmlHelper.ARTICLE;
+import static eu.europa.ec.leos.services.support.xml.XmlHelper.BILL;
+
+/**
+ * The content processing done when a bill is saved, without the repository access:
+ * saving an edited article and saving the table of content.
+ */
+public class SaveRoundTripBenchmark extends AbstractDocumentBenchmark {
+
+    private XmlContentProcessor xmlContentProcessor;
+    private XmlTableOfContentHelper xmlTableOfContentHelper;
+    private NumberProcessor numberingProcessor;
+    private User user;
+    private byte[] bill;
+    private String editedArticle;
+
+    @Setup
+    public void setup() {
+        BenchmarkServices services = new BenchmarkServices(AknCorpus.BILL_TEMPLATE);
+        xmlContentProcessor = services.getXmlContentProcessor();
+        xmlTableOfContentHelper = services.getXmlTableOfContentHelper();
+        numberingProcessor = services.getNumberingProcessor();
+        user = new User(1L, "benchmark", "Benchmark USER", Collections.singletonList(new Entity("1", "EXT.A1", "Ext")),
+                "benchmark@leos", Collections.singletonList("ADMIN"));
+        bill = AknCorpus.bill(size);
+        editedArticle = xmlContentProcessor.getElementByNameAndId(bill, ARTICLE, EDITED_ARTICLE_ID)
+                .replace("competent authorities", "designated authorities");
+    }
+
+    @Benchmark
+    public List<TableOfContentItemVO> saveElement() {
+        byte[] content = xmlContentProcessor.replaceElementByTagNameAndId(bill, editedArticle, ARTICLE, EDITED_ARTICLE_ID);
+        content = numberingProcessor.renumberArticles(content);
+        content = xmlContentProcessor.doXMLPostProcessing(content);
+        return xmlTableOfContentHelper.buildTableOfContent(BILL, content, TocMode.SIMPLIFIED);
+    }
+
+    @Benchmark
+    public byte[] saveTableOfContent() {
+        List<TableOfContentItemVO> tableOfContent = xmlTableOfContentHelper.buildTableOfContent(BILL, bill, TocMode.NOT_SIMPLIFIED);
+        byte[] content = xmlContentProcessor.createDocumentContentWithNewTocList(tableOfContent, bill, user);
+        content = numberingProcessor.renumberArticles(content);
+        content = numberingProcessor.renumberRecitals(content);
+        return xmlContentProcessor.doXMLPostProcessing(content);
+    }
+}
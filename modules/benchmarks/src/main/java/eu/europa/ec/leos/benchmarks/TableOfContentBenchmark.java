@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.benchmarks;
+
+import eu.europa.ec.leos.domain.common.TocMode;
+import eu.europa.ec.leos.services.support.xml.XmlTableOfContentHelper;
+import eu.europa.ec.leos.vo.toc.TableOfContentItemVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.List;
+
+import static eu.europa.ec.leos.services.support.xml.XmlHelper.BILL;
+import static eu.europa.ec.leos.services.support.xml.XmlHelper.DOC;
+
+/**
+ * {@link XmlTableOfContentHelper#buildTableOfContent} for bills and annexes.
+ */
+public class TableOfContentBenchmark extends AbstractDocumentBenchmark {
+
+    private BenchmarkServices billServices;
+    private BenchmarkServices annexServices;
+    private byte[] bill;
+    private byte[] annex;
+
+    @Setup
+    public void setup() {
+        billServices = new BenchmarkServices(AknCorpus.BILL_TEMPLATE);
+        annexServices = new BenchmarkServices(AknCorpus.ANNEX_TEMPLATE);
+        bill = AknCorpus.bill(size);
+        annex = AknCorpus.annex(size);
+    }
+
+    @Benchmark
+    public List<TableOfContentItemVO> billTableOfContent() {
+        return billServices.getXmlTableOfContentHelper().buildTableOfContent(BILL, bill, TocMode.NOT_SIMPLIFIED);
+    }
+
+    @Benchmark
+    public List<TableOfContentItemVO> billSimplifiedTableOfContent() {
+        return billServices.getXmlTableOfContentHelper().buildTableOfContent(BILL, bill, TocMode.SIMPLIFIED);
+    }
+
+    @Benchmark
+    public List<TableOfContentItemVO> annexTableOfContent() {
+        return annexServices.getXmlTableOfContentHelper().buildTableOfContent(DOC, annex, TocMode.NOT_SIMPLIFIED);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.benchmarks;
+
+import com.ximpleware.VTDGen;
+import com.ximpleware.VTDNav;
+import eu.europa.ec.leos.services.support.xml.XmlContentProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+import static eu.europa.ec.leos.services.support.xml.XmlHelper.ARTICLE;
+
+/**
+ * Parsing and element level operations of {@link XmlContentProcessor} on a bill.
+ */
+public class XmlBenchmark extends AbstractDocumentBenchmark {
+
+    private XmlContentProcessor xmlContentProcessor;
+    private byte[] bill;
+    private String editedArticle;
+
+    @Setup
+    public void setup() {
+        xmlContentProcessor = new BenchmarkServices(AknCorpus.BILL_TEMPLATE).getXmlContentProcessor();
+        bill = AknCorpus.bill(size);
+        editedArticle = xmlContentProcessor.getElementByNameAndId(bill, ARTICLE, EDITED_ARTICLE_ID)
+                .replace("competent authorities", "designated authorities");
+    }
+
+    @Benchmark
+    public VTDNav parse() throws Exception {
+        VTDGen vtdGen = new VTDGen();
+        vtdGen.setDoc(bill);
+        vtdGen.parse(false);
+        return vtdGen.getNav();
+    }
+
+    @Benchmark
+    public String getElement() {
+        return xmlContentProcessor.getElementByNameAndId(bill, ARTICLE, EDITED_ARTICLE_ID);
+    }
+
+    @Benchmark
+    public byte[] replaceElement() {
+        return xmlContentProcessor.replaceElementByTagNameAndId(bill, editedArticle, ARTICLE, EDITED_ARTICLE_ID);
+    }
+
+    @Benchmark
+    public byte[] postProcess() {
+        return xmlContentProcessor.doXMLPostProcessing(bill);
+    }
+}
@@ -428,6 +428,27 @@ public class TableOfContentItemVO implements Serializable {
         return sb.toString();
     }
 
+    /**
+     * Copies this item and its descendants, so that the copy can be modified without affecting this tree.
+     * The copy has no parent, the toc item and the co-edition information are shared.
+     */
+    public TableOfContentItemVO copy() {
+        TableOfContentItemVO copy = new TableOfContentItemVO(tocItem, id, originAttr, number, originNumAttr, heading, numTagIndex,
+                headingTagIndex, introTagIndex, vtdIndex, list, listTagIndex, content, softActionAttr, isSoftActionRoot, softUserAttr,
+                softDateAttr != null ? (GregorianCalendar) softDateAttr.clone() : null, softMoveFrom, softMoveTo, undeleted, numSoftActionAttr, itemDepth);
+        copy.movedOnEmptyParent = movedOnEmptyParent;
+        copy.isAffected = isAffected;
+        copy.isNumberingToggled = isNumberingToggled;
+        copy.restored = restored;
+        copy.coEditionVos.addAll(coEditionVos);
+        for (TableOfContentItemVO childItem : childItems) {
+            TableOfContentItemVO childCopy = childItem.copy();
+            childCopy.parentItem = copy;
+            copy.childItems.add(childCopy);
+        }
+        return copy;
+    }
+
     public Stream<TableOfContentItemVO> flattened() {
         return Stream.concat(
                 Stream.of(this),
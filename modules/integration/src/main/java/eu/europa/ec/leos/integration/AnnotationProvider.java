@@ -13,10 +13,26 @@
  */
 package eu.europa.ec.leos.integration;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 
 
 public interface AnnotationProvider {
 
 	String searchAnnotations(URI uri,String jwtToken);
+
+	/**
+	 * Requests an export of annotations and hands the response over to the given reader while it is received.
+	 */
+	void exportAnnotations(URI uri, String jwtToken, AnnotationsReader reader);
+
+	/**
+	 * Posts the given JSON request to re-anchor the annotations of a document and returns the JSON response.
+	 */
+	String reanchorAnnotations(URI uri, String jwtToken, String reanchorRequest);
+
+	interface AnnotationsReader {
+		void read(InputStream annotations) throws IOException;
+	}
 }
\ No newline at end of file
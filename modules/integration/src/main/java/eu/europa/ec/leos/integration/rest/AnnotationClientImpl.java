@@ -19,6 +19,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
@@ -44,4 +45,28 @@ public class AnnotationClientImpl implements AnnotationProvider {
 		return restTemplate.exchange(uri, HttpMethod.GET, request, String.class).getBody().toString();
 	}
 
+	@Override
+	public void exportAnnotations(URI uri, String jwtToken, AnnotationsReader reader) {
+		TokenJson tokenJson = authenticationProvider.getToken(jwtToken);
+		restTemplate.execute(uri, HttpMethod.GET, request -> {
+			request.getHeaders().set("Authorization", "Bearer " + tokenJson.getAccessToken());
+			request.getHeaders().set("Accept", "application/json");
+		}, response -> {
+			// the response is read as it arrives instead of being loaded in memory first
+			reader.read(response.getBody());
+			return null;
+		});
+	}
+
+	@Override
+	public String reanchorAnnotations(URI uri, String jwtToken, String reanchorRequest) {
+		HttpHeaders headers = new HttpHeaders();
+		TokenJson tokenJson = authenticationProvider.getToken(jwtToken);
+		headers.set("Authorization", "Bearer " + tokenJson.getAccessToken());
+		headers.set("Accept", "application/json");
+		headers.setContentType(MediaType.APPLICATION_JSON_UTF8);
+		HttpEntity<String> request = new HttpEntity<>(reanchorRequest, headers);
+		return restTemplate.exchange(uri, HttpMethod.POST, request, String.class).getBody();
+	}
+
 }
\ No newline at end of file
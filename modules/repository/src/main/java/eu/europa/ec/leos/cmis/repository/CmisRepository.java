@@ -13,14 +13,18 @@
  */
 package eu.europa.ec.leos.cmis.repository;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import eu.europa.ec.leos.cmis.extensions.CmisDocumentExtensions;
 import eu.europa.ec.leos.cmis.mapping.CmisProperties;
 import eu.europa.ec.leos.cmis.search.SearchStrategy;
 import eu.europa.ec.leos.cmis.search.SearchStrategyProvider;
+import eu.europa.ec.leos.cmis.support.CmisObjectCache;
 import eu.europa.ec.leos.cmis.support.OperationContextProvider;
 import eu.europa.ec.leos.domain.cmis.LeosCategory;
 import eu.europa.ec.leos.domain.cmis.LeosLegStatus;
 import eu.europa.ec.leos.domain.cmis.common.VersionType;
+import eu.europa.ec.leos.metrics.LeosMetrics;
 import eu.europa.ec.leos.model.filter.QueryFilter;
 import org.apache.chemistry.opencmis.client.api.CmisObject;
 import org.apache.chemistry.opencmis.client.api.Document;
@@ -30,25 +34,37 @@ import org.apache.chemistry.opencmis.client.api.OperationContext;
 import org.apache.chemistry.opencmis.client.api.Session;
 import org.apache.chemistry.opencmis.commons.PropertyIds;
 import org.apache.chemistry.opencmis.commons.data.ContentStream;
+import org.apache.chemistry.opencmis.commons.data.ObjectParentData;
 import org.apache.chemistry.opencmis.commons.enums.BaseTypeId;
+import org.apache.chemistry.opencmis.commons.enums.IncludeRelationships;
 import org.apache.chemistry.opencmis.commons.enums.UnfileObject;
 import org.apache.chemistry.opencmis.commons.enums.Updatability;
 import org.apache.chemistry.opencmis.commons.enums.VersioningState;
 import org.apache.chemistry.opencmis.commons.exceptions.CmisBaseException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundException;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
 
 import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static eu.europa.ec.leos.cmis.support.CmisObjectCache.idKey;
+import static eu.europa.ec.leos.cmis.support.CmisObjectCache.latestMajorVersionKey;
+import static eu.europa.ec.leos.cmis.support.CmisObjectCache.latestVersionKey;
+import static eu.europa.ec.leos.cmis.support.CmisObjectCache.pathKey;
 import static eu.europa.ec.leos.cmis.support.OperationContextProvider.getMinimalContext;
 
 @Repository
@@ -56,14 +72,34 @@ public class CmisRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(CmisRepository.class);
 
+    private static final String CMIS_CALL = "cmis.call";
+    private static final String OPERATION = "operation";
+    private static final int PARENT_FOLDER_IDS_CACHE_SIZE = 10000;
+    private static final int LATEST_DOCUMENTS_PAGE_SIZE = 100;
+
     private final Session cmisSession;
+    private final CmisObjectCache cmisObjectCache;
     private static final Map<String, Long> synchronizedKeys = new ConcurrentHashMap<>();
 
-    CmisRepository(Session cmisSession) {
+    // ids of the package folders of the documents, which never change
+    private final Cache<String, String> parentFolderIds = CacheBuilder.newBuilder().maximumSize(PARENT_FOLDER_IDS_CACHE_SIZE).build();
+
+    // properties read when mapping a leg document without its content
+    static final Set<String> LEG_DOCUMENT_PROPERTIES = Collections.unmodifiableSet(Stream.of(
+            PropertyIds.OBJECT_ID, PropertyIds.OBJECT_TYPE_ID, PropertyIds.BASE_TYPE_ID, PropertyIds.NAME,
+            PropertyIds.CREATED_BY, PropertyIds.CREATION_DATE, PropertyIds.LAST_MODIFIED_BY, PropertyIds.LAST_MODIFICATION_DATE,
+            PropertyIds.VERSION_SERIES_ID, PropertyIds.VERSION_LABEL, PropertyIds.CHECKIN_COMMENT, PropertyIds.IS_LATEST_VERSION,
+            CmisProperties.DOCUMENT_CATEGORY.getId(), CmisProperties.VERSION_LABEL.getId(), CmisProperties.VERSION_TYPE.getId(),
+            CmisProperties.MILESTONE_COMMENTS.getId(), CmisProperties.INITIAL_CREATED_BY.getId(), CmisProperties.INITIAL_CREATION_DATE.getId(),
+            CmisProperties.JOB_ID.getId(), CmisProperties.JOB_DATE.getId(), CmisProperties.STATUS.getId(), CmisProperties.CONTAINED_DOCUMENTS.getId())
+            .collect(Collectors.toSet()));
+
+    CmisRepository(Session cmisSession, CmisObjectCache cmisObjectCache) {
         this.cmisSession = cmisSession;
+        this.cmisObjectCache = cmisObjectCache;
     }
 
-    private SearchStrategy getSearchStrategy() {
+    SearchStrategy getSearchStrategy() {
         return SearchStrategyProvider.getSearchStrategy(cmisSession);
     }
 
@@ -84,6 +120,7 @@ public class CmisRepository {
         OperationContext context = getMinimalContext(cmisSession);
         Folder folder = findFolderByPath(path, context);
         folder.deleteTree(true, UnfileObject.DELETE, true);
+        cmisObjectCache.invalidateAll();
     }
 
     Document createDocumentFromContent(final String path, final String name, Map<String, ?> properties, final String mimeType, byte[] contentBytes) {
@@ -99,7 +136,7 @@ public class CmisRepository {
         updatedProperties.put(CmisProperties.VERSION_TYPE.getId(), VersionType.MINOR.value());
         updatedProperties.put(CmisProperties.VERSION_LABEL.getId(), getNextVersionLabel(VersionType.MINOR, null));
 
-        return targetFolder.createDocument(updatedProperties, contentStream, VersioningState.MINOR);
+        return LeosMetrics.time(CMIS_CALL, () -> targetFolder.createDocument(updatedProperties, contentStream, VersioningState.MINOR), OPERATION, "createDocument");
     }
 
     Document createDocumentFromSource(final String sourceId, String path, Map<String, ?> properties) {
@@ -107,14 +144,14 @@ public class CmisRepository {
         OperationContext context = getMinimalContext(cmisSession);
 
         Folder targetFolder = findFolderByPath(path, context);
-        Document sourceDoc = findDocumentById(sourceId, false, context);
+        Document sourceDoc = findCachedDocumentById(sourceId, false, context);
 
         Map<String, Object> updatedProperties = new LinkedHashMap<>();
         updatedProperties.putAll(properties);
         updatedProperties.put(CmisProperties.VERSION_TYPE.getId(), VersionType.MINOR.value());
         updatedProperties.put(CmisProperties.VERSION_LABEL.getId(), getNextVersionLabel(VersionType.MINOR, null));
 
-        return sourceDoc.copy(targetFolder, updatedProperties, VersioningState.MINOR, null, null, null, context);
+        return LeosMetrics.time(CMIS_CALL, () -> sourceDoc.copy(targetFolder, updatedProperties, VersioningState.MINOR, null, null, null, context), OPERATION, "copyDocument");
     }
 
     void deleteDocumentById(final String id) {
@@ -123,21 +160,30 @@ public class CmisRepository {
         CmisObject cmisObject = cmisSession.getObject(id, context);
         require(cmisObject instanceof Document, "CMIS object referenced by id [" + id + "] is not a Document!");
         cmisObject.delete(true);
+        cmisObjectCache.invalidateVersionSeries(((Document) cmisObject).getVersionSeriesId());
     }
 
     Document updateDocument(final String id, Map<String, ?> properties) {
         logger.trace("Updating document properties... [id=" + id + "]");
         OperationContext context = getMinimalContext(cmisSession);
         Document document = findDocumentById(id, true, context);
-        return (Document) document.updateProperties(properties);
+        Document updatedDocument = LeosMetrics.time(CMIS_CALL, () -> (Document) document.updateProperties(properties), OPERATION, "updateProperties");
+        cmisObjectCache.invalidateVersionSeries(document.getVersionSeriesId());
+        return updatedDocument;
     }
 
     public Document updateDocument(String id, Map<String, ?> properties, byte[] updatedDocumentBytes, VersionType versionType, String comment) {
         try {
             synchronized (getSyncKey(id)) {
                 logger.trace("Updating document properties and content... [id=" + id + ']');
-                Document pwc = checkOutWorkingCopy(id);
-                Document udpatedDocument = checkInWorkingCopy(pwc, properties, updatedDocumentBytes, versionType, comment);
+                OperationContext context = getMinimalContext(cmisSession);
+                Document latestVersion = findDocumentById(id, true, context);
+                Document pwc = checkOutWorkingCopy(latestVersion, context);
+                // the checked out state is visible on all the versions of the series
+                cmisObjectCache.invalidateVersionSeries(pwc.getVersionSeriesId());
+                // the next version label only depends on the latest version, the other versions of the series are not loaded
+                String latestVersionLabel = CmisDocumentExtensions.getLeosVersionLabel(latestVersion);
+                Document udpatedDocument = checkInWorkingCopy(pwc, latestVersionLabel, properties, updatedDocumentBytes, versionType, comment);
                 logger.trace("Updated document properties and content...");
                 if (udpatedDocument == null) {
                     throw new IllegalStateException("Update not successful for document:" + id);
@@ -150,7 +196,7 @@ public class CmisRepository {
         }
     }
 
-    private Document checkInWorkingCopy(Document pwc, Map<String, ?> properties, byte[] updatedDocumentBytes, VersionType versionType, String comment) {
+    private Document checkInWorkingCopy(Document pwc, String latestVersionLabel, Map<String, ?> properties, byte[] updatedDocumentBytes, VersionType versionType, String comment) {
         Map<String, Object> updatedProperties = new LinkedHashMap<>();
         // KLUGE LEOS-2408 workaround for issue related to reset properties values with OpenCMIS In-Memory server
         logger.trace("KLUGE LEOS-2408 workaround for reset properties values...");
@@ -177,32 +223,35 @@ public class CmisRepository {
 
                 updatedProperties.put(CmisProperties.VERSION_TYPE.getId(), versionType.value());
                 updatedProperties.put(CmisProperties.VERSION_LABEL.getId(),
-                        getNextVersionLabel(versionType, pwc.getAllVersions().size() > 1 ? CmisDocumentExtensions.getLeosVersionLabel(pwc.getAllVersions().get(1)) : null));
+                        getNextVersionLabel(versionType, latestVersionLabel));
 
-                updatedDocId = pwc.checkIn(versionType.equals(VersionType.MAJOR) || versionType.equals(VersionType.INTERMEDIATE), updatedProperties, contentStream, comment);
+                updatedDocId = LeosMetrics.time(CMIS_CALL, () -> pwc.checkIn(versionType.equals(VersionType.MAJOR) || versionType.equals(VersionType.INTERMEDIATE), updatedProperties, contentStream, comment),
+                        OPERATION, "checkIn");
                 logger.trace("Document checked-in successfully...[updated document id:" + updatedDocId.getId() + ']');
             } catch (CmisBaseException e) {
                 logger.error("Document update failed, trying to cancel the checkout", e);
                 pwc.cancelCheckOut();
                 throw e;
+            } finally {
+                cmisObjectCache.invalidateVersionSeries(pwc.getVersionSeriesId());
             }
 
-            return findDocumentById(updatedDocId.getId(), true, context);
+            Document updatedDocument = findDocumentById(updatedDocId.getId(), true, context);
+            cmisObjectCache.put(idKey(updatedDocument.getId()), updatedDocument);
+            return updatedDocument;
         } catch (Throwable e) {
             throw new IllegalStateException("unexpected exception", e);
         }
     }
 
-    private Document checkOutWorkingCopy(String id) {
-        OperationContext context = getMinimalContext(cmisSession);
-        Document document = findDocumentById(id, true, context);
-
+    private Document checkOutWorkingCopy(Document document, OperationContext context) {
+        String id = document.getId();
         String pwcId;
         if (document.isVersionSeriesCheckedOut()) {
             pwcId = document.getVersionSeriesCheckedOutId();
             logger.trace("Document already check out ... [id=" + id + ", pwc id=" + document.getVersionSeriesCheckedOutId());
         } else {
-            pwcId = document.checkOut().getId();
+            pwcId = LeosMetrics.time(CMIS_CALL, () -> document.checkOut().getId(), OPERATION, "checkOut");
         }
 
         Document pwc = findDocumentById(pwcId, false, context);
@@ -215,7 +264,7 @@ public class CmisRepository {
         logger.trace("Finding documents by parent path... [path=" + path + ", primaryType=" + primaryType + ", categories=" + categories + ", descendants=" + descendants + ']');
         OperationContext context = OperationContextProvider.getOperationContext(cmisSession, "cmis:lastModificationDate DESC");
         Folder folder = findFolderByPath(path, context);
-        List<Document> documents = getSearchStrategy().findDocuments(folder, primaryType, categories, descendants, false, context);
+        List<Document> documents = LeosMetrics.time(CMIS_CALL, () -> getSearchStrategy().findDocuments(folder, primaryType, categories, descendants, false, context), OPERATION, "query");
         logger.trace("Found " + documents.size() + " CMIS document(s).");
         return documents;
     }
@@ -226,7 +275,7 @@ public class CmisRepository {
         Folder folder = findFolderById(id, context);
         Boolean isCmisRepoSearchable = cmisSession.getRepositoryInfo().getCapabilities().isAllVersionsSearchableSupported();
 
-        List<Document> documents = getSearchStrategy().findDocuments(folder, primaryType, categories, false, allVersion, context);
+        List<Document> documents = LeosMetrics.time(CMIS_CALL, () -> getSearchStrategy().findDocuments(folder, primaryType, categories, false, allVersion, context), OPERATION, "query");
         if (allVersion && !isCmisRepoSearchable && !documents.isEmpty()) {
             documents = findAllVersions(documents.get(0).getId());
         }
@@ -238,13 +287,14 @@ public class CmisRepository {
     Document findDocumentByParentPath(final String path, final String name) {
         logger.trace("Finding document by parent path... [path=" + path + ", name=" + name + ']');
         OperationContext context = getMinimalContext(cmisSession);
-        return (Document) cmisSession.getObjectByPath(path, name, context);
+        return cmisObjectCache.get(pathKey(path + '/' + name),
+                () -> LeosMetrics.time(CMIS_CALL, () -> (Document) cmisSession.getObjectByPath(path, name, context), OPERATION, "getObjectByPath"));
     }
 
     Document findDocumentById(final String id, final boolean latest) {
         logger.trace("Finding document by id... [id=" + id + ", latest=" + latest + ']');
         OperationContext context = getMinimalContext(cmisSession);
-        return findDocumentById(id, latest, context);
+        return findCachedDocumentById(id, latest, context);
     }
 
     List<Document> findDocumentsByUserId(final String userId, String primaryType, String leosAuthority) {
@@ -252,6 +302,55 @@ public class CmisRepository {
         return findDocumentsForUser(userId, primaryType, leosAuthority);
     }
 
+    Stream<Document> findPagedDocumentsByUserId(final String userId, String primaryType, String leosAuthority, int startIndex, int maxResults) {
+        logger.trace("Finding documents page by user id... [userId=" + userId + ", startIndex=" + startIndex + ", maxResults=" + maxResults + ']');
+        OperationContext context = OperationContextProvider.getOperationContext(cmisSession, "cmis:lastModificationDate DESC", maxResults);
+        return getSearchStrategy().findDocumentPageForUser(userId, primaryType, leosAuthority, context, startIndex);
+    }
+
+    /**
+     * The documents of all the packages are read by one query, newest first, and the first one found in each package is kept.
+     * CMIS exposes no parent property on documents, so the package of a document is asked to the navigation service;
+     * as documents are never moved to another package, the parent ids are cached and each document is navigated once.
+     */
+    Map<String, Document> findLatestDocumentsInPackagesOf(final List<String> documentIds, final String primaryType, final Set<LeosCategory> categories) {
+        logger.trace("Finding latest documents in packages... [documents=" + documentIds.size() + ", primaryType=" + primaryType + ", categories=" + categories + ']');
+        Map<String, String> packageIdByDocumentId = new LinkedHashMap<>();
+        for (String documentId : documentIds) {
+            String packageId = findParentFolderId(documentId);
+            if (packageId != null) {
+                packageIdByDocumentId.put(documentId, packageId);
+            }
+        }
+        Set<String> packageIds = new LinkedHashSet<>(packageIdByDocumentId.values());
+        if (packageIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Set<String> propertyFilter = EnumSet.of(LeosCategory.LEG).equals(categories) ? LEG_DOCUMENT_PROPERTIES : null;
+        OperationContext context = OperationContextProvider.getOperationContext(cmisSession, propertyFilter, "cmis:lastModificationDate DESC",
+                LATEST_DOCUMENTS_PAGE_SIZE);
+        Map<String, Document> latestByPackageId = new HashMap<>();
+        Iterator<Document> documents = getSearchStrategy().findDocumentsInFolders(packageIds, primaryType, categories, context).iterator();
+        while (latestByPackageId.size() < packageIds.size() && documents.hasNext()) {
+            Document document = documents.next();
+            String packageId = findParentFolderId(document.getId());
+            if (packageIds.contains(packageId)) {
+                latestByPackageId.putIfAbsent(packageId, document);
+            }
+        }
+
+        Map<String, Document> latestByDocumentId = new LinkedHashMap<>();
+        packageIdByDocumentId.forEach((documentId, packageId) -> {
+            Document document = latestByPackageId.get(packageId);
+            if (document != null) {
+                latestByDocumentId.put(documentId, document);
+            }
+        });
+        logger.trace("Found " + latestByDocumentId.size() + " CMIS document(s) in " + packageIds.size() + " package(s).");
+        return latestByDocumentId;
+    }
+
     List<Document> findDocumentsByStatus(LeosLegStatus status, String primaryType) {
         OperationContext context = getMinimalContext(cmisSession);
         return getSearchStrategy().findDocumentsByStatus(status, primaryType, context);
@@ -260,18 +359,24 @@ public class CmisRepository {
     List<Document> findAllVersions(final String id) {
         logger.trace("Finding all document versions... [id=" + id + ']');
         OperationContext context = getMinimalContext(cmisSession);
-        Document document = findDocumentById(id, false, context);
+        Document document = findCachedDocumentById(id, false, context);
         final List<Document> versions = document.getAllVersions();
         logger.trace("Found " + versions.size() + " CMIS version(s).");
         return versions;
     }
 
+    // reads the repository, to be used before a write
     private Document findDocumentById(String id, boolean latest, OperationContext context) {
-        CmisObject cmisObject = latest ? cmisSession.getLatestDocumentVersion(id, context) : cmisSession.getObject(id, context);
+        CmisObject cmisObject = LeosMetrics.time(CMIS_CALL, () -> latest ? cmisSession.getLatestDocumentVersion(id, context) : cmisSession.getObject(id, context),
+                OPERATION, "getObject");
         require(cmisObject instanceof Document, "CMIS object referenced by id [" + id + "] is not a Document!");
         return (Document) cmisObject;
     }
 
+    private Document findCachedDocumentById(String id, boolean latest, OperationContext context) {
+        return cmisObjectCache.get(latest ? latestVersionKey(id) : idKey(id), () -> findDocumentById(id, latest, context));
+    }
+
     private List<Document> findDocumentsForUser(final String userId, String primaryType, String leosAuthority) {
         OperationContext context = OperationContextProvider.getOperationContext(cmisSession, "cmis:lastModificationDate DESC");
         final List<Document> documents = getSearchStrategy().findDocumentsForUser(userId, primaryType, leosAuthority, context);
@@ -279,18 +384,41 @@ public class CmisRepository {
         return documents;
     }
 
+    // asks only for the ids of the parents, without loading the document and folder objects
+    private String findParentFolderId(String documentId) {
+        String parentId = parentFolderIds.getIfPresent(documentId);
+        if (parentId == null) {
+            List<ObjectParentData> parents = LeosMetrics.time(CMIS_CALL, () -> cmisSession.getBinding().getNavigationService().getObjectParents(
+                    cmisSession.getRepositoryInfo().getId(), documentId, PropertyIds.OBJECT_ID, false, IncludeRelationships.NONE, "cmis:none", false, null),
+                    OPERATION, "getObjectParents");
+            parentId = parents.isEmpty() ? null : parents.get(0).getObject().getId();
+            if (parentId != null) {
+                parentFolderIds.put(documentId, parentId);
+            }
+        }
+        return parentId;
+    }
+
     private Folder findFolderByPath(String path, OperationContext context) {
-        boolean pathAvailable = cmisSession.existsPath(path);
-        require(pathAvailable, "Path [" + path + "] is not available in CMIS repository!");
-        CmisObject cmisObject = cmisSession.getObjectByPath(path, context);
+        CmisObject cmisObject = cmisObjectCache.get(pathKey(path), () -> {
+            try {
+                return LeosMetrics.time(CMIS_CALL, () -> cmisSession.getObjectByPath(path, context), OPERATION, "getObjectByPath");
+            } catch (CmisObjectNotFoundException e) {
+                throw new IllegalArgumentException("Path [" + path + "] is not available in CMIS repository!", e);
+            }
+        });
         require(cmisObject instanceof Folder, "CMIS object referenced by path [" + path + "] is not a Folder!");
         return (Folder) cmisObject;
     }
 
     private Folder findFolderById(String id, OperationContext context) {
-        boolean idAvailable = cmisSession.exists(id);
-        require(idAvailable, "Id [" + id + "] is not available in CMIS repository!");
-        CmisObject cmisObject = cmisSession.getObject(id, context);
+        CmisObject cmisObject = cmisObjectCache.get(idKey(id), () -> {
+            try {
+                return LeosMetrics.time(CMIS_CALL, () -> cmisSession.getObject(id, context), OPERATION, "getObject");
+            } catch (CmisObjectNotFoundException e) {
+                throw new IllegalArgumentException("Id [" + id + "] is not available in CMIS repository!", e);
+            }
+        });
         require(cmisObject instanceof Folder, "CMIS object referenced by id [" + id + "] is not a Folder!");
         return (Folder) cmisObject;
     }
@@ -400,7 +528,8 @@ public class CmisRepository {
     
     public Document findLatestMajorVersionById(String id) {
         OperationContext context = getMinimalContext(cmisSession);
-        CmisObject cmisObject = cmisSession.getLatestDocumentVersion(id, true, context);
+        CmisObject cmisObject = cmisObjectCache.get(latestMajorVersionKey(id), 
+                () -> LeosMetrics.time(CMIS_CALL, () -> cmisSession.getLatestDocumentVersion(id, true, context), OPERATION, "getObject"));
         require(cmisObject instanceof Document, "CMIS object referenced by id [" + id + "] is not a Document!");
         return (Document) cmisObject;
     }
@@ -41,6 +41,7 @@ import org.springframework.stereotype.Repository;
 import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -301,6 +302,30 @@ public class LeosRepositoryImpl implements LeosRepository {
         return toLeosDocuments(docs, type, false);
     }
 
+    @Override
+    public <D extends LeosDocument> Stream<D> findPagedDocumentsByUserId(String userId, Class<? extends D> type, String leosAuthority, int startIndex, int maxResults) {
+        logger.trace("Finding documents page for user... [userId=" + userId + ", startIndex=" + startIndex + ", maxResults=" + maxResults + ']');
+        String primaryType = CmisMapper.cmisPrimaryType(type);
+        Stream<Document> docs = cmisRepository.findPagedDocumentsByUserId(userId, primaryType, leosAuthority, startIndex, maxResults);
+        return docs.map(doc -> CmisDocumentExtensions.toLeosDocument(doc, type, false));
+    }
+
+    @Override
+    public <D extends LeosDocument> Map<String, D> findLatestDocumentsInPackagesOf(List<String> documentIds, Class<? extends D> type) {
+        logger.trace("Finding latest documents in packages... [documents=" + documentIds.size() + ", type=" + type.getSimpleName() + ']');
+
+        long startTimeNanos = System.nanoTime();
+        String primaryType = CmisMapper.cmisPrimaryType(type);
+        Set<LeosCategory> categories = CmisMapper.cmisCategories(type);
+        Map<String, Document> docs = cmisRepository.findLatestDocumentsInPackagesOf(documentIds, primaryType, categories);
+        long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeNanos);
+        logger.trace("CMIS Repository document search took " + time + " milliseconds.");
+
+        Map<String, D> leosDocuments = new LinkedHashMap<>();
+        docs.forEach((documentId, doc) -> leosDocuments.put(documentId, CmisDocumentExtensions.toLeosDocument(doc, type, false)));
+        return leosDocuments;
+    }
+
     @Override
     public <D extends LeosDocument> D findDocumentByParentPath(String path, String name, Class<? extends D> type) {
         logger.trace("Finding document by parent path... [path=" + path + ", name=" + name + ']');
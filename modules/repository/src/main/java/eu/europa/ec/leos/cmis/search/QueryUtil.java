@@ -24,6 +24,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -87,6 +88,10 @@ class QueryUtil {
     }
 
     static String getQuery(Folder folder, Set<LeosCategory> categories, boolean descendants, QueryFilter workspaceFilter) {
+        return getQuery(folder.getId(), categories, descendants, workspaceFilter);
+    }
+
+    static String getQuery(String folderId, Set<LeosCategory> categories, boolean descendants, QueryFilter workspaceFilter) {
         String categoryStr = categories.stream()
                 .map(a -> "'" + a.name()+"'")
                 .collect(Collectors.joining(","));
@@ -95,7 +100,7 @@ class QueryUtil {
                 String.format("leos:category IN (%s) AND %s('%s')",
                         categoryStr,
                         descendants? "IN_TREE": "IN_FOLDER",
-                        folder.getId()));
+                        folderId));
 
         String filterClause = QueryUtil.formFilterClause(workspaceFilter);
         if(!filterClause.isEmpty()){
@@ -104,6 +109,21 @@ class QueryUtil {
         return whereClause.toString();
     }
     
+    static String getQuery(Collection<String> folderIds, Set<LeosCategory> categories) {
+        String categoryStr = categories.stream()
+                .map(a -> "'" + a.name()+"'")
+                .collect(Collectors.joining(","));
+        String folderStr = folderIds.stream()
+                .map(folderId -> "IN_FOLDER('" + folderId + "')")
+                .collect(Collectors.joining(" OR "));
+        return String.format("leos:category IN (%s) AND (%s)", categoryStr, folderStr);
+    }
+
+    static String getUserQuery(String userId, String leosAuthority) {
+        return CmisProperties.DOCUMENT_CATEGORY.getId() + " IN ('PROPOSAL') AND ANY " + CmisProperties.COLLABORATORS.getId() + " IN ('" + userId +
+                "::" + leosAuthority + "')";
+    }
+
     static String getMajorVersionQueryString(String docRef) {
        StringBuilder queryBuilder =  new StringBuilder(CmisProperties.METADATA_REF.getId()).append(" = '").append(docRef)
                .append("' ")
@@ -20,6 +20,7 @@ import org.apache.chemistry.opencmis.client.api.Document;
 import org.apache.chemistry.opencmis.client.api.Folder;
 import org.apache.chemistry.opencmis.client.api.OperationContext;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
@@ -29,6 +30,10 @@ public interface SearchStrategy {
 
     List<Document> findDocumentsForUser(String userId, String primaryType, String leosAuthority, OperationContext context);
 
+    Stream<Document> findDocumentPageForUser(String userId, String primaryType, String leosAuthority, OperationContext context, int startIndex);
+
+    Stream<Document> findDocumentsInFolders(Collection<String> folderIds, String primaryType, Set<LeosCategory> categories, OperationContext context);
+
     List<Document> findDocumentsByStatus(LeosLegStatus status, String primaryType, OperationContext context);
 
     Stream<Document> findDocumentPage(Folder folder, String primaryType, Set<LeosCategory> categories, boolean descendants, boolean allVersion, OperationContext context, int startIndex, QueryFilter workspaceFilter);
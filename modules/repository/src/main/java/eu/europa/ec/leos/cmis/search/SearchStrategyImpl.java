@@ -27,6 +27,7 @@ import org.apache.chemistry.opencmis.client.api.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -46,14 +47,31 @@ abstract public class SearchStrategyImpl implements SearchStrategy {
     @Override
     public List<Document> findDocumentsForUser(String userId, String primaryType, String leosAuthority, OperationContext context) {
         logger.trace("Finding documents...");
-        String whereClause = CmisProperties.DOCUMENT_CATEGORY.getId() + " IN ('PROPOSAL') AND ANY " + CmisProperties.COLLABORATORS.getId() + " IN ('" + userId +
-                "::" + leosAuthority + "')";
+        String whereClause = QueryUtil.getUserQuery(userId, leosAuthority);
         logger.trace("Ordering by ....." + context.getOrderBy());
         ItemIterable<CmisObject> cmisObjects = cmisSession.queryObjects(primaryType, whereClause, false, context);
         return StreamSupport.stream(cmisObjects.spliterator(), false)
                 .map(cmisObject -> (Document) cmisObject)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public Stream<Document> findDocumentPageForUser(String userId, String primaryType, String leosAuthority, OperationContext context, int startIndex) {
+        String whereClause = QueryUtil.getUserQuery(userId, leosAuthority);
+        ItemIterable<CmisObject> cmisObjects = cmisSession.queryObjects(primaryType, whereClause, false, context);
+        cmisObjects = cmisObjects.skipTo(startIndex).getPage(context.getMaxItemsPerPage());
+        return StreamSupport.stream(cmisObjects.spliterator(), false)
+                .map(cmisObject -> (Document) cmisObject);
+    }
+
+    @Override
+    public Stream<Document> findDocumentsInFolders(Collection<String> folderIds, String primaryType, Set<LeosCategory> categories, OperationContext context) {
+        String whereClause = QueryUtil.getQuery(folderIds, categories);
+        logger.debug("Querying CMIS objects of several folders... [primaryType={}, where={}, orderBy={}]", primaryType, whereClause, context.getOrderBy());
+        ItemIterable<CmisObject> cmisObjects = cmisSession.queryObjects(primaryType, whereClause, false, context);
+        return StreamSupport.stream(cmisObjects.spliterator(), false)
+                .map(cmisObject -> (Document) cmisObject);
+    }
     
     @Override
     public List<Document> findDocumentsByStatus(LeosLegStatus status, String primaryType, OperationContext context) {
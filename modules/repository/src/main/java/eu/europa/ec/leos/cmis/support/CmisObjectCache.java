@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.cmis.support;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import eu.europa.ec.leos.metrics.LeosMetrics;
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Client side cache of the CMIS objects, replacing the OpenCMIS session cache that is disabled (LEOS-2398).
+ * Objects are kept for the current request, when there is one, and in a short-lived cache shared by all the requests.
+ * The shared cache is bounded in size and holds its objects through soft references, so that they are released under memory pressure.
+ * Writes must invalidate the version series they modify: an object loaded while an invalidation happened is not cached.
+ */
+@Component
+public class CmisObjectCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CmisObjectCache.class);
+
+    private static final String REQUEST_CACHE_ATTRIBUTE = CmisObjectCache.class.getName() + ".REQUEST_CACHE";
+
+    private final Cache<String, CmisObject> sharedCache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public CmisObjectCache(@Value("${leos.cmis.cache.size:2000}") long maximumSize,
+                           @Value("${leos.cmis.cache.ttl:30}") long timeToLiveSeconds) {
+        sharedCache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLiveSeconds, TimeUnit.SECONDS)
+                .softValues()
+                .recordStats()
+                .build();
+        LeosMetrics.monitor(sharedCache, "cmis.objects");
+    }
+
+    public static String idKey(String id) {
+        return "id:" + id;
+    }
+
+    public static String latestVersionKey(String id) {
+        return "latest:" + id;
+    }
+
+    public static String latestMajorVersionKey(String id) {
+        return "major:" + id;
+    }
+
+    public static String pathKey(String path) {
+        return "path:" + path;
+    }
+
+    /**
+     * Returns the cached object, or loads it and caches it when no invalidation happened during the load.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends CmisObject> T get(String key, Supplier<T> loader) {
+        Map<String, CmisObject> requestCache = getRequestCache();
+        CmisObject cmisObject = requestCache != null ? requestCache.get(key) : null;
+        if (cmisObject == null) {
+            cmisObject = sharedCache.getIfPresent(key);
+            if (cmisObject == null) {
+                long invalidationsBeforeLoad = invalidations.get();
+                cmisObject = loader.get();
+                if (cmisObject != null && invalidationsBeforeLoad == invalidations.get()) {
+                    sharedCache.put(key, cmisObject);
+                }
+            }
+            if (cmisObject != null && requestCache != null) {
+                requestCache.put(key, cmisObject);
+            }
+        }
+        return (T) cmisObject;
+    }
+
+    /**
+     * Caches an object just written, so that the following reads of the request do not fetch it again.
+     */
+    public void put(String key, CmisObject cmisObject) {
+        Map<String, CmisObject> requestCache = getRequestCache();
+        if (requestCache != null) {
+            requestCache.put(key, cmisObject);
+        }
+        sharedCache.put(key, cmisObject);
+    }
+
+    /**
+     * Removes all the cached versions of a document, after a check-in, an update or a delete of one of them.
+     */
+    public void invalidateVersionSeries(String versionSeriesId) {
+        invalidations.incrementAndGet();
+        LOG.trace("Invalidating cached objects of version series {}", versionSeriesId);
+        removeIf(sharedCache.asMap(), versionSeriesId);
+        Map<String, CmisObject> requestCache = getRequestCache();
+        if (requestCache != null) {
+            removeIf(requestCache, versionSeriesId);
+        }
+    }
+
+    /**
+     * Removes all the cached objects, after a change that can affect many of them like the deletion of a folder.
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        LOG.trace("Invalidating all cached objects");
+        sharedCache.invalidateAll();
+        Map<String, CmisObject> requestCache = getRequestCache();
+        if (requestCache != null) {
+            requestCache.clear();
+        }
+    }
+
+    private void removeIf(Map<String, CmisObject> cache, String versionSeriesId) {
+        cache.values().removeIf(cmisObject -> cmisObject instanceof Document
+                && Objects.equals(((Document) cmisObject).getVersionSeriesId(), versionSeriesId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, CmisObject> getRequestCache() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return null;
+        }
+        Map<String, CmisObject> requestCache = (Map<String, CmisObject>) requestAttributes.getAttribute(REQUEST_CACHE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (requestCache == null) {
+            ConcurrentMap<String, CmisObject> newRequestCache = new ConcurrentHashMap<>();
+            requestAttributes.setAttribute(REQUEST_CACHE_ATTRIBUTE, newRequestCache, RequestAttributes.SCOPE_REQUEST);
+            requestCache = newRequestCache;
+        }
+        return requestCache;
+    }
+}
@@ -18,6 +18,8 @@ import org.apache.chemistry.opencmis.client.api.Session;
 import org.apache.chemistry.opencmis.commons.enums.IncludeRelationships;
 import org.apache.commons.lang3.Validate;
 
+import java.util.Set;
+
 public class OperationContextProvider {
 
     public static final int MAX_ITEMS_PER_PAGE = 40;
@@ -35,12 +37,16 @@ public class OperationContextProvider {
     }
 
     public static OperationContext getOperationContext(Session session, String orderBy, int maxItemPerPage) {
+        return getOperationContext(session, null, orderBy, maxItemPerPage);
+    }
+
+    public static OperationContext getOperationContext(Session session, Set<String> propertyFilter, String orderBy, int maxItemPerPage) {
         // create the context
         OperationContext context = session.createOperationContext();
         Validate.notNull(context, "The operation context must not be null!");
 
-        // configure the context
-        context.setFilter(null);
+        // configure the context, a null filter fetches all the properties
+        context.setFilter(propertyFilter);
         context.setOrderBy(orderBy);
         context.setIncludeAcls(false);
         context.setIncludeAllowableActions(false);
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.metrics;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.cache.Cache;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Records the timings of the LEOS operations in the global Micrometer registry.
+ * Nothing is kept until a registry is added to the global one, which is done by the metrics service of the application,
+ * so the operations can be timed from any module, also when they run in unit tests.
+ * A sample of the timings can also be logged, without enabling the trace level of the timed classes.
+ */
+public final class LeosMetrics {
+
+    private static final Logger TRACE_LOG = LoggerFactory.getLogger("eu.europa.ec.leos.metrics.trace");
+
+    public static final String PREFIX = "leos.";
+
+    private static volatile double traceSamplingRate;
+
+    private LeosMetrics() {
+    }
+
+    /**
+     * @param name the operation name, without the "leos." prefix
+     * @param tags key/value pairs
+     */
+    public static <T> T time(String name, Supplier<T> operation, String... tags) {
+        long start = System.nanoTime();
+        try {
+            return operation.get();
+        } finally {
+            record(name, System.nanoTime() - start, tags);
+        }
+    }
+
+    public static void time(String name, Runnable operation, String... tags) {
+        long start = System.nanoTime();
+        try {
+            operation.run();
+        } finally {
+            record(name, System.nanoTime() - start, tags);
+        }
+    }
+
+    /**
+     * Records the time elapsed on a stopwatch started at the beginning of the operation.
+     */
+    public static void record(String name, Stopwatch stopwatch, String... tags) {
+        record(name, stopwatch.elapsed(NANOSECONDS), tags);
+    }
+
+    public static void record(String name, long durationNanos, String... tags) {
+        Metrics.timer(PREFIX + name, tags).record(durationNanos, NANOSECONDS);
+        double samplingRate = traceSamplingRate;
+        if (samplingRate > 0 && ThreadLocalRandom.current().nextDouble() < samplingRate) {
+            TRACE_LOG.info("{}{} took {} ms", name, tags.length > 0 ? Arrays.toString(tags) : "", NANOSECONDS.toMillis(durationNanos));
+        }
+    }
+
+    /**
+     * Publishes the hit ratio, size and evictions of a cache built with stats recording.
+     */
+    public static <C extends Cache<?, ?>> C monitor(C cache, String cacheName) {
+        GuavaCacheMetrics.monitor(Metrics.globalRegistry, cache, PREFIX + cacheName);
+        return cache;
+    }
+
+    /**
+     * Publishes the queue depth, pool size and task timings of an executor.
+     * @return the executor to use, timing the tasks it runs
+     */
+    public static ExecutorService monitor(ExecutorService executorService, String executorName) {
+        return ExecutorServiceMetrics.monitor(Metrics.globalRegistry, executorService, PREFIX + executorName, Collections.emptyList());
+    }
+
+    /**
+     * @param rate the ratio of the recorded timings that are also logged, 0 to log none
+     */
+    public static void setTraceSamplingRate(double rate) {
+        traceSamplingRate = rate;
+    }
+}
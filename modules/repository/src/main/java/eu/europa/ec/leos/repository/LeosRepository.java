@@ -238,6 +238,26 @@ public interface LeosRepository {
      */
     <D extends LeosDocument> List<D> findDocumentsByUserId(String userId, Class<? extends D> type, String leosAuthority);
 
+    /**
+     * Finds a page of the documents of a user, without their content.
+     *
+     * @param userId     the ID of the User.
+     * @param type       the type class of the document.
+     * @param startIndex the index of the first document of the page.
+     * @param maxResults the maximum number of documents of the page.
+     * @return the found documents.
+     */
+    <D extends LeosDocument> Stream<D> findPagedDocumentsByUserId(String userId, Class<? extends D> type, String leosAuthority, int startIndex, int maxResults);
+
+    /**
+     * Finds the most recent document of the given type in the package of each given document, without its content.
+     *
+     * @param documentIds the IDs of documents, each one inside a package.
+     * @param type        the type class of the documents to find.
+     * @return the found documents by ID of the given document, documents of packages without any match are left out.
+     */
+    <D extends LeosDocument> Map<String, D> findLatestDocumentsInPackagesOf(List<String> documentIds, Class<? extends D> type);
+
     <D extends LeosDocument> Stream<D> findPagedDocumentsByParentPath(String path, Class<? extends D> type, boolean descendants, boolean fetchContent,
                                                                       int startIndex, int maxResults, QueryFilter workspaceFilter);
 
@@ -20,6 +20,8 @@ import eu.europa.ec.leos.domain.cmis.document.LegDocument;
 import eu.europa.ec.leos.domain.cmis.document.LeosDocument;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * LEOS Package Repository interface.
@@ -141,6 +143,25 @@ public interface PackageRepository {
      */
     <D extends LeosDocument> List<D> findDocumentsByUserId(String userId, Class<? extends D> type, String leosAuthority);
 
+    /**
+     * Finds a page of documents with the specified characteristics, without their content.
+     *
+     * @param userId     the userId of the user
+     * @param startIndex the index of the first document of the page.
+     * @param maxResults the maximum number of documents of the page.
+     * @return the found documents.
+     */
+    <D extends LeosDocument> Stream<D> findPagedDocumentsByUserId(String userId, Class<? extends D> type, String leosAuthority, int startIndex, int maxResults);
+
+    /**
+     * Finds the most recent document of the given type in the package of each given document, without its content.
+     *
+     * @param documentIds the IDs of documents, each one inside a package.
+     * @param type        the type class of the documents to find.
+     * @return the found documents by ID of the given document, documents of packages without any match are left out.
+     */
+    <D extends LeosDocument> Map<String, D> findLatestDocumentsInPackagesOf(List<String> documentIds, Class<? extends D> type);
+
     /**
      * Finds leg documents with the specified status.
      *
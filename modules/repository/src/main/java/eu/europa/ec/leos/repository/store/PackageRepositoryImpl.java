@@ -26,6 +26,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -131,6 +132,18 @@ public class PackageRepositoryImpl implements PackageRepository {
         return leosRepository.findDocumentsByUserId(userId, type, leosAuthority);
     }
 
+    @Override
+    public <D extends LeosDocument> Stream<D> findPagedDocumentsByUserId(String userId, Class<? extends D> type, String leosAuthority, int startIndex, int maxResults) {
+        logger.debug("Finding documents page by user... userId=" + userId + ", startIndex=" + startIndex + ", maxResults=" + maxResults);
+        return leosRepository.findPagedDocumentsByUserId(userId, type, leosAuthority, startIndex, maxResults);
+    }
+
+    @Override
+    public <D extends LeosDocument> Map<String, D> findLatestDocumentsInPackagesOf(List<String> documentIds, Class<? extends D> type) {
+        logger.debug("Finding latest documents in packages... [documents=" + documentIds.size() + ", type=" + type.getSimpleName() + "]");
+        return leosRepository.findLatestDocumentsInPackagesOf(documentIds, type);
+    }
+
     @Override
     public <D extends LeosDocument> List<D> findDocumentsByStatus(LeosLegStatus status, Class<? extends D> type) {
         logger.debug("Finding documents by status... status=" + status);
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.cmis.repository;
+
+import eu.europa.ec.leos.cmis.search.SearchStrategy;
+import eu.europa.ec.leos.cmis.support.CmisObjectCache;
+import eu.europa.ec.leos.domain.cmis.LeosCategory;
+import org.apache.chemistry.opencmis.client.api.Document;
+import org.apache.chemistry.opencmis.client.api.OperationContext;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.runtime.OperationContextImpl;
+import org.apache.chemistry.opencmis.commons.data.ObjectParentData;
+import org.apache.chemistry.opencmis.commons.spi.NavigationService;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+public class CmisRepositoryTest {
+
+    private static final String REPOSITORY_ID = "REPOSITORY_ID";
+    private static final String LEG_PRIMARY_TYPE = "leos:leg";
+
+    private final Session cmisSession = mock(Session.class, RETURNS_DEEP_STUBS);
+    private final NavigationService navigationService = mock(NavigationService.class);
+    private final SearchStrategy searchStrategy = mock(SearchStrategy.class);
+
+    private CmisRepository cmisRepository;
+
+    @Before
+    public void setup() {
+        when(cmisSession.getBinding().getNavigationService()).thenReturn(navigationService);
+        when(cmisSession.getRepositoryInfo().getId()).thenReturn(REPOSITORY_ID);
+        when(cmisSession.createOperationContext()).thenAnswer(invocation -> new OperationContextImpl());
+        cmisRepository = new CmisRepository(cmisSession, new CmisObjectCache(100, 60)) {
+            @Override
+            SearchStrategy getSearchStrategy() {
+                return searchStrategy;
+            }
+        };
+    }
+
+    @Test
+    public void test_findLatestDocumentsInPackagesOf_queriesAllPackagesAtOnce() {
+        //setup
+        mockParent("PROPOSAL_1", "PACKAGE_1");
+        mockParent("PROPOSAL_2", "PACKAGE_1");
+        mockParent("PROPOSAL_3", "PACKAGE_2");
+        mockParent("PROPOSAL_4", "PACKAGE_3");
+        mockParent("PROPOSAL_5", null);
+        Document leg1 = mockDocument("LEG_1", "PACKAGE_1");
+        Document leg2 = mockDocument("LEG_2", "PACKAGE_2");
+        Document olderLeg1 = mockDocument("LEG_3", "PACKAGE_1");
+        Set<LeosCategory> categories = Collections.singleton(LeosCategory.LEG);
+        when(searchStrategy.findDocumentsInFolders(anyCollection(), eq(LEG_PRIMARY_TYPE), eq(categories), any(OperationContext.class)))
+                .thenAnswer(invocation -> Stream.of(leg1, olderLeg1, leg2));
+
+        //make call
+        Map<String, Document> result = cmisRepository.findLatestDocumentsInPackagesOf(
+                Arrays.asList("PROPOSAL_1", "PROPOSAL_2", "PROPOSAL_3", "PROPOSAL_4", "PROPOSAL_5"), LEG_PRIMARY_TYPE, categories);
+
+        //verify
+        assertThat(result.keySet(), contains("PROPOSAL_1", "PROPOSAL_2", "PROPOSAL_3"));
+        assertThat(result.get("PROPOSAL_1"), is(sameInstance(leg1)));
+        assertThat(result.get("PROPOSAL_2"), is(sameInstance(leg1)));
+        assertThat(result.get("PROPOSAL_3"), is(sameInstance(leg2)));
+        ArgumentCaptor<Collection<String>> packageIds = ArgumentCaptor.forClass(Collection.class);
+        verify(searchStrategy, times(1)).findDocumentsInFolders(packageIds.capture(), anyString(), any(), any(OperationContext.class));
+        assertThat(packageIds.getValue(), contains("PACKAGE_1", "PACKAGE_2", "PACKAGE_3"));
+    }
+
+    @Test
+    public void test_findLatestDocumentsInPackagesOf_navigatesEachDocumentOnce() {
+        //setup
+        mockParent("PROPOSAL_1", "PACKAGE_1");
+        mockParent("PROPOSAL_2", "PACKAGE_2");
+        Document leg1 = mockDocument("LEG_1", "PACKAGE_1");
+        Set<LeosCategory> categories = Collections.singleton(LeosCategory.LEG);
+        when(searchStrategy.findDocumentsInFolders(anyCollection(), anyString(), any(), any(OperationContext.class)))
+                .thenAnswer(invocation -> Stream.of(leg1));
+
+        //make call
+        cmisRepository.findLatestDocumentsInPackagesOf(Arrays.asList("PROPOSAL_1", "PROPOSAL_2"), LEG_PRIMARY_TYPE, categories);
+        Map<String, Document> result = cmisRepository.findLatestDocumentsInPackagesOf(Arrays.asList("PROPOSAL_1", "PROPOSAL_2"), LEG_PRIMARY_TYPE, categories);
+
+        //verify
+        assertThat(result.keySet(), contains("PROPOSAL_1"));
+        verify(navigationService, times(1)).getObjectParents(anyString(), eq("PROPOSAL_1"), anyString(), anyBoolean(), any(), anyString(), anyBoolean(), isNull());
+        verify(navigationService, times(1)).getObjectParents(anyString(), eq("PROPOSAL_2"), anyString(), anyBoolean(), any(), anyString(), anyBoolean(), isNull());
+        verify(navigationService, times(1)).getObjectParents(anyString(), eq("LEG_1"), anyString(), anyBoolean(), any(), anyString(), anyBoolean(), isNull());
+        verify(searchStrategy, times(2)).findDocumentsInFolders(anyCollection(), anyString(), any(), any(OperationContext.class));
+    }
+
+    @Test
+    public void test_findLatestDocumentsInPackagesOf_withoutPackages_shouldNotQuery() {
+        //setup
+        mockParent("PROPOSAL_1", null);
+
+        //make call
+        Map<String, Document> result = cmisRepository.findLatestDocumentsInPackagesOf(Collections.singletonList("PROPOSAL_1"), LEG_PRIMARY_TYPE,
+                Collections.singleton(LeosCategory.LEG));
+
+        //verify
+        assertThat(result.isEmpty(), is(true));
+        verify(searchStrategy, never()).findDocumentsInFolders(anyCollection(), anyString(), any(), any(OperationContext.class));
+    }
+
+    @Test
+    public void test_findLatestDocumentsInPackagesOf_fetchesOnlyLegProperties() {
+        //setup
+        mockParent("PROPOSAL_1", "PACKAGE_1");
+        Set<LeosCategory> categories = Collections.singleton(LeosCategory.LEG);
+        when(searchStrategy.findDocumentsInFolders(anyCollection(), anyString(), any(), any(OperationContext.class))).thenAnswer(invocation -> Stream.empty());
+
+        //make call
+        cmisRepository.findLatestDocumentsInPackagesOf(Collections.singletonList("PROPOSAL_1"), LEG_PRIMARY_TYPE, categories);
+
+        //verify
+        ArgumentCaptor<OperationContext> context = ArgumentCaptor.forClass(OperationContext.class);
+        verify(searchStrategy).findDocumentsInFolders(eq(Collections.singleton("PACKAGE_1")), eq(LEG_PRIMARY_TYPE), eq(categories), context.capture());
+        assertThat(context.getValue().getFilter(), containsInAnyOrder(CmisRepository.LEG_DOCUMENT_PROPERTIES.toArray()));
+        assertThat(context.getValue().getOrderBy(), is("cmis:lastModificationDate DESC"));
+    }
+
+    @Test
+    public void test_findLatestDocumentsInPackagesOf_fetchesAllPropertiesForOtherCategories() {
+        //setup
+        mockParent("PROPOSAL_1", "PACKAGE_1");
+        Set<LeosCategory> categories = Collections.singleton(LeosCategory.PROPOSAL);
+        when(searchStrategy.findDocumentsInFolders(anyCollection(), anyString(), any(), any(OperationContext.class))).thenAnswer(invocation -> Stream.empty());
+
+        //make call
+        cmisRepository.findLatestDocumentsInPackagesOf(Collections.singletonList("PROPOSAL_1"), "leos:xml", categories);
+
+        //verify
+        ArgumentCaptor<OperationContext> context = ArgumentCaptor.forClass(OperationContext.class);
+        verify(searchStrategy).findDocumentsInFolders(eq(Collections.singleton("PACKAGE_1")), eq("leos:xml"), eq(categories), context.capture());
+        assertThat(context.getValue().getFilterString(), is(nullValue()));
+    }
+
+    private Document mockDocument(String documentId, String parentId) {
+        Document document = mock(Document.class);
+        when(document.getId()).thenReturn(documentId);
+        mockParent(documentId, parentId);
+        return document;
+    }
+
+    private void mockParent(String documentId, String parentId) {
+        ObjectParentData parent = mock(ObjectParentData.class, RETURNS_DEEP_STUBS);
+        when(parent.getObject().getId()).thenReturn(parentId);
+        when(navigationService.getObjectParents(eq(REPOSITORY_ID), eq(documentId), anyString(), anyBoolean(), any(), anyString(), anyBoolean(), isNull()))
+                .thenReturn(parentId != null ? Collections.singletonList(parent) : Collections.emptyList());
+    }
+}
@@ -13,6 +13,7 @@
  */
 package eu.europa.ec.leos.cmis.search;
 
+import eu.europa.ec.leos.domain.cmis.LeosCategory;
 import eu.europa.ec.leos.domain.cmis.common.VersionType;
 import eu.europa.ec.leos.model.filter.QueryFilter;
 import eu.europa.ec.leos.model.filter.QueryFilter.Filter;
@@ -20,6 +21,9 @@ import eu.europa.ec.leos.model.filter.QueryFilter.FilterType;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 public class QueryUtilTest {
 
     @Test
@@ -60,6 +64,12 @@ public class QueryUtilTest {
         Assert.assertEquals(expected, QueryUtil.formFilterClause(filter));
     }
 
+    @Test
+    public void createQueryForSeveralFoldersTest() {
+        String expected = "leos:category IN ('LEG') AND (IN_FOLDER('PACKAGE_1') OR IN_FOLDER('PACKAGE_2'))";
+        Assert.assertEquals(expected, QueryUtil.getQuery(Arrays.asList("PACKAGE_1", "PACKAGE_2"), Collections.singleton(LeosCategory.LEG)));
+    }
+
     @Test
     public void createQueryWithThreeConditionsTest() {
         String expected = "metadata:docType = 'REGULATION' AND leos:language IN ('FR', 'NL', 'EN') AND leos:category = 'PROPOSAL'";
@@ -74,6 +84,18 @@ public class QueryUtilTest {
         Assert.assertEquals(expected, QueryUtil.formFilterClause(createFilter));
     }
 
+    @Test
+    public void createFolderQueryTest() {
+        String expected = "leos:category IN ('LEG') AND IN_FOLDER('folderId')";
+        Assert.assertEquals(expected, QueryUtil.getQuery("folderId", Collections.singleton(LeosCategory.LEG), false, new QueryFilter()));
+    }
+
+    @Test
+    public void createUserQueryTest() {
+        String expected = "leos:category IN ('PROPOSAL') AND ANY leos:collaborators IN ('jane::OWNER')";
+        Assert.assertEquals(expected, QueryUtil.getUserQuery("jane", "OWNER"));
+    }
+
     private QueryFilter createMultiFilter() {
         QueryFilter filter = new QueryFilter();
         Filter f1 = new QueryFilter.Filter("docType", "=", false, "REGULATION");
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.cmis.support;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Document;
+import org.apache.chemistry.opencmis.client.api.Folder;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static eu.europa.ec.leos.cmis.support.CmisObjectCache.idKey;
+import static eu.europa.ec.leos.cmis.support.CmisObjectCache.latestVersionKey;
+import static eu.europa.ec.leos.cmis.support.CmisObjectCache.pathKey;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CmisObjectCacheTest {
+
+    private static final String DOCUMENT_ID = "DOCUMENT_ID";
+    private static final String VERSION_SERIES_ID = "VERSION_SERIES_ID";
+    private static final String FOLDER_PATH = "/leos/workspaces";
+
+    private final CmisObjectCache cmisObjectCache = new CmisObjectCache(100, 60);
+
+    @Test
+    public void test_get_loadsOnlyOnce() {
+        //setup
+        Document document = mockDocument(DOCUMENT_ID, VERSION_SERIES_ID);
+        AtomicInteger loads = new AtomicInteger();
+
+        //make call
+        Document first = cmisObjectCache.get(idKey(DOCUMENT_ID), () -> load(document, loads));
+        Document second = cmisObjectCache.get(idKey(DOCUMENT_ID), () -> load(document, loads));
+
+        //verify
+        assertThat(first, is(sameInstance(document)));
+        assertThat(second, is(sameInstance(document)));
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    public void test_invalidateVersionSeries_removesAllVersionsOfTheSeries() {
+        //setup
+        Document version = mockDocument(DOCUMENT_ID, VERSION_SERIES_ID);
+        Document latestVersion = mockDocument("LATEST_ID", VERSION_SERIES_ID);
+        Document otherDocument = mockDocument("OTHER_ID", "OTHER_SERIES_ID");
+        Folder folder = mock(Folder.class);
+        cmisObjectCache.put(idKey(DOCUMENT_ID), version);
+        cmisObjectCache.put(latestVersionKey(DOCUMENT_ID), latestVersion);
+        cmisObjectCache.put(idKey("OTHER_ID"), otherDocument);
+        cmisObjectCache.put(pathKey(FOLDER_PATH), folder);
+        AtomicInteger loads = new AtomicInteger();
+
+        //make call
+        cmisObjectCache.invalidateVersionSeries(VERSION_SERIES_ID);
+
+        //verify
+        cmisObjectCache.get(idKey(DOCUMENT_ID), () -> load(version, loads));
+        cmisObjectCache.get(latestVersionKey(DOCUMENT_ID), () -> load(latestVersion, loads));
+        assertThat(loads.get(), is(2));
+        cmisObjectCache.get(idKey("OTHER_ID"), () -> load(otherDocument, loads));
+        cmisObjectCache.get(pathKey(FOLDER_PATH), () -> load(folder, loads));
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    public void test_get_doesNotCacheObjectLoadedDuringInvalidation() {
+        //setup
+        Document staleDocument = mockDocument(DOCUMENT_ID, VERSION_SERIES_ID);
+        Document updatedDocument = mockDocument(DOCUMENT_ID, VERSION_SERIES_ID);
+
+        //make call
+        Document loaded = cmisObjectCache.get(latestVersionKey(DOCUMENT_ID), () -> {
+            cmisObjectCache.invalidateVersionSeries(VERSION_SERIES_ID);
+            return staleDocument;
+        });
+
+        //verify
+        assertThat(loaded, is(sameInstance(staleDocument)));
+        assertThat(cmisObjectCache.get(latestVersionKey(DOCUMENT_ID), () -> updatedDocument), is(sameInstance(updatedDocument)));
+    }
+
+    @Test
+    public void test_invalidateAll() {
+        //setup
+        Folder folder = mock(Folder.class);
+        Folder recreatedFolder = mock(Folder.class);
+        cmisObjectCache.put(pathKey(FOLDER_PATH), folder);
+
+        //make call
+        cmisObjectCache.invalidateAll();
+
+        //verify
+        CmisObject cmisObject = cmisObjectCache.get(pathKey(FOLDER_PATH), () -> recreatedFolder);
+        assertThat(cmisObject, is(sameInstance(recreatedFolder)));
+    }
+
+    private static Document mockDocument(String id, String versionSeriesId) {
+        Document document = mock(Document.class);
+        when(document.getId()).thenReturn(id);
+        when(document.getVersionSeriesId()).thenReturn(versionSeriesId);
+        return document;
+    }
+
+    private static <T extends CmisObject> T load(T cmisObject, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return cmisObject;
+    }
+}
@@ -15,9 +15,33 @@ package eu.europa.ec.leos.services.Annotate;
 
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Map;
+
 @Service
 public interface AnnotateService {
 
 	String getAnnotations(String docName);
+
+	/**
+	 * Exports the annotations of several documents with a single request to the annotation server.
+	 * The annotations of each document are streamed, in the format returned by {@link #getAnnotations(String)},
+	 * into the output opened for it, which is closed once written.
+	 */
+	void exportAnnotations(Collection<String> docNames, AnnotationsOutput output);
+
+	interface AnnotationsOutput {
+		OutputStream open(String docName) throws IOException;
+	}
+
+	/**
+	 * Requests the annotation server to anchor the annotations of a document on its new content, after it was saved.
+	 * The ids of the elements whose id changed are given as old id to new id; annotations whose text is not found any more are
+	 * flagged as orphaned. Failures are only logged, as the annotations are still anchored by the clients.
+	 * Only meant for operations changing element ids: plain saves keep the element ids, so they do not call it.
+	 */
+	void reanchorAnnotations(String docName, byte[] content, Map<String, String> idMappings);
 	
 }
@@ -13,8 +13,14 @@
  */
 package eu.europa.ec.leos.services.Annotate;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +28,12 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import eu.europa.ec.leos.integration.AnnotationProvider;
 import eu.europa.ec.leos.security.SecurityContext;
 
@@ -30,6 +42,10 @@ public class AnnotateServiceImpl implements AnnotateService {
 
 	private static final Logger LOG = LoggerFactory.getLogger(AnnotateServiceImpl.class);
 
+	private static final String DOC_URI_PREFIX = "uri://LEOS/";
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
 	private final SecurityContext securityContext;
 	private final AnnotationProvider annotationProvider;
 
@@ -52,7 +68,7 @@ public class AnnotateServiceImpl implements AnnotateService {
 				.queryParam("offset", 0)
 				.queryParam("order", "asc")
 				.queryParam("sort", "created")
-				.queryParam("uri", "uri://LEOS/" + docName).build().encode().toUri();
+				.queryParam("uri", DOC_URI_PREFIX + docName).build().encode().toUri();
 
 		try {
 			return annotationProvider.searchAnnotations(uri, securityContext.getAnnotateToken(annotationHost + "/api/token"));
@@ -62,4 +78,51 @@ public class AnnotateServiceImpl implements AnnotateService {
 		}
 	}
 
+	@Override
+	public void exportAnnotations(Collection<String> docNames, AnnotationsOutput output) {
+
+		URI uri = UriComponentsBuilder.fromHttpUrl(annotationHost + "/api/export")
+				.queryParam("group", "__world__")
+				.queryParam("uri", docNames.stream().map(docName -> DOC_URI_PREFIX + docName).toArray()).build().encode().toUri();
+
+		try {
+			// the response holds one search result per document uri, each one is copied as it is read
+			annotationProvider.exportAnnotations(uri, securityContext.getAnnotateToken(annotationHost + "/api/token"), annotations -> {
+				try (JsonParser parser = JSON_FACTORY.createParser(annotations)) {
+					if (parser.nextToken() != JsonToken.START_OBJECT) {
+						throw new IOException("Unexpected annotations export content");
+					}
+					while (parser.nextToken() == JsonToken.FIELD_NAME) {
+						String docName = StringUtils.removeStart(parser.getCurrentName(), DOC_URI_PREFIX);
+						parser.nextToken();
+						try (JsonGenerator generator = JSON_FACTORY.createGenerator(output.open(docName))) {
+							generator.copyCurrentStructure(parser);
+						}
+					}
+				}
+			});
+		} catch (Exception exception) {
+			LOG.error("Error exporting annotations: ", exception);
+			throw new RuntimeException("Error Occured While Exporting Annotations");
+		}
+	}
+
+	@Override
+	public void reanchorAnnotations(String docName, byte[] content, Map<String, String> idMappings) {
+
+		URI uri = UriComponentsBuilder.fromHttpUrl(annotationHost + "/api/reanchor").build().encode().toUri();
+
+		try {
+			Map<String, Object> reanchorRequest = new LinkedHashMap<>();
+			reanchorRequest.put("uri", DOC_URI_PREFIX + docName);
+			reanchorRequest.put("content", new String(content, StandardCharsets.UTF_8));
+			reanchorRequest.put("idMappings", idMappings);
+			String result = annotationProvider.reanchorAnnotations(uri, securityContext.getAnnotateToken(annotationHost + "/api/token"),
+					JSON_MAPPER.writeValueAsString(reanchorRequest));
+			LOG.debug("Annotations of document {} re-anchored: {}", docName, result);
+		} catch (Exception exception) {
+			LOG.error("Error re-anchoring annotations of document " + docName + ": ", exception);
+		}
+	}
+
 }
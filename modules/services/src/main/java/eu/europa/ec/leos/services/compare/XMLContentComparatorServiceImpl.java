@@ -16,6 +16,7 @@ package eu.europa.ec.leos.services.compare;
 import com.google.common.base.Stopwatch;
 import com.ximpleware.NavException;
 import com.ximpleware.VTDNav;
+import eu.europa.ec.leos.metrics.LeosMetrics;
 import eu.europa.ec.leos.services.support.xml.vtd.Element;
 import eu.europa.ec.leos.services.support.xml.vtd.IntHolder;
 import org.slf4j.Logger;
@@ -95,6 +96,7 @@ public abstract class XMLContentComparatorServiceImpl implements ContentComparat
         } catch (Exception e) {
             LOG.error("Error occured in comparison: ", e);
         }
+        LeosMetrics.record("compare", stopwatch, "mode", "singleColumn");
         LOG.trace("Comparison finished!  ({} milliseconds)", stopwatch.elapsed(TimeUnit.MILLISECONDS));
         return context.getResultBuilder().toString();
     }
@@ -349,6 +351,7 @@ public abstract class XMLContentComparatorServiceImpl implements ContentComparat
         } catch (Exception e) {
             e.printStackTrace();
         }
+        LeosMetrics.record("compare", stopwatch, "mode", "twoColumns");
         LOG.trace("Comparison finished!  ({} milliseconds)", stopwatch.elapsed(TimeUnit.MILLISECONDS));
         return new String[]{context.getLeftResultBuilder().toString(), context.getRightResultBuilder().toString()};
     }
@@ -16,6 +16,7 @@ package eu.europa.ec.leos.services.content.processor;
 import com.google.common.base.Stopwatch;
 import eu.europa.ec.leos.domain.cmis.LeosCategory;
 import eu.europa.ec.leos.domain.cmis.document.XmlDocument;
+import eu.europa.ec.leos.metrics.LeosMetrics;
 import eu.europa.ec.leos.security.LeosPermission;
 import eu.europa.ec.leos.services.support.xml.freemarker.XmlNodeModelHandler;
 import freemarker.ext.dom.NodeModel;
@@ -150,6 +151,7 @@ public class TransformationServiceImpl implements TransformationService {
                  //omitted
             }
             stopwatch.stop();
+            LeosMetrics.record("render", stopwatch, "template", templateName);
             LOG.trace("Transformation finished! ({} milliseconds)", stopwatch.elapsed(TimeUnit.MILLISECONDS));
         }
     }
@@ -13,11 +13,15 @@
  */
 package eu.europa.ec.leos.services.controllers;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.eventbus.EventBus;
 import eu.europa.ec.leos.domain.cmis.LeosLegStatus;
 import eu.europa.ec.leos.domain.cmis.document.LegDocument;
 import eu.europa.ec.leos.domain.cmis.document.Proposal;
 import eu.europa.ec.leos.domain.cmis.document.XmlDocument;
+import eu.europa.ec.leos.domain.vo.LegDocumentVO;
 import eu.europa.ec.leos.model.event.MilestoneUpdatedEvent;
 import eu.europa.ec.leos.security.AuthClient;
 import eu.europa.ec.leos.security.TokenService;
@@ -26,8 +30,10 @@ import eu.europa.ec.leos.services.compare.ContentComparatorService;
 import eu.europa.ec.leos.services.content.processor.TransformationService;
 import eu.europa.ec.leos.services.export.ExportOptions;
 import eu.europa.ec.leos.services.export.ExportService;
+import eu.europa.ec.leos.services.milestone.MilestoneService;
 import eu.europa.ec.leos.services.store.LegService;
 import eu.europa.ec.leos.services.store.WorkspaceService;
+import eu.europa.ec.leos.services.validation.ValidationService;
 import eu.europa.ec.leos.vo.token.JsonTokenReponse;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -53,9 +59,13 @@ import javax.servlet.http.HttpServletResponse;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Properties;
@@ -93,11 +103,18 @@ public class LeosApiController {
     @Autowired
     private Properties applicationProperties;
 
+    @Autowired
+    private ValidationService validationService;
+
+    @Autowired
+    private MilestoneService milestoneService;
+
     private final int SINGLE_COLUMN_MODE = 1;
     private final int TWO_COLUMN_MODE = 2;
     private static final String GRANT_TYPE = "grant-type";
     private static final String BEARER_GRANT_TYPE = "jwt-bearer";
     private static final String BEARER_PARAMETER = "assertion";
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
 
     @RequestMapping(value = "/token", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
@@ -155,14 +172,39 @@ public class LeosApiController {
         }
     }
 
+    /**
+     * Writes the leg documents of the user as a JSON array, item by item, while the proposals are read page by page.
+     * Optional paging: startIndex and maxResults are applied on the proposals of the user (maxResults 0 means all).
+     */
     @RequestMapping(value = "/secured/search/{userId}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
-    @ResponseBody
-    public ResponseEntity<Object> getProposalsForUser(@PathVariable("userId") String userId) {
+    public void getProposalsForUser(@PathVariable("userId") String userId,
+                                    @RequestParam(value = "startIndex", required = false, defaultValue = "0") int startIndex,
+                                    @RequestParam(value = "maxResults", required = false, defaultValue = "0") int maxResults,
+                                    HttpServletResponse response) throws IOException {
+        Iterator<LegDocumentVO> legDocumentVOs;
         try {
-            return new ResponseEntity<>(legService.getLegDocumentDetailsByUserId(userId).toArray(), HttpStatus.OK);
+            legDocumentVOs = legService.getLegDocumentDetailsByUserId(userId, startIndex, maxResults).iterator();
+            legDocumentVOs.hasNext(); // reads the first page, so that a failure can still be reported with the right status
         } catch (Exception ex) {
             LOG.error("Exception occurred in search "+ ex.getMessage());
-            return new ResponseEntity<>("Error Occurred while getting the Leg Document for user " + userId, HttpStatus.NOT_FOUND);
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Error Occurred while getting the Leg Document for user " + userId);
+            return;
+        }
+        
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        // the status is already committed once streaming starts: a failure must leave the array unclosed and abort the response,
+        // so that the client gets a truncated (invalid) document instead of a well-formed but incomplete list
+        try (JsonGenerator generator = JSON_MAPPER.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.writeStartArray();
+            while (legDocumentVOs.hasNext()) {
+                JSON_MAPPER.writeValue(generator, legDocumentVOs.next());
+            }
+            generator.writeEndArray();
+        } catch (Exception ex) {
+            LOG.error("Exception occurred while streaming search results for user " + userId + ": " + ex.getMessage());
+            throw new IOException("Streaming of search results interrupted for user " + userId, ex);
         }
     }
 
@@ -271,6 +313,35 @@ public class LeosApiController {
         }
     }
     
+    /**
+     * Callback of the rendition service for a milestone: the renditions are stored on the bounded rendition pool of the milestone service,
+     * the callback is acknowledged once they are received.
+     */
+    @RequestMapping(value = "/secured/renditioncallback", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Object> renditionCallback(@RequestParam("documentId") String documentId, @RequestParam("jobId") String jobId,
+                                                    @RequestParam("pdfJobZip") MultipartFile pdfJobZip, @RequestParam("wordJobZip") MultipartFile wordJobZip) {
+        final byte[] pdfJobZipBytes;
+        final byte[] wordJobZipBytes;
+        try {
+            pdfJobZipBytes = pdfJobZip.getBytes();
+            wordJobZipBytes = wordJobZip.getBytes();
+        } catch (IOException ex) {
+            LOG.error("Error occurred while receiving renditions of documentId={} with jobId={}. {}", documentId, jobId, ex.getMessage(), ex);
+            return new ResponseEntity<>("Error occurred while receiving renditions for job " + jobId, HttpStatus.BAD_REQUEST);
+        }
+
+        milestoneService.updateMilestoneRenditionAsync(documentId, jobId, pdfJobZipBytes, wordJobZipBytes)
+                .whenComplete((legDocument, ex) -> {
+                    if (ex != null) {
+                        LOG.error("Rendition callback of documentId={} with jobId={} FAILED. {}", documentId, jobId, ex.getMessage(), ex);
+                    } else if (legDocument != null) {
+                        leosApplicationEventBus.post(new MilestoneUpdatedEvent(legDocument));
+                    }
+                });
+        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+    }
+
     @RequestMapping(value = "/secured/milestones/{proposalRef}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
     public ResponseEntity<Object> getLegFilesForProposal(@PathVariable("proposalRef") String proposalRef) {
@@ -291,6 +362,27 @@ public class LeosApiController {
         }
     }
     
+    /**
+     * Returns the issues found by the last asynchronous validations of the document: "document" for the validation of the whole document,
+     * "elements" for the validation of its updated elements; each one is null if no such validation ran since the server started.
+     */
+    @RequestMapping(value = "/secured/validation/{documentRef}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Object> getValidationResult(@PathVariable("documentRef") String documentRef) {
+        XmlDocument document = null;
+        try {
+            document = workspaceService.findDocumentByRef(documentRef, XmlDocument.class);
+        } catch (Exception ex) {
+            LOG.error("Error occurred while getting document {}. {}", documentRef, ex.getMessage(), ex);
+            return new ResponseEntity<>("Error occurred while getting document " + documentRef, HttpStatus.NOT_FOUND);
+        }
+
+        Map<String, Object> validationResult = new LinkedHashMap<>();
+        validationResult.put("document", validationService.getValidationResult(document.getVersionSeriesId()));
+        validationResult.put("elements", validationService.getElementValidationResult(document.getVersionSeriesId()));
+        return new ResponseEntity<>(validationResult, HttpStatus.OK);
+    }
+
     /**
      * The following methods are temporarily. They will be removed once ISC group fully adapt to the new security changes.
      * From now on our endpoint will be accessible in a secure way as:
@@ -311,9 +403,11 @@ public class LeosApiController {
     }
     
     @RequestMapping(value = "/search/{userId}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
-    @ResponseBody
-    public ResponseEntity<Object> getProposalsForUser_compatibility(@PathVariable("userId") String userId) {
-        return getProposalsForUser(userId);
+    public void getProposalsForUser_compatibility(@PathVariable("userId") String userId,
+                                                  @RequestParam(value = "startIndex", required = false, defaultValue = "0") int startIndex,
+                                                  @RequestParam(value = "maxResults", required = false, defaultValue = "0") int maxResults,
+                                                  HttpServletResponse response) throws IOException {
+        getProposalsForUser(userId, startIndex, maxResults, response);
     }
     
     @RequestMapping(value = "/searchlegfile/{legFileId}", method = RequestMethod.GET, produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
@@ -18,7 +18,6 @@ import eu.europa.ec.leos.domain.cmis.common.VersionType;
 import eu.europa.ec.leos.domain.cmis.document.Annex;
 import eu.europa.ec.leos.domain.cmis.metadata.AnnexMetadata;
 import eu.europa.ec.leos.domain.common.TocMode;
-import eu.europa.ec.leos.model.action.VersionVO;
 import eu.europa.ec.leos.model.annex.AnnexStructureType;
 import eu.europa.ec.leos.model.user.User;
 import eu.europa.ec.leos.vo.toc.TableOfContentItemVO;
@@ -37,6 +36,9 @@ public interface AnnexService {
     
     Annex updateAnnex(Annex annex, byte[] updatedAnnexContent, VersionType versionType, String comment);
 
+    /** Updates the content after the edition of one element, only the subtree of that element is validated. */
+    Annex updateAnnex(Annex annex, byte[] updatedAnnexContent, VersionType versionType, String comment, String updatedElementId);
+
     Annex updateAnnex(String annexId, AnnexMetadata metadata);
 
     Annex updateAnnexWithMilestoneComments(Annex annex, List<String> milestoneComments, VersionType versionType, String comment);
@@ -59,8 +61,6 @@ public interface AnnexService {
 
     Annex findAnnexByRef(String ref);
     
-    List<VersionVO> getAllVersions(String id, String documentId);
-    
     List<Annex> findAllMinorsForIntermediate(String docRef, String currIntVersion, int startIndex, int maxResults);
     
     int findAllMinorsCountForIntermediate(String docRef, String currIntVersion);
@@ -21,12 +21,10 @@ import eu.europa.ec.leos.domain.cmis.document.Annex;
 import eu.europa.ec.leos.domain.cmis.metadata.AnnexMetadata;
 import eu.europa.ec.leos.domain.common.TocMode;
 import eu.europa.ec.leos.i18n.MessageHelper;
-import eu.europa.ec.leos.model.action.VersionVO;
 import eu.europa.ec.leos.model.annex.AnnexStructureType;
 import eu.europa.ec.leos.model.user.User;
 import eu.europa.ec.leos.repository.document.AnnexRepository;
 import eu.europa.ec.leos.services.document.util.DocumentVOProvider;
-import eu.europa.ec.leos.services.support.VersionsUtil;
 import eu.europa.ec.leos.services.support.xml.NumberProcessor;
 import eu.europa.ec.leos.services.support.xml.XmlContentProcessor;
 import eu.europa.ec.leos.services.support.xml.XmlNodeConfigHelper;
@@ -136,6 +134,18 @@ public class AnnexServiceImpl implements AnnexService {
         return annex;
     }
 
+    @Override
+    public Annex updateAnnex(Annex annex, byte[] updatedAnnexContent, VersionType versionType, String comment, String updatedElementId) {
+        LOG.trace("Updating Annex Xml Content... [id={}, elementId={}]", annex.getId(), updatedElementId);
+        
+        annex = annexRepository.updateAnnex(annex.getId(), updatedAnnexContent, versionType, comment);
+        
+        //call validation on updated element
+        validationService.validateDocumentAsync(documentVOProvider.createDocumentVO(annex, updatedAnnexContent), updatedElementId);
+
+        return annex;
+    }
+
     @Override
     public Annex updateAnnex(Annex annex, AnnexMetadata updatedMetadata, VersionType versionType, String comment) {
         LOG.trace("Updating Annex... [id={}, updatedMetadata={}, versionType={}, comment={}]", annex.getId(), updatedMetadata, versionType, comment);
@@ -259,16 +269,6 @@ public class AnnexServiceImpl implements AnnexService {
         return annexRepository.findAnnexByRef(ref);
     }
     
-    @Override
-    public List<VersionVO> getAllVersions(String documentId, String docRef) {
-        // TODO temporary call. paginated loading will be implemented in the future Story
-        List<Annex> majorVersions = findAllMajors(docRef, 0, 9999);
-        LOG.trace("Found {} majorVersions for [id={}]", majorVersions.size(), documentId);
-        
-        List<VersionVO> majorVersionsVO = VersionsUtil.buildVersionVO(majorVersions, messageHelper);
-        return majorVersionsVO;
-    }
-    
     @Override
     public List<Annex> findAllMinorsForIntermediate(String docRef, String currIntVersion, int startIndex, int maxResults) {
         final String prevIntVersion = calculatePreviousVersion(currIntVersion);
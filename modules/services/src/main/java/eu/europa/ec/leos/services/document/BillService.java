@@ -17,7 +17,6 @@ import eu.europa.ec.leos.domain.cmis.common.VersionType;
 import eu.europa.ec.leos.domain.cmis.document.Bill;
 import eu.europa.ec.leos.domain.cmis.metadata.BillMetadata;
 import eu.europa.ec.leos.domain.common.TocMode;
-import eu.europa.ec.leos.model.action.VersionVO;
 import eu.europa.ec.leos.model.user.User;
 import eu.europa.ec.leos.vo.toc.TableOfContentItemVO;
 
@@ -41,6 +40,9 @@ public interface BillService {
 
     Bill updateBill(Bill bill, byte[] updatedBillContent, String comments);
 
+    /** Updates the content after the edition of one element, only the subtree of that element is validated. */
+    Bill updateBill(Bill bill, byte[] updatedBillContent, String comments, String updatedElementId);
+
     Bill updateBill(String billId, BillMetadata metadata);
 
     Bill updateBillWithMilestoneComments(Bill bill, List<String> milestoneComments, VersionType versionType, String comment);
@@ -57,8 +59,6 @@ public interface BillService {
 
     List<Bill> findVersions(String id);
     
-    List<VersionVO> getAllVersions(String id, String documentId);
-
     List<TableOfContentItemVO> getTableOfContent(Bill bill, TocMode mode);
 
     Bill saveTableOfContent(Bill bill, List<TableOfContentItemVO> tocList, String actionMsg, User user);
@@ -21,13 +21,11 @@ import eu.europa.ec.leos.domain.cmis.document.Bill;
 import eu.europa.ec.leos.domain.cmis.metadata.BillMetadata;
 import eu.europa.ec.leos.domain.common.TocMode;
 import eu.europa.ec.leos.i18n.MessageHelper;
-import eu.europa.ec.leos.model.action.VersionVO;
 import eu.europa.ec.leos.model.user.User;
 import eu.europa.ec.leos.repository.document.BillRepository;
 import eu.europa.ec.leos.repository.store.PackageRepository;
 import eu.europa.ec.leos.services.content.processor.AttachmentProcessor;
 import eu.europa.ec.leos.services.document.util.DocumentVOProvider;
-import eu.europa.ec.leos.services.support.VersionsUtil;
 import eu.europa.ec.leos.services.support.xml.NumberProcessor;
 import eu.europa.ec.leos.services.support.xml.XmlContentProcessor;
 import eu.europa.ec.leos.services.support.xml.XmlNodeConfigHelper;
@@ -143,6 +141,18 @@ public class BillServiceImpl implements BillService {
         return bill;
     }
 
+    @Override
+    public Bill updateBill(Bill bill, byte[] updatedBillContent, String comments, String updatedElementId) {
+        LOG.trace("Updating Bill Xml Content... [id={}, elementId={}]", bill.getId(), updatedElementId);
+        final BillMetadata metadata = bill.getMetadata().getOrError(() -> "Bill metadata is required!");
+        bill = billRepository.updateBill(bill.getId(), metadata, updatedBillContent, VersionType.MINOR, comments);
+        
+        //call validation on updated element
+        validationService.validateDocumentAsync(documentVOProvider.createDocumentVO(bill, updatedBillContent), updatedElementId);
+        
+        return bill;
+    }
+
     @Override
     public Bill updateBill(Bill bill, BillMetadata updatedMetadata, VersionType versionType, String comment) {
         LOG.trace("Updating Bill... [id={}, updatedMetadata={}]", bill.getId(), updatedMetadata);
@@ -312,16 +322,6 @@ public class BillServiceImpl implements BillService {
         return xmlTableOfContentHelper.buildTableOfContent(BILL, xmlContent, mode);
     }
     
-    @Override
-    public List<VersionVO> getAllVersions(String documentId, String docRef) {
-        // TODO temporary call. paginated loading will be implemented in the future Story
-        List<Bill> majorVersions = findAllMajors(docRef, 0, 9999);
-        LOG.trace("Found {} majorVersions for [id={}]", majorVersions.size(), documentId);
-        
-        List<VersionVO> majorVersionsVO = VersionsUtil.buildVersionVO(majorVersions, messageHelper);
-        return majorVersionsVO;
-    }
-    
     @Override
     public List<Bill> findAllMinorsForIntermediate(String docRef, String currIntVersion, int startIndex, int maxResults) {
         final String prevIntVersion = calculatePreviousVersion(currIntVersion);
@@ -18,7 +18,6 @@ import eu.europa.ec.leos.domain.cmis.common.VersionType;
 import eu.europa.ec.leos.domain.cmis.document.Memorandum;
 import eu.europa.ec.leos.domain.cmis.metadata.MemorandumMetadata;
 import eu.europa.ec.leos.domain.common.TocMode;
-import eu.europa.ec.leos.model.action.VersionVO;
 import eu.europa.ec.leos.vo.toc.TableOfContentItemVO;
 
 import java.util.List;
@@ -38,6 +37,9 @@ public interface MemorandumService {
 
     Memorandum updateMemorandum(Memorandum memorandum, byte[] updatedMemorandumContent, VersionType versionType, String comment);
 
+    /** Updates the content after the edition of one element, only the subtree of that element is validated. */
+    Memorandum updateMemorandum(Memorandum memorandum, byte[] updatedMemorandumContent, VersionType versionType, String comment, String updatedElementId);
+
     Memorandum updateMemorandum(Memorandum memorandum, MemorandumMetadata metadata, VersionType versionType, String comment);
 
     Memorandum updateMemorandum(String memorandumId, MemorandumMetadata metadata);
@@ -54,8 +56,6 @@ public interface MemorandumService {
 
     Memorandum findMemorandumByRef(String ref);
     
-    List<VersionVO> getAllVersions(String id, String documentId);
-    
     List<Memorandum> findAllMinorsForIntermediate(String docRef, String currIntVersion, int startIndex, int maxResults);
     
     int findAllMinorsCountForIntermediate(String docRef, String currIntVersion);
@@ -21,11 +21,9 @@ import eu.europa.ec.leos.domain.cmis.document.Memorandum;
 import eu.europa.ec.leos.domain.cmis.metadata.MemorandumMetadata;
 import eu.europa.ec.leos.domain.common.TocMode;
 import eu.europa.ec.leos.i18n.MessageHelper;
-import eu.europa.ec.leos.model.action.VersionVO;
 import eu.europa.ec.leos.repository.document.MemorandumRepository;
 import eu.europa.ec.leos.repository.store.PackageRepository;
 import eu.europa.ec.leos.services.document.util.DocumentVOProvider;
-import eu.europa.ec.leos.services.support.VersionsUtil;
 import eu.europa.ec.leos.services.support.xml.XmlContentProcessor;
 import eu.europa.ec.leos.services.support.xml.XmlNodeConfigHelper;
 import eu.europa.ec.leos.services.support.xml.XmlNodeProcessor;
@@ -139,6 +137,17 @@ public class MemorandumServiceImpl implements MemorandumService {
         return memorandum;
     }
 
+    @Override
+    public Memorandum updateMemorandum(Memorandum memorandum, byte[] updatedMemorandumContent, VersionType versionType, String comment, String updatedElementId) {
+        LOG.trace("Updating Memorandum Xml Content... [id={}, elementId={}]", memorandum.getId(), updatedElementId);
+        
+        memorandum = memorandumRepository.updateMemorandum(memorandum.getId(), updatedMemorandumContent, versionType, comment);
+        //call validation on updated element
+        validationService.validateDocumentAsync(documentVOProvider.createDocumentVO(memorandum, updatedMemorandumContent), updatedElementId);
+        
+        return memorandum;
+    }
+
     @Override
     public Memorandum updateMemorandum(String memorandumId, MemorandumMetadata updatedMetadata) {
         LOG.trace("Updating Memorandum Xml Content... [id={}]", memorandumId);
@@ -227,16 +236,6 @@ public class MemorandumServiceImpl implements MemorandumService {
         return memorandumRepository.findMemorandumByRef(ref);
     }
     
-    @Override
-    public List<VersionVO> getAllVersions(String documentId, String docRef) {
-        // TODO temporary call. paginated loading will be implemented in the future Story
-        List<Memorandum> majorVersions = findAllMajors(docRef, 0, 9999);
-        LOG.trace("Found {} majorVersions for [id={}]", majorVersions.size(), documentId);
-    
-        List<VersionVO> majorVersionsVO = VersionsUtil.buildVersionVO(majorVersions, messageHelper);
-        return majorVersionsVO;
-    }
-    
     @Override
     public List<Memorandum> findAllMinorsForIntermediate(String docRef, String currIntVersion, int startIndex, int maxResults) {
         final String prevIntVersion = calculatePreviousVersion(currIntVersion);
@@ -26,6 +26,7 @@ public class DocumentVOProvider {
             documentVO.addCollaborators(xmlDocument.getCollaborators());
         }
         documentVO.setSource(updatedContent);
+        documentVO.setVersionSeriesId(xmlDocument.getVersionSeriesId());
         return documentVO;
     }
 }
\ No newline at end of file
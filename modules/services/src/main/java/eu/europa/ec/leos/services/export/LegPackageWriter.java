@@ -0,0 +1,221 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.services.export;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes the entries of a leg package directly into a temporary zip file as soon as they are produced,
+ * so that only the entry being written needs to be held in memory.
+ * Entries already compressed (images, pdf, zip...) are stored without deflating them again.
+ * Static classpath resources (styles, scripts) are read once and then served from a shared cache.
+ */
+public class LegPackageWriter implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(LegPackageWriter.class);
+
+    private static final Set<String> STORED_EXTENSIONS = new HashSet<>(Arrays.asList("png", "jpg", "jpeg", "gif", "pdf", "zip", "docx", "leg"));
+    private static final Map<String, byte[]> RESOURCE_CACHE = new ConcurrentHashMap<>();
+
+    private final File zipFile;
+    private final ZipOutputStream zipOutputStream;
+    private final Set<String> entryNames = new HashSet<>();
+    private boolean finished;
+
+    public LegPackageWriter(String zipFileName) throws IOException {
+        zipFile = File.createTempFile(FilenameUtils.getBaseName(zipFileName), "." + FilenameUtils.getExtension(zipFileName));
+        try {
+            zipOutputStream = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(zipFile)));
+        } catch (IOException e) {
+            zipFile.delete();
+            throw e;
+        }
+    }
+
+    public boolean containsEntry(String entryName) {
+        return entryNames.contains(entryName);
+    }
+
+    /**
+     * Writes a deflated entry. An entry already written with the same name is kept and the new content ignored.
+     */
+    public void writeEntry(String entryName, byte[] content) throws IOException {
+        if (registerEntry(entryName)) {
+            zipOutputStream.putNextEntry(new ZipEntry(entryName));
+            zipOutputStream.write(content);
+            zipOutputStream.closeEntry();
+        }
+    }
+
+    public void writeEntry(String entryName, String content) throws IOException {
+        writeEntry(entryName, content.getBytes(UTF_8));
+    }
+
+    /**
+     * Writes a deflated entry by copying the given stream. The stream is not closed.
+     */
+    public void writeEntry(String entryName, InputStream content) throws IOException {
+        if (registerEntry(entryName)) {
+            zipOutputStream.putNextEntry(new ZipEntry(entryName));
+            IOUtils.copy(content, zipOutputStream);
+            zipOutputStream.closeEntry();
+        }
+    }
+
+    /**
+     * Opens a deflated entry to be written as a stream. The entry is complete when the returned stream is closed,
+     * and no other entry can be written until then. If an entry was already written with the same name, the content is ignored.
+     */
+    public OutputStream openEntry(String entryName) throws IOException {
+        if (!registerEntry(entryName)) {
+            return new NullOutputStream();
+        }
+        zipOutputStream.putNextEntry(new ZipEntry(entryName));
+        return new FilterOutputStream(zipOutputStream) {
+            private boolean closed;
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    zipOutputStream.closeEntry();
+                }
+            }
+        };
+    }
+
+    /**
+     * Writes a media entry, using the STORED method when its format is already compressed.
+     */
+    public void writeMediaEntry(String entryName, byte[] content) throws IOException {
+        if (!isCompressedFormat(entryName)) {
+            writeEntry(entryName, content);
+        } else if (registerEntry(entryName)) {
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            ZipEntry entry = new ZipEntry(entryName);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(content.length);
+            entry.setCompressedSize(content.length);
+            entry.setCrc(crc.getValue());
+            zipOutputStream.putNextEntry(entry);
+            zipOutputStream.write(content);
+            zipOutputStream.closeEntry();
+        }
+    }
+
+    /**
+     * Writes the classpath resource sourcePath + resourceName under destPath + resourceName.
+     * A resource that cannot be read is logged and skipped, it must not prevent the package creation.
+     */
+    public void writeResource(String resourceName, String sourcePath, String destPath) throws IOException {
+        final String entryName = destPath + resourceName;
+        if (!containsEntry(entryName)) {
+            byte[] content = getResource(sourcePath + resourceName);
+            if (content != null) {
+                writeEntry(entryName, content);
+            }
+        }
+    }
+
+    /**
+     * Completes the zip and returns the package file. The caller becomes responsible of the file.
+     */
+    public File finish() throws IOException {
+        zipOutputStream.close();
+        finished = true;
+        LOG.trace("Leg package '{}' written with {} entries ({} bytes)", zipFile.getName(), entryNames.size(), zipFile.length());
+        return zipFile;
+    }
+
+    /**
+     * Closes the writer. If the package was not finished, the partially written file is deleted.
+     */
+    @Override
+    @SuppressWarnings("try") // the stream is only opened to be closed
+    public void close() {
+        if (!finished) {
+            try (ZipOutputStream out = zipOutputStream) {
+                LOG.debug("Discarding incomplete leg package {}", zipFile.getName());
+            } catch (IOException e) {
+                LOG.debug("Error closing incomplete leg package {}", zipFile.getName(), e);
+            }
+            if (zipFile.exists() && !zipFile.delete()) {
+                LOG.warn("Unable to delete incomplete leg package {}", zipFile.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Loads the given classpath resources in the shared cache, so that the first export does not pay for it.
+     */
+    public static void preloadResources(String... resourceLocations) {
+        for (String resourceLocation : resourceLocations) {
+            getResource(resourceLocation);
+        }
+    }
+
+    static byte[] getResource(String resourceLocation) {
+        byte[] content = RESOURCE_CACHE.get(resourceLocation);
+        if (content == null) {
+            try (InputStream is = new ClassPathResource(resourceLocation).getInputStream()) {
+                content = IOUtils.toByteArray(is);
+                RESOURCE_CACHE.putIfAbsent(resourceLocation, content);
+            } catch (IOException io) {
+                LOG.error("Error occurred while getting resource {}", resourceLocation, io);
+            }
+        }
+        return content;
+    }
+
+    static boolean isCompressedFormat(String entryName) {
+        return STORED_EXTENSIONS.contains(FilenameUtils.getExtension(entryName).toLowerCase());
+    }
+
+    private boolean registerEntry(String entryName) {
+        if (!entryNames.add(entryName)) {
+            LOG.debug("Entry {} already written in leg package, ignoring it", entryName);
+            return false;
+        }
+        return true;
+    }
+}
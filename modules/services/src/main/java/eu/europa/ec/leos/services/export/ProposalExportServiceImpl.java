@@ -17,6 +17,7 @@ import com.google.common.base.Stopwatch;
 import eu.europa.ec.leos.domain.common.InstanceType;
 import eu.europa.ec.leos.instance.Instance;
 import eu.europa.ec.leos.integration.ToolBoxService;
+import eu.europa.ec.leos.metrics.LeosMetrics;
 import eu.europa.ec.leos.security.SecurityContext;
 import eu.europa.ec.leos.services.content.processor.TransformationService;
 import eu.europa.ec.leos.services.document.AnnexService;
@@ -179,6 +180,7 @@ public class ProposalExportServiceImpl extends ExportServiceImpl {
         while (count < jobResultMaxTries) {
             try {
                 Pair<byte[], byte[]> zipFiles = toolBoxService.getZipFilesFromLegDocumentJobResult(jobId);
+                LeosMetrics.record("export.rendition", stopwatch, "format", exportOptions.name());
                 LOG.debug("Rendition response from Toolbox in {} sec. Nr. tries made {} with a frequency of {} seconds", stopwatch.elapsed(TimeUnit.SECONDS),
                         count, jobResultPullingThresholdInSeconds);
                 if (exportOptions.equals(ExportOptions.TO_PDF_LW)) {
@@ -19,34 +19,50 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import javax.xml.transform.Result;
 import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
+import javax.xml.transform.Templates;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
 
+/**
+ * Converts formex documents to AKN with the stylesheet compiled once at startup.
+ * The compiled templates are thread safe and a new transformer is created from them for each conversion,
+ * so several documents can be converted concurrently.
+ */
 @Component
-class ConversionHelper {
+public class ConversionHelper {
     private static final Logger LOG = LoggerFactory.getLogger(ConversionHelper.class);
 
     @Autowired
-    @Qualifier("xsltTransformer")
-    private Transformer transformer;
+    @Qualifier("fmx2aknTemplates")
+    private Templates templates;
     
     public String convertFormexToAKN(String formexDocument) {
-        LOG.trace("Converting document from formex to akn...");
         if(formexDocument == null) {
             return null;
         }
-        try {                 
-            Source xmlSource = new StreamSource(new StringReader(formexDocument));
-            StringWriter outWriter = new StringWriter();
-            StreamResult result = new StreamResult(outWriter);
-            transformer.transform(xmlSource, result);
-            StringBuffer sb = outWriter.getBuffer();
+        StringWriter outWriter = new StringWriter();
+        transform(new StreamSource(new StringReader(formexDocument)), new StreamResult(outWriter));
+        return outWriter.toString();
+    }
+
+    /**
+     * Streams the conversion of the formex document read from the input into the output. The streams are not closed.
+     */
+    public void convertFormexToAKN(InputStream formexDocument, OutputStream aknDocument) {
+        transform(new StreamSource(formexDocument), new StreamResult(aknDocument));
+    }
+
+    private void transform(Source xmlSource, Result result) {
+        LOG.trace("Converting document from formex to akn...");
+        try {
+            templates.newTransformer().transform(xmlSource, result);
             LOG.trace("conversion finished");
-            return sb.toString();
         } catch (Exception e) {
             throw new RuntimeException("Unable to convert to AKN", e);
         }
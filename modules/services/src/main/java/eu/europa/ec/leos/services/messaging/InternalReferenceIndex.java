@@ -0,0 +1,51 @@
+package eu.europa.ec.leos.services.messaging;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import eu.europa.ec.leos.domain.cmis.document.XmlDocument;
+import eu.europa.ec.leos.metrics.LeosMetrics;
+import eu.europa.ec.leos.services.support.xml.XmlContentProcessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index of the documents targeted by the internal references of each document version.
+ * A document version never changes, so its entry stays valid until it is evicted; a new version is indexed when it is first loaded.
+ */
+@Component
+public class InternalReferenceIndex {
+
+    private static final int INDEX_SIZE = 10000;
+
+    private final XmlContentProcessor xmlContentProcessor;
+
+    private final Cache<String, Set<String>> referencedDocumentRefs = LeosMetrics.monitor(CacheBuilder.newBuilder()
+            .maximumSize(INDEX_SIZE)
+            .expireAfterAccess(1, TimeUnit.DAYS)
+            .recordStats()
+            .build(), "internal.references.index");
+
+    public InternalReferenceIndex(XmlContentProcessor xmlContentProcessor) {
+        this.xmlContentProcessor = xmlContentProcessor;
+    }
+
+    /**
+     * @return the refs of the documents referenced by the given document version, or null if the version is not indexed yet
+     */
+    public Set<String> getReferencedDocumentRefs(String documentId) {
+        return referencedDocumentRefs.getIfPresent(documentId);
+    }
+
+    /**
+     * Indexes the references of the given document, which must be loaded with its content.
+     */
+    public Set<String> index(XmlDocument document) {
+        Set<String> documentRefs = Collections.unmodifiableSet(
+                xmlContentProcessor.getReferencedDocumentRefs(document.getContent().get().getSource().getBytes()));
+        referencedDocumentRefs.put(document.getId(), documentRefs);
+        return documentRefs;
+    }
+}
@@ -1,9 +1,12 @@
 package eu.europa.ec.leos.services.messaging;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.eventbus.EventBus;
 import eu.europa.ec.leos.domain.cmis.LeosCategory;
 import eu.europa.ec.leos.domain.cmis.LeosPackage;
 import eu.europa.ec.leos.domain.cmis.document.XmlDocument;
+import eu.europa.ec.leos.metrics.LeosMetrics;
 import eu.europa.ec.leos.model.event.DocumentUpdatedByCoEditorEvent;
 import eu.europa.ec.leos.model.messaging.UpdateInternalReferencesMessage;
 import eu.europa.ec.leos.model.user.User;
@@ -13,7 +16,10 @@ import eu.europa.ec.leos.services.store.WorkspaceService;
 import eu.europa.ec.leos.services.store.XmlDocumentService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.jms.annotation.JmsListener;
+import org.springframework.jms.support.JmsHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.security.core.Authentication;
@@ -22,6 +28,9 @@ import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static eu.europa.ec.leos.services.messaging.conf.JmsDestinations.QUEUE_UPDATE_INTERNAL_REFERENCE;
 
@@ -34,42 +43,88 @@ public class UpdateInternalReferencesConsumer {
     private final XmlDocumentService xmlDocumentService;
     private final WorkspaceService workspaceService;
     private final EventBus leosApplicationEventBus;
+    private final InternalReferenceIndex internalReferenceIndex;
+    // shared task executor, it propagates the security context of the listener thread to the tasks
+    private final TaskExecutor taskExecutor;
+    // start time of the last propagation done for a changed document of a package (key: packageId:documentRef),
+    // kept by each node: a message consumed on another node is processed again, which is redundant but harmless
+    private final Cache<String, Long> lastPropagations = CacheBuilder.newBuilder()
+            .expireAfterWrite(1, TimeUnit.HOURS)
+            .build();
     
     public UpdateInternalReferencesConsumer(PackageService packageService,
                                             WorkspaceService workspaceService,
                                             EventBus leosApplicationEventBus,
-                                            XmlDocumentService xmlDocumentService) {
+                                            XmlDocumentService xmlDocumentService,
+                                            InternalReferenceIndex internalReferenceIndex,
+                                            @Qualifier("delegatingSecurityContextAsyncTaskExecutor") TaskExecutor taskExecutor) {
         this.packageService = packageService;
         this.workspaceService = workspaceService;
         this.leosApplicationEventBus = leosApplicationEventBus;
         this.xmlDocumentService = xmlDocumentService;
+        this.internalReferenceIndex = internalReferenceIndex;
+        this.taskExecutor = taskExecutor;
     }
 
     @JmsListener(destination = QUEUE_UPDATE_INTERNAL_REFERENCE, subscription = "updateInternalReferences", containerFactory = "jmsListenerContainerFactory")
-    public void updateInternalReferences(@Payload UpdateInternalReferencesMessage message, @Header String authcontext) {
+    public void updateInternalReferences(@Payload UpdateInternalReferencesMessage message, @Header String authcontext,
+                                         @Header(name = JmsHeaders.TIMESTAMP, required = false) Long timestamp) {
         logger.info("Processing internal references for document {}", message.getDocumentRef());
+        if (timestamp != null) {
+            LeosMetrics.record("jms.queue.wait", TimeUnit.MILLISECONDS.toNanos(Math.max(0, System.currentTimeMillis() - timestamp)),
+                    "queue", QUEUE_UPDATE_INTERNAL_REFERENCE);
+        }
+        LeosMetrics.time("jms.processing", () -> processInternalReferences(message, authcontext, timestamp), "queue", QUEUE_UPDATE_INTERNAL_REFERENCE);
+    }
+
+    private void processInternalReferences(UpdateInternalReferencesMessage message, String authcontext, Long timestamp) {
         detachAuthenticationContext(authcontext);
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
         LeosPackage leosPackage = packageService.findPackageByDocumentId(message.getDocumentId());
+        String propagationKey = leosPackage.getId() + ":" + message.getDocumentRef();
+        Long lastPropagation = lastPropagations.getIfPresent(propagationKey);
+        if (timestamp != null && lastPropagation != null && timestamp < lastPropagation) {
+            // a propagation started after this message was sent has already used the latest version of the document
+            logger.debug("Internal references for document {} already processed, skipping", message.getDocumentRef());
+            return;
+        }
+        lastPropagations.put(propagationKey, System.currentTimeMillis());
+
         List<XmlDocument> documents = packageService.findDocumentsByPackagePath(leosPackage.getPath(), XmlDocument.class, false);
-        for (XmlDocument document : documents) {
-            String ref = document.getMetadata().get().getRef();
-            boolean isDifferentDocument = !ref.equals(message.getDocumentRef());
-            boolean canProcess = DOCUMENTS_TO_DISCONSIDER.stream().noneMatch(p -> document.getMetadata().get().getCategory().equals(p));
-            if (isDifferentDocument && canProcess) {
-                try {
-                    XmlDocument xmlDocument = workspaceService.findDocumentById(document.getId(), XmlDocument.class);
-                    boolean updated = xmlDocumentService.updateInternalReferences(xmlDocument);
-                    logger.debug("updateInternalReferences processed for {}, isXmlChanged {}: ", ref, updated);
+        CompletableFuture.allOf(documents.stream()
+                .filter(document -> !document.getMetadata().get().getRef().equals(message.getDocumentRef()))
+                .filter(document -> DOCUMENTS_TO_DISCONSIDER.stream().noneMatch(p -> document.getMetadata().get().getCategory().equals(p)))
+                .map(document -> CompletableFuture.runAsync(() -> updateInternalReferences(document, message, user), taskExecutor))
+                .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    private void updateInternalReferences(XmlDocument document, UpdateInternalReferencesMessage message, User user) {
+        String ref = document.getMetadata().get().getRef();
+        try {
+            XmlDocument xmlDocument = null;
+            Set<String> referencedDocumentRefs = internalReferenceIndex.getReferencedDocumentRefs(document.getId());
+            if (referencedDocumentRefs == null) {
+                xmlDocument = workspaceService.findDocumentById(document.getId(), XmlDocument.class);
+                referencedDocumentRefs = internalReferenceIndex.index(xmlDocument);
+            }
+            if (!referencedDocumentRefs.contains(message.getDocumentRef())) {
+                logger.trace("Document {} does not reference {}, skipping", ref, message.getDocumentRef());
+                return;
+            }
+            if (xmlDocument == null) {
+                xmlDocument = workspaceService.findDocumentById(document.getId(), XmlDocument.class);
+            }
+
+            boolean updated = xmlDocumentService.updateInternalReferences(xmlDocument);
+            logger.debug("updateInternalReferences processed for {}, isXmlChanged {}: ", ref, updated);
 
-                    if (updated) {
-                        leosApplicationEventBus.post(new DocumentUpdatedByCoEditorEvent(user, xmlDocument.getVersionSeriesId(), message.getPresenterId()));
-                    }
-                } catch (Exception e) {
-                    logger.error("Error occurred calling updateInternalRef() for doc {}", ref, e);
-                }
+            if (updated) {
+                leosApplicationEventBus.post(new DocumentUpdatedByCoEditorEvent(user, xmlDocument.getVersionSeriesId(), message.getPresenterId()));
             }
+        } catch (Exception e) {
+            logger.error("Error occurred calling updateInternalRef() for doc {}", ref, e);
         }
     }
 
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.services.metrics;
+
+import eu.europa.ec.leos.metrics.LeosMetrics;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the meters recorded through {@link LeosMetrics} in memory, with the percentiles of the LEOS timers,
+ * and publishes them over JMX. The same values are served over HTTP by the metrics controller.
+ */
+@Service
+@ManagedResource(objectName = "eu.europa.ec.leos:name=metrics", description = "LEOS operation timings, cache and executor statistics")
+public class MetricsServiceImpl implements MetricsService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetricsServiceImpl.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final double[] percentiles;
+    private final double traceSamplingRate;
+
+    public MetricsServiceImpl(@Value("${leos.metrics.percentiles:0.5,0.95,0.99}") double[] percentiles,
+                              @Value("${leos.metrics.trace.sampling.rate:0}") double traceSamplingRate) {
+        this.percentiles = percentiles;
+        this.traceSamplingRate = traceSamplingRate;
+    }
+
+    @PostConstruct
+    public void init() {
+        meterRegistry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getType() == Meter.Type.TIMER && id.getName().startsWith(LeosMetrics.PREFIX)) {
+                    return DistributionStatisticConfig.builder()
+                            .percentiles(percentiles)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        });
+        Metrics.addRegistry(meterRegistry);
+        LeosMetrics.setTraceSamplingRate(traceSamplingRate);
+        LOG.info("Metrics registry started, trace sampling rate {}", traceSamplingRate);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        LeosMetrics.setTraceSamplingRate(0);
+        Metrics.removeRegistry(meterRegistry);
+        meterRegistry.close();
+    }
+
+    @Override
+    @ManagedOperation(description = "Current statistics of each meter")
+    public Map<String, Map<String, Double>> getMetrics() {
+        Map<String, Map<String, Double>> metrics = new TreeMap<>();
+        meterRegistry.forEachMeter(meter -> metrics.put(getMeterKey(meter.getId()), getStatistics(meter)));
+        return metrics;
+    }
+
+    private String getMeterKey(Meter.Id id) {
+        if (id.getTags().isEmpty()) {
+            return id.getName();
+        }
+        return id.getName() + id.getTags().stream()
+                .map(tag -> tag.getKey() + '=' + tag.getValue())
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+
+    private Map<String, Double> getStatistics(Meter meter) {
+        Map<String, Double> statistics = new TreeMap<>();
+        if (meter instanceof Timer) {
+            Timer timer = (Timer) meter;
+            statistics.put("count", (double) timer.count());
+            statistics.put("mean_ms", timer.mean(TimeUnit.MILLISECONDS));
+            statistics.put("max_ms", timer.max(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+                statistics.put("p" + Math.round(percentile.percentile() * 100) + "_ms", percentile.value(TimeUnit.MILLISECONDS));
+            }
+        } else {
+            meter.measure().forEach(measurement -> statistics.put(measurement.getStatistic().name().toLowerCase(), measurement.getValue()));
+        }
+        return statistics;
+    }
+}
@@ -14,25 +14,42 @@
 package eu.europa.ec.leos.services.milestone;
 
 
+import com.google.common.util.concurrent.Striped;
 import eu.europa.ec.leos.domain.cmis.LeosLegStatus;
 import eu.europa.ec.leos.domain.cmis.document.LegDocument;
 import eu.europa.ec.leos.services.export.LegPackage;
 import eu.europa.ec.leos.services.store.LegService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 import javax.annotation.Nonnull;
+import javax.annotation.PreDestroy;
 import java.io.File;
 import java.io.IOException;
-import java.util.concurrent.locks.StampedLock;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 public abstract class AbstractMilestoneService implements MilestoneService{
 
     private static final Logger LOG = LoggerFactory.getLogger(AbstractMilestoneService.class);
 
+    private static final int LEG_LOCK_STRIPES = 256;
+    private static final int RENDITION_THREADS = 2;
+    private static final int RENDITION_QUEUE_SIZE = 20;
+
     protected final LegService legService;
 
-    private final StampedLock updateMilestoneLock = new StampedLock();
+    // updates of the same leg document are serialized, updates of different leg documents run concurrently
+    private final Striped<Lock> legLocks = Striped.lazyWeakLock(LEG_LOCK_STRIPES);
+
+    // bounded pool for the rendition callbacks, the caller processes the callback itself when the pool is saturated
+    private final ThreadPoolExecutor renditionExecutor = new ThreadPoolExecutor(RENDITION_THREADS, RENDITION_THREADS, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(RENDITION_QUEUE_SIZE), new ThreadPoolExecutor.CallerRunsPolicy());
 
     public AbstractMilestoneService(LegService legService) {
         this.legService = legService;
@@ -67,11 +84,18 @@ public abstract class AbstractMilestoneService implements MilestoneService{
     public LegDocument updateMilestone(String legId, LeosLegStatus status) {
         LOG.trace("Updating Leg document status... [legId={}, status={}]", legId, status.name());
         if(legId != null && !legId.isEmpty()){
-            long stamp = updateMilestoneLock.writeLock();
+            LegDocument legDocument = legService.findLegDocumentById(legId);
+            Lock lock = legLocks.get(legDocument.getVersionSeriesId());
+            lock.lock();
             try{
+                legDocument = legService.findLegDocumentById(legId);
+                if (status.equals(legDocument.getStatus())) {
+                    LOG.debug("Leg document {} already in status {}, nothing to update", legId, status.name());
+                    return legDocument;
+                }
                 return legService.updateLegDocument(legId, status);
             } finally {
-                updateMilestoneLock.unlockWrite(stamp);
+                lock.unlock();
             }
         } else {
             return null;
@@ -80,33 +104,42 @@ public abstract class AbstractMilestoneService implements MilestoneService{
 
     /**
      * Same logic used by Callback and Scheduler.
-     * In case a scheduler runs before the callback,
-     * or the findLegDocumentByStatus(IN_PREPARATION) inside the scheduler is executed before the callback changes the status,
-     * synchronized on the method makes sure that each thread completes its job in atomicity.
-     * ATTENTION: If this case happened (concurrency scenario) leg file will be increased with two major versions (1 from update of callback, 1 from the scheduler)
-     * No mechanism to skip the update if the file is already in FILE_READY status
+     * The update is done under the lock of the leg document and its status is read again once the lock is acquired,
+     * so when the callback and the scheduler both process the same leg document, the second one finds it in FILE_READY (or FILE_ERROR) and skips it.
+     * Updates of different leg documents are not blocked by each other.
+     * A failure, including one of the lookup of the leg document, changes the leg document status to FILE_ERROR.
      */
     @Override
     public LegDocument updateMilestoneRendition(String documentId, String jobId, byte[] pdfJobZip, byte[] wordJobZip) {
         if (jobId != null && !jobId.isEmpty()
             && documentId != null && !documentId.isEmpty()
             && pdfJobZip != null && wordJobZip != null) {
-            long stamp = updateMilestoneLock.writeLock();
+            LegDocument legDocument = null;
+            Lock lock = null;
             try {
+                legDocument = legService.findLegDocumentByAnyDocumentIdAndJobId(documentId, jobId);
+                if (legDocument == null) {
+                    LOG.warn("No Leg document found with jobId={} in the package of documentId={}", jobId, documentId);
+                    return null;
+                }
+                lock = legLocks.get(legDocument.getVersionSeriesId());
+                lock.lock();
                 if (pdfJobZip.length > 0 && wordJobZip.length > 0) {
                     LOG.trace("Call to updateMilestoneRendition for Leg document  with jobId={} in the same package with any document that has documentId={} may be SUCCESSFUL.", jobId, documentId);
-                    return updateMilestone(documentId, jobId, pdfJobZip, wordJobZip);
+                    return updateMilestone(legDocument.getId(), jobId, pdfJobZip, wordJobZip);
                 } else {
                     LOG.warn("The files are empty: documentId={}, jobId={}, pdfJobZip={} and wordJobZip={}. Changing leg file status to {}.",
                             documentId, jobId, pdfJobZip, wordJobZip, LeosLegStatus.FILE_ERROR.name());
-                    return updateMilestone(documentId, jobId);
+                    return updateMilestone(legDocument.getId(), jobId);
                 }
             } catch (Exception e) {
                 LOG.error("coDeCallback for documentId={} with jobId={} FAILED. Changing leg file status to {}.",
-                        documentId, jobId, LeosLegStatus.FILE_ERROR.name());
-                return updateMilestone(documentId, jobId);
+                        documentId, jobId, LeosLegStatus.FILE_ERROR.name(), e);
+                return lock != null ? updateMilestone(legDocument.getId(), jobId) : updateMilestoneWithLock(documentId, jobId);
             } finally {
-                updateMilestoneLock.unlockWrite(stamp);
+                if (lock != null) {
+                    lock.unlock();
+                }
             }
         } else {
             LOG.warn("documentId, jobId either null or empty: documentId={} with jobId={}", documentId, jobId);
@@ -114,13 +147,42 @@ public abstract class AbstractMilestoneService implements MilestoneService{
         }
     }
 
-    private LegDocument updateMilestone(String documentId, String jobId) {
-        LOG.trace("Updating the status to {} of the Leg document that has jobId={} and is in the same package with any document that has documentId={}.",LeosLegStatus.FILE_ERROR.name(), jobId, documentId);
+    @Override
+    public CompletableFuture<LegDocument> updateMilestoneRenditionAsync(String documentId, String jobId, byte[] pdfJobZip, byte[] wordJobZip) {
+        return CompletableFuture.supplyAsync(() -> updateMilestoneRendition(documentId, jobId, pdfJobZip, wordJobZip),
+                new DelegatingSecurityContextExecutor(renditionExecutor, SecurityContextHolder.getContext()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renditionExecutor.shutdown();
+    }
+
+    // the leg document is looked up again, as the failure may have happened before it was found and locked
+    private LegDocument updateMilestoneWithLock(String documentId, String jobId) {
         LegDocument legDocument = legService.findLegDocumentByAnyDocumentIdAndJobId(documentId, jobId);
+        if (legDocument == null) {
+            return null;
+        }
+        Lock lock = legLocks.get(legDocument.getVersionSeriesId());
+        lock.lock();
+        try {
+            return updateMilestone(legDocument.getId(), jobId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // the leg document is read again, its status may have been changed while waiting for the lock:
+    // only a leg document still in preparation is flagged, a late or repeated callback must not discard renditions already stored
+    private LegDocument updateMilestone(String legId, String jobId) {
+        LOG.trace("Updating the status to {} of the Leg document with id={} and jobId={}.", LeosLegStatus.FILE_ERROR.name(), legId, jobId);
+        LegDocument legDocument = legService.findLegDocumentById(legId);
         if(legDocument != null ){
-            if(!LeosLegStatus.FILE_ERROR.equals(legDocument.getStatus())){
+            if(LeosLegStatus.IN_PREPARATION.equals(legDocument.getStatus())){
                 return legService.updateLegDocument(legDocument.getId(), LeosLegStatus.FILE_ERROR);
             } else {
+                LOG.debug("Leg document {} already in status {}, status {} skipped", legId, legDocument.getStatus(), LeosLegStatus.FILE_ERROR.name());
                 return legDocument;
             }
         } else {
@@ -128,13 +190,14 @@ public abstract class AbstractMilestoneService implements MilestoneService{
         }
     }
 
-    private LegDocument updateMilestone(String documentId, String jobId, byte[] pdfJobZip, byte[] wordJobZip) {
-        LOG.trace("Updating status to {} and content with pdf and word renditions of the Leg document that has jobId={} and is in the same package with any document that has documentId={}.", LeosLegStatus.FILE_READY.name(), jobId, documentId);
-        LegDocument legDocument = legService.findLegDocumentByAnyDocumentIdAndJobId(documentId, jobId);
+    private LegDocument updateMilestone(String legId, String jobId, byte[] pdfJobZip, byte[] wordJobZip) {
+        LOG.trace("Updating status to {} and content with pdf and word renditions of the Leg document with id={} and jobId={}.", LeosLegStatus.FILE_READY.name(), legId, jobId);
+        LegDocument legDocument = legService.findLegDocumentById(legId);
         if(legDocument != null){
             if(LeosLegStatus.IN_PREPARATION.equals(legDocument.getStatus())){
                 return legService.updateLegDocument(legDocument.getId(), pdfJobZip, wordJobZip);
             } else {
+                LOG.debug("Leg document {} already in status {}, rendition skipped", legId, legDocument.getStatus());
                 return legDocument;
             }
         } else {
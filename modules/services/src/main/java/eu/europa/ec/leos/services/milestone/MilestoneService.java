@@ -16,6 +16,8 @@ package eu.europa.ec.leos.services.milestone;
 import eu.europa.ec.leos.domain.cmis.LeosLegStatus;
 import eu.europa.ec.leos.domain.cmis.document.LegDocument;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface MilestoneService {
 
     LegDocument createMilestone(String proposalId, String milestoneComment) throws Exception;
@@ -23,4 +25,9 @@ public interface MilestoneService {
     LegDocument updateMilestone(String legId, LeosLegStatus status);
 
     LegDocument updateMilestoneRendition(String documentId, String jobId, byte[] pdfJobZip, byte[] wordJobZip);
+
+    /**
+     * Processes the rendition callback on a bounded worker pool, the unpacking of the renditions does not hold the calling thread.
+     */
+    CompletableFuture<LegDocument> updateMilestoneRenditionAsync(String documentId, String jobId, byte[] pdfJobZip, byte[] wordJobZip);
 }
@@ -10,6 +10,7 @@ import eu.europa.ec.leos.services.export.LegPackage;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface LegService {
     
@@ -23,6 +24,16 @@ public interface LegService {
     
     List<LegDocumentVO> getLegDocumentDetailsByUserId(String userId);
     
+    /**
+     * Lists the last leg document of the proposals on which the user collaborates, most recently modified proposals first.
+     *
+     * @param userId     the id of the user
+     * @param startIndex index of the first proposal to consider
+     * @param maxResults maximum number of proposals to consider, all of them if zero or negative
+     * @return the leg document details, fetched lazily while the stream is consumed
+     */
+    Stream<LegDocumentVO> getLegDocumentDetailsByUserId(String userId, int startIndex, int maxResults);
+    
     LegDocument createLegDocument(String proposalId, String jobId, LegPackage legPackage, LeosLegStatus status) throws IOException;
     
     LegDocument updateLegDocument(String id, LeosLegStatus status);
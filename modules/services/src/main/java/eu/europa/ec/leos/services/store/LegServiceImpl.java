@@ -38,6 +38,7 @@ import eu.europa.ec.leos.services.document.MemorandumService;
 import eu.europa.ec.leos.services.export.ExportOptions;
 import eu.europa.ec.leos.services.export.ExportResource;
 import eu.europa.ec.leos.services.export.LegPackage;
+import eu.europa.ec.leos.services.export.LegPackageWriter;
 import eu.europa.ec.leos.services.export.ZipPackageUtil;
 import eu.europa.ec.leos.services.rendition.HtmlRenditionProcessor;
 import eu.europa.ec.leos.services.support.TableOfContentHelper;
@@ -49,14 +50,12 @@ import eu.europa.ec.leos.vo.toc.TableOfContentItemHtmlVO;
 import eu.europa.ec.leos.vo.toc.TableOfContentItemVO;
 import io.atlassian.fugue.Option;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import javax.inject.Provider;
 import java.io.ByteArrayInputStream;
 import java.io.File;
@@ -64,11 +63,18 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static eu.europa.ec.leos.services.compare.ContentComparatorService.ATTR_NAME;
 import static eu.europa.ec.leos.services.compare.ContentComparatorService.DOUBLE_COMPARE_ADDED_CLASS;
@@ -114,6 +120,7 @@ public class LegServiceImpl implements LegService {
     private static final String HTML_RENDITION = "renditions/html/";
     private static final String PDF_RENDITION = "renditions/pdf/";
     private static final String WORD_RENDITION = "renditions/word/";
+    private static final int LEG_DETAILS_PAGE_SIZE = 40;
     
     @Autowired
     LegServiceImpl(PackageRepository packageRepository,
@@ -148,6 +155,22 @@ public class LegServiceImpl implements LegService {
         this.annexService = annexService;
     }
     
+    /**
+     * Loads the static resources copied in every exported leg file, so that they are not read again from the classpath on each export.
+     */
+    @PostConstruct
+    void preloadExportResources() {
+        LegPackageWriter.preloadResources(
+                JQUERY_SOURCE_PATH + "jquery" + JS_EXT,
+                JQTREE_SOURCE_PATH + "jqtree" + JS_EXT,
+                JQTREE_SOURCE_PATH + "css/jqtree" + STYLE_SHEET_EXT,
+                JS_SOURCE_PATH + "rendition/leos-toc-rendition" + JS_EXT,
+                STYLES_SOURCE_PATH + "leos-toc-rendition" + STYLE_SHEET_EXT,
+                STYLES_SOURCE_PATH + LeosCategory.BILL.name().toLowerCase() + STYLE_SHEET_EXT,
+                STYLES_SOURCE_PATH + LeosCategory.MEMORANDUM.name().toLowerCase() + STYLE_SHEET_EXT,
+                STYLES_SOURCE_PATH + LeosCategory.ANNEX.name().toLowerCase() + STYLE_SHEET_EXT);
+    }
+    
     @Override
     public LegDocument findLastLegByVersionedReference(String path, String versionedReference) {
         return packageRepository.findLastLegByVersionedReference(path, versionedReference);
@@ -155,13 +178,49 @@ public class LegServiceImpl implements LegService {
     
     @Override
     public List<LegDocumentVO> getLegDocumentDetailsByUserId(String userId) {
-        List<Proposal> proposals = packageRepository.findDocumentsByUserId(userId, Proposal.class, authorityMapHelper.getRoleForDocCreation());
+        return getLegDocumentDetailsByUserId(userId, 0, 0).collect(Collectors.toList());
+    }
+    
+    /**
+     * Proposals are read page by page, and the last leg document of all the packages of a page is looked up at once.
+     * The next page is only read when the stream is consumed up to it.
+     */
+    @Override
+    public Stream<LegDocumentVO> getLegDocumentDetailsByUserId(String userId, int startIndex, int maxResults) {
+        final String leosAuthority = authorityMapHelper.getRoleForDocCreation();
+        final Iterator<List<LegDocumentVO>> pages = new Iterator<List<LegDocumentVO>>() {
+            private int nextIndex = Math.max(startIndex, 0);
+            private int remaining = maxResults > 0 ? maxResults : Integer.MAX_VALUE;
+            
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+            
+            @Override
+            public List<LegDocumentVO> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int pageSize = Math.min(remaining, LEG_DETAILS_PAGE_SIZE);
+                List<Proposal> proposals = packageRepository.<Proposal>findPagedDocumentsByUserId(userId, Proposal.class, leosAuthority, nextIndex, pageSize)
+                        .collect(Collectors.toList());
+                nextIndex += proposals.size();
+                remaining = proposals.size() < pageSize ? 0 : remaining - proposals.size();
+                return getLegDocumentDetails(proposals);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED), false)
+                .flatMap(List::stream);
+    }
+    
+    private List<LegDocumentVO> getLegDocumentDetails(List<Proposal> proposals) {
+        List<String> proposalIds = proposals.stream().map(Proposal::getId).collect(Collectors.toList());
+        Map<String, LegDocument> lastLegByProposalId = packageRepository.findLatestDocumentsInPackagesOf(proposalIds, LegDocument.class);
         List<LegDocumentVO> legDocumentVOs = new ArrayList<>();
         for (Proposal proposal : proposals) {
-            LeosPackage leosPackage = packageRepository.findPackageByDocumentId(proposal.getId());
-            List<LegDocument> legDocuments = packageRepository.findDocumentsByPackagePath(leosPackage.getPath(), LegDocument.class, false);
-            if (!legDocuments.isEmpty()) {
-                LegDocument leg = legDocuments.get(0);
+            LegDocument leg = lastLegByProposalId.get(proposal.getId());
+            if (leg != null) {
                 LegDocumentVO legDocumentVO = new LegDocumentVO();
                 legDocumentVO.setProposalId(proposal.getMetadata().getOrError(() -> "Proposal metadata is not available!").getRef());
                 legDocumentVO.setDocumentTitle(proposal.getTitle());
@@ -275,140 +334,145 @@ public class LegServiceImpl implements LegService {
         
         final LegPackage legPackage = new LegPackage();
         final LeosPackage leosPackage = packageRepository.findPackageByDocumentId(proposalId);
-        final Map<String, Object> contentToZip = new HashMap<>();
         final ExportResource exportProposalResource = new ExportResource(LeosCategory.PROPOSAL);
         exportProposalResource.setExportOptions(exportOptions);
         
         //1. Add Proposal to package
         final Proposal proposal = workspaceRepository.findDocumentById(proposalId, Proposal.class, true);
-        final Map<String, String> proposalRefsMap = enrichZipWithProposal(contentToZip, exportProposalResource, proposal);
+        final byte[] proposalXmlContent = addMetadataToProposal(getContent(proposal), proposal);
+        final Map<String, String> proposalRefsMap = buildProposalExportResource(exportProposalResource, proposalXmlContent);
+        // annotation file names of the exported documents, by document ref
+        final Map<String, String> annotationFileNames = new LinkedHashMap<>();
         
-        //2. Depending on ExportOptions FileType add documents to package
-        Bill bill;
-        ExportResource exportBillResource;
-        switch (exportOptions.getFileType()) {
-            case "LEGALTEXT": // TODO: Get from LeosCategory once Kotlin code is removed
-                bill = packageRepository.findDocumentByPackagePathAndName(leosPackage.getPath(),
-                        proposalRefsMap.get(LeosCategory.BILL.name() + "_href"), Bill.class);
-                addBillToPackage(contentToZip, exportProposalResource, proposalRefsMap, bill, versionToCompare);
-                legPackage.addContainedFile(bill.getVersionedReference());
-                break;
-            case "MEMORANDUM":
-                if (proposalRefsMap.get(LeosCategory.MEMORANDUM.name() + "_href") != null) {
-                    addMemorandumToPackage(leosPackage, contentToZip, exportProposalResource, proposalRefsMap, legPackage);
-                }
-                break;
-            case "ANNEX":
-                bill = packageRepository.findDocumentByPackagePathAndName(leosPackage.getPath(),
-                        proposalRefsMap.get(LeosCategory.BILL.name() + "_href"), Bill.class);
-                
-                Content content = bill.getContent().getOrNull();
-                exportBillResource = buildExportResourceBill(proposalRefsMap, content.getSource().getBytes());
-                exportBillResource.setExportOptions(exportOptions);
-                exportProposalResource.addChildResource(exportBillResource);
-                legPackage.addContainedFile(bill.getVersionedReference());
-                addAnnexToPackage(leosPackage, bill, contentToZip, ((Annex) versionToCompare), exportBillResource, legPackage);
-                break;
-            default:
-                bill = packageRepository.findDocumentByPackagePathAndName(leosPackage.getPath(),
-                        proposalRefsMap.get(LeosCategory.BILL.name() + "_href"), Bill.class);
-                exportBillResource = addBillToPackage(contentToZip, exportProposalResource, proposalRefsMap, bill, versionToCompare);
-                legPackage.addContainedFile(bill.getVersionedReference());
-                if (proposalRefsMap.get(LeosCategory.MEMORANDUM.name() + "_href") != null) {
-                    addMemorandumToPackage(leosPackage, contentToZip, exportProposalResource, proposalRefsMap, legPackage);
-                }
-                addAnnexToPackage(leosPackage, bill, contentToZip, null, exportBillResource, legPackage);
+        try (LegPackageWriter packageWriter = new LegPackageWriter(proposalRefsMap.get(XmlNodeConfigHelper.PROPOSAL_DOC_COLLECTION) + ".leg")) {
+            packageWriter.writeEntry("main.xml", proposalXmlContent);
+            
+            //2. Depending on ExportOptions FileType add documents to package
+            Bill bill;
+            ExportResource exportBillResource;
+            switch (exportOptions.getFileType()) {
+                case "LEGALTEXT": // TODO: Get from LeosCategory once Kotlin code is removed
+                    bill = packageRepository.findDocumentByPackagePathAndName(leosPackage.getPath(),
+                            proposalRefsMap.get(LeosCategory.BILL.name() + "_href"), Bill.class);
+                    addBillToPackage(packageWriter, exportProposalResource, proposalRefsMap, bill, versionToCompare, annotationFileNames);
+                    legPackage.addContainedFile(bill.getVersionedReference());
+                    break;
+                case "MEMORANDUM":
+                    if (proposalRefsMap.get(LeosCategory.MEMORANDUM.name() + "_href") != null) {
+                        addMemorandumToPackage(leosPackage, packageWriter, exportProposalResource, proposalRefsMap, legPackage, annotationFileNames);
+                    }
+                    break;
+                case "ANNEX":
+                    bill = packageRepository.findDocumentByPackagePathAndName(leosPackage.getPath(),
+                            proposalRefsMap.get(LeosCategory.BILL.name() + "_href"), Bill.class);
+                    
+                    Content content = bill.getContent().getOrNull();
+                    exportBillResource = buildExportResourceBill(proposalRefsMap, content.getSource().getBytes());
+                    exportBillResource.setExportOptions(exportOptions);
+                    exportProposalResource.addChildResource(exportBillResource);
+                    legPackage.addContainedFile(bill.getVersionedReference());
+                    addAnnexToPackage(leosPackage, bill, packageWriter, ((Annex) versionToCompare), exportBillResource, legPackage, annotationFileNames);
+                    break;
+                default:
+                    bill = packageRepository.findDocumentByPackagePathAndName(leosPackage.getPath(),
+                            proposalRefsMap.get(LeosCategory.BILL.name() + "_href"), Bill.class);
+                    exportBillResource = addBillToPackage(packageWriter, exportProposalResource, proposalRefsMap, bill, versionToCompare, annotationFileNames);
+                    legPackage.addContainedFile(bill.getVersionedReference());
+                    if (proposalRefsMap.get(LeosCategory.MEMORANDUM.name() + "_href") != null) {
+                        addMemorandumToPackage(leosPackage, packageWriter, exportProposalResource, proposalRefsMap, legPackage, annotationFileNames);
+                    }
+                    addAnnexToPackage(leosPackage, bill, packageWriter, null, exportBillResource, legPackage, annotationFileNames);
+            }
+            
+            //3. Add the annotations of all the documents, exported with a single request
+            if (!annotationFileNames.isEmpty()) {
+                annotateService.exportAnnotations(annotationFileNames.keySet(), docRef -> packageWriter.openEntry(annotationFileNames.get(docRef)));
+            }
+            
+            //4. Add TOC
+            enrichZipWithToc(packageWriter);
+            
+            //5. Add media
+            final List<MediaDocument> mediaDocs = packageRepository.findDocumentsByPackagePath(leosPackage.getPath(), MediaDocument.class, false);
+            enrichZipWithMedia(packageWriter, mediaDocs);
+            legPackage.setFile(packageWriter.finish());
         }
-        
-        //3. Add TOC
-        enrichZipWithToc(contentToZip);
-        
-        //4. Add media
-        final List<MediaDocument> mediaDocs = packageRepository.findDocumentsByPackagePath(leosPackage.getPath(), MediaDocument.class, true);
-        enrichZipWithMedia(contentToZip, mediaDocs);
-        legPackage.setFile(ZipPackageUtil.zipFiles(proposalRefsMap.get(XmlNodeConfigHelper.PROPOSAL_DOC_COLLECTION) + ".leg", contentToZip));
         legPackage.setExportResource(exportProposalResource);
         return legPackage;
     }
     
-    private ExportResource addBillToPackage(final Map<String, Object> contentToZip, ExportResource exportProposalResource,
-                                            final Map<String, String> proposalRefsMap, final Bill bill, XmlDocument versionToCompare) {
+    private ExportResource addBillToPackage(final LegPackageWriter packageWriter, ExportResource exportProposalResource,
+                                            final Map<String, String> proposalRefsMap, final Bill bill, XmlDocument versionToCompare,
+                                            Map<String, String> annotationFileNames) throws IOException {
         Content content = bill.getContent().getOrError(() -> "Bill content is required!");
         byte[] xmlContent = content.getSource().getBytes();
-        return enrichZipWithBill(contentToZip, exportProposalResource, proposalRefsMap, bill, xmlContent, versionToCompare);
+        return enrichZipWithBill(packageWriter, exportProposalResource, proposalRefsMap, bill, xmlContent, versionToCompare, annotationFileNames);
     }
     
-    private void addMemorandumToPackage(final LeosPackage leosPackage, final Map<String, Object> contentToZip, ExportResource exportProposalResource,
-                                        final Map<String, String> proposalRefsMap, LegPackage legPackage) {
+    private void addMemorandumToPackage(final LeosPackage leosPackage, final LegPackageWriter packageWriter, ExportResource exportProposalResource,
+                                        final Map<String, String> proposalRefsMap, LegPackage legPackage, Map<String, String> annotationFileNames) throws IOException {
         final Memorandum memorandum = packageRepository.findDocumentByPackagePathAndName(leosPackage.getPath(), proposalRefsMap.get(LeosCategory.MEMORANDUM.name() + "_href"), Memorandum.class);
-        enrichZipWithMemorandum(contentToZip, exportProposalResource, proposalRefsMap, memorandum);
+        enrichZipWithMemorandum(packageWriter, exportProposalResource, proposalRefsMap, memorandum, annotationFileNames);
         legPackage.addContainedFile(memorandum.getVersionedReference());
     }
     
     /**
      * Used to add a Single annex to package, or all annexes if @param annexId is null
      */
-    private void addAnnexToPackage(final LeosPackage leosPackage, Bill bill, final Map<String, Object> contentToZip,
-                                   Annex versionToCompare, ExportResource exportProposalResource, LegPackage legPackage) {
+    private void addAnnexToPackage(final LeosPackage leosPackage, Bill bill, final LegPackageWriter packageWriter,
+                                   Annex versionToCompare, ExportResource exportProposalResource, LegPackage legPackage,
+                                   Map<String, String> annotationFileNames) throws IOException {
         Content content = bill.getContent().getOrError(() -> "Bill content is required!");
         String annexId = versionToCompare != null ? versionToCompare.getMetadata().get().getRef() : null;
         byte[] xmlContent = content.getSource().getBytes();
         final Map<String, String> attachmentIds = attachmentProcessor.getAttachmentsIdFromBill(xmlContent);
         final String annexStyleSheet = LeosCategory.ANNEX.name().toLowerCase() + STYLE_SHEET_EXT;
-        attachmentIds.forEach((href, id) -> {
+        for (Map.Entry<String, String> attachment : attachmentIds.entrySet()) {
+            final String href = attachment.getKey();
             if (annexId == null || href.equals(annexId)) {
                 final Annex annex = packageRepository.findDocumentByPackagePathAndName(leosPackage.getPath(), href, Annex.class);
-                enrichZipWithAnnex(contentToZip, exportProposalResource, annexStyleSheet, annex, versionToCompare, id, href);
+                enrichZipWithAnnex(packageWriter, exportProposalResource, annexStyleSheet, annex, versionToCompare, attachment.getValue(), href, annotationFileNames);
                 legPackage.addContainedFile(annex.getVersionedReference());
             }
-        });
+        }
         if (!attachmentIds.isEmpty()) {
             //Add annex style only if at least one is present
-            addResourceToZipContent(contentToZip, annexStyleSheet, STYLES_SOURCE_PATH, STYLE_DEST_DIR);
+            packageWriter.writeResource(annexStyleSheet, STYLES_SOURCE_PATH, STYLE_DEST_DIR);
         }
     }
     
-    private Map<String, String> enrichZipWithProposal(final Map<String, Object> contentToZip, ExportResource exportProposalResource, Proposal proposal) {
-        Content content = proposal.getContent().getOrError(() -> "Proposal content is required!");
-        byte[] xmlContent = content.getSource().getBytes();
-        xmlContent = addMetadataToProposal(xmlContent, proposal);
-        contentToZip.put("main.xml", xmlContent);
-        
-        return buildProposalExportResource(exportProposalResource, xmlContent);
-    }
-    
-    private void enrichZipWithToc(final Map<String, Object> contentToZip) {
-        addResourceToZipContent(contentToZip, "jquery" + JS_EXT, JQUERY_SOURCE_PATH, JS_DEST_DIR);
-        addResourceToZipContent(contentToZip, "jqtree" + JS_EXT, JQTREE_SOURCE_PATH, JS_DEST_DIR);
-        addResourceToZipContent(contentToZip, "jqtree" + STYLE_SHEET_EXT, JQTREE_SOURCE_PATH + "css/", STYLE_DEST_DIR);
-        addResourceToZipContent(contentToZip, "leos-toc-rendition" + JS_EXT, JS_SOURCE_PATH + "rendition/", JS_DEST_DIR);
-        addResourceToZipContent(contentToZip, "leos-toc-rendition" + STYLE_SHEET_EXT, STYLES_SOURCE_PATH, STYLE_DEST_DIR);
+    private void enrichZipWithToc(final LegPackageWriter packageWriter) throws IOException {
+        packageWriter.writeResource("jquery" + JS_EXT, JQUERY_SOURCE_PATH, JS_DEST_DIR);
+        packageWriter.writeResource("jqtree" + JS_EXT, JQTREE_SOURCE_PATH, JS_DEST_DIR);
+        packageWriter.writeResource("jqtree" + STYLE_SHEET_EXT, JQTREE_SOURCE_PATH + "css/", STYLE_DEST_DIR);
+        packageWriter.writeResource("leos-toc-rendition" + JS_EXT, JS_SOURCE_PATH + "rendition/", JS_DEST_DIR);
+        packageWriter.writeResource("leos-toc-rendition" + STYLE_SHEET_EXT, STYLES_SOURCE_PATH, STYLE_DEST_DIR);
     }
     
-    private void enrichZipWithMemorandum(final Map<String, Object> contentToZip, ExportResource exportProposalResource, Map<String, String> proposalRefsMap, Memorandum memorandum) {
+    private void enrichZipWithMemorandum(final LegPackageWriter packageWriter, ExportResource exportProposalResource, Map<String, String> proposalRefsMap, Memorandum memorandum,
+                                         Map<String, String> annotationFileNames) throws IOException {
         Content content = memorandum.getContent().getOrError(() -> "Memorandum content is required!");
         ExportOptions exportOptions = exportProposalResource.getExportOptions();
         
         byte[] xmlContent = content.getSource().getBytes();
         xmlContent = addMetadataToMemorandum(xmlContent, memorandum);
-        contentToZip.put(memorandum.getName(), xmlContent);
+        packageWriter.writeEntry(memorandum.getName(), xmlContent);
         if (exportOptions.isConvertAnnotations()) {
-            String annotations = annotateService.getAnnotations(memorandum.getMetadata().getOrError(() -> "Memorandum metadata is not available!").getRef());
-            addAnnotateToZipContent(contentToZip, memorandum.getName(), annotations);
+            annotationFileNames.put(memorandum.getMetadata().getOrError(() -> "Memorandum metadata is not available!").getRef(), creatAnnotationFileName(memorandum.getName()));
         }
         
         String memoStyleSheet = LeosCategory.MEMORANDUM.name().toLowerCase() + STYLE_SHEET_EXT;
-        addResourceToZipContent(contentToZip, memoStyleSheet, STYLES_SOURCE_PATH, STYLE_DEST_DIR);
+        packageWriter.writeResource(memoStyleSheet, STYLES_SOURCE_PATH, STYLE_DEST_DIR);
         structureContextProvider.get().useDocumentTemplate(memorandum.getMetadata().get().getDocTemplate());
         final String memoTocJson = getTocAsJson(memorandumService.getTableOfContent(memorandum, TocMode.SIMPLIFIED_CLEAN));
-        addHtmlRendition(contentToZip, memorandum, memoStyleSheet, memoTocJson);
+        addHtmlRendition(packageWriter, memorandum, memoStyleSheet, memoTocJson);
         
         final ExportResource memorandumExportResource = buildExportResourceMemorandum(proposalRefsMap, xmlContent);
         exportProposalResource.addChildResource(memorandumExportResource);
     }
     
-    private ExportResource enrichZipWithBill(final Map<String, Object> contentToZip, ExportResource exportProposalResource, Map<String, String> proposalRefsMap,
-                                             Bill bill, byte[] xmlContent, XmlDocument versionToCompare) {
+    private ExportResource enrichZipWithBill(final LegPackageWriter packageWriter, ExportResource exportProposalResource, Map<String, String> proposalRefsMap,
+                                             Bill bill, byte[] xmlContent, XmlDocument versionToCompare, Map<String, String> annotationFileNames) throws IOException {
         ExportOptions exportOptions = exportProposalResource.getExportOptions();
         String resultContent = "";
         
@@ -427,17 +491,16 @@ public class LegServiceImpl implements LegService {
             default:
                 xmlContent = addMetadataToBill(xmlContent, bill);
         }
-        contentToZip.put(bill.getName(), xmlContent);
+        packageWriter.writeEntry(bill.getName(), xmlContent);
         if (exportOptions.isConvertAnnotations()) {
-            String billAnnotations = annotateService.getAnnotations(bill.getMetadata().getOrError(() -> "Legal text metadata is not available!").getRef());
-            addAnnotateToZipContent(contentToZip, bill.getName(), billAnnotations);
+            annotationFileNames.put(bill.getMetadata().getOrError(() -> "Legal text metadata is not available!").getRef(), creatAnnotationFileName(bill.getName()));
         }
         
         String billStyleSheet = LeosCategory.BILL.name().toLowerCase() + STYLE_SHEET_EXT;
-        addResourceToZipContent(contentToZip, billStyleSheet, STYLES_SOURCE_PATH, STYLE_DEST_DIR);
+        packageWriter.writeResource(billStyleSheet, STYLES_SOURCE_PATH, STYLE_DEST_DIR);
         structureContextProvider.get().useDocumentTemplate(bill.getMetadata().get().getDocTemplate());
         final String billTocJson = getTocAsJson(billService.getTableOfContent(bill, TocMode.SIMPLIFIED_CLEAN));
-        addHtmlRendition(contentToZip, bill, billStyleSheet, billTocJson);
+        addHtmlRendition(packageWriter, bill, billStyleSheet, billTocJson);
         
         final ExportResource exportBillResource = buildExportResourceBill(proposalRefsMap, xmlContent);
         exportBillResource.setExportOptions(exportOptions);
@@ -479,7 +542,8 @@ public class LegServiceImpl implements LegService {
                 .build());
     }
     
-    private void enrichZipWithAnnex(final Map<String, Object> contentToZip, ExportResource exportBillResource, String annexStyleSheet, Annex annex, Annex versionToCompare, String resourceId, String href) {
+    private void enrichZipWithAnnex(final LegPackageWriter packageWriter, ExportResource exportBillResource, String annexStyleSheet, Annex annex, Annex versionToCompare, String resourceId, String href,
+                                    Map<String, String> annotationFileNames) throws IOException {
         ExportOptions exportOptions = exportBillResource.getExportOptions();
         String resultContent;
         final Content annexContent = annex.getContent().getOrError(() -> "Annex content is required!");
@@ -499,16 +563,15 @@ public class LegServiceImpl implements LegService {
             default:
                 xmlAnnexContent = addMetadataToAnnex(xmlAnnexContent, annex);
         }
-        contentToZip.put(annex.getName(), xmlAnnexContent);
+        packageWriter.writeEntry(annex.getName(), xmlAnnexContent);
         if (exportOptions.isConvertAnnotations()) {
-            String annexAnnotations = annotateService.getAnnotations(annex.getMetadata().getOrError(() -> "Annex metadata is not available!").getRef());
-            addAnnotateToZipContent(contentToZip, annex.getName(), annexAnnotations);
+            annotationFileNames.put(annex.getMetadata().getOrError(() -> "Annex metadata is not available!").getRef(), creatAnnotationFileName(annex.getName()));
         }
         
-        addResourceToZipContent(contentToZip, annexStyleSheet, STYLES_SOURCE_PATH, STYLE_DEST_DIR);
+        packageWriter.writeResource(annexStyleSheet, STYLES_SOURCE_PATH, STYLE_DEST_DIR);
         structureContextProvider.get().useDocumentTemplate(annex.getMetadata().get().getDocTemplate());
         final String annexTocJson = getTocAsJson(annexService.getTableOfContent(annex, TocMode.SIMPLIFIED_CLEAN));
-        addHtmlRendition(contentToZip, annex, annexStyleSheet, annexTocJson);
+        addHtmlRendition(packageWriter, annex, annexStyleSheet, annexTocJson);
         
         int docNumber = annex.getMetadata().get().getIndex();
         final ExportResource annexExportResource = buildExportResourceAnnex(docNumber, resourceId, href, xmlAnnexContent);
@@ -591,12 +654,15 @@ public class LegServiceImpl implements LegService {
         return annexExportResource;
     }
     
-    private void enrichZipWithMedia(final Map<String, Object> contentToZip, List<MediaDocument> mediaDocs) {
+    /**
+     * Media documents are fetched with their content one by one, so that only one of them is held in memory at a time
+     */
+    private void enrichZipWithMedia(final LegPackageWriter packageWriter, List<MediaDocument> mediaDocs) throws IOException {
         Content content;
         for (MediaDocument mediaDoc : mediaDocs) {
-            content = mediaDoc.getContent().getOrError(() -> "Document content is required!");
-            byte[] byteContent = content.getSource().getBytes();
-            contentToZip.put(MEDIA_DIR + mediaDoc.getName(), byteContent);
+            final MediaDocument mediaWithContent = workspaceRepository.findDocumentById(mediaDoc.getId(), MediaDocument.class, false);
+            content = mediaWithContent.getContent().getOrError(() -> "Document content is required!");
+            packageWriter.writeMediaEntry(MEDIA_DIR + mediaDoc.getName(), content.getSource().getBytes());
         }
     }
     
@@ -700,56 +766,26 @@ public class LegServiceImpl implements LegService {
         }
     }
     
-    private void addHtmlRendition(Map<String, Object> contentToZip, XmlDocument xmlDocument, String styleSheetName, String tocJson) {
-        try {
-            RenderedDocument htmlDocument = new RenderedDocument();
-            htmlDocument.setContent(new ByteArrayInputStream(getContent(xmlDocument)));
-            htmlDocument.setStyleSheetName(styleSheetName);
-            String htmlName = HTML_RENDITION + xmlDocument.getName().replaceAll(".xml", ".html");
-            contentToZip.put(htmlName, htmlRenditionProcessor.processTemplate(htmlDocument).getBytes("UTF-8"));
-        } catch (UnsupportedEncodingException exception) {
-            throw new IllegalStateException("UnsupportedEncodingException while processing document " + xmlDocument.getName(), exception);
-        }
+    private void addHtmlRendition(LegPackageWriter packageWriter, XmlDocument xmlDocument, String styleSheetName, String tocJson) throws IOException {
+        final byte[] xmlContent = getContent(xmlDocument);
+        RenderedDocument htmlDocument = new RenderedDocument();
+        htmlDocument.setContent(new ByteArrayInputStream(xmlContent));
+        htmlDocument.setStyleSheetName(styleSheetName);
+        String htmlName = HTML_RENDITION + xmlDocument.getName().replaceAll(".xml", ".html");
+        packageWriter.writeEntry(htmlName, htmlRenditionProcessor.processTemplate(htmlDocument));
         
-        try {
-            // Build toc_docName.js file
-            RenderedDocument tocHtmlDocument = new RenderedDocument();
-            tocHtmlDocument.setContent(new ByteArrayInputStream(getContent(xmlDocument)));
-            tocHtmlDocument.setStyleSheetName(styleSheetName);
-            final String tocJsName = xmlDocument.getName().substring(0, xmlDocument.getName().indexOf(".xml")) + "_toc" + ".js";
-            final String tocJsFile = JS_DEST_DIR + tocJsName;
-            contentToZip.put(tocJsFile, htmlRenditionProcessor.processJsTemplate(tocJson).getBytes("UTF-8"));
-            
-            //build html_docName_toc.html
-            tocHtmlDocument = new RenderedDocument();
-            tocHtmlDocument.setContent(new ByteArrayInputStream(getContent(xmlDocument)));
-            tocHtmlDocument.setStyleSheetName(styleSheetName);
-            String tocHtmlFile = HTML_RENDITION + xmlDocument.getName();
-            tocHtmlFile = tocHtmlFile.substring(0, tocHtmlFile.indexOf(".xml")) + "_toc" + ".html";
-            contentToZip.put(tocHtmlFile, htmlRenditionProcessor.processTocTemplate(tocHtmlDocument, tocJsName).getBytes("UTF-8"));
-        } catch (UnsupportedEncodingException exception) {
-            throw new IllegalStateException("UnsupportedEncodingException while processing document " + xmlDocument.getName(), exception);
-        }
-    }
-    
-    /**
-     * Add resource to exported .leg file in renditions/html/css or js folder
-     */
-    private void addResourceToZipContent(Map<String, Object> contentToZip, String resourceName, String sourcePath, String destPath) {
-        try {
-            Resource resource = new ClassPathResource(sourcePath + resourceName);
-            contentToZip.put(destPath + resourceName, IOUtils.toByteArray(resource.getInputStream()));
-        } catch (IOException io) {
-            LOG.error("Error occurred while getting styles ", io);
-        }
-    }
-    
-    /**
-     * Calls service to get Annotations per document
-     */
-    private void addAnnotateToZipContent(Map<String, Object> contentToZip, String docName, String annotations) {
-        final byte[] xmlAnnotationContent = annotations.getBytes(UTF_8);
-        contentToZip.put(creatAnnotationFileName(docName), xmlAnnotationContent);
+        // Build toc_docName.js file
+        final String tocJsName = xmlDocument.getName().substring(0, xmlDocument.getName().indexOf(".xml")) + "_toc" + ".js";
+        final String tocJsFile = JS_DEST_DIR + tocJsName;
+        packageWriter.writeEntry(tocJsFile, htmlRenditionProcessor.processJsTemplate(tocJson));
+        
+        //build html_docName_toc.html
+        RenderedDocument tocHtmlDocument = new RenderedDocument();
+        tocHtmlDocument.setContent(new ByteArrayInputStream(xmlContent));
+        tocHtmlDocument.setStyleSheetName(styleSheetName);
+        String tocHtmlFile = HTML_RENDITION + xmlDocument.getName();
+        tocHtmlFile = tocHtmlFile.substring(0, tocHtmlFile.indexOf(".xml")) + "_toc" + ".html";
+        packageWriter.writeEntry(tocHtmlFile, htmlRenditionProcessor.processTocTemplate(tocHtmlDocument, tocJsName));
     }
     
     private String creatAnnotationFileName(String docName) {
@@ -13,6 +13,8 @@
  */
 package eu.europa.ec.leos.services.store;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import cool.graph.cuid.Cuid;
 import eu.europa.ec.leos.domain.cmis.LeosCategory;
 import eu.europa.ec.leos.domain.cmis.LeosPackage;
@@ -21,20 +23,30 @@ import eu.europa.ec.leos.domain.cmis.document.Bill;
 import eu.europa.ec.leos.domain.cmis.document.LeosDocument;
 import eu.europa.ec.leos.domain.cmis.document.XmlDocument;
 import eu.europa.ec.leos.domain.common.TocMode;
+import eu.europa.ec.leos.metrics.LeosMetrics;
 import eu.europa.ec.leos.repository.store.PackageRepository;
+import eu.europa.ec.leos.repository.store.WorkspaceRepository;
 import eu.europa.ec.leos.services.support.xml.VTDUtils;
 import eu.europa.ec.leos.services.support.xml.XmlTableOfContentHelper;
 import eu.europa.ec.leos.services.toc.StructureContext;
 import eu.europa.ec.leos.vo.toc.TableOfContentItemVO;
+import eu.europa.ec.leos.vo.toc.TocItem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import javax.inject.Provider;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static eu.europa.ec.leos.services.support.xml.XmlHelper.ANNEX;
@@ -45,20 +57,33 @@ import static eu.europa.ec.leos.services.support.xml.XmlHelper.DOC;
 class PackageServiceImpl implements PackageService {
     private static final Logger LOG = LoggerFactory.getLogger(PackageServiceImpl.class);
     private static final String PACKAGE_NAME_PREFIX = "package_";
+    private static final int TOC_CACHE_SIZE = 500;
 
     private final PackageRepository packageRepository;
     private final Provider<StructureContext> structureContextProvider;
     private final XmlTableOfContentHelper xmlTableOfContentHelper;
+    private final WorkspaceRepository workspaceRepository;
+    private final AsyncTaskExecutor taskExecutor;
+    
+    private final Cache<String, List<TableOfContentItemVO>> tocCache = LeosMetrics.monitor(CacheBuilder.newBuilder()
+            .maximumSize(TOC_CACHE_SIZE)
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .recordStats()
+            .build(), "toc");
 
     @Value("${leos.workspaces.path}")
     protected String storagePath;
     
     PackageServiceImpl(PackageRepository packageRepository,
            Provider<StructureContext> structureContextProvider,
-           XmlTableOfContentHelper xmlTableOfContentHelper) {
+           XmlTableOfContentHelper xmlTableOfContentHelper,
+           WorkspaceRepository workspaceRepository,
+           @Qualifier("delegatingSecurityContextAsyncTaskExecutor") AsyncTaskExecutor taskExecutor) {
         this.packageRepository = packageRepository;
         this.structureContextProvider = structureContextProvider;
         this.xmlTableOfContentHelper = xmlTableOfContentHelper;
+        this.workspaceRepository = workspaceRepository;
+        this.taskExecutor = taskExecutor;
     }
 
     @Override
@@ -101,26 +126,95 @@ class PackageServiceImpl implements PackageService {
         return PACKAGE_NAME_PREFIX + Cuid.createCuid();
     }
     
+    /**
+     * The TOC of each document version is built once and then served from the cache: the documents of the package are listed
+     * without content and only the ones whose version is not in the cache are loaded, their TOCs being built in parallel.
+     * The cached TOCs are never handed out: each call returns copies, which the caller may modify.
+     */
     @Override
     public Map<String, List<TableOfContentItemVO>> getTableOfContent(String documentId, TocMode mode) {
         LeosPackage leosPackage = findPackageByDocumentId(documentId);
-        List<XmlDocument> documents = findDocumentsByPackagePath(leosPackage.getPath(), XmlDocument.class, true);
+        List<XmlDocument> documents = findDocumentsByPackagePath(leosPackage.getPath(), XmlDocument.class, false);
         Map<String, List<TableOfContentItemVO>> tocItemsMap = new HashMap<>();
+        List<TocSource> missingTocs = new ArrayList<>();
         for (XmlDocument document : documents) {
-            structureContextProvider.get().useDocumentTemplate(document.getMetadata().get().getDocTemplate());
-            final String startingNode;
-            if (document instanceof Bill) {
-                startingNode = BILL;
+            String ref = document.getMetadata().get().getRef();
+            List<TableOfContentItemVO> toc = tocCache.getIfPresent(getTocCacheKey(document, mode));
+            if (toc != null) {
+                tocItemsMap.put(ref, copyToc(toc));
             } else {
-                startingNode = DOC; // Annex and Memorandum
+                // content and toc configuration are read in the request thread, the request scoped structure context is not available in the build tasks
+                XmlDocument documentWithContent = workspaceRepository.findDocumentById(document.getId(), XmlDocument.class, false);
+                StructureContext structureContext = structureContextProvider.get();
+                structureContext.useDocumentTemplate(document.getMetadata().get().getDocTemplate());
+                missingTocs.add(new TocSource(document, documentWithContent.getContent().get().getSource().getBytes(),
+                        structureContext.getTocItems(), structureContext.getTocRules()));
             }
-            
-            List<TableOfContentItemVO> toc = xmlTableOfContentHelper.buildTableOfContent(startingNode, document.getContent().get().getSource().getBytes(), mode);
-            tocItemsMap.put(document.getMetadata().get().getRef(), toc);
+        }
+        
+        LOG.debug("Table of content of package {}: {} document(s) from cache, {} to build", leosPackage.getName(), tocItemsMap.size(), missingTocs.size());
+        // the first TOC is built in the request thread while the others are built on the shared executor
+        List<Future<List<TableOfContentItemVO>>> builds = new ArrayList<>();
+        for (TocSource source : missingTocs.subList(Math.min(1, missingTocs.size()), missingTocs.size())) {
+            builds.add(taskExecutor.submit(() -> buildTableOfContent(source, mode)));
+        }
+        if (!missingTocs.isEmpty()) {
+            TocSource source = missingTocs.get(0);
+            tocItemsMap.put(source.document.getMetadata().get().getRef(), copyToc(buildTableOfContent(source, mode)));
+        }
+        for (int i = 0; i < builds.size(); i++) {
+            TocSource source = missingTocs.get(i + 1);
+            tocItemsMap.put(source.document.getMetadata().get().getRef(), copyToc(getBuiltTableOfContent(builds.get(i), source)));
         }
         return tocItemsMap;
     }
     
+    private List<TableOfContentItemVO> buildTableOfContent(TocSource source, TocMode mode) {
+        final String startingNode = source.document instanceof Bill ? BILL : DOC; // Annex and Memorandum use DOC
+        List<TableOfContentItemVO> toc = Collections.unmodifiableList(
+                xmlTableOfContentHelper.buildTableOfContent(startingNode, source.content, mode, source.tocItems, source.tocRules));
+        tocCache.put(getTocCacheKey(source.document, mode), toc);
+        return toc;
+    }
+    
+    private static List<TableOfContentItemVO> getBuiltTableOfContent(Future<List<TableOfContentItemVO>> build, TocSource source) {
+        try {
+            return build.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building the table of content of document " + source.document.getId(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Unable to build the table of content of document " + source.document.getId(), e.getCause());
+        }
+    }
+    
+    // the cached trees are shared between the users, the ones returned can be modified by the caller
+    private static List<TableOfContentItemVO> copyToc(List<TableOfContentItemVO> toc) {
+        return toc.stream().map(TableOfContentItemVO::copy).collect(Collectors.toList());
+    }
+    
+    // the id identifies the document version, a new version gets a new id
+    private static String getTocCacheKey(XmlDocument document, TocMode mode) {
+        return document.getId() + ':' + mode.name();
+    }
+    
+    private static class TocSource {
+        private final XmlDocument document;
+        private final byte[] content;
+        private final List<TocItem> tocItems;
+        private final Map<TocItem, List<TocItem>> tocRules;
+        
+        private TocSource(XmlDocument document, byte[] content, List<TocItem> tocItems, Map<TocItem, List<TocItem>> tocRules) {
+            this.document = document;
+            this.content = content;
+            this.tocItems = tocItems;
+            this.tocRules = tocRules;
+        }
+    }
+    
     /**
      * Calculate the docType in case the source and the target are different documents.
      * Reads the docType from the XML. Options: Regulation, Decision, Directive, Annex, etc.
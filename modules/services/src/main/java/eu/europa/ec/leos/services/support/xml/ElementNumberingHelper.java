@@ -13,6 +13,8 @@
  */
 package eu.europa.ec.leos.services.support.xml;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.ximpleware.AutoPilot;
 import com.ximpleware.ModifyException;
 import com.ximpleware.NavException;
@@ -42,7 +44,6 @@ import static eu.europa.ec.leos.services.support.xml.VTDUtils.LEOS_DEPTH_ATTR;
 import static eu.europa.ec.leos.services.support.xml.VTDUtils.LEOS_ORIGIN_ATTR;
 import static eu.europa.ec.leos.services.support.xml.VTDUtils.LEOS_SOFT_ACTION_ATTR;
 import static eu.europa.ec.leos.services.support.xml.VTDUtils.TOGGLED_TO_NUM;
-import static eu.europa.ec.leos.services.support.xml.VTDUtils.XMLID;
 import static eu.europa.ec.leos.services.support.xml.VTDUtils.buildNumElement;
 import static eu.europa.ec.leos.services.support.xml.VTDUtils.removeAttribute;
 import static eu.europa.ec.leos.services.support.xml.VTDUtils.setupVTDNav;
@@ -56,23 +57,29 @@ import static eu.europa.ec.leos.services.support.xml.XmlHelper.NUM;
 import static eu.europa.ec.leos.services.support.xml.XmlHelper.PARAGRAPH;
 import static eu.europa.ec.leos.services.support.xml.XmlHelper.POINT;
 import static eu.europa.ec.leos.services.support.xml.XmlHelper.RECITAL;
-import static eu.europa.ec.leos.vo.toc.TocItemUtils.getNumberingByName;
-import static eu.europa.ec.leos.vo.toc.TocItemUtils.getNumberingConfig;
-import static eu.europa.ec.leos.vo.toc.TocItemUtils.getNumberingTypeByDepth;
-import static eu.europa.ec.leos.vo.toc.TocItemUtils.getTocItemByName;
 import static java.lang.String.join;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.nCopies;
 
+/**
+ * Renumbers the elements of a document. The helper holds no state of its own: the numbering rules of the document
+ * structure are compiled once and shared, everything else lives in the call, so that concurrent saves can use it.
+ */
 @Component
 public class ElementNumberingHelper {
     
     private static final Logger LOG = LoggerFactory.getLogger(ElementNumberingHelper.class);
-    private boolean isDefaultEditable = false;
-    private List<TocItem> tocItems;
-    private List<NumberingConfig> numberingConfigs;
+
+    // the structures are cached per template, few distinct instances are ever seen
+    private static final int NUMBERING_RULES_CACHE_SIZE = 100;
+    private static final String NUM_PLACEHOLDER = "{0}";
+
     private MessageHelper messageHelper;
     private Provider<StructureContext> structureContextProvider;
+    private final Cache<List<NumberingConfig>, NumberingRules> numberingRules = CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumSize(NUMBERING_RULES_CACHE_SIZE)
+            .build();
     
     @Autowired
     public ElementNumberingHelper(MessageHelper messageHelper, Provider<StructureContext> structureContextProvider) {
@@ -85,19 +92,26 @@ public class ElementNumberingHelper {
     }
     
     public byte[] renumberElements(String element, byte[] xmlContent, boolean namespaceEnabled) throws Exception {
+        return renumberElements(element, xmlContent, namespaceEnabled, false);
+    }
+
+    /**
+     * Renumbers imported elements: their paragraphs are numbered even when no paragraph num was toggled.
+     */
+    public byte[] renumberImportedElements(String element, String xmlContent) throws Exception {
+        return renumberElements(element, xmlContent.getBytes(UTF_8), false, true);
+    }
+
+    private byte[] renumberElements(String element, byte[] xmlContent, boolean namespaceEnabled, boolean defaultEditable) throws Exception {
         VTDNav vtdNav = setupVTDNav(xmlContent, namespaceEnabled);
         XMLModifier xmlModifier = new XMLModifier(vtdNav);
-        tocItems = structureContextProvider.get().getTocItems();
-        numberingConfigs = structureContextProvider.get().getNumberingConfigs();
-        return elementNumberProcess(element, vtdNav, xmlModifier);
+        NumberingContext context = new NumberingContext(getNumberingRules(), defaultEditable);
+        return elementNumberProcess(element, vtdNav, xmlModifier, context);
     }
     
     public byte[] renumberElements(String element, byte[] xmlContent, MessageHelper messageHelper) {
-        tocItems = structureContextProvider.get().getTocItems();
-        numberingConfigs = structureContextProvider.get().getNumberingConfigs();
-        
-        final TocItem tocItem = getTocItemByName(tocItems, element);
-        final NumberingConfig numberingConfig = getNumberingByName(numberingConfigs, tocItem.getNumberingType());
+        final NumberingRules rules = getNumberingRules();
+        final NumberingConfig numberingConfig = rules.getElementNumberingConfig(element);
         final NumberingType numberingType = numberingConfig.getType();
         final String prefix = numberingConfig.getPrefix();
         final String suffix = numberingConfig.getSuffix();
@@ -117,12 +131,14 @@ public class ElementNumberingHelper {
             autoPilot.selectElement(element);
             byte[] elementeNum = null;
             LevelVO lastLevelVo = null;
+            // the article num format is resolved once, the placeholder is replaced by the num of each article
+            final String articleNumFormat = ARTICLE.equals(element) ? messageHelper.getMessage("legaltext.article.num", NUM_PLACEHOLDER) : null;
 
             while (autoPilot.iterate()) {
                 switch(element) {
                     case ARTICLE:
                         String articleNum = prefix + getElementNumeral(number++, numberingType) + suffix;
-                        elementeNum = messageHelper.getMessage("legaltext.article.num", articleNum).getBytes(UTF_8);
+                        elementeNum = articleNumFormat.replace(NUM_PLACEHOLDER, articleNum).getBytes(UTF_8);
                         break;
                     case RECITAL:
                         String recitalNum = prefix + getElementNumeral(number++, numberingType) + suffix;
@@ -136,7 +152,7 @@ public class ElementNumberingHelper {
                         vtdNav.recoverNode(index);
 
                         //2.set current level
-                        LevelVO currLevelVo = getLevelVo(vtdNav, xmlModifier);
+                        LevelVO currLevelVo = getLevelVo(vtdNav);
                         vtdNav.recoverNode(index);
 
                         //3.get level num of current level
@@ -186,29 +202,17 @@ public class ElementNumberingHelper {
         return levelNum;
     }
 
-    private LevelVO getLevelVo(VTDNav vtdNav, XMLModifier xmlModifier) throws Exception {
+    /**
+     * Reads the depth of the current level. The modifications only insert nums, the depth is read from the
+     * document being renumbered instead of from a new parse of the modified document for every level.
+     */
+    private LevelVO getLevelVo(VTDNav vtdNav) throws NavException {
         LevelVO levelVo = new LevelVO();
         int currentIndex = vtdNav.getCurrentIndex();
-        int idAttrIndex = vtdNav.getAttrVal(XMLID);
-        String elementId = vtdNav.toNormalizedString(idAttrIndex);
-        
-        byte[] xmlContent = toByteArray(xmlModifier);
-        VTDNav currentNavigator = setupVTDNav(xmlContent);
-        AutoPilot autoPilot = new AutoPilot(currentNavigator);
-        autoPilot.declareXPathNameSpace("xml", "http://www.w3.org/XML/1998/namespace");// required
-        autoPilot.selectXPath("//*[@xml:id = '" + elementId + "']");
-        
-        if(autoPilot.evalXPath() != -1) {
-            int attributeIndex = currentNavigator.getAttrVal(LEOS_DEPTH_ATTR);
-            if (attributeIndex != -1) {
-                String depth = currentNavigator.toNormalizedString(attributeIndex);
-                levelVo.setLevelDepth(Integer.parseInt(depth));
-                if(currentNavigator.toElement(VTDNav.FIRST_CHILD, NUM)) {
-                    long contentFragment = currentNavigator.getContentFragment();
-                    String elementNumber = new String(currentNavigator.getXML().getBytes((int) contentFragment, (int) (contentFragment >> 32)));
-                    levelVo.setLevelNum(elementNumber);
-                }
-            }
+        int attributeIndex = vtdNav.getAttrVal(LEOS_DEPTH_ATTR);
+        if (attributeIndex != -1) {
+            String depth = vtdNav.toNormalizedString(attributeIndex);
+            levelVo.setLevelDepth(Integer.parseInt(depth));
         }
         vtdNav.recoverNode(currentIndex);
         return levelVo;
@@ -233,7 +237,7 @@ public class ElementNumberingHelper {
         return numArr;
     }
     
-    private byte[] elementNumberProcess(String element, VTDNav vtdNav, XMLModifier xmlModifier) throws NavException, ModifyException, TranscodeException, IOException {
+    private byte[] elementNumberProcess(String element, VTDNav vtdNav, XMLModifier xmlModifier, NumberingContext context) throws NavException, ModifyException, TranscodeException, IOException {
         AutoPilot autoPilot = new AutoPilot(vtdNav);
         autoPilot.selectElement(element);
         char alphaNumber = 'a';
@@ -244,13 +248,13 @@ public class ElementNumberingHelper {
         if (!isProposalElement(vtdNav) && (Arrays.asList(PARAGRAPH,POINT,INDENT).contains(element))) {
             // Default numbering applied to Mandate elements (no EC elements present)
             while (autoPilot.iterate()) {
-                updatePointAndIndentNumbersDefault(vtdNav, xmlModifier, numberingConfigs);
+                updatePointAndIndentNumbersDefault(vtdNav, xmlModifier, context.rules);
                 if (hasAffectedAttribute(vtdNav, xmlModifier)) {
                     if (vtdNav.toElement(VTDNav.FIRST_CHILD, LIST)) {
                         if (checkFirstChildType(vtdNav, INDENT)) {
-                            elementNumberProcess(INDENT, vtdNav, xmlModifier);
+                            elementNumberProcess(INDENT, vtdNav, xmlModifier, context);
                         } else {
-                            elementNumberProcess(POINT, vtdNav, xmlModifier);
+                            elementNumberProcess(POINT, vtdNav, xmlModifier, context);
                         }
                     }
                 }
@@ -264,8 +268,7 @@ public class ElementNumberingHelper {
                 if (tempIndex != parentIndex && (Arrays.asList(PARAGRAPH,POINT,INDENT).contains(element))) {
                     continue;
                 }
-                final TocItem tocItem = getTocItemByName(tocItems, element);
-                final NumberingConfig numberingConfig = getNumberingByName(numberingConfigs, tocItem.getNumberingType());
+                final NumberingConfig numberingConfig = context.rules.getElementNumberingConfig(element);
                 if (foundProposalElement || isElementOriginEC(vtdNav)) {
                     if (isElementOriginEC(vtdNav)) {
                         foundProposalElement = true; // once true, we now we are in the positive side, from now on.
@@ -278,15 +281,15 @@ public class ElementNumberingHelper {
                         }
                         vtdNav.recoverNode(index);
                         //Check if elements added to proposal elements
-                        if (hasAffectedAttribute(vtdNav, xmlModifier) || hasNumToggledAttribute(vtdNav, xmlModifier)) {
+                        if (hasAffectedAttribute(vtdNav, xmlModifier) || hasNumToggledAttribute(vtdNav, xmlModifier, context.defaultEditable)) {
                             switch (element) {
                                 case ARTICLE:
-                                    elementNumberProcess(PARAGRAPH, vtdNav, xmlModifier);
+                                    elementNumberProcess(PARAGRAPH, vtdNav, xmlModifier, context);
                                     break;
                                 case PARAGRAPH:
                                 case POINT:
                                 case INDENT:
-                                    goOnWithChildren(vtdNav, xmlModifier);
+                                    goOnWithChildren(vtdNav, xmlModifier, context);
                                     break;
                             }
                         }
@@ -294,24 +297,24 @@ public class ElementNumberingHelper {
                         switch (element) {
                             case ARTICLE:
                                 alphaNumber = updateArticleNumbers(elementNumber, vtdNav, xmlModifier, alphaNumber, false);
-                                if (hasAffectedAttribute(vtdNav, xmlModifier) || hasNumToggledAttribute(vtdNav, xmlModifier)) {
+                                if (hasAffectedAttribute(vtdNav, xmlModifier) || hasNumToggledAttribute(vtdNav, xmlModifier, context.defaultEditable)) {
                                     if (!containsProposalElement(PARAGRAPH, vtdNav)) {
-                                        updateParagraphNumbersDefault(vtdNav, xmlModifier, tocItems);
+                                        updateParagraphNumbersDefault(vtdNav, xmlModifier, context.rules);
                                     }
-                                    elementNumberProcess(PARAGRAPH, vtdNav, xmlModifier);
+                                    elementNumberProcess(PARAGRAPH, vtdNav, xmlModifier, context);
                                 }
                                 break;
                             case PARAGRAPH:
                                 alphaNumber = updateParagraphNumbers(elementNumber, vtdNav, xmlModifier, alphaNumber, numberingConfig, false);
                                 if (hasAffectedAttribute(vtdNav, xmlModifier)) {
-                                    goOnWithChildren(vtdNav, xmlModifier);
+                                    goOnWithChildren(vtdNav, xmlModifier, context);
                                 }
                                 break;
                             case POINT:
                             case INDENT:
-                                alphaNumber = updatePointNumbers(elementNumber, vtdNav, xmlModifier, alphaNumber, false);
+                                alphaNumber = updatePointNumbers(elementNumber, vtdNav, xmlModifier, alphaNumber, false, context.rules);
                                 if (hasAffectedAttribute(vtdNav, xmlModifier)) {
-                                    goOnWithChildren(vtdNav, xmlModifier);
+                                    goOnWithChildren(vtdNav, xmlModifier, context);
                                 }
                                 break;
                             case RECITAL:
@@ -326,50 +329,54 @@ public class ElementNumberingHelper {
             }
             
             // do the calculation for the the negative elements found in the previous iteration
-            calculateNegativeSideNumbers(element, vtdNav, xmlModifier, alphaNumber, indexList);
+            calculateNegativeSideNumbers(element, vtdNav, xmlModifier, alphaNumber, indexList, context);
         }
         return toByteArray(xmlModifier);
     }
 
-    private void goOnWithChildren(VTDNav vtdNav, XMLModifier xmlModifier) throws NavException, ModifyException, TranscodeException, IOException {
+    private void goOnWithChildren(VTDNav vtdNav, XMLModifier xmlModifier, NumberingContext context) throws NavException, ModifyException, TranscodeException, IOException {
         if (vtdNav.toElement(VTDNav.FIRST_CHILD, LIST)) {
-            updateMandatePointsNumbering(vtdNav, xmlModifier, numberingConfigs);
+            updateMandatePointsNumbering(vtdNav, xmlModifier, context.rules);
             if(checkFirstChildType(vtdNav, INDENT)){
-                elementNumberProcess(INDENT, vtdNav, xmlModifier);
+                elementNumberProcess(INDENT, vtdNav, xmlModifier, context);
             }else if(checkFirstChildType(vtdNav, POINT)){
-                elementNumberProcess(POINT, vtdNav, xmlModifier);
+                elementNumberProcess(POINT, vtdNav, xmlModifier, context);
             }
         }
     }
 
 
-    private void calculateNegativeSideNumbers(String element, VTDNav vtdNav, XMLModifier xmlModifier, char alphaNumber, List<Integer> indexList) throws NavException, ModifyException, IOException, TranscodeException {
+    private void calculateNegativeSideNumbers(String element, VTDNav vtdNav, XMLModifier xmlModifier, char alphaNumber, List<Integer> indexList,
+            NumberingContext context) throws NavException, ModifyException, IOException, TranscodeException {
+        if (indexList.isEmpty()) {
+            return;
+        }
         //-ve numbering
         long negativeNumber = -(indexList.size());
+        final TocItem tocItem = context.rules.getTocItem(element);
+        final NumberingConfig numberingConfig = context.rules.getElementNumberingConfig(element);
+        final String articleName = ARTICLE.equals(element) ? messageHelper.getMessage("toc.item.type." + tocItem.getAknTag().value().toLowerCase()) + " " : null;
 
         for (int negativeNumIndex : indexList) {
             vtdNav.recoverNode(negativeNumIndex);
-            final TocItem tocItem = getTocItemByName(tocItems, element);
-            final NumberingConfig numberingConfig = getNumberingByName(numberingConfigs, tocItem.getNumberingType());
             switch (element) {
                 case ARTICLE:
-                    final String articleName = messageHelper.getMessage("toc.item.type." + tocItem.getAknTag().value().toLowerCase()) + " ";
                     updateArticleNumbers(articleName + negativeNumber++, vtdNav, xmlModifier, Character.MIN_VALUE, true);
-                    if (hasAffectedAttribute(vtdNav, xmlModifier) || hasNumToggledAttribute(vtdNav, xmlModifier)) {
+                    if (hasAffectedAttribute(vtdNav, xmlModifier) || hasNumToggledAttribute(vtdNav, xmlModifier, context.defaultEditable)) {
                         if (!containsProposalElement(PARAGRAPH, vtdNav)) {
-                            updateParagraphNumbersDefault(vtdNav, xmlModifier, tocItems);
+                            updateParagraphNumbersDefault(vtdNav, xmlModifier, context.rules);
                         }
-                        elementNumberProcess(PARAGRAPH, vtdNav, xmlModifier);
+                        elementNumberProcess(PARAGRAPH, vtdNav, xmlModifier, context);
                     }
                     break;
                 case PARAGRAPH:
                     updateParagraphNumbers(""+negativeNumber++, vtdNav, xmlModifier, Character.MIN_VALUE, numberingConfig, true);
-                    pointNumProcessing(vtdNav, xmlModifier);
+                    pointNumProcessing(vtdNav, xmlModifier, context);
                     break;
                 case POINT:
                 case INDENT:
-                    updatePointNumbers(""+negativeNumber++, vtdNav, xmlModifier, alphaNumber, true);
-                    pointNumProcessing(vtdNav, xmlModifier);
+                    updatePointNumbers(""+negativeNumber++, vtdNav, xmlModifier, alphaNumber, true, context.rules);
+                    pointNumProcessing(vtdNav, xmlModifier, context);
                     break;
                 case RECITAL:
                     updateRecitalNumbers(""+negativeNumber++, vtdNav, xmlModifier, Character.MIN_VALUE, numberingConfig, true);
@@ -378,25 +385,25 @@ public class ElementNumberingHelper {
         }
     }
     
-    private void pointNumProcessing(VTDNav vtdNav, XMLModifier xmlModifier) throws NavException, ModifyException, TranscodeException, IOException {
+    private void pointNumProcessing(VTDNav vtdNav, XMLModifier xmlModifier, NumberingContext context) throws NavException, ModifyException, TranscodeException, IOException {
         if (hasAffectedAttribute(vtdNav, xmlModifier)) {
             if (vtdNav.toElement(VTDNav.FIRST_CHILD, LIST)) {
                 int currentIndex = vtdNav.getCurrentIndex();
                 String elementType = checkFirstChildType(vtdNav, INDENT) ? INDENT : POINT;
                 if (!containsProposalElement(elementType, vtdNav)) {
-                    renumberPointsOrIndents(vtdNav, xmlModifier, numberingConfigs, elementType);
+                    renumberPointsOrIndents(vtdNav, xmlModifier, context.rules, elementType);
                 }
                 vtdNav.recoverNode(currentIndex);
-                elementNumberProcess(elementType, vtdNav, xmlModifier);
+                elementNumberProcess(elementType, vtdNav, xmlModifier, context);
             }
         }
     }
 
-    private void updateMandatePointsNumbering(VTDNav vtdNav, XMLModifier xmlModifier, List<NumberingConfig> numberingConfigs)
+    private void updateMandatePointsNumbering(VTDNav vtdNav, XMLModifier xmlModifier, NumberingRules rules)
             throws NavException, ModifyException {
         if (!isProposalElement(vtdNav)) {
             int currentIndex = vtdNav.getCurrentIndex();
-            renumberPointsOrIndents(vtdNav, xmlModifier, numberingConfigs, checkFirstChildType(vtdNav, INDENT) ? INDENT : POINT);
+            renumberPointsOrIndents(vtdNav, xmlModifier, rules, checkFirstChildType(vtdNav, INDENT) ? INDENT : POINT);
             vtdNav.recoverNode(currentIndex);
         }
     }
@@ -425,27 +432,26 @@ public class ElementNumberingHelper {
     /**
      * Default numbering which do only the incremental. Ex: 1, 2,3 etc, or a, b, c, etc.
      */
-    private byte[] updatePointAndIndentNumbersDefault(VTDNav vtdNav, XMLModifier xmlModifier, List<NumberingConfig> numberingConfigs)
-            throws NavException, ModifyException, IOException, TranscodeException {
+    private void updatePointAndIndentNumbersDefault(VTDNav vtdNav, XMLModifier xmlModifier, NumberingRules rules)
+            throws NavException, ModifyException {
         LOG.debug("points default numbering");
         int currentIndex = vtdNav.getCurrentIndex();
         if (vtdNav.toElement(VTDNav.FIRST_CHILD, LIST)) {
             String elementType = checkFirstChildType(vtdNav, INDENT) ? INDENT : POINT;
             if (!containsProposalElement(elementType, vtdNav)) {
-                renumberPointsOrIndents(vtdNav, xmlModifier, numberingConfigs, elementType);
+                renumberPointsOrIndents(vtdNav, xmlModifier, rules, elementType);
             }
         }
         vtdNav.recoverNode(currentIndex);
-        return toByteArray(xmlModifier);
     }
 
     /**
      * Based on the depth we apply the rules for numbering
      */
-    private void renumberPointsOrIndents(VTDNav vtdNav, XMLModifier xmlModifier, List<NumberingConfig> numberingConfigs, String point) throws NavException, ModifyException {
+    private void renumberPointsOrIndents(VTDNav vtdNav, XMLModifier xmlModifier, NumberingRules rules, String point) throws NavException, ModifyException {
         long number = 1L;
         int parentIndex = getParentIndex(vtdNav, point);
-        NumberingConfig numberingConfig = getNumberingConfigForMultilevel(vtdNav, numberingConfigs);
+        NumberingConfig numberingConfig = getNumberingConfigForMultilevel(vtdNav, rules);
         if (vtdNav.toElement(VTDNav.FIRST_CHILD, point)) {
             do {
                 //if next sibling is not child of the same parent -> exit
@@ -541,22 +547,19 @@ public class ElementNumberingHelper {
      *
      * If the point is not MULTILEVEL then all the levels will have same numbering configuration
      */
-    private NumberingConfig getNumberingConfigForMultilevel(VTDNav vtdNav, List<NumberingConfig> numberingConfigs) throws NavException {
+    private NumberingConfig getNumberingConfigForMultilevel(VTDNav vtdNav, NumberingRules rules) throws NavException {
         int index = vtdNav.getCurrentIndex();
         int pointDepth = VTDUtils.getPointDepth(vtdNav,1);
-        final NumberingConfig numberingConfig;
-        final int calculatedDepth = pointDepth;
-        NumberingType numberingType = getNumberingTypeByDepth(getNumberingConfig(numberingConfigs, NumberingType.MULTILEVEL), calculatedDepth);
-        numberingConfig = getNumberingConfig(numberingConfigs, numberingType);
+        final NumberingConfig numberingConfig = rules.getPointNumberingConfig(pointDepth);
         vtdNav.recoverNode(index);
         return numberingConfig;
     }
 
-    private byte[] updateParagraphNumbersDefault(VTDNav vtdNav, XMLModifier xmlModifier, List<TocItem> tocItems)
-            throws NavException, ModifyException, IOException, TranscodeException {
+    private void updateParagraphNumbersDefault(VTDNav vtdNav, XMLModifier xmlModifier, NumberingRules rules)
+            throws NavException, ModifyException {
         int currentIndex = vtdNav.getCurrentIndex();
-        NumberingType numberingType = getTocItemByName(tocItems, PARAGRAPH).getNumberingType();
-        NumberingConfig numberingConfig = getNumberingConfig(numberingConfigs, numberingType);
+        NumberingType numberingType = rules.getTocItem(PARAGRAPH).getNumberingType();
+        NumberingConfig numberingConfig = rules.getNumberingConfig(numberingType);
         long number = 1L;
         AutoPilot autoPilot = new AutoPilot(vtdNav);
         autoPilot.selectElement(PARAGRAPH);
@@ -570,7 +573,6 @@ public class ElementNumberingHelper {
             }
         }
         vtdNav.recoverNode(currentIndex);
-        return toByteArray(xmlModifier);
     }
     
     private char updateArticleNumbers(String elementNumber, VTDNav vtdNav, XMLModifier xmlModifier, char alphaNumber, boolean onNegativeSide)
@@ -613,12 +615,11 @@ public class ElementNumberingHelper {
         return alphaNumber;
     }
 
-    private char updatePointNumbers(String elementNumber, VTDNav vtdNav, XMLModifier xmlModifier, char alphaNumber, boolean onNegativeSide)
+    private char updatePointNumbers(String elementNumber, VTDNav vtdNav, XMLModifier xmlModifier, char alphaNumber, boolean onNegativeSide, NumberingRules rules)
             throws NavException, ModifyException {
         String pointNum;
         //actual point number configuration is extracted based on the point depth, using the MULTILEVEL num. type
-        NumberingType numberingType = getNumberingTypeByDepth(getNumberingConfig(numberingConfigs, NumberingType.MULTILEVEL), VTDUtils.getPointDepth(vtdNav, 0));
-        NumberingConfig pointNumConfig = getNumberingConfig(numberingConfigs, numberingType);
+        NumberingConfig pointNumConfig = rules.getPointNumberingConfig(VTDUtils.getPointDepth(vtdNav, 0));
 
         final String prefix = pointNumConfig.getPrefix();
         final String suffix = pointNumConfig.getSuffix();
@@ -718,9 +719,9 @@ public class ElementNumberingHelper {
         return flag;
     }
     
-    private boolean hasNumToggledAttribute(VTDNav vtdNav, XMLModifier xmlModifier) throws NavException, ModifyException {
+    private boolean hasNumToggledAttribute(VTDNav vtdNav, XMLModifier xmlModifier, boolean defaultEditable) throws NavException, ModifyException {
         int index = vtdNav.getCurrentIndex();
-        boolean flag = this.isDefaultEditable;
+        boolean flag = defaultEditable;
         int attributeIndex;
         if (vtdNav.toElement(VTDNav.FIRST_CHILD, PARAGRAPH)) {
             do {
@@ -795,14 +796,28 @@ public class ElementNumberingHelper {
         }
     }
     
-    void setImportAticleDefaultProperties() {
-        this.isDefaultEditable = true;
+    private NumberingRules getNumberingRules() {
+        StructureContext structureContext = structureContextProvider.get();
+        List<TocItem> tocItems = structureContext.getTocItems();
+        List<NumberingConfig> numberingConfigs = structureContext.getNumberingConfigs();
+        NumberingRules rules = numberingRules.getIfPresent(numberingConfigs);
+        if (rules == null || rules.getTocItems() != tocItems) {
+            rules = new NumberingRules(tocItems, numberingConfigs);
+            numberingRules.put(numberingConfigs, rules);
+        }
+        return rules;
     }
-    
-    void resetImportAticleDefaultProperties() {
-        this.isDefaultEditable = false;
+
+    private static final class NumberingContext {
+        private final NumberingRules rules;
+        private final boolean defaultEditable;
+
+        private NumberingContext(NumberingRules rules, boolean defaultEditable) {
+            this.rules = rules;
+            this.defaultEditable = defaultEditable;
+        }
     }
-    
+
     class LevelVO {
         String levelNum;
         int levelDepth;
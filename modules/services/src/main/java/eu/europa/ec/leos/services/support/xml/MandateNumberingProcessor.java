@@ -39,14 +39,11 @@ public class MandateNumberingProcessor implements NumberProcessor {
     @Override
     public String renumberImportedArticle(String xmlContent, String language) {
         String updatedElements;
-        elementNumberingHelper.setImportAticleDefaultProperties();
         try {
-            updatedElements = new String(elementNumberingHelper.renumberElements(ARTICLE, xmlContent, false));
+            updatedElements = new String(elementNumberingHelper.renumberImportedElements(ARTICLE, xmlContent));
         } catch (Exception e) {
             LOG.error("Unable to perform the renumberArticles operation", e);
             throw new RuntimeException("Unable to perform the renumberArticles operation", e);
-        } finally {
-            elementNumberingHelper.resetImportAticleDefaultProperties();
         }
         return updatedElements; 
     }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.services.support.xml;
+
+import eu.europa.ec.leos.vo.toc.NumberingConfig;
+import eu.europa.ec.leos.vo.toc.NumberingType;
+import eu.europa.ec.leos.vo.toc.TocItem;
+import eu.europa.ec.leos.vo.toc.TocItemUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static eu.europa.ec.leos.vo.toc.TocItemUtils.getNumberingByName;
+import static eu.europa.ec.leos.vo.toc.TocItemUtils.getNumberingTypeByDepth;
+
+/**
+ * The numbering configuration of a document structure, indexed once so that renumbering a document does not search
+ * the toc items and numbering configs for every element. Instances are immutable and shared between threads.
+ * Lookups that are not indexed fall back on {@link TocItemUtils}, which keeps its errors.
+ */
+final class NumberingRules {
+
+    private final List<TocItem> tocItems;
+    private final List<NumberingConfig> numberingConfigs;
+    private final Map<String, TocItem> tocItemsByTag;
+    private final Map<NumberingType, NumberingConfig> numberingConfigsByType;
+    private final Map<Integer, NumberingConfig> pointNumberingConfigsByDepth;
+
+    NumberingRules(List<TocItem> tocItems, List<NumberingConfig> numberingConfigs) {
+        this.tocItems = tocItems;
+        this.numberingConfigs = numberingConfigs;
+
+        Map<String, TocItem> tocItemsByTag = new HashMap<>();
+        for (TocItem tocItem : tocItems) {
+            tocItemsByTag.putIfAbsent(tocItem.getAknTag().value().toLowerCase(), tocItem);
+        }
+        this.tocItemsByTag = Collections.unmodifiableMap(tocItemsByTag);
+
+        Map<NumberingType, NumberingConfig> numberingConfigsByType = new HashMap<>();
+        for (NumberingConfig numberingConfig : numberingConfigs) {
+            numberingConfigsByType.putIfAbsent(numberingConfig.getType(), numberingConfig);
+        }
+        this.numberingConfigsByType = Collections.unmodifiableMap(numberingConfigsByType);
+
+        Map<Integer, NumberingConfig> pointNumberingConfigsByDepth = new HashMap<>();
+        NumberingConfig multilevelConfig = numberingConfigsByType.get(NumberingType.MULTILEVEL);
+        if (multilevelConfig != null && multilevelConfig.getLevels() != null) {
+            multilevelConfig.getLevels().getLevels().forEach(level -> {
+                NumberingConfig levelConfig = numberingConfigsByType.get(level.getNumberingType());
+                if (levelConfig != null) {
+                    pointNumberingConfigsByDepth.putIfAbsent(level.getDepth(), levelConfig);
+                }
+            });
+        }
+        this.pointNumberingConfigsByDepth = Collections.unmodifiableMap(pointNumberingConfigsByDepth);
+    }
+
+    List<TocItem> getTocItems() {
+        return tocItems;
+    }
+
+    List<NumberingConfig> getNumberingConfigs() {
+        return numberingConfigs;
+    }
+
+    /**
+     * @return the toc item of the given element, or null if the structure does not define it
+     */
+    TocItem getTocItem(String element) {
+        return tocItemsByTag.get(element.toLowerCase());
+    }
+
+    /**
+     * @return the numbering config of the given type, or null if the structure does not define it
+     */
+    NumberingConfig getNumberingConfig(NumberingType numberingType) {
+        return numberingConfigsByType.get(numberingType);
+    }
+
+    /**
+     * @return the numbering config of the given element, as configured by its toc item
+     */
+    NumberingConfig getElementNumberingConfig(String element) {
+        NumberingType numberingType = getTocItem(element).getNumberingType();
+        NumberingConfig numberingConfig = numberingConfigsByType.get(numberingType);
+        return numberingConfig != null ? numberingConfig : getNumberingByName(numberingConfigs, numberingType);
+    }
+
+    /**
+     * @return the numbering config of the points at the given depth of a list, as configured by the MULTILEVEL config
+     */
+    NumberingConfig getPointNumberingConfig(int depth) {
+        NumberingConfig numberingConfig = pointNumberingConfigsByDepth.get(depth);
+        if (numberingConfig == null) {
+            numberingConfig = TocItemUtils.getNumberingConfig(numberingConfigs,
+                    getNumberingTypeByDepth(TocItemUtils.getNumberingConfig(numberingConfigs, NumberingType.MULTILEVEL), depth));
+        }
+        return numberingConfig;
+    }
+}
@@ -52,13 +52,10 @@ public class ProposalNumberingProcessor implements NumberProcessor {
     @Override
     public String renumberImportedArticle(String xmlContent, String language) {
         String updatedElements;
-        elementNumberingHelper.setImportAticleDefaultProperties();
         try {
-            updatedElements = new String(elementNumberingHelper.renumberElements(ARTICLE, xmlContent, false));
+            updatedElements = new String(elementNumberingHelper.renumberImportedElements(ARTICLE, xmlContent));
         } catch (Exception e) {
             throw new RuntimeException("Unable to perform the renumberArticles operation", e);
-        } finally {
-            elementNumberingHelper.resetImportAticleDefaultProperties();
         }
         return updatedElements;
     }
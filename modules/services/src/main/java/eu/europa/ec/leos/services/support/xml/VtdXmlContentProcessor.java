@@ -25,6 +25,7 @@ import com.ximpleware.XPathEvalException;
 import com.ximpleware.XPathParseException;
 import eu.europa.ec.leos.domain.common.Result;
 import eu.europa.ec.leos.i18n.MessageHelper;
+import eu.europa.ec.leos.metrics.LeosMetrics;
 import eu.europa.ec.leos.services.content.ReferenceLabelService;
 import eu.europa.ec.leos.services.support.IdGenerator;
 import eu.europa.ec.leos.services.support.xml.ref.Ref;
@@ -42,9 +43,11 @@ import javax.inject.Provider;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -412,6 +415,7 @@ public abstract class VtdXmlContentProcessor implements XmlContentProcessor {
 
             specificInstanceXMLPostProcessing(xmlModifier);
 
+            LeosMetrics.record("xml.pass", stopwatch, "operation", "postProcessing");
             LOG.trace("Finished doXMLPostProcessing: Ids Injected at ={}, authNote Renumbering at={} ms, mref udpated at={}ms, Total time elapsed = {}ms",
                     injectIdTime, authNoteTime, mrefUpdateTime, (System.currentTimeMillis() - startTime));
             return toByteArray(xmlModifier);
@@ -475,6 +479,25 @@ public abstract class VtdXmlContentProcessor implements XmlContentProcessor {
         return updated;
     }
     
+    @Override
+    public Set<String> getReferencedDocumentRefs(byte[] xmlContent) {
+        Set<String> documentRefs = new HashSet<>();
+        try {
+            VTDNav vtdNav = setupVTDNav(xmlContent);
+            AutoPilot autoPilot = new AutoPilot(vtdNav);
+            autoPilot.selectElement(REF);
+            while (autoPilot.iterate()) {
+                int index = vtdNav.getAttrVal("documentref");
+                if (index != -1) {
+                    documentRefs.add(vtdNav.toString(index));
+                }
+            }
+        } catch (VTDException e) {
+            throw new RuntimeException("Unable to find the referenced documents", e);
+        }
+        return documentRefs;
+    }
+
     private ImmutableTriple<String, Integer, Integer> getSubstringAvoidingTags(String text, int txtStartOffset, int txtEndOffset) {
         int xmlStartIndex = 0;
         int textCounter = 0;
@@ -1016,6 +1039,7 @@ public abstract class VtdXmlContentProcessor implements XmlContentProcessor {
         } catch (Exception e) {
             LOG.error("Unexpected error occurred during reference updates", e);
         }
+        LeosMetrics.record("xml.pass", watch, "operation", "updateReferedAttributes");
         LOG.trace("References Updated in  {} ms", watch.elapsed(TimeUnit.MILLISECONDS));
 
         return updatedContent;
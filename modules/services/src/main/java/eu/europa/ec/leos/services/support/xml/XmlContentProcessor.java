@@ -19,6 +19,7 @@ import eu.europa.ec.leos.vo.toc.TableOfContentItemVO;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public interface XmlContentProcessor {
 
@@ -58,6 +59,11 @@ public interface XmlContentProcessor {
     
     byte[] updateReferences(byte[] xmlContent) throws Exception;
 
+    /**
+     * Returns the refs of the documents targeted by the references of the content (ref elements having a documentref attribute)
+     */
+    Set<String> getReferencedDocumentRefs(byte[] xmlContent);
+
     byte[] updateReferedAttributes(byte[] xmlContent, Map<String, String> referenceValueMap);
     
     /**Finds the first element with the id,if there are others, XML is incorrect
@@ -18,11 +18,13 @@ import static eu.europa.ec.leos.services.support.xml.VTDUtils.*;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import eu.europa.ec.leos.metrics.LeosMetrics;
 import eu.europa.ec.leos.services.support.xml.XmlNodeConfig.Attribute;
 
 import com.google.common.base.Stopwatch;
@@ -37,6 +39,21 @@ class XmlNodeProcessorImpl implements XmlNodeProcessor {
 
     private static final Logger LOG = LoggerFactory.getLogger(XmlNodeProcessorImpl.class);
 
+    private static final Pattern ATTRIBUTE_SELECTOR_PATTERN = Pattern.compile("(?<tagName>[a-zA-Z]+?)\\[@(?<attName>.+?)='(?<attValue>.+?)'\\]");
+
+    private static final int COMPILED_XPATHS_PER_THREAD = 64;
+
+    // XPaths are parsed once per thread and the compiled AutoPilots are rebound to each parsed document (AutoPilot is not thread safe).
+    // After each call they are bound to an empty document, so that the pooled threads do not keep the last parsed document alive.
+    private static final ThreadLocal<Map<String, AutoPilot>> COMPILED_XPATHS = ThreadLocal.withInitial(() -> new LinkedHashMap<String, AutoPilot>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, AutoPilot> eldest) {
+            return size() > COMPILED_XPATHS_PER_THREAD;
+        }
+    });
+    private static final ThreadLocal<VTDNav> EMPTY_DOCUMENT = ThreadLocal.withInitial(() -> setupVTDNav("<empty/>".getBytes(UTF_8), false));
+    private static final Map<String, String[]> XPATH_NODES = new ConcurrentHashMap<>();
+
     @Override
     public Map<String, String> getValuesFromXml(byte[] xmlContent, String[] keys, Map<String, XmlNodeConfig> config) {
         Stopwatch stopwatch = Stopwatch.createStarted();
@@ -45,14 +62,11 @@ class XmlNodeProcessorImpl implements XmlNodeProcessor {
         try {
             VTDNav vtdNav = setupVTDNav(xmlContent, true);
             vtdNav.toElement(VTDNav.ROOT);
-            AutoPilot autoPilot = new AutoPilot(vtdNav);
-            autoPilot.declareXPathNameSpace("leos", "urn:eu:europa:ec:leos");// required
-            autoPilot.declareXPathNameSpace("xml", "http://www.w3.org/XML/1998/namespace");
 
             LOG.trace("Parsed xml in ({} milliseconds)", stopwatch.elapsed(TimeUnit.MILLISECONDS));
             for (String key : keys) {
                 try {
-                    if (config.get(key) != null && findNode(vtdNav, autoPilot, config.get(key).xPath)) {
+                    if (config.get(key) != null && findNode(vtdNav, config.get(key).xPath)) {
                         String value = StringEscapeUtils.unescapeXml(getValueFromNode(vtdNav));
                         metaDataMap.put(key, value);
                     }
@@ -64,17 +78,41 @@ class XmlNodeProcessorImpl implements XmlNodeProcessor {
         } catch (VTDException vEx) {
             LOG.error("Error occurred while parsing xml", vEx);
             throw new RuntimeException("VTD Parsing failed", vEx);
+        } finally {
+            releaseCompiledXPaths();
         }
+        LeosMetrics.record("xml.pass", stopwatch, "operation", "getValues");
         LOG.trace("{} Values retrieved from xml in ({} milliseconds)", metaDataMap.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
         return metaDataMap;
     }
 
-    private boolean findNode(VTDNav vtdNav, AutoPilot autoPilot, String xPath) throws VTDException {
+    private boolean findNode(VTDNav vtdNav, String xPath) throws VTDException {
+        AutoPilot autoPilot = getCompiledXPath(xPath);
+        autoPilot.bind(vtdNav);
         autoPilot.resetXPath();
-        autoPilot.selectXPath(xPath);
         return (autoPilot.evalXPath() != -1);// return.. found or not found
     }
 
+    private AutoPilot getCompiledXPath(String xPath) throws XPathParseException {
+        Map<String, AutoPilot> compiledXPaths = COMPILED_XPATHS.get();
+        AutoPilot autoPilot = compiledXPaths.get(xPath);
+        if (autoPilot == null) {
+            autoPilot = new AutoPilot();
+            autoPilot.declareXPathNameSpace("leos", "urn:eu:europa:ec:leos");// required
+            autoPilot.declareXPathNameSpace("xml", "http://www.w3.org/XML/1998/namespace");
+            autoPilot.selectXPath(xPath);
+            compiledXPaths.put(xPath, autoPilot);
+        }
+        return autoPilot;
+    }
+
+    private void releaseCompiledXPaths() {
+        VTDNav emptyDocument = EMPTY_DOCUMENT.get();
+        for (AutoPilot autoPilot : COMPILED_XPATHS.get().values()) {
+            autoPilot.bind(emptyDocument);
+        }
+    }
+
     @Override
     public byte[] setValuesInXml(byte[] xmlContent, Map<String, String> keyValue, Map<String, XmlNodeConfig> config) {
         Stopwatch stopwatch = Stopwatch.createStarted();
@@ -83,10 +121,9 @@ class XmlNodeProcessorImpl implements XmlNodeProcessor {
             VTDNav vtdNav = setupVTDNav(xmlContent, true);
             vtdNav.toElement(VTDNav.ROOT);
             XMLModifier xmlModifier = new XMLModifier(vtdNav);
-            AutoPilot autoPilot = new AutoPilot(vtdNav);
-            autoPilot.declareXPathNameSpace("leos", "urn:eu:europa:ec:leos");// required
-            autoPilot.declareXPathNameSpace("xml", "http://www.w3.org/XML/1998/namespace");
 
+            // 1. existing nodes are all updated in the same modifier, missing ones are kept to be created afterwards
+            Map<String, String> valuesToCreate = new LinkedHashMap<>();
             for (Map.Entry<String, String> entry : keyValue.entrySet()) {
                 try {
                     String key = entry.getKey();
@@ -96,26 +133,36 @@ class XmlNodeProcessorImpl implements XmlNodeProcessor {
                         LOG.error("Configuration not found for:{}, ignoring and continuing", key);
                         continue;
                     }
-                    String xPath = config.get(key).xPath;
-
 
-                    if (findNode(vtdNav, autoPilot, xPath)) {
+                    if (findNode(vtdNav, config.get(key).xPath)) {
                         updateNode(vtdNav, xmlModifier, value);
                     } else if (config.get(key).create) {
-                        createAndUpdateNode(vtdNav, xmlModifier, autoPilot, xPath, config.get(key).attributes, value);
-                        vtdNav = xmlModifier.outputAndReparse();
-                        xmlModifier = new XMLModifier(vtdNav);
-                        autoPilot = new AutoPilot(vtdNav);
+                        valuesToCreate.put(key, value);
                     }
                 } catch (VTDException | IOException ex) {
                     LOG.error("Error occurred while updating value for:{}, continuing", entry, ex);
                 }
             }
+
+            // 2. created nodes may share new ancestors, so the xml is reparsed before each creation
+            for (Map.Entry<String, String> entry : valuesToCreate.entrySet()) {
+                try {
+                    vtdNav = xmlModifier.outputAndReparse();
+                    xmlModifier = new XMLModifier(vtdNav);
+                    XmlNodeConfig nodeConfig = config.get(entry.getKey());
+                    createAndUpdateNode(vtdNav, xmlModifier, nodeConfig.xPath, nodeConfig.attributes, entry.getValue());
+                } catch (VTDException | IOException ex) {
+                    LOG.error("Error occurred while creating value for:{}, continuing", entry, ex);
+                }
+            }
             modifiedXmlBytes = toByteArray(xmlModifier);
         } catch (VTDException | IOException vEx) {
             LOG.error("Error occurred while parsing xml", vEx);
             throw new RuntimeException("VTD Parsing failed", vEx);
+        } finally {
+            releaseCompiledXPaths();
         }
+        LeosMetrics.record("xml.pass", stopwatch, "operation", "setValues");
         LOG.trace("Values set in xml ({} milliseconds)", stopwatch.elapsed(TimeUnit.MILLISECONDS));
         return modifiedXmlBytes;
     }
@@ -133,17 +180,17 @@ class XmlNodeProcessorImpl implements XmlNodeProcessor {
         xmlModifier.updateToken(index, value.getBytes(UTF_8));
     }
 
-    private void createAndUpdateNode(VTDNav vtdNav, XMLModifier xmlModifier, AutoPilot autoPilot, String xPath,
+    private void createAndUpdateNode(VTDNav vtdNav, XMLModifier xmlModifier, String xPath,
             List<XmlNodeConfig.Attribute> configAttributes, String value)
             throws VTDException {
-        String[] nodes = xPath.split("(?<!/)(?=((/+)))");
+        String[] nodes = XPATH_NODES.computeIfAbsent(xPath, path -> path.split("(?<!/)(?=((/+)))"));
 
         // 1. iterate and break at first non-existing node in xml
         StringBuilder partialXPath = new StringBuilder();
         int currentVtdIndex = 0, index = 0;
         for (; index < nodes.length; index++) {
             partialXPath.append(nodes[index]);
-            if (!nodes[index].isEmpty() && !findNode(vtdNav, autoPilot, partialXPath.toString())) {// ignore nodes
+            if (!nodes[index].isEmpty() && !findNode(vtdNav, partialXPath.toString())) {// ignore nodes
                 LOG.debug("Node not found:{}", nodes[index]);
                 break;
             }
@@ -215,8 +262,7 @@ class XmlNodeProcessorImpl implements XmlNodeProcessor {
         if (!xPathFragment.contains("[")) {
             return null;
         }
-        Pattern pattern = Pattern.compile("(?<tagName>[a-zA-Z]+?)\\[@(?<attName>.+?)='(?<attValue>.+?)'\\]");
-        Matcher matcher = pattern.matcher(xPathFragment.trim());
+        Matcher matcher = ATTRIBUTE_SELECTOR_PATTERN.matcher(xPathFragment.trim());
 
         matcher.matches();
         String tagName = matcher.group("tagName");
@@ -419,4 +419,22 @@ public class XmlTableOfContentHelper {
         LOG.trace("Build table of content completed in {} ms", (System.currentTimeMillis() - startTime));
         return itemVOList;
     }
+    
+    /**
+     * Builds the table of content with the given toc configuration instead of the one of the request structure context,
+     * so that it can be called outside of the request thread.
+     */
+    public List<TableOfContentItemVO> buildTableOfContent(String startingNode, byte[] xmlContent, TocMode mode,
+                                                          List<TocItem> tocItems, Map<TocItem, List<TocItem>> tocRules) {
+        try {
+            VTDNav contentNavigator = setupVTDNav(xmlContent);
+            if (contentNavigator.toElement(VTDNav.FIRST_CHILD, startingNode)) {
+                return getAllChildTableOfContentItems(tocItems, tocRules, contentNavigator, mode);
+            }
+            return new ArrayList<>();
+        } catch (Exception e) {
+            LOG.error("Unable to build the Table of content item list", e);
+            throw new RuntimeException("Unable to build the Table of content item list", e);
+        }
+    }
 }
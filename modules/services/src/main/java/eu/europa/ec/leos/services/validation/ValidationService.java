@@ -20,5 +20,25 @@ import java.util.List;
 
 public interface ValidationService {
     List<ErrorVO> validateDocument(DocumentVO documentVO);
+
+    /**
+     * Schedules the validation of the whole document. Pending validations of the same document are merged, only the latest version is validated.
+     */
     void validateDocumentAsync(DocumentVO documentVO);
+
+    /**
+     * Schedules the validation of the subtree of the updated element only. Pending validations of the same document are merged,
+     * only the latest version is validated.
+     */
+    void validateDocumentAsync(DocumentVO documentVO, String updatedElementId);
+
+    /**
+     * @return the issues found by the last asynchronous validation of the whole document, or null if the document was not validated yet
+     */
+    List<ErrorVO> getValidationResult(String versionSeriesId);
+
+    /**
+     * @return the issues found by the last asynchronous validation of updated elements of the document, or null if no element was validated yet
+     */
+    List<ErrorVO> getElementValidationResult(String versionSeriesId);
 }
@@ -13,9 +13,12 @@
  */
 package eu.europa.ec.leos.services.validation;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import eu.europa.ec.leos.domain.common.ErrorCode;
 import eu.europa.ec.leos.domain.vo.DocumentVO;
 import eu.europa.ec.leos.domain.vo.ErrorVO;
+import eu.europa.ec.leos.metrics.LeosMetrics;
 import eu.europa.ec.leos.model.notification.validation.DocumentValidationNotification;
 import eu.europa.ec.leos.services.notification.NotificationService;
 
@@ -23,26 +26,48 @@ import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Service
 class ValidationServiceImpl implements ValidationService {
     private static final Logger LOG = LoggerFactory.getLogger(ValidationServiceImpl.class);
+    private static final int VALIDATION_RESULTS_SIZE = 1000;
     private ValidatorFactory validatorFactory;
     private NotificationService notificationService;
+    private TaskExecutor taskExecutor;
+
+    // one pending validation per document, updated with the latest version until it starts
+    private final ConcurrentMap<String, ValidationJob> pendingValidations = new ConcurrentHashMap<>();
+    // the results of the validations of whole documents and of updated elements are kept apart, as the latter do not cover the whole document
+    private final Cache<String, List<ErrorVO>> validationResults = LeosMetrics.monitor(CacheBuilder.newBuilder()
+            .maximumSize(VALIDATION_RESULTS_SIZE)
+            .recordStats()
+            .build(), "validation.results");
+    private final Cache<String, List<ErrorVO>> elementValidationResults = LeosMetrics.monitor(CacheBuilder.newBuilder()
+            .maximumSize(VALIDATION_RESULTS_SIZE)
+            .recordStats()
+            .build(), "validation.results.elements");
 
     @Value("${validation.notification.functional.mailbox}")
     private String notificationRecepient;
 
     @Autowired
-    public ValidationServiceImpl(ValidatorFactory validatorFactory, NotificationService notificationService) {
+    public ValidationServiceImpl(ValidatorFactory validatorFactory, NotificationService notificationService,
+            @Qualifier("delegatingSecurityContextAsyncTaskExecutor") TaskExecutor taskExecutor) {
         this.validatorFactory = validatorFactory;
         this.notificationService = notificationService;
+        this.taskExecutor = taskExecutor;
     }
 
     @Override
@@ -63,9 +88,68 @@ class ValidationServiceImpl implements ValidationService {
     }
 
     @Override
-    @Async("delegatingSecurityContextAsyncTaskExecutor")
     public void validateDocumentAsync(DocumentVO documentVO) {
-        List<ErrorVO> result = validateDocument(documentVO);
+        scheduleValidation(documentVO, null);
+    }
+
+    @Override
+    public void validateDocumentAsync(DocumentVO documentVO, String updatedElementId) {
+        Validate.notNull(updatedElementId, "Updated element id is required!");
+        scheduleValidation(documentVO, updatedElementId);
+    }
+
+    @Override
+    public List<ErrorVO> getValidationResult(String versionSeriesId) {
+        return validationResults.getIfPresent(versionSeriesId);
+    }
+
+    @Override
+    public List<ErrorVO> getElementValidationResult(String versionSeriesId) {
+        return elementValidationResults.getIfPresent(versionSeriesId);
+    }
+
+    private void scheduleValidation(DocumentVO documentVO, String updatedElementId) {
+        final String key = documentVO.getVersionSeriesId() != null ? documentVO.getVersionSeriesId() : documentVO.getId();
+        final ValidationJob newJob = new ValidationJob(documentVO, updatedElementId);
+        if (pendingValidations.merge(key, newJob, ValidationJob::merge) == newJob) {
+            taskExecutor.execute(() -> runValidation(key));
+        } else {
+            LOG.trace("Validation of document {} already pending, merged with the new version", key);
+        }
+    }
+
+    private void runValidation(String key) {
+        ValidationJob job = pendingValidations.remove(key);
+        if (job == null) {
+            return;
+        }
+        List<ErrorVO> result;
+        if (job.updatedElementIds == null) {
+            result = validateDocument(job.documentVO);
+            validationResults.put(key, result);
+        } else {
+            result = validateElements(job.documentVO, job.updatedElementIds);
+            elementValidationResults.put(key, result);
+        }
+        notifyValidationIssues(job.documentVO, result);
+    }
+
+    // runs the whole validation chain, the content being only validated in the subtrees of the updated elements
+    private List<ErrorVO> validateElements(DocumentVO documentVO, Set<String> elementIds) {
+        final List<ErrorVO> result = new ArrayList<>();
+        try {
+            validatorFactory
+                    .getValidationChain(documentVO)
+                    .validateElements(documentVO, elementIds, result);
+        } catch (Exception ex) {
+            LOG.error("Validation chain ended with error", ex);
+            result.add(new ErrorVO(ErrorCode.EXCEPTION, documentVO.getId(), ex.getMessage()));
+        }
+        LOG.debug("Validation found {} issues with elements {}", result.size(), elementIds);
+        return result;
+    }
+
+    private void notifyValidationIssues(DocumentVO documentVO, List<ErrorVO> result) {
         if (result != null && !result.isEmpty()) {
             List<String> errors = new ArrayList<>();
             result.forEach(errorVo -> {
@@ -78,4 +162,29 @@ class ValidationServiceImpl implements ValidationService {
                             documentVO.getTitle()));
         }
     }
+
+    private static class ValidationJob {
+        private final DocumentVO documentVO;
+        // null when the whole document must be validated
+        private final Set<String> updatedElementIds;
+
+        private ValidationJob(DocumentVO documentVO, String updatedElementId) {
+            this(documentVO, updatedElementId == null ? null : Collections.singleton(updatedElementId));
+        }
+
+        private ValidationJob(DocumentVO documentVO, Set<String> updatedElementIds) {
+            this.documentVO = documentVO;
+            this.updatedElementIds = updatedElementIds;
+        }
+
+        // the latest version is validated, covering the elements updated by both jobs
+        private ValidationJob merge(ValidationJob newerJob) {
+            Set<String> elementIds = null;
+            if (updatedElementIds != null && newerJob.updatedElementIds != null) {
+                elementIds = new LinkedHashSet<>(updatedElementIds);
+                elementIds.addAll(newerJob.updatedElementIds);
+            }
+            return new ValidationJob(newerJob.documentVO, elementIds);
+        }
+    }
 }
@@ -21,6 +21,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.ListIterator;
 
@@ -31,6 +32,15 @@ public abstract class ValidationChain implements Validator {
 
     @Override
     public void validate(DocumentVO documentVO, List<ErrorVO> result) {
+        runChain(documentVO, result, handler -> handler.validate(documentVO, result));
+    }
+
+    @Override
+    public void validateElements(DocumentVO documentVO, Collection<String> elementIds, List<ErrorVO> result) {
+        runChain(documentVO, result, handler -> handler.validateElements(documentVO, elementIds, result));
+    }
+
+    private void runChain(DocumentVO documentVO, List<ErrorVO> result, HandlerCall handlerCall) {
         final ListIterator<Validator> chainIterator = chain.listIterator();
         if (!chainIterator.hasNext()) {
             return;
@@ -39,7 +49,7 @@ public abstract class ValidationChain implements Validator {
         while (chainIterator.hasNext()) {
             Validator handler = chainIterator.next();
             try {
-                handler.validate(documentVO, result);
+                handlerCall.call(handler);
                 LOG.trace("Handler:{} finished for {} ", handler.getClass().getSimpleName(), documentVO.getDocumentType());
             } catch (Exception ex) {
                 LOG.error("Handler:{} error for {}", handler.getClass(), documentVO.getDocumentType(), ex);
@@ -50,4 +60,8 @@ public abstract class ValidationChain implements Validator {
 
     abstract public boolean supports(DocumentVO documentVO);
 
+    private interface HandlerCall {
+        void call(Validator handler) throws Exception;
+    }
+
 }
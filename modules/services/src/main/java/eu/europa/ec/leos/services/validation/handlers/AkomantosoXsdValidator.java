@@ -14,9 +14,15 @@
 package eu.europa.ec.leos.services.validation.handlers;
 
 import com.google.common.base.Stopwatch;
+import com.ximpleware.AutoPilot;
+import com.ximpleware.NavException;
+import com.ximpleware.VTDException;
+import com.ximpleware.VTDGen;
+import com.ximpleware.VTDNav;
 import eu.europa.ec.leos.domain.common.ErrorCode;
 import eu.europa.ec.leos.domain.vo.DocumentVO;
 import eu.europa.ec.leos.domain.vo.ErrorVO;
+import eu.europa.ec.leos.metrics.LeosMetrics;
 import eu.europa.ec.leos.services.validation.handlers.util.LSInputImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,10 +41,20 @@ import javax.xml.XMLConstants;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 @Component
@@ -51,7 +67,11 @@ public class AkomantosoXsdValidator implements Validator {
     @Value("${leos.schema.akomantoso.name:akomantoso30.xsd}")
     private String SCHEMA_NAME;
 
+    private static final String XML_ID = "xml:id";
+
     private Schema schema;
+    // elements declared at the top level of the schema, the only ones that can be validated on their own
+    private final Set<String> globalElements = new HashSet<>();
 
     @PostConstruct
     public void initXSD() throws Exception {
@@ -73,11 +93,31 @@ public class AkomantosoXsdValidator implements Validator {
             });
 
             schema = factory.newSchema(new StreamSource(resource.getInputStream()));
+            loadGlobalElements(resource);
         } finally {
             LOG.trace("XSD loaded in {}ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
         }
     }
     
+    private void loadGlobalElements(Resource resource) throws IOException, XMLStreamException {
+        try (InputStream is = resource.getInputStream()) {
+            XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(is);
+            int depth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    if (depth == 2 && "element".equals(reader.getLocalName())) {
+                        globalElements.add(reader.getAttributeValue(null, "name"));
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
+            reader.close();
+        }
+    }
+
     public boolean validate(byte[] xmlContent) {
         javax.xml.validation.Validator validator = schema.newValidator();
         StreamSource source = new StreamSource(new ByteArrayInputStream(xmlContent));
@@ -105,10 +145,96 @@ public class AkomantosoXsdValidator implements Validator {
             LOG.error("Exception occurred", e);
             result.add(new ErrorVO(ErrorCode.EXCEPTION, documentVO.getId(), e.getMessage()));
         } finally {
+            LeosMetrics.record("xml.validation", stopwatch, "scope", "document");
             LOG.debug("xml validated with xsd in {}ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
         }
     }
 
+    @Override
+    public void validateElements(DocumentVO documentVO, Collection<String> elementIds, final List<ErrorVO> result) {
+        for (String elementId : elementIds) {
+            validateElement(documentVO, elementId, result);
+        }
+    }
+
+    /**
+     * Validates only the subtree of the element with the given id, or of its closest ancestor that the schema declares as a global element.
+     * The namespaces declared on the document root are copied on the validated subtree.
+     * Nothing is validated if the element is not found anymore in the document.
+     */
+    public void validateElement(DocumentVO documentVO, String elementId, final List<ErrorVO> result) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        try {
+            String key = documentVO.getId() != null ? documentVO.getId() : documentVO.getDocumentType().toString();
+            String subtree = getValidatableSubtree(documentVO.getSource(), elementId);
+            if (subtree == null) {
+                LOG.debug("Element {} not found in document {}, nothing to validate", elementId, key);
+                return;
+            }
+            javax.xml.validation.Validator validator = schema.newValidator();
+            validator.setErrorHandler(new XsdErrorHandler(result, key));
+            validator.validate(new StreamSource(new StringReader(subtree)));
+        } catch (SAXException e) {
+            //SAX fatal exceptions are already added to result.
+        } catch (Exception e) {
+            LOG.error("Exception occurred", e);
+            result.add(new ErrorVO(ErrorCode.EXCEPTION, documentVO.getId(), e.getMessage()));
+        } finally {
+            LeosMetrics.record("xml.validation", stopwatch, "scope", "element");
+            LOG.debug("element {} validated with xsd in {}ms", elementId, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private String getValidatableSubtree(byte[] xmlContent, String elementId) throws VTDException {
+        VTDGen vtdGen = new VTDGen();
+        vtdGen.setDoc(xmlContent);
+        vtdGen.parse(true);
+        VTDNav vtdNav = vtdGen.getNav();
+
+        Map<String, String> namespaces = getNamespaceDeclarations(vtdNav);
+        AutoPilot autoPilot = new AutoPilot(vtdNav);
+        autoPilot.selectElement("*");
+        while (autoPilot.iterate()) {
+            int idIndex = vtdNav.getAttrVal(XML_ID);
+            if (idIndex != -1 && elementId.equals(vtdNav.toString(idIndex))) {
+                while (!globalElements.contains(getLocalName(vtdNav.toString(vtdNav.getCurrentIndex())))) {
+                    if (!vtdNav.toElement(VTDNav.PARENT)) {
+                        return null;
+                    }
+                }
+                namespaces.keySet().removeAll(getNamespaceDeclarations(vtdNav).keySet());
+                long fragment = vtdNav.getElementFragment();
+                StringBuilder subtree = new StringBuilder(vtdNav.toRawString((int) fragment, (int) (fragment >> 32)));
+                int insertAt = 1 + vtdNav.toRawString(vtdNav.getCurrentIndex()).length();
+                namespaces.forEach((name, value) -> subtree.insert(insertAt, " " + name + "=\"" + value + "\""));
+                return subtree.toString();
+            }
+        }
+        return null;
+    }
+
+    // namespace declarations of the current element
+    private Map<String, String> getNamespaceDeclarations(VTDNav vtdNav) throws NavException {
+        Map<String, String> namespaces = new HashMap<>();
+        int index = vtdNav.getCurrentIndex() + 1;
+        while (index < vtdNav.getTokenCount()) {
+            int tokenType = vtdNav.getTokenType(index);
+            if (tokenType != VTDNav.TOKEN_ATTR_NS && tokenType != VTDNav.TOKEN_ATTR_NAME) {
+                break;
+            }
+            String name = vtdNav.toRawString(index);
+            if (name.equals("xmlns") || name.startsWith("xmlns:")) {
+                namespaces.put(name, vtdNav.toRawString(index + 1));
+            }
+            index += 2;
+        }
+        return namespaces;
+    }
+
+    private String getLocalName(String tagName) {
+        return tagName.substring(tagName.indexOf(':') + 1);
+    }
+
     public class XsdErrorHandler implements ErrorHandler {
         private List<ErrorVO> result;
         private String key;
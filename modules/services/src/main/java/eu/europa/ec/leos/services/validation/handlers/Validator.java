@@ -16,8 +16,17 @@ package eu.europa.ec.leos.services.validation.handlers;
 import eu.europa.ec.leos.domain.vo.DocumentVO;
 import eu.europa.ec.leos.domain.vo.ErrorVO;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface Validator {
     void validate(DocumentVO documentVO, final List<ErrorVO> result) throws Exception;
+
+    /**
+     * Validates the document after the given elements were updated. The whole document is validated by default,
+     * validators checking the content of the elements may restrict themselves to their subtrees.
+     */
+    default void validateElements(DocumentVO documentVO, Collection<String> elementIds, final List<ErrorVO> result) throws Exception {
+        validate(documentVO, result);
+    }
 }
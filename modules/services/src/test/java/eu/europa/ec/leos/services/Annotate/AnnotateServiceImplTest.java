@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.services.Annotate;
+
+import eu.europa.ec.leos.integration.AnnotationProvider;
+import eu.europa.ec.leos.security.SecurityContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AnnotateServiceImplTest {
+
+    private static final String ANNOTATION_HOST = "http://localhost/annotate";
+
+    private AnnotationProvider annotationProvider;
+    private AnnotateServiceImpl annotateService;
+
+    @Before
+    public void setUp() {
+        SecurityContext securityContext = mock(SecurityContext.class);
+        when(securityContext.getAnnotateToken(anyString())).thenReturn("token");
+        annotationProvider = mock(AnnotationProvider.class);
+        annotateService = new AnnotateServiceImpl(securityContext, annotationProvider);
+        ReflectionTestUtils.setField(annotateService, "annotationHost", ANNOTATION_HOST);
+    }
+
+    @Test
+    public void test_exportAnnotations_splitsTheResponseByDocument() {
+        final String export = "{\"uri://LEOS/bill_1\":{\"total\":1,\"rows\":[{\"id\":\"a1\",\"text\":\"first\"}],\"replies\":[{\"id\":\"r1\"}]},"
+                + "\"uri://LEOS/annex_1\":{\"total\":0,\"rows\":[],\"replies\":[]}}";
+        doAnswer(invocation -> {
+            invocation.<AnnotationProvider.AnnotationsReader>getArgument(2).read(new ByteArrayInputStream(export.getBytes(UTF_8)));
+            return null;
+        }).when(annotationProvider).exportAnnotations(any(URI.class), eq("token"), any(AnnotationProvider.AnnotationsReader.class));
+
+        final Map<String, ByteArrayOutputStream> outputs = new LinkedHashMap<>();
+        annotateService.exportAnnotations(Arrays.asList("bill_1", "annex_1"), docName -> {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            outputs.put(docName, output);
+            return output;
+        });
+
+        ArgumentCaptor<URI> uri = ArgumentCaptor.forClass(URI.class);
+        verify(annotationProvider).exportAnnotations(uri.capture(), eq("token"), any(AnnotationProvider.AnnotationsReader.class));
+        assertEquals(ANNOTATION_HOST + "/api/export?group=__world__&uri=uri://LEOS/bill_1&uri=uri://LEOS/annex_1", uri.getValue().toString());
+
+        assertEquals(Arrays.asList("bill_1", "annex_1"), Arrays.asList(outputs.keySet().toArray()));
+        assertEquals("{\"total\":1,\"rows\":[{\"id\":\"a1\",\"text\":\"first\"}],\"replies\":[{\"id\":\"r1\"}]}", new String(outputs.get("bill_1").toByteArray(), UTF_8));
+        assertEquals("{\"total\":0,\"rows\":[],\"replies\":[]}", new String(outputs.get("annex_1").toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void test_reanchorAnnotations_postsContentAndIdMappings() {
+        annotateService.reanchorAnnotations("bill_1", "<bill/>".getBytes(UTF_8), Collections.singletonMap("art_1", "art_2"));
+
+        ArgumentCaptor<String> reanchorRequest = ArgumentCaptor.forClass(String.class);
+        verify(annotationProvider).reanchorAnnotations(eq(URI.create(ANNOTATION_HOST + "/api/reanchor")), eq("token"), reanchorRequest.capture());
+        assertEquals("{\"uri\":\"uri://LEOS/bill_1\",\"content\":\"<bill/>\",\"idMappings\":{\"art_1\":\"art_2\"}}", reanchorRequest.getValue());
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.services.controllers;
+
+import com.google.common.eventbus.EventBus;
+import eu.europa.ec.leos.domain.cmis.LeosLegStatus;
+import eu.europa.ec.leos.domain.cmis.common.VersionType;
+import eu.europa.ec.leos.domain.cmis.document.LegDocument;
+import eu.europa.ec.leos.domain.cmis.document.XmlDocument;
+import eu.europa.ec.leos.domain.common.ErrorCode;
+import eu.europa.ec.leos.domain.vo.ErrorVO;
+import eu.europa.ec.leos.domain.vo.LegDocumentVO;
+import eu.europa.ec.leos.model.event.MilestoneUpdatedEvent;
+import eu.europa.ec.leos.services.milestone.MilestoneService;
+import eu.europa.ec.leos.services.store.LegService;
+import eu.europa.ec.leos.services.store.WorkspaceService;
+import eu.europa.ec.leos.services.validation.ValidationService;
+import eu.europa.ec.leos.test.support.LeosTest;
+import io.atlassian.fugue.Option;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LeosApiControllerTest extends LeosTest {
+
+    @Mock
+    private WorkspaceService workspaceService;
+    @Mock
+    private ValidationService validationService;
+    @Mock
+    private LegService legService;
+    @Mock
+    private MilestoneService milestoneService;
+    @Mock
+    private EventBus leosApplicationEventBus;
+
+    @InjectMocks
+    private LeosApiController leosApiController;
+
+    @Test
+    public void test_getValidationResult_shouldReturnDocumentAndElementResults() {
+        // Given
+        XmlDocument document = mock(XmlDocument.class);
+        when(document.getVersionSeriesId()).thenReturn("series-1");
+        when(workspaceService.findDocumentByRef("bill_ref", XmlDocument.class)).thenReturn(document);
+        List<ErrorVO> documentResult = Collections.singletonList(new ErrorVO(ErrorCode.DOCUMENT_PURPOSE_NOT_FOUND, "doc-1"));
+        when(validationService.getValidationResult("series-1")).thenReturn(documentResult);
+        when(validationService.getElementValidationResult("series-1")).thenReturn(null);
+
+        // When
+        ResponseEntity<Object> response = leosApiController.getValidationResult("bill_ref");
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Map<?, ?> body = (Map<?, ?>) response.getBody();
+        assertSame(documentResult, body.get("document"));
+        assertNull(body.get("elements"));
+    }
+
+    @Test
+    public void test_getValidationResult_unknownDocument_shouldReturnNotFound() {
+        // Given
+        when(workspaceService.findDocumentByRef("unknown", XmlDocument.class)).thenThrow(new IllegalArgumentException("unknown"));
+
+        // When
+        ResponseEntity<Object> response = leosApiController.getValidationResult("unknown");
+
+        // Then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void test_getProposalsForUser_shouldStreamJsonArray() throws Exception {
+        // Given
+        when(legService.getLegDocumentDetailsByUserId("jane", 0, 0)).thenReturn(Stream.of(createLegDocumentVO("ref-1"), createLegDocumentVO("ref-2")));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        leosApiController.getProposalsForUser("jane", 0, 0, response);
+
+        // Then
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        String content = response.getContentAsString();
+        assertTrue(content.startsWith("[{"));
+        assertTrue(content.contains("\"proposalId\":\"ref-1\""));
+        assertTrue(content.contains("\"proposalId\":\"ref-2\""));
+        assertTrue(content.endsWith("}]"));
+    }
+
+    @Test
+    public void test_getProposalsForUser_failureBeforeStreaming_shouldReturnNotFound() throws Exception {
+        // Given
+        when(legService.getLegDocumentDetailsByUserId("jane", 0, 0)).thenReturn(Stream.generate(() -> {
+            throw new IllegalStateException("repository down");
+        }));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        leosApiController.getProposalsForUser("jane", 0, 0, response);
+
+        // Then
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatus());
+    }
+
+    @Test
+    public void test_getProposalsForUser_failureWhileStreaming_shouldLeaveArrayUnclosed() throws Exception {
+        // Given
+        when(legService.getLegDocumentDetailsByUserId("jane", 0, 0)).thenReturn(Stream.of("ref-1", "ref-2").map(ref -> {
+            if ("ref-2".equals(ref)) {
+                throw new IllegalStateException("repository down");
+            }
+            return createLegDocumentVO(ref);
+        }));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        try {
+            leosApiController.getProposalsForUser("jane", 0, 0, response);
+            fail("Interrupted streaming must be reported");
+        } catch (IOException expected) {
+            // Then
+            assertEquals(IllegalStateException.class, expected.getCause().getClass());
+        }
+        String content = response.getContentAsString();
+        assertTrue(content.startsWith("[{"));
+        assertTrue(content.contains("\"proposalId\":\"ref-1\""));
+        assertFalse(content.endsWith("]"));
+    }
+
+    @Test
+    public void test_renditionCallback_shouldHandOverRenditionsAndAcknowledge() {
+        // Given
+        byte[] pdfJobZip = {1, 2, 3};
+        byte[] wordJobZip = {4, 5, 6};
+        CompletableFuture<LegDocument> rendition = new CompletableFuture<>();
+        when(milestoneService.updateMilestoneRenditionAsync("doc-1", "job-1", pdfJobZip, wordJobZip)).thenReturn(rendition);
+
+        // When
+        ResponseEntity<Object> response = leosApiController.renditionCallback("doc-1", "job-1",
+                new MockMultipartFile("pdfJobZip", pdfJobZip), new MockMultipartFile("wordJobZip", wordJobZip));
+
+        // Then
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        verify(leosApplicationEventBus, never()).post(any());
+        rendition.complete(new LegDocument("leg-1", "leg-1.leg", "jane", Instant.now(), "jane", Instant.now(), "leg-1", "0.1", "0.1.0", "",
+                VersionType.MINOR, true, Collections.emptyList(), Option.none(), "jane", Instant.now(), "job-1", Instant.now(),
+                LeosLegStatus.FILE_READY, Collections.emptyList()));
+        verify(leosApplicationEventBus).post(any(MilestoneUpdatedEvent.class));
+    }
+
+    private static LegDocumentVO createLegDocumentVO(String proposalRef) {
+        LegDocumentVO legDocumentVO = new LegDocumentVO();
+        legDocumentVO.setProposalId(proposalRef);
+        legDocumentVO.setLegFileId("leg-" + proposalRef);
+        return legDocumentVO;
+    }
+}
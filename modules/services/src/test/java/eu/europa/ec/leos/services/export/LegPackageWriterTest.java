@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.services.export;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LegPackageWriterTest {
+
+    @Test
+    public void test_writeEntries() throws IOException {
+        final byte[] image = new byte[]{(byte) 0x89, 'P', 'N', 'G', 1, 2, 3, 4};
+        File legFile;
+        try (LegPackageWriter writer = new LegPackageWriter("package.leg")) {
+            writer.writeEntry("main.xml", "<main/>");
+            writer.writeEntry("main.xml", "<ignored/>");
+            writer.writeMediaEntry("media/image.png", image);
+            writer.writeMediaEntry("media/annot_bill.xml.json", "{}".getBytes(UTF_8));
+            legFile = writer.finish();
+        }
+
+        try (ZipFile zipFile = new ZipFile(legFile)) {
+            Map<String, ZipEntry> entries = new HashMap<>();
+            zipFile.stream().forEach(entry -> entries.put(entry.getName(), entry));
+            assertEquals(3, entries.size());
+            assertEquals("<main/>", IOUtils.toString(zipFile.getInputStream(entries.get("main.xml")), UTF_8));
+            assertEquals(ZipEntry.STORED, entries.get("media/image.png").getMethod());
+            assertArrayEquals(image, IOUtils.toByteArray(zipFile.getInputStream(entries.get("media/image.png"))));
+            assertEquals(ZipEntry.DEFLATED, entries.get("media/annot_bill.xml.json").getMethod());
+        } finally {
+            legFile.delete();
+        }
+    }
+
+    @Test
+    public void test_openEntry() throws IOException {
+        File legFile;
+        try (LegPackageWriter writer = new LegPackageWriter("package.leg")) {
+            try (OutputStream entry = writer.openEntry("media/annot_bill.xml.json")) {
+                entry.write("{\"total\":0,".getBytes(UTF_8));
+                entry.write("\"rows\":[]}".getBytes(UTF_8));
+            }
+            try (OutputStream entry = writer.openEntry("media/annot_bill.xml.json")) {
+                entry.write("{}".getBytes(UTF_8));
+            }
+            writer.writeEntry("main.xml", "<main/>");
+            legFile = writer.finish();
+        }
+
+        try (ZipFile zipFile = new ZipFile(legFile)) {
+            assertEquals(2, zipFile.size());
+            assertEquals("{\"total\":0,\"rows\":[]}", IOUtils.toString(zipFile.getInputStream(zipFile.getEntry("media/annot_bill.xml.json")), UTF_8));
+            assertEquals("<main/>", IOUtils.toString(zipFile.getInputStream(zipFile.getEntry("main.xml")), UTF_8));
+        } finally {
+            legFile.delete();
+        }
+    }
+
+    @Test
+    public void test_writeMissingResource() throws IOException {
+        File legFile;
+        try (LegPackageWriter writer = new LegPackageWriter("package.leg")) {
+            writer.writeResource("missing.css", "not/existing/", "renditions/html/css/");
+            assertFalse(writer.containsEntry("renditions/html/css/missing.css"));
+            legFile = writer.finish();
+        }
+        assertTrue(legFile.delete());
+        assertNull(LegPackageWriter.getResource("not/existing/missing.css"));
+    }
+
+    @Test
+    public void test_closeWithoutFinish_deletesFile() throws IOException {
+        final File legFile;
+        try (LegPackageWriter writer = new LegPackageWriter("package.leg")) {
+            writer.writeEntry("main.xml", "<main/>");
+            legFile = (File) ReflectionTestUtils.getField(writer, "zipFile");
+            assertTrue(legFile.exists());
+        }
+        assertFalse(legFile.exists());
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.services.metrics;
+
+import eu.europa.ec.leos.metrics.LeosMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsServiceImplTest {
+
+    private MetricsServiceImpl metricsService;
+
+    @Before
+    public void setUp() {
+        metricsService = new MetricsServiceImpl(new double[]{0.5, 0.95}, 0);
+        metricsService.init();
+    }
+
+    @After
+    public void tearDown() {
+        metricsService.destroy();
+    }
+
+    @Test
+    public void test_getMetrics_should_return_timer_percentiles() {
+        LeosMetrics.record("test.operation", TimeUnit.MILLISECONDS.toNanos(10), "operation", "first");
+        LeosMetrics.record("test.operation", TimeUnit.MILLISECONDS.toNanos(30), "operation", "first");
+
+        Map<String, Double> statistics = metricsService.getMetrics().get("leos.test.operation{operation=first}");
+
+        assertNotNull(statistics);
+        assertEquals(2d, statistics.get("count"), 0d);
+        assertEquals(20d, statistics.get("mean_ms"), 0.001d);
+        assertEquals(30d, statistics.get("max_ms"), 0.001d);
+        assertTrue(statistics.containsKey("p50_ms"));
+        assertTrue(statistics.containsKey("p95_ms"));
+    }
+
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.services.milestone;
+
+import eu.europa.ec.leos.domain.cmis.LeosLegStatus;
+import eu.europa.ec.leos.domain.cmis.common.VersionType;
+import eu.europa.ec.leos.domain.cmis.document.LegDocument;
+import eu.europa.ec.leos.services.export.LegPackage;
+import eu.europa.ec.leos.services.store.LegService;
+import eu.europa.ec.leos.test.support.LeosTest;
+import io.atlassian.fugue.Option;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AbstractMilestoneServiceTest extends LeosTest {
+
+    private static final byte[] PDF_JOB_ZIP = new byte[]{1, 2, 3};
+    private static final byte[] WORD_JOB_ZIP = new byte[]{4, 5, 6};
+
+    @Mock
+    private LegService legService;
+
+    private final Map<String, LegDocument> legs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+    private AbstractMilestoneService milestoneService;
+
+    @Before
+    public void init() {
+        milestoneService = new AbstractMilestoneService(legService) {
+            @Override
+            protected LegDocument createLegDocument(String proposalId, LegPackage legPackage) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            protected LegPackage createLegPackage(String proposalId) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        storeLeg("leg-1", "series-1", LeosLegStatus.IN_PREPARATION);
+        storeLeg("leg-2", "series-2", LeosLegStatus.IN_PREPARATION);
+        when(legService.findLegDocumentByAnyDocumentIdAndJobId("doc-1", "job-1")).thenAnswer(invocation -> legs.get("leg-1"));
+        when(legService.findLegDocumentByAnyDocumentIdAndJobId("doc-2", "job-2")).thenAnswer(invocation -> legs.get("leg-2"));
+        when(legService.findLegDocumentById(anyString())).thenAnswer(invocation -> legs.get(invocation.<String>getArgument(0)));
+        when(legService.updateLegDocument(anyString(), any(byte[].class), any(byte[].class)))
+                .thenAnswer(invocation -> storeLeg(invocation.getArgument(0), LeosLegStatus.FILE_READY));
+        when(legService.updateLegDocument(anyString(), any(LeosLegStatus.class)))
+                .thenAnswer(invocation -> storeLeg(invocation.getArgument(0), invocation.getArgument(1)));
+    }
+
+    @After
+    public void cleanup() {
+        executor.shutdownNow();
+        milestoneService.shutdown();
+    }
+
+    @Test
+    public void test_updateMilestoneRendition_shouldStoreRenditions() {
+        // When
+        LegDocument result = milestoneService.updateMilestoneRendition("doc-1", "job-1", PDF_JOB_ZIP, WORD_JOB_ZIP);
+
+        // Then
+        assertEquals(LeosLegStatus.FILE_READY, result.getStatus());
+        verify(legService).updateLegDocument("leg-1", PDF_JOB_ZIP, WORD_JOB_ZIP);
+    }
+
+    @Test
+    public void test_updateMilestoneRendition_alreadyProcessed_shouldSkipRendition() {
+        // Given
+        storeLeg("leg-1", LeosLegStatus.FILE_READY);
+
+        // When
+        LegDocument result = milestoneService.updateMilestoneRendition("doc-1", "job-1", PDF_JOB_ZIP, WORD_JOB_ZIP);
+
+        // Then
+        assertEquals(LeosLegStatus.FILE_READY, result.getStatus());
+        verify(legService, never()).updateLegDocument(anyString(), any(byte[].class), any(byte[].class));
+        verify(legService, never()).updateLegDocument(anyString(), any(LeosLegStatus.class));
+    }
+
+    @Test
+    public void test_updateMilestoneRendition_emptyRenditions_shouldChangeStatusToFileError() {
+        // When
+        LegDocument result = milestoneService.updateMilestoneRendition("doc-1", "job-1", new byte[0], new byte[0]);
+
+        // Then
+        assertEquals(LeosLegStatus.FILE_ERROR, result.getStatus());
+        verify(legService).updateLegDocument("leg-1", LeosLegStatus.FILE_ERROR);
+    }
+
+    @Test
+    public void test_updateMilestoneRendition_emptyRenditionsForProcessedLeg_shouldKeepStatus() {
+        // Given
+        storeLeg("leg-1", LeosLegStatus.FILE_READY);
+
+        // When
+        LegDocument result = milestoneService.updateMilestoneRendition("doc-1", "job-1", new byte[0], new byte[0]);
+
+        // Then
+        assertEquals(LeosLegStatus.FILE_READY, result.getStatus());
+        assertEquals(LeosLegStatus.FILE_READY, legs.get("leg-1").getStatus());
+        verify(legService, never()).updateLegDocument(anyString(), any(LeosLegStatus.class));
+    }
+
+    @Test
+    public void test_updateMilestoneRendition_lookupFailureForProcessedLeg_shouldKeepStatus() {
+        // Given
+        storeLeg("leg-1", LeosLegStatus.FILE_READY);
+        when(legService.findLegDocumentByAnyDocumentIdAndJobId("doc-1", "job-1"))
+                .thenThrow(new IllegalStateException("repository down"))
+                .thenAnswer(invocation -> legs.get("leg-1"));
+
+        // When
+        LegDocument result = milestoneService.updateMilestoneRendition("doc-1", "job-1", PDF_JOB_ZIP, WORD_JOB_ZIP);
+
+        // Then
+        assertEquals(LeosLegStatus.FILE_READY, result.getStatus());
+        verify(legService, never()).updateLegDocument(anyString(), any(LeosLegStatus.class));
+    }
+
+    @Test
+    public void test_updateMilestoneRenditionAsync_shouldStoreRenditionsOnRenditionPool() throws Exception {
+        // Given
+        Thread caller = Thread.currentThread();
+        doAnswer(invocation -> {
+            assertNotSame(caller, Thread.currentThread());
+            return storeLeg("leg-1", LeosLegStatus.FILE_READY);
+        }).when(legService).updateLegDocument("leg-1", PDF_JOB_ZIP, WORD_JOB_ZIP);
+
+        // When
+        LegDocument result = milestoneService.updateMilestoneRenditionAsync("doc-1", "job-1", PDF_JOB_ZIP, WORD_JOB_ZIP).get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(LeosLegStatus.FILE_READY, result.getStatus());
+        verify(legService).updateLegDocument("leg-1", PDF_JOB_ZIP, WORD_JOB_ZIP);
+    }
+
+    @Test
+    public void test_updateMilestoneRendition_lookupFailure_shouldChangeStatusToFileError() {
+        // Given
+        when(legService.findLegDocumentByAnyDocumentIdAndJobId("doc-1", "job-1"))
+                .thenThrow(new IllegalStateException("repository down"))
+                .thenAnswer(invocation -> legs.get("leg-1"));
+
+        // When
+        LegDocument result = milestoneService.updateMilestoneRendition("doc-1", "job-1", PDF_JOB_ZIP, WORD_JOB_ZIP);
+
+        // Then
+        assertEquals(LeosLegStatus.FILE_ERROR, result.getStatus());
+        verify(legService).updateLegDocument("leg-1", LeosLegStatus.FILE_ERROR);
+        verify(legService, never()).updateLegDocument(anyString(), any(byte[].class), any(byte[].class));
+    }
+
+    @Test
+    public void test_updateMilestoneRendition_unknownLeg_shouldReturnNull() {
+        // When
+        LegDocument result = milestoneService.updateMilestoneRendition("doc-3", "job-3", PDF_JOB_ZIP, WORD_JOB_ZIP);
+
+        // Then
+        assertNull(result);
+        verify(legService, never()).updateLegDocument(anyString(), any(LeosLegStatus.class));
+    }
+
+    @Test
+    public void test_updateMilestone_sameStatus_shouldSkipUpdate() {
+        // Given
+        storeLeg("leg-1", LeosLegStatus.FILE_READY);
+
+        // When
+        LegDocument result = milestoneService.updateMilestone("leg-1", LeosLegStatus.FILE_READY);
+
+        // Then
+        assertEquals(LeosLegStatus.FILE_READY, result.getStatus());
+        verify(legService, never()).updateLegDocument(anyString(), any(LeosLegStatus.class));
+    }
+
+    @Test
+    public void test_updateMilestoneRendition_shouldLockPerLegDocument() throws Exception {
+        // Given
+        CountDownLatch renditionStarted = new CountDownLatch(1);
+        CountDownLatch renditionReleased = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            renditionStarted.countDown();
+            assertTrue(renditionReleased.await(10, TimeUnit.SECONDS));
+            return storeLeg("leg-1", LeosLegStatus.FILE_READY);
+        }).when(legService).updateLegDocument("leg-1", PDF_JOB_ZIP, WORD_JOB_ZIP);
+
+        // When
+        Future<LegDocument> callback = executor.submit(() -> milestoneService.updateMilestoneRendition("doc-1", "job-1", PDF_JOB_ZIP, WORD_JOB_ZIP));
+        assertTrue(renditionStarted.await(10, TimeUnit.SECONDS));
+        Future<LegDocument> otherLeg = executor.submit(() -> milestoneService.updateMilestoneRendition("doc-2", "job-2", PDF_JOB_ZIP, WORD_JOB_ZIP));
+        Future<LegDocument> sameLeg = executor.submit(() -> milestoneService.updateMilestoneRendition("doc-1", "job-1", PDF_JOB_ZIP, WORD_JOB_ZIP));
+
+        // Then
+        assertEquals(LeosLegStatus.FILE_READY, otherLeg.get(10, TimeUnit.SECONDS).getStatus());
+        Thread.sleep(200);
+        assertFalse(sameLeg.isDone());
+        renditionReleased.countDown();
+        assertEquals(LeosLegStatus.FILE_READY, callback.get(10, TimeUnit.SECONDS).getStatus());
+        assertEquals(LeosLegStatus.FILE_READY, sameLeg.get(10, TimeUnit.SECONDS).getStatus());
+        verify(legService, times(1)).updateLegDocument("leg-1", PDF_JOB_ZIP, WORD_JOB_ZIP);
+        verify(legService, times(1)).updateLegDocument("leg-2", PDF_JOB_ZIP, WORD_JOB_ZIP);
+    }
+
+    private LegDocument storeLeg(String id, LeosLegStatus status) {
+        return storeLeg(id, legs.get(id).getVersionSeriesId(), status);
+    }
+
+    private LegDocument storeLeg(String id, String versionSeriesId, LeosLegStatus status) {
+        LegDocument legDocument = new LegDocument(id, id + ".leg", "jane", Instant.now(), "jane", Instant.now(), versionSeriesId, "0.1", "0.1.0", "",
+                VersionType.MINOR, true, Collections.emptyList(), Option.none(), "jane", Instant.now(), "job", Instant.now(), status, Collections.emptyList());
+        legs.put(id, legDocument);
+        return legDocument;
+    }
+}
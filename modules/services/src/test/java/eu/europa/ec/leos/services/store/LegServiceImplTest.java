@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.services.store;
+
+import eu.europa.ec.leos.domain.cmis.LeosLegStatus;
+import eu.europa.ec.leos.domain.cmis.common.VersionType;
+import eu.europa.ec.leos.domain.cmis.document.LegDocument;
+import eu.europa.ec.leos.domain.cmis.document.Proposal;
+import eu.europa.ec.leos.domain.cmis.metadata.ProposalMetadata;
+import eu.europa.ec.leos.domain.vo.LegDocumentVO;
+import eu.europa.ec.leos.repository.store.PackageRepository;
+import eu.europa.ec.leos.security.LeosPermissionAuthorityMapHelper;
+import eu.europa.ec.leos.test.support.LeosTest;
+import io.atlassian.fugue.Option;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+public class LegServiceImplTest extends LeosTest {
+
+    private static final String USER_ID = "jane";
+    private static final String AUTHORITY = "OWNER";
+
+    @Mock
+    private PackageRepository packageRepository;
+    @Mock
+    private LeosPermissionAuthorityMapHelper authorityMapHelper;
+
+    @InjectMocks
+    private LegServiceImpl legService;
+
+    @Before
+    public void init() {
+        when(authorityMapHelper.getRoleForDocCreation()).thenReturn(AUTHORITY);
+        when(packageRepository.findLatestDocumentsInPackagesOf(anyList(), eq(LegDocument.class))).thenAnswer(invocation -> {
+            List<String> proposalIds = invocation.getArgument(0);
+            Map<String, LegDocument> legs = new LinkedHashMap<>();
+            // every third proposal has no leg document yet
+            proposalIds.stream().filter(id -> Integer.parseInt(id.substring("proposal-".length())) % 3 != 0)
+                    .forEach(id -> legs.put(id, createLeg("leg-" + id)));
+            return legs;
+        });
+    }
+
+    @Test
+    public void test_getLegDocumentDetailsByUserId_shouldReadProposalsPageByPage() {
+        // Given
+        mockProposalPage(5, 40, 40);
+        mockProposalPage(45, 40, 40);
+        mockProposalPage(85, 20, 20);
+
+        // When
+        List<LegDocumentVO> result = legService.getLegDocumentDetailsByUserId(USER_ID, 5, 100).collect(Collectors.toList());
+
+        // Then
+        verify(packageRepository).findPagedDocumentsByUserId(USER_ID, Proposal.class, AUTHORITY, 5, 40);
+        verify(packageRepository).findPagedDocumentsByUserId(USER_ID, Proposal.class, AUTHORITY, 45, 40);
+        verify(packageRepository).findPagedDocumentsByUserId(USER_ID, Proposal.class, AUTHORITY, 85, 20);
+        verify(packageRepository, times(3)).findLatestDocumentsInPackagesOf(anyList(), eq(LegDocument.class));
+        verifyNoMoreInteractions(packageRepository);
+        List<String> expectedProposals = IntStream.range(5, 105).filter(i -> i % 3 != 0)
+                .mapToObj(i -> "ref-" + i).collect(Collectors.toList());
+        assertEquals(expectedProposals, result.stream().map(LegDocumentVO::getProposalId).collect(Collectors.toList()));
+        assertEquals("leg-proposal-5", result.get(0).getLegFileId());
+        assertEquals("Title proposal-5", result.get(0).getDocumentTitle());
+        assertEquals(LeosLegStatus.FILE_READY.name(), result.get(0).getLegFileStatus());
+    }
+
+    @Test
+    public void test_getLegDocumentDetailsByUserId_shouldStopAfterShortPage() {
+        // Given
+        mockProposalPage(0, 40, 40);
+        mockProposalPage(40, 40, 7);
+
+        // When
+        List<LegDocumentVO> result = legService.getLegDocumentDetailsByUserId(USER_ID, 0, 0).collect(Collectors.toList());
+
+        // Then
+        verify(packageRepository).findPagedDocumentsByUserId(USER_ID, Proposal.class, AUTHORITY, 0, 40);
+        verify(packageRepository).findPagedDocumentsByUserId(USER_ID, Proposal.class, AUTHORITY, 40, 40);
+        verify(packageRepository, times(2)).findPagedDocumentsByUserId(eq(USER_ID), eq(Proposal.class), eq(AUTHORITY), anyInt(), anyInt());
+        assertEquals(IntStream.range(0, 47).filter(i -> i % 3 != 0).count(), result.size());
+    }
+
+    @Test
+    public void test_getLegDocumentDetailsByUserId_shouldReadNextPageOnlyWhenConsumed() {
+        // Given
+        mockProposalPage(0, 40, 40);
+        mockProposalPage(40, 40, 40);
+
+        // When
+        Iterator<LegDocumentVO> result = legService.getLegDocumentDetailsByUserId(USER_ID, 0, 0).iterator();
+        LegDocumentVO first = result.next();
+
+        // Then
+        assertEquals("ref-1", first.getProposalId());
+        verify(packageRepository).findPagedDocumentsByUserId(USER_ID, Proposal.class, AUTHORITY, 0, 40);
+        verify(packageRepository, times(1)).findPagedDocumentsByUserId(eq(USER_ID), eq(Proposal.class), eq(AUTHORITY), anyInt(), anyInt());
+    }
+
+    @Test
+    public void test_getLegDocumentDetailsByUserId_shouldLookUpLegsOncePerPage() {
+        // Given
+        mockProposalPage(0, 10, 3);
+
+        // When
+        List<LegDocumentVO> result = legService.getLegDocumentDetailsByUserId(USER_ID, 0, 10).collect(Collectors.toList());
+
+        // Then
+        verify(packageRepository).findLatestDocumentsInPackagesOf(Arrays.asList("proposal-0", "proposal-1", "proposal-2"), LegDocument.class);
+        assertEquals(2, result.size());
+    }
+
+    private void mockProposalPage(int startIndex, int pageSize, int count) {
+        when(packageRepository.findPagedDocumentsByUserId(USER_ID, Proposal.class, AUTHORITY, startIndex, pageSize))
+                .thenAnswer(invocation -> IntStream.range(startIndex, startIndex + count).mapToObj(i -> createProposal("proposal-" + i, "ref-" + i)));
+    }
+
+    private static Proposal createProposal(String id, String ref) {
+        ProposalMetadata metadata = new ProposalMetadata("", "REGULATION", "", "", "EN", "", ref, "", "0.1.0");
+        return new Proposal(id, "name", "jane", Instant.now(), "jane", Instant.now(), id, "0.1", "0.1.0", "", VersionType.MINOR,
+                true, "Title " + id, Collections.emptyMap(), Collections.emptyList(), "jane", Instant.now(), Option.none(), Option.some(metadata));
+    }
+
+    private static LegDocument createLeg(String id) {
+        return new LegDocument(id, id + ".leg", "jane", Instant.now(), "jane", Instant.now(), id, "0.1", "0.1.0", "", VersionType.MINOR,
+                true, Collections.emptyList(), Option.none(), "jane", Instant.now(), "job", Instant.now(), LeosLegStatus.FILE_READY, Collections.emptyList());
+    }
+}
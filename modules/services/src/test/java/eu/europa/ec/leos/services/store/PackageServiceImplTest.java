@@ -0,0 +1,200 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.services.store;
+
+import eu.europa.ec.leos.domain.cmis.Content;
+import eu.europa.ec.leos.domain.cmis.LeosPackage;
+import eu.europa.ec.leos.domain.cmis.common.VersionType;
+import eu.europa.ec.leos.domain.cmis.document.Bill;
+import eu.europa.ec.leos.domain.cmis.document.XmlDocument;
+import eu.europa.ec.leos.domain.cmis.metadata.BillMetadata;
+import eu.europa.ec.leos.domain.common.TocMode;
+import eu.europa.ec.leos.repository.store.PackageRepository;
+import eu.europa.ec.leos.repository.store.WorkspaceRepository;
+import eu.europa.ec.leos.services.support.xml.XmlTableOfContentHelper;
+import eu.europa.ec.leos.services.toc.StructureContext;
+import eu.europa.ec.leos.test.support.LeosTest;
+import eu.europa.ec.leos.vo.toc.TableOfContentItemVO;
+import eu.europa.ec.leos.vo.toc.TocItem;
+import io.atlassian.fugue.Option;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.inject.Provider;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static eu.europa.ec.leos.services.support.xml.XmlHelper.BILL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PackageServiceImplTest extends LeosTest {
+
+    private static final String PACKAGE_PATH = "/leos/workspaces/package_1";
+
+    @Mock
+    private PackageRepository packageRepository;
+    @Mock
+    private Provider<StructureContext> structureContextProvider;
+    @Mock
+    private StructureContext structureContext;
+    @Mock
+    private XmlTableOfContentHelper xmlTableOfContentHelper;
+    @Mock
+    private WorkspaceRepository workspaceRepository;
+
+    private final TocItem rootTocItem = new TocItem();
+    private final TocItem articleTocItem = new TocItem();
+    private final AtomicInteger submittedTasks = new AtomicInteger();
+    private final List<XmlDocument> documents = new ArrayList<>();
+    private PackageServiceImpl packageService;
+
+    @Before
+    public void init() {
+        rootTocItem.setRoot(true);
+        packageService = new PackageServiceImpl(packageRepository, structureContextProvider, xmlTableOfContentHelper, workspaceRepository,
+                new TaskExecutorAdapter(task -> {
+                    submittedTasks.incrementAndGet();
+                    task.run();
+                }));
+        when(packageRepository.findPackageByDocumentId("bill-1")).thenReturn(new LeosPackage("package-1", "package_1", PACKAGE_PATH));
+        when(packageRepository.findDocumentsByPackagePath(PACKAGE_PATH, XmlDocument.class, false)).thenReturn(documents);
+        when(structureContextProvider.get()).thenReturn(structureContext);
+        when(xmlTableOfContentHelper.buildTableOfContent(eq(BILL), any(byte[].class), eq(TocMode.SIMPLIFIED), anyList(), anyMap()))
+                .thenAnswer(invocation -> createToc(new String(invocation.<byte[]>getArgument(1), UTF_8)));
+    }
+
+    @Test
+    public void test_getTableOfContent_shouldBuildEachTocOnce() {
+        // Given
+        addDocument("bill-1", "bill-ref-1");
+        addDocument("bill-2", "bill-ref-2");
+        addDocument("bill-3", "bill-ref-3");
+
+        // When
+        Map<String, List<TableOfContentItemVO>> first = packageService.getTableOfContent("bill-1", TocMode.SIMPLIFIED);
+        Map<String, List<TableOfContentItemVO>> second = packageService.getTableOfContent("bill-1", TocMode.SIMPLIFIED);
+
+        // Then
+        assertEquals(3, first.size());
+        assertEquals("heading bill-2", first.get("bill-ref-2").get(0).getChildItems().get(0).getHeading());
+        assertEquals(first, second);
+        verify(xmlTableOfContentHelper, times(3)).buildTableOfContent(anyString(), any(byte[].class), any(TocMode.class), anyList(), anyMap());
+        verify(workspaceRepository, times(3)).findDocumentById(anyString(), eq(XmlDocument.class), eq(false));
+        // the first missing TOC is built in the request thread, the others on the executor
+        assertEquals(2, submittedTasks.get());
+    }
+
+    @Test
+    public void test_getTableOfContent_shouldReturnCopiesOfCachedTocs() {
+        // Given
+        addDocument("bill-1", "bill-ref-1");
+        List<TableOfContentItemVO> first = packageService.getTableOfContent("bill-1", TocMode.SIMPLIFIED).get("bill-ref-1");
+
+        // When
+        TableOfContentItemVO article = first.get(0).getChildItems().get(0);
+        article.setHeading("modified");
+        first.get(0).removeAllChildItems();
+        first.clear();
+        List<TableOfContentItemVO> second = packageService.getTableOfContent("bill-1", TocMode.SIMPLIFIED).get("bill-ref-1");
+
+        // Then
+        assertEquals(1, second.size());
+        assertEquals(1, second.get(0).getChildItems().size());
+        TableOfContentItemVO secondArticle = second.get(0).getChildItems().get(0);
+        assertNotSame(article, secondArticle);
+        assertEquals("heading bill-1", secondArticle.getHeading());
+        assertEquals(second.get(0), secondArticle.getParentItem());
+        verify(xmlTableOfContentHelper, times(1)).buildTableOfContent(anyString(), any(byte[].class), any(TocMode.class), anyList(), anyMap());
+    }
+
+    @Test
+    public void test_getTableOfContent_cachedTocs_shouldNotLoadContent() {
+        // Given
+        addDocument("bill-1", "bill-ref-1");
+        packageService.getTableOfContent("bill-1", TocMode.SIMPLIFIED);
+        addDocument("bill-2", "bill-ref-2");
+
+        // When
+        Map<String, List<TableOfContentItemVO>> result = packageService.getTableOfContent("bill-1", TocMode.SIMPLIFIED);
+
+        // Then
+        assertEquals(2, result.size());
+        verify(workspaceRepository, times(1)).findDocumentById("bill-1", XmlDocument.class, false);
+        verify(workspaceRepository, times(1)).findDocumentById("bill-2", XmlDocument.class, false);
+        assertEquals(0, submittedTasks.get());
+    }
+
+    @Test
+    public void test_getTableOfContent_buildFailure_shouldNotCacheToc() {
+        // Given
+        addDocument("bill-1", "bill-ref-1");
+        addDocument("bill-2", "bill-ref-2");
+        when(xmlTableOfContentHelper.buildTableOfContent(eq(BILL), eq("bill-2".getBytes(UTF_8)), eq(TocMode.SIMPLIFIED), anyList(), anyMap()))
+                .thenThrow(new IllegalArgumentException("invalid content"));
+
+        // When
+        try {
+            packageService.getTableOfContent("bill-1", TocMode.SIMPLIFIED);
+            fail("The build failure must be reported");
+        } catch (IllegalArgumentException expected) {
+            // Then
+            assertEquals("invalid content", expected.getMessage());
+        }
+        try {
+            packageService.getTableOfContent("bill-1", TocMode.SIMPLIFIED);
+            fail("The build failure must be reported");
+        } catch (IllegalArgumentException expected) {
+            verify(xmlTableOfContentHelper, times(1)).buildTableOfContent(eq(BILL), eq("bill-1".getBytes(UTF_8)), eq(TocMode.SIMPLIFIED), anyList(), anyMap());
+            verify(xmlTableOfContentHelper, times(2)).buildTableOfContent(eq(BILL), eq("bill-2".getBytes(UTF_8)), eq(TocMode.SIMPLIFIED), anyList(), anyMap());
+        }
+    }
+
+    private void addDocument(String id, String ref) {
+        BillMetadata metadata = new BillMetadata("", "REGULATION", "", "SJ-023", "EN", "BL-023", ref, "", "0.1.0");
+        documents.add(createBill(id, metadata, Option.none()));
+        Content content = mock(Content.class);
+        Content.Source source = mock(Content.Source.class);
+        when(content.getSource()).thenReturn(source);
+        when(source.getBytes()).thenReturn(id.getBytes(UTF_8));
+        when(workspaceRepository.findDocumentById(id, XmlDocument.class, false)).thenReturn(createBill(id, metadata, Option.some(content)));
+    }
+
+    private static Bill createBill(String id, BillMetadata metadata, Option<Content> content) {
+        return new Bill(id, "Legaltext", "login", Instant.now(), "login", Instant.now(), "", "", "Version 1.0.0", "", VersionType.MAJOR, true,
+                "title", Collections.emptyMap(), Collections.emptyList(), content, Option.some(metadata));
+    }
+
+    private List<TableOfContentItemVO> createToc(String documentId) {
+        TableOfContentItemVO root = new TableOfContentItemVO(rootTocItem, "body", null, null, null, null, null, null, null, 1, null);
+        root.addChildItem(new TableOfContentItemVO(articleTocItem, "art_1", null, "Article 1", null, "heading " + documentId, 2, 3, null, 4, null));
+        return new ArrayList<>(Collections.singletonList(root));
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.services.support.xml;
+
+import eu.europa.ec.leos.i18n.LanguageHelper;
+import eu.europa.ec.leos.i18n.MandateMessageHelper;
+import eu.europa.ec.leos.i18n.MessageHelper;
+import eu.europa.ec.leos.services.content.TemplateStructureService;
+import eu.europa.ec.leos.services.toc.StructureContext;
+import eu.europa.ec.leos.services.toc.StructureServiceImpl;
+import eu.europa.ec.leos.services.util.TestUtils;
+import eu.europa.ec.leos.test.support.LeosTest;
+import eu.europa.ec.leos.vo.toc.NumberingConfig;
+import eu.europa.ec.leos.vo.toc.TocItem;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.context.MessageSource;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.inject.Provider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.when;
+
+public class ElementNumberingHelperConcurrencyTest extends LeosTest {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 10;
+
+    @InjectMocks
+    private MessageHelper messageHelper = Mockito.spy(getMessageHelper());
+
+    @Mock
+    private LanguageHelper languageHelper;
+
+    @Mock
+    private Provider<StructureContext> structureContextProvider;
+
+    @Mock
+    private StructureContext structureContext;
+
+    @InjectMocks
+    private ElementNumberingHelper elementNumberingHelper = new ElementNumberingHelper(messageHelper, structureContextProvider);
+
+    @InjectMocks
+    private StructureServiceImpl structureServiceImpl;
+
+    @Mock
+    private TemplateStructureService templateStructureService;
+
+    @InjectMocks
+    private NumberProcessor proposalNumberingProcessor = new ProposalNumberingProcessor(elementNumberingHelper, messageHelper);
+
+    @InjectMocks
+    private NumberProcessor mandateNumberingProcessor = new MandateNumberingProcessor(elementNumberingHelper);
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        String docTemplate = "BL-023";
+        byte[] bytesFile = TestUtils.getFileContent("/structure-test.xml");
+        when(templateStructureService.getStructure(docTemplate)).thenReturn(bytesFile);
+        ReflectionTestUtils.setField(structureServiceImpl, "structureSchema", "toc/schema/structure_1.xsd");
+        List<TocItem> tocItemList = structureServiceImpl.getTocItems(docTemplate);
+        List<NumberingConfig> numberingConfigs = structureServiceImpl.getNumberingConfigs(docTemplate);
+
+        when(structureContextProvider.get()).thenReturn(structureContext);
+        when(structureContext.getTocItems()).thenReturn(tocItemList);
+        when(structureContext.getNumberingConfigs()).thenReturn(numberingConfigs);
+
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private MessageHelper getMessageHelper() {
+        try(ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("test-servicesContext.xml")){
+            MessageSource servicesMessageSource = (MessageSource) applicationContext.getBean("servicesMessageSource");
+            return new MandateMessageHelper(servicesMessageSource);
+        }
+    }
+
+    @Test
+    public void test_renumbering_from_concurrent_threads_should_give_the_sequential_results() throws Exception {
+        final List<Callable<String>> renumberings = new ArrayList<>();
+        for (int size = 1; size <= 4; size++) {
+            final byte[] recitals = buildRecitals(size * 5);
+            final byte[] articles = buildArticles(size * 5);
+            renumberings.add(() -> new String(proposalNumberingProcessor.renumberRecitals(recitals), UTF_8));
+            renumberings.add(() -> new String(proposalNumberingProcessor.renumberArticles(articles), UTF_8));
+        }
+        // the imported article numbers its paragraphs while the same article renumbered as usual does not
+        final String importedArticle = buildImportedArticle();
+        renumberings.add(() -> mandateNumberingProcessor.renumberImportedArticle(importedArticle, "en"));
+        renumberings.add(() -> new String(mandateNumberingProcessor.renumberArticles(importedArticle.getBytes(UTF_8)), UTF_8));
+
+        final List<String> expectedResults = new ArrayList<>();
+        for (Callable<String> renumbering : renumberings) {
+            expectedResults.add(renumbering.call());
+        }
+        assertThat(expectedResults.get(renumberings.size() - 2), is(not(expectedResults.get(renumberings.size() - 1))));
+
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            final int offset = thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                List<String> results = new ArrayList<>();
+                for (int i = 0; i < ITERATIONS * renumberings.size(); i++) {
+                    results.add(renumberings.get((i + offset) % renumberings.size()).call());
+                }
+                return results;
+            }));
+        }
+        start.countDown();
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            List<String> results = futures.get(thread).get(1, TimeUnit.MINUTES);
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i), is(expectedResults.get((i + thread) % renumberings.size())));
+            }
+        }
+    }
+
+    private byte[] buildRecitals(int count) {
+        StringBuilder xml = new StringBuilder("<akomaNtoso xmlns=\"http://docs.oasis-open.org/legaldocml/ns/akn/3.0\" xmlns:leos=\"urn:eu:europa:ec:leos\">")
+                .append("<recitals xml:id=\"recs\">");
+        for (int i = 1; i <= count; i++) {
+            xml.append("<recital xml:id=\"rec_").append(i).append("\"><num xml:id=\"rec_").append(i).append("__num\">#</num>")
+                    .append("<p xml:id=\"rec_").append(i).append("__p\">Recital...</p></recital>");
+        }
+        return xml.append("</recitals></akomaNtoso>").toString().getBytes(UTF_8);
+    }
+
+    private byte[] buildArticles(int count) {
+        StringBuilder xml = new StringBuilder("<akomaNtoso xmlns=\"http://docs.oasis-open.org/legaldocml/ns/akn/3.0\" xmlns:leos=\"urn:eu:europa:ec:leos\">")
+                .append("<body xml:id=\"body\">");
+        for (int i = 1; i <= count; i++) {
+            xml.append("<article xml:id=\"art_").append(i).append("\"><num xml:id=\"art_").append(i).append("__num\">Article #</num>")
+                    .append("<heading xml:id=\"art_").append(i).append("__heading\">Heading...</heading>")
+                    .append("<paragraph xml:id=\"art_").append(i).append("__para_1\"><content xml:id=\"art_").append(i).append("__para_1__content\">")
+                    .append("<p xml:id=\"art_").append(i).append("__para_1__content__p\">Text...</p></content></paragraph></article>");
+        }
+        return xml.append("</body></akomaNtoso>").toString().getBytes(UTF_8);
+    }
+
+    private String buildImportedArticle() {
+        return "<akomaNtoso xmlns=\"http://docs.oasis-open.org/legaldocml/ns/akn/3.0\" xmlns:leos=\"urn:eu:europa:ec:leos\">" +
+                "<body xml:id=\"body\">" +
+                "<article xml:id=\"art_1\"><num xml:id=\"art_1__num\">Article 1</num>" +
+                "<paragraph xml:id=\"art_1__para_1\"><num xml:id=\"art_1__para_1__num\">x</num>" +
+                "<content xml:id=\"art_1__para_1__content\"><p xml:id=\"art_1__para_1__content__p\">Text...</p></content></paragraph>" +
+                "<paragraph xml:id=\"art_1__para_2\"><num xml:id=\"art_1__para_2__num\">y</num>" +
+                "<content xml:id=\"art_1__para_2__content\"><p xml:id=\"art_1__para_2__content__p\">Text...</p></content></paragraph>" +
+                "</article></body></akomaNtoso>";
+    }
+}
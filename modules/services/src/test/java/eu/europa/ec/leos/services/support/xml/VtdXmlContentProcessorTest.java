@@ -214,6 +214,18 @@ public class VtdXmlContentProcessorTest extends LeosTest {
 
     }
 
+    @Test
+    public void test_getReferencedDocumentRefs_should_return_only_other_documents() {
+        byte[] content = ("<akomaNtoso><bill><meta><proprietary><leos:ref xmlns:leos=\"urn:eu:europa:ec:leos\">bill_1</leos:ref></proprietary></meta>"
+                + "<body><article xml:id=\"art_1\"><p><mref xml:id=\"mref_1\">"
+                + "<ref xml:id=\"ref_1\" href=\"art_2\">Article 2</ref>"
+                + "<ref xml:id=\"ref_2\" href=\"annex_p_1\" documentref=\"annex_1\">Annex I</ref>"
+                + "<ref xml:id=\"ref_3\" href=\"annex_p_2\" documentref=\"annex_1\">Annex I</ref>"
+                + "</mref></p></article></body></bill></akomaNtoso>").getBytes(UTF_8);
+
+        assertThat(vtdXmlContentProcessor.getReferencedDocumentRefs(content), containsInAnyOrder("annex_1"));
+    }
+
     @Test
     public void test_getElementValue_should_return_null_when_xpath_Is_InValid() {
         String elementValue = vtdXmlContentProcessor.getElementValue(docContent, "//heading_[1]", true);
@@ -153,6 +153,28 @@ public class XmlNodeProcessorImplTest extends LeosTest {
         assertThat(resultMap.get("docStage"), is("NEW Stage"));
     }
 
+    @Test
+    public void setValues_tags_partially_present_test() throws Exception {
+        // setup
+        byte[] xmlContent = ("<akomaNtoso xmlns:leos=\"urn:eu:europa:ec:leos\"><bill>"
+                + "<meta><proprietary><leos:docStage>OLDStage</leos:docStage></proprietary></meta>"
+                + "</bill></akomaNtoso>").getBytes(UTF_8);
+
+        Map<String, String> keyValue = new LinkedHashMap<>();
+        keyValue.put("docType", "NEW Type");
+        keyValue.put("docStage", "NEW Stage");
+        keyValue.put("template", "SJ-023");
+
+        // actual call
+        byte[] result = metaDataProcessor.setValuesInXml(xmlContent, keyValue, CONFIGURATIONS);
+
+        // verify
+        Map<String, String> resultMap = metaDataProcessor.getValuesFromXml(result, new String[]{"docType", "docStage", "template"}, CONFIGURATIONS);
+        assertThat(resultMap.get("docType"), is("NEW Type"));
+        assertThat(resultMap.get("docStage"), is("NEW Stage"));
+        assertThat(resultMap.get("template"), is("SJ-023"));
+    }
+
     @Test
     public void setValues_AttributeNodeSelectorAndCreateIsTrue() throws Exception {
         // setup
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019 European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ *     https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ */
+package eu.europa.ec.leos.services.validation;
+
+import eu.europa.ec.leos.domain.cmis.LeosCategory;
+import eu.europa.ec.leos.domain.common.ErrorCode;
+import eu.europa.ec.leos.domain.vo.DocumentVO;
+import eu.europa.ec.leos.domain.vo.ErrorVO;
+import eu.europa.ec.leos.services.notification.NotificationService;
+import eu.europa.ec.leos.services.validation.chains.ValidationChain;
+import eu.europa.ec.leos.services.validation.handlers.AkomantosoXsdValidator;
+import eu.europa.ec.leos.services.validation.handlers.Validator;
+import eu.europa.ec.leos.test.support.LeosTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ValidationServiceImplTest extends LeosTest {
+
+    private static final String VERSION_SERIES_ID = "series-1";
+
+    @Mock
+    private ValidatorFactory validatorFactory;
+    @Mock
+    private NotificationService notificationService;
+    @Mock
+    private AkomantosoXsdValidator xsdValidator;
+
+    // the metadata of the test document is always reported as incomplete
+    private final Validator metadataValidator = (documentVO, result) -> result.add(new ErrorVO(ErrorCode.DOCUMENT_PURPOSE_NOT_FOUND, documentVO.getId()));
+
+    private ValidationService validationService;
+    private DocumentVO documentVO;
+
+    @Before
+    public void setUp() {
+        ValidationChain chain = new ValidationChain() {
+            {
+                this.chain.add(metadataValidator);
+                this.chain.add(xsdValidator);
+            }
+
+            @Override
+            public boolean supports(DocumentVO documentVO) {
+                return true;
+            }
+        };
+        when(validatorFactory.getValidationChain(any())).thenReturn(chain);
+
+        // the validations run synchronously
+        TaskExecutor taskExecutor = Runnable::run;
+        validationService = new ValidationServiceImpl(validatorFactory, notificationService, taskExecutor);
+
+        documentVO = new DocumentVO("doc-1", "EN", LeosCategory.BILL, "jane", new Date());
+        documentVO.setVersionSeriesId(VERSION_SERIES_ID);
+    }
+
+    @Test
+    public void test_validateDocumentAsync_withElement_shouldRunWholeChainOnElement() throws Exception {
+        // When
+        validationService.validateDocumentAsync(documentVO, "art_1");
+
+        // Then
+        verify(xsdValidator).validateElements(eq(documentVO), eq(Collections.singleton("art_1")), anyList());
+        verify(xsdValidator, never()).validate(any(), anyList());
+
+        List<ErrorVO> elementResult = validationService.getElementValidationResult(VERSION_SERIES_ID);
+        assertEquals(1, elementResult.size());
+        assertEquals(ErrorCode.DOCUMENT_PURPOSE_NOT_FOUND, elementResult.get(0).getErrorCode());
+        assertNull(validationService.getValidationResult(VERSION_SERIES_ID));
+    }
+
+    @Test
+    public void test_validateDocumentAsync_shouldKeepDocumentAndElementResultsApart() throws Exception {
+        // Given
+        validationService.validateDocumentAsync(documentVO);
+        List<ErrorVO> documentResult = validationService.getValidationResult(VERSION_SERIES_ID);
+        assertEquals(1, documentResult.size());
+        assertNull(validationService.getElementValidationResult(VERSION_SERIES_ID));
+
+        // When
+        validationService.validateDocumentAsync(documentVO, "art_1");
+
+        // Then
+        verify(xsdValidator).validate(eq(documentVO), anyList());
+        verify(xsdValidator).validateElements(eq(documentVO), eq(Collections.singleton("art_1")), anyList());
+        assertSame(documentResult, validationService.getValidationResult(VERSION_SERIES_ID));
+        assertEquals(1, validationService.getElementValidationResult(VERSION_SERIES_ID).size());
+    }
+}
@@ -152,5 +152,32 @@ public class AkomantosoXsdValidatorTest extends LeosTest {
         result.forEach(errorVO -> LOG.trace("Error found:{}",errorVO));
         assertTrue(timeTaken < 50_000);// should not take more than 10 sec..
     }
+
+    @Test
+    public void test_validateElement() {
+        // setup
+        byte[] xmlContent = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<akomaNtoso xmlns=\"http://docs.oasis-open.org/legaldocml/ns/akn/3.0\" xmlns:leos=\"urn:eu:europa:ec:leos\">"
+                + "<bill name=\"x\"><meta></meta><body>"
+                + "<article xml:id=\"art_1\" leos:editable=\"true\"><num>Article 1</num><paragraph xml:id=\"art_1_par_1\"><content><p>text</p></content></paragraph></article>"
+                + "<article xml:id=\"art_2\"><num>Article 2</num><wrongTag xml:id=\"art_2_wrong\"/></article>"
+                + "</body></bill></akomaNtoso>").getBytes(UTF_8);
+        DocumentVO documentVO = new DocumentVO(LeosCategory.BILL);
+        documentVO.setSource(xmlContent);
+
+        //actual Call
+        List<ErrorVO> validResult = new ArrayList<>();
+        akomantosoXsdValidator.validateElement(documentVO, "art_1_par_1", validResult);
+        List<ErrorVO> invalidResult = new ArrayList<>();
+        akomantosoXsdValidator.validateElement(documentVO, "art_2", invalidResult);
+        List<ErrorVO> missingResult = new ArrayList<>();
+        akomantosoXsdValidator.validateElement(documentVO, "art_3", missingResult);
+
+        //validate, the incomplete meta of the document is not part of the validated subtrees
+        assertThat(validResult, Matchers.equalTo(Collections.emptyList()));
+        assertThat(invalidResult.isEmpty(), Matchers.equalTo(false));
+        assertThat(invalidResult.get(0).getErrorCode(), Matchers.equalTo(ErrorCode.DOCUMENT_XSD_VALIDATION_FAILED));
+        assertThat(missingResult, Matchers.equalTo(Collections.emptyList()));
+    }
     
 }
\ No newline at end of file
@@ -26,6 +26,7 @@ import com.vaadin.ui.declarative.Design;
 import eu.europa.ec.leos.domain.cmis.document.XmlDocument;
 import eu.europa.ec.leos.i18n.MessageHelper;
 import eu.europa.ec.leos.model.action.VersionVO;
+import eu.europa.ec.leos.services.support.VersionsUtil;
 import eu.europa.ec.leos.ui.extension.CollapsibleEllipsisExtension;
 import eu.europa.ec.leos.ui.view.TriFunction;
 import eu.europa.ec.leos.web.event.view.document.ComparisonEvent;
@@ -46,6 +47,9 @@ public class VersionsTab<D extends XmlDocument> extends VerticalLayout {
     
     private static final long serialVersionUID = -2540336182761979302L;
 
+    // number of version cards loaded at once, the older versions are loaded on demand
+    private static final int VERSIONS_PAGE_SIZE = 10;
+
     private EventBus eventBus;
     private MessageHelper messageHelper;
     private UserHelper userHelper;
@@ -55,11 +59,13 @@ public class VersionsTab<D extends XmlDocument> extends VerticalLayout {
     private Button compareModeButton;
     private Button searchButton;
 
+    private BiFunction<Integer, Integer, List<D>> majorVersionsFn;
+    private Supplier<Integer> countMajorVersionsFn;
     private TriFunction<String, Integer, Integer, List<D>> minorVersionsFn;
     private Function<String, Integer> countMinorVersionsFn;
     private BiFunction<Integer, Integer, List<D>> recentChangesFn;
     private Supplier<Integer> countRecentChangesFn;
-    private List<VersionVO> allVersions;
+    private int loadedVersionsCount;
     private boolean comparisonMode;
     private boolean comparisonAvailable;
     
@@ -110,16 +116,18 @@ public class VersionsTab<D extends XmlDocument> extends VerticalLayout {
     }
 
     public void setDataFunctions(
-            List<VersionVO> allVersions,
+            BiFunction<Integer, Integer, List<D>> majorVersionsFn, Supplier<Integer> countMajorVersionsFn,
             TriFunction<String, Integer, Integer, List<D>> minorVersionsFn, Function<String, Integer> countMinorVersionsFn,
             BiFunction<Integer, Integer, List<D>> recentChangesFn, Supplier<Integer> countRecentChangesFn,
             boolean comparisonAvailable) {
 
+        this.majorVersionsFn = majorVersionsFn;
+        this.countMajorVersionsFn = countMajorVersionsFn;
         this.minorVersionsFn = minorVersionsFn;
         this.countMinorVersionsFn = countMinorVersionsFn;
         this.recentChangesFn = recentChangesFn;
         this.countRecentChangesFn = countRecentChangesFn;
-        this.allVersions = allVersions;
+        this.loadedVersionsCount = 0;
         this.comparisonAvailable = comparisonAvailable;
         
         enableDisableCompareButton();
@@ -142,7 +150,8 @@ public class VersionsTab<D extends XmlDocument> extends VerticalLayout {
 
     /**
      * On DocumentUpdatedEvent for now we recreate all the cards.
-     * We can switch when coming a MinorChangeUpdatedEvent, we recreate only the recent card, otherwise the rest
+     * We can switch when coming a MinorChangeUpdatedEvent, we recreate only the recent card, otherwise the rest.
+     * The cards of the versions already shown are reloaded, the older versions stay loaded on demand.
      */
     private void buildCards() {
         versionsCardsHolder.removeAllComponents();
@@ -156,7 +165,14 @@ public class VersionsTab<D extends XmlDocument> extends VerticalLayout {
                 versionComparator);
         versionsCardsHolder.addComponent(recentCard);
 
-        for (VersionVO versionVO : allVersions) {
+        int versionsCount = Math.max(loadedVersionsCount, VERSIONS_PAGE_SIZE);
+        loadedVersionsCount = 0;
+        addVersionCards(versionsCount);
+    }
+
+    private void addVersionCards(int maxResults) {
+        List<VersionVO> versions = VersionsUtil.buildVersionVO(majorVersionsFn.apply(loadedVersionsCount, maxResults), messageHelper);
+        for (VersionVO versionVO : versions) {
             VersionCard<D> minorCard = new VersionCard<>(versionVO,
                     minorVersionsFn, countMinorVersionsFn,
                     recentChangesFn, countRecentChangesFn,
@@ -166,10 +182,20 @@ public class VersionsTab<D extends XmlDocument> extends VerticalLayout {
                     versionComparator);
             versionsCardsHolder.addComponent(minorCard);
         }
+        loadedVersionsCount += versions.size();
+
+        if (versions.size() == maxResults && loadedVersionsCount < countMajorVersionsFn.get()) {
+            Button showMoreVersionsButton = new Button(messageHelper.getMessage("document.version.olderVersions.show"));
+            showMoreVersionsButton.setStyleName("link reset-button");
+            showMoreVersionsButton.addClickListener(event -> {
+                versionsCardsHolder.removeComponent(showMoreVersionsButton);
+                addVersionCards(VERSIONS_PAGE_SIZE);
+            });
+            versionsCardsHolder.addComponent(showMoreVersionsButton);
+        }
     }
     
-    public void refreshVersions(List<VersionVO> allVersions, boolean comparisonMode) {
-        this.allVersions = allVersions;
+    public void refreshVersions(boolean comparisonMode) {
         this.comparisonMode = comparisonMode;
         compareModeButton.setEnabled(!comparisonMode);
         if(!comparisonMode) {
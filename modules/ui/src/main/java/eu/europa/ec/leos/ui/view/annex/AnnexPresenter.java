@@ -61,7 +61,6 @@ import eu.europa.ec.leos.domain.common.Result;
 import eu.europa.ec.leos.domain.common.TocMode;
 import eu.europa.ec.leos.domain.vo.DocumentVO;
 import eu.europa.ec.leos.i18n.MessageHelper;
-import eu.europa.ec.leos.model.action.VersionVO;
 import eu.europa.ec.leos.model.annex.AnnexStructureType;
 import eu.europa.ec.leos.model.event.DocumentUpdatedByCoEditorEvent;
 import eu.europa.ec.leos.model.event.UpdateUserInfoEvent;
@@ -271,9 +270,7 @@ class AnnexPresenter extends AbstractLeosPresenter {
     }
     
     private void populateVersionsData() {
-        final List<VersionVO> allVersions = annexService.getAllVersions(documentId, documentRef);
         annexScreen.setDataFunctions(
-                allVersions,
                 this::majorVersionsFn, this::countMajorVersionsFn,
                 this::minorVersionsFn, this::countMinorVersionsFn,
                 this::recentChangesFn, this::countRecentChangesFn);
@@ -281,8 +278,7 @@ class AnnexPresenter extends AbstractLeosPresenter {
     
     @Subscribe
     public void updateVersionsTab(DocumentUpdatedEvent event) {
-        final List<VersionVO> allVersions = annexService.getAllVersions(documentId, documentRef);
-        annexScreen.refreshVersions(allVersions, comparisonMode);
+        annexScreen.refreshVersions(comparisonMode);
     }
     
     private Integer countMinorVersionsFn(String currIntVersion) {
@@ -459,7 +455,7 @@ class AnnexPresenter extends AbstractLeosPresenter {
                 return;
             }
 
-            annex = annexService.updateAnnex(annex, updatedXmlContent, VersionType.MINOR, messageHelper.getMessage("operation.annex.block.updated"));
+            annex = annexService.updateAnnex(annex, updatedXmlContent, VersionType.MINOR, messageHelper.getMessage("operation.annex.block.updated"), elementId);
 
             if (annex != null) {
                 String elementContent = elementProcessor.getElement(annex, elementTagName, elementId);
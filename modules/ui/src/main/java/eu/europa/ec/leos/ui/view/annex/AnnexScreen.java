@@ -23,7 +23,6 @@ import com.vaadin.server.Resource;
 
 import eu.europa.ec.leos.domain.cmis.document.Annex;
 import eu.europa.ec.leos.domain.vo.DocumentVO;
-import eu.europa.ec.leos.model.action.VersionVO;
 import eu.europa.ec.leos.model.user.User;
 import eu.europa.ec.leos.security.LeosPermission;
 import eu.europa.ec.leos.ui.view.ComparisonDisplayMode;
@@ -82,15 +81,14 @@ interface AnnexScreen {
 
     boolean isTocEnabled();
     
-    void setDataFunctions(List<VersionVO> allVersions,
-                          BiFunction<Integer, Integer, List<Annex>> majorVersionsFn,
+    void setDataFunctions(BiFunction<Integer, Integer, List<Annex>> majorVersionsFn,
                           Supplier<Integer> countMajorVersionsFn,
                           TriFunction<String, Integer, Integer, List<Annex>> minorVersionsFn,
                           Function<String, Integer> countMinorVersionsFn,
                           BiFunction<Integer, Integer, List<Annex>> recentChangesFn,
                           Supplier<Integer> countRecentChangesFn);
     
-    void refreshVersions(List<VersionVO> allVersions, boolean isComparisonMode);
+    void refreshVersions(boolean isComparisonMode);
     
     void showVersion(String versionContent, String versionInfo);
     
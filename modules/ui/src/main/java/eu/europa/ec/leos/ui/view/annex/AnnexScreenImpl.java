@@ -75,7 +75,6 @@ import eu.europa.ec.leos.domain.cmis.document.Annex;
 import eu.europa.ec.leos.domain.cmis.document.XmlDocument;
 import eu.europa.ec.leos.domain.vo.DocumentVO;
 import eu.europa.ec.leos.i18n.MessageHelper;
-import eu.europa.ec.leos.model.action.VersionVO;
 import eu.europa.ec.leos.model.annex.AnnexStructureType;
 import eu.europa.ec.leos.model.user.User;
 import eu.europa.ec.leos.security.LeosPermission;
@@ -634,15 +633,14 @@ abstract class AnnexScreenImpl extends VerticalLayout implements AnnexScreen {
     }
     
     @Override
-    public void setDataFunctions(List<VersionVO> allVersions,
-                                 BiFunction<Integer, Integer, List<Annex>> majorVersionsFn, Supplier<Integer> countMajorVersionsFn,
+    public void setDataFunctions(BiFunction<Integer, Integer, List<Annex>> majorVersionsFn, Supplier<Integer> countMajorVersionsFn,
                                  TriFunction<String, Integer, Integer, List<Annex>> minorVersionsFn, Function<String, Integer> countMinorVersionsFn,
                                  BiFunction<Integer, Integer, List<Annex>> recentChangesFn, Supplier<Integer> countRecentChangesFn) {
-        versionsTab.setDataFunctions(allVersions, minorVersionsFn, countMinorVersionsFn,
+        versionsTab.setDataFunctions(majorVersionsFn, countMajorVersionsFn, minorVersionsFn, countMinorVersionsFn,
                 recentChangesFn, countRecentChangesFn, true);
     }
     
-    public void refreshVersions(List<VersionVO> allVersions, boolean isComparisonMode) {
-        versionsTab.refreshVersions(allVersions, isComparisonMode);
+    public void refreshVersions(boolean isComparisonMode) {
+        versionsTab.refreshVersions(isComparisonMode);
     }
 }
@@ -70,7 +70,6 @@ import eu.europa.ec.leos.i18n.MessageHelper;
 import eu.europa.ec.leos.model.action.ActionType;
 import eu.europa.ec.leos.model.action.CheckinCommentVO;
 import eu.europa.ec.leos.model.action.CheckinElement;
-import eu.europa.ec.leos.model.action.VersionVO;
 import eu.europa.ec.leos.model.event.DocumentUpdatedByCoEditorEvent;
 import eu.europa.ec.leos.model.event.UpdateUserInfoEvent;
 import eu.europa.ec.leos.model.user.User;
@@ -250,9 +249,7 @@ class DocumentPresenter extends AbstractLeosPresenter {
     private void init() {
         try {
             populateViewWithDocumentDetails(TocMode.SIMPLIFIED);
-            final List<VersionVO> allVersions = billService.getAllVersions(documentId, documentRef);
             documentScreen.setDataFunctions(
-                    allVersions,
                     this::majorVersionsFn, this::countMajorVersionsFn,
                     this::minorVersionsFn, this::countMinorVersionsFn,
                     this::recentChangesFn, this::countRecentChangesFn);
@@ -264,8 +261,7 @@ class DocumentPresenter extends AbstractLeosPresenter {
     
     @Subscribe
     public void updateVersionsTab(DocumentUpdatedEvent event) {
-        final List<VersionVO> allVersions = billService.getAllVersions(documentId, documentRef);
-        documentScreen.refreshVersions(allVersions, comparisonMode);
+        documentScreen.refreshVersions(comparisonMode);
     }
     
     private Integer countMinorVersionsFn(String currIntVersion) {
@@ -384,7 +380,7 @@ class DocumentPresenter extends AbstractLeosPresenter {
         final CheckinCommentVO checkinComment = new CheckinCommentVO(title, description, new CheckinElement(ActionType.UPDATED, elementId, elementTagName, elementLabel));
         final String checkinCommentJson = CheckinCommentUtil.getJsonObject(checkinComment);
         
-        bill = billService.updateBill(bill, newXmlContent, checkinCommentJson);
+        bill = billService.updateBill(bill, newXmlContent, checkinCommentJson, elementId);
         
         if (bill != null) {
             if (!event.isSaveAndClose() && checkIfCloseElementEditor(elementTagName, event.getElementContent())) {
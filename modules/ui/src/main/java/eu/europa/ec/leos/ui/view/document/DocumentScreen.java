@@ -18,7 +18,6 @@ import com.vaadin.server.Resource;
 import eu.europa.ec.leos.domain.cmis.document.Bill;
 import eu.europa.ec.leos.domain.cmis.document.LegDocument;
 import eu.europa.ec.leos.domain.vo.DocumentVO;
-import eu.europa.ec.leos.model.action.VersionVO;
 import eu.europa.ec.leos.model.user.User;
 import eu.europa.ec.leos.security.LeosPermission;
 import eu.europa.ec.leos.ui.view.ComparisonDisplayMode;
@@ -97,15 +96,14 @@ interface DocumentScreen {
 
     boolean isTocEnabled();
     
-    void setDataFunctions(List<VersionVO> allVersions,
-                          BiFunction<Integer, Integer, List<Bill>> majorVersionsFn,
+    void setDataFunctions(BiFunction<Integer, Integer, List<Bill>> majorVersionsFn,
                           Supplier<Integer> countMajorVersionsFn,
                           TriFunction<String, Integer, Integer, List<Bill>> minorVersionsFn,
                           Function<String, Integer> countMinorVersionsFn,
                           BiFunction<Integer, Integer, List<Bill>> recentChangesFn,
                           Supplier<Integer> countRecentChangesFn);
     
-    void refreshVersions(List<VersionVO> allVersions, boolean isComparisonMode);
+    void refreshVersions(boolean isComparisonMode);
     
     void showVersion(String content, String versionInfo);
 
@@ -32,7 +32,6 @@ import eu.europa.ec.leos.domain.cmis.document.Bill;
 import eu.europa.ec.leos.domain.cmis.document.LegDocument;
 import eu.europa.ec.leos.domain.vo.DocumentVO;
 import eu.europa.ec.leos.i18n.MessageHelper;
-import eu.europa.ec.leos.model.action.VersionVO;
 import eu.europa.ec.leos.model.user.User;
 import eu.europa.ec.leos.security.LeosPermission;
 import eu.europa.ec.leos.security.LeosPermissionAuthorityMapHelper;
@@ -466,16 +465,15 @@ abstract class DocumentScreenImpl extends VerticalLayout implements DocumentScre
     }
     
     @Override
-    public void setDataFunctions(List<VersionVO> allVersions,
-                                 BiFunction<Integer, Integer, List<Bill>> majorVersionsFn, Supplier<Integer> countMajorVersionsFn,
+    public void setDataFunctions(BiFunction<Integer, Integer, List<Bill>> majorVersionsFn, Supplier<Integer> countMajorVersionsFn,
                                  TriFunction<String, Integer, Integer, List<Bill>> minorVersionsFn, Function<String, Integer> countMinorVersionsFn,
                                  BiFunction<Integer, Integer, List<Bill>> recentChangesFn, Supplier<Integer> countRecentChangesFn) {
-        legalTextPaneComponent.setDataFunctions(allVersions, majorVersionsFn, countMajorVersionsFn, minorVersionsFn,
+        legalTextPaneComponent.setDataFunctions(majorVersionsFn, countMajorVersionsFn, minorVersionsFn,
                 countMinorVersionsFn, recentChangesFn, countRecentChangesFn, true);
     }
     
-    public void refreshVersions(List<VersionVO> allVersions, boolean isComparisonMode) {
-        versionsTab.refreshVersions(allVersions, isComparisonMode);
+    public void refreshVersions(boolean isComparisonMode) {
+        versionsTab.refreshVersions(isComparisonMode);
     }
 
     @Override
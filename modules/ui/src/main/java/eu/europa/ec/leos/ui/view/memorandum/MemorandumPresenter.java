@@ -25,7 +25,6 @@ import eu.europa.ec.leos.domain.cmis.metadata.MemorandumMetadata;
 import eu.europa.ec.leos.domain.common.TocMode;
 import eu.europa.ec.leos.domain.vo.DocumentVO;
 import eu.europa.ec.leos.i18n.MessageHelper;
-import eu.europa.ec.leos.model.action.VersionVO;
 import eu.europa.ec.leos.model.event.DocumentUpdatedByCoEditorEvent;
 import eu.europa.ec.leos.model.event.UpdateUserInfoEvent;
 import eu.europa.ec.leos.model.user.User;
@@ -214,9 +213,7 @@ class MemorandumPresenter extends AbstractLeosPresenter {
     }
     
     private void populateVersionsData() {
-        final List<VersionVO> allVersions = memorandumService.getAllVersions(documentId, documentRef);
         memorandumScreen.setDataFunctions(
-                allVersions,
                 this::majorVersionsFn, this::countMajorVersionsFn,
                 this::minorVersionsFn, this::countMinorVersionsFn,
                 this::recentChangesFn, this::countRecentChangesFn);
@@ -224,8 +221,7 @@ class MemorandumPresenter extends AbstractLeosPresenter {
     
     @Subscribe
     public void updateVersionsTab(DocumentUpdatedEvent event) {
-        final List<VersionVO> allVersions = memorandumService.getAllVersions(documentId, documentRef);
-        memorandumScreen.refreshVersions(allVersions, comparisonMode);
+        memorandumScreen.refreshVersions(comparisonMode);
     }
     
     private Integer countMinorVersionsFn(String currIntVersion) {
@@ -333,7 +329,7 @@ class MemorandumPresenter extends AbstractLeosPresenter {
                 return;
             }
 
-            memorandum = memorandumService.updateMemorandum(memorandum, newXmlContent, VersionType.MINOR, messageHelper.getMessage("operation." + elementTagName + ".updated"));
+            memorandum = memorandumService.updateMemorandum(memorandum, newXmlContent, VersionType.MINOR, messageHelper.getMessage("operation." + elementTagName + ".updated"), elementId);
 
             if (memorandum != null) {
                 String elementContent = elementProcessor.getElement(memorandum, elementTagName, elementId);
@@ -15,7 +15,6 @@ package eu.europa.ec.leos.ui.view.memorandum;
 
 import eu.europa.ec.leos.domain.cmis.document.Memorandum;
 import eu.europa.ec.leos.domain.vo.DocumentVO;
-import eu.europa.ec.leos.model.action.VersionVO;
 import eu.europa.ec.leos.model.user.User;
 import eu.europa.ec.leos.security.LeosPermission;
 import eu.europa.ec.leos.ui.view.ComparisonDisplayMode;
@@ -72,15 +71,14 @@ interface MemorandumScreen {
 
     boolean isTocEnabled();
     
-    void setDataFunctions(List<VersionVO> allVersions,
-                          BiFunction<Integer, Integer, List<Memorandum>> majorVersionsFn,
+    void setDataFunctions(BiFunction<Integer, Integer, List<Memorandum>> majorVersionsFn,
                           Supplier<Integer> countMajorVersionsFn,
                           TriFunction<String, Integer, Integer, List<Memorandum>> minorVersionsFn,
                           Function<String, Integer> countMinorVersionsFn,
                           BiFunction<Integer, Integer, List<Memorandum>> recentChangesFn,
                           Supplier<Integer> countRecentChangesFn);
     
-    void refreshVersions(List<VersionVO> allVersions, boolean isComparisonMode);
+    void refreshVersions(boolean isComparisonMode);
     
     void showVersion(String versionContent, String versionInfo);
     
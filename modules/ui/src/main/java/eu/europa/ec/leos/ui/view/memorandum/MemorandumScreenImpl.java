@@ -33,7 +33,6 @@ import com.vaadin.ui.declarative.Design;
 import eu.europa.ec.leos.domain.cmis.LeosCategory;
 import eu.europa.ec.leos.domain.cmis.document.Memorandum;
 import eu.europa.ec.leos.i18n.MessageHelper;
-import eu.europa.ec.leos.model.action.VersionVO;
 import eu.europa.ec.leos.model.user.User;
 import eu.europa.ec.leos.security.LeosPermissionAuthorityMapHelper;
 import eu.europa.ec.leos.security.SecurityContext;
@@ -463,16 +462,15 @@ abstract class MemorandumScreenImpl extends VerticalLayout implements Memorandum
     
     
     @Override
-    public void setDataFunctions(List<VersionVO> allVersions,
-                                 BiFunction<Integer, Integer, List<Memorandum>> majorVersionsFn, Supplier<Integer> countMajorVersionsFn,
+    public void setDataFunctions(BiFunction<Integer, Integer, List<Memorandum>> majorVersionsFn, Supplier<Integer> countMajorVersionsFn,
                                  TriFunction<String, Integer, Integer, List<Memorandum>> minorVersionsFn, Function<String, Integer> countMinorVersionsFn,
                                  BiFunction<Integer, Integer, List<Memorandum>> recentChangesFn, Supplier<Integer> countRecentChangesFn) {
-        versionsTab.setDataFunctions(allVersions, minorVersionsFn, countMinorVersionsFn,
+        versionsTab.setDataFunctions(majorVersionsFn, countMajorVersionsFn, minorVersionsFn, countMinorVersionsFn,
                 recentChangesFn, countRecentChangesFn, versionComparator.isCompareModeAvailable());
     }
     
     @Override
-    public void refreshVersions(List<VersionVO> allVersions, boolean isComparisonMode) {
-        versionsTab.refreshVersions(allVersions, isComparisonMode);
+    public void refreshVersions(boolean isComparisonMode) {
+        versionsTab.refreshVersions(isComparisonMode);
     }
 }
\ No newline at end of file
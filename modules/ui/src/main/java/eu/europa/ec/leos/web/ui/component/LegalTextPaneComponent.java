@@ -25,7 +25,6 @@ import com.vaadin.ui.VerticalLayout;
 import eu.europa.ec.leos.domain.cmis.document.Bill;
 import eu.europa.ec.leos.domain.vo.DocumentVO;
 import eu.europa.ec.leos.i18n.MessageHelper;
-import eu.europa.ec.leos.model.action.VersionVO;
 import eu.europa.ec.leos.security.LeosPermission;
 import eu.europa.ec.leos.security.SecurityContext;
 import eu.europa.ec.leos.services.store.PackageService;
@@ -241,12 +240,11 @@ public class LegalTextPaneComponent extends CustomComponent {
         return screenLayoutHelper.isTocPaneEnabled();
     }
 
-    public void setDataFunctions(List<VersionVO> allVersions,
-                         BiFunction<Integer, Integer, List<Bill>> majorVersionsFn, Supplier<Integer> countMajorVersionsFn,
+    public void setDataFunctions(BiFunction<Integer, Integer, List<Bill>> majorVersionsFn, Supplier<Integer> countMajorVersionsFn,
                          TriFunction<String, Integer, Integer, List<Bill>> minorVersionsFn, Function<String, Integer> countMinorVersionsFn,
                          BiFunction<Integer, Integer, List<Bill>> recentChangesFn, Supplier<Integer> countRecentChangesFn,
                          boolean isComparisonAvailable) {
-        versionsTab.setDataFunctions(allVersions, minorVersionsFn, countMinorVersionsFn, recentChangesFn, countRecentChangesFn, isComparisonAvailable);
+        versionsTab.setDataFunctions(majorVersionsFn, countMajorVersionsFn, minorVersionsFn, countMinorVersionsFn, recentChangesFn, countRecentChangesFn, isComparisonAvailable);
     }
 
     public void removeAnnotateExtension() {
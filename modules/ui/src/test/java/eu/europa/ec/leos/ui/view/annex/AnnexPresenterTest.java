@@ -234,8 +234,7 @@ public class AnnexPresenterTest extends LeosPresenterTest {
         verify(annexScreen).setPermissions(argThat(org.hamcrest.Matchers.hasProperty("id",equalTo(annexVO.getId()))));
         verify(annexScreen).updateUserCoEditionInfo(coEditionVos, PRESENTER_ID);
         verify(annexScreen).setStructureChangeMenuItem();
-        verify(annexService).getAllVersions(docId, docRef);
-        verify(annexScreen).setDataFunctions(any(), any(), any(), any(), any(), any(), any());
+        verify(annexScreen).setDataFunctions(any(), any(), any(), any(), any(), any());
         verifyNoMoreInteractions(userHelper, annexService, documentContentService, annexScreen);
     }
     
@@ -417,13 +416,13 @@ public class AnnexPresenterTest extends LeosPresenterTest {
 
         when(annexService.findAnnexByRef(docRef)).thenReturn(originalDocument);
         when(elementProcessor.updateElement(originalDocument, updatedContent, elementTag, elementId)).thenReturn(updatedBytes);
-        when(annexService.updateAnnex(originalDocument, updatedBytes, VersionType.MINOR, messageHelper.getMessage("operation.annex.block.updated"))).thenReturn(savedDocument);
+        when(annexService.updateAnnex(originalDocument, updatedBytes, VersionType.MINOR, messageHelper.getMessage("operation.annex.block.updated"), elementId)).thenReturn(savedDocument);
 
         // DO THE ACTUAL CALL
         annexPresenter.saveElement(new SaveElementRequestEvent(elementId, elementTag, updatedContent, false));
 
         verify(elementProcessor).updateElement(originalDocument, updatedContent, elementTag, elementId);
-        verify(annexService).updateAnnex(originalDocument, updatedBytes, VersionType.MINOR, messageHelper.getMessage("operation.annex.block.updated"));
+        verify(annexService).updateAnnex(originalDocument, updatedBytes, VersionType.MINOR, messageHelper.getMessage("operation.annex.block.updated"), elementId);
         verify(annexService).findAnnexByRef(docRef);
         verifyNoMoreInteractions(annexService);
     }
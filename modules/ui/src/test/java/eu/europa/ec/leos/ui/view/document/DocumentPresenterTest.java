@@ -259,7 +259,6 @@ public class DocumentPresenterTest extends LeosPresenterTest {
         verify(billService).findBillByRef(docRef);
         verify(documentContentService).toEditableContent(any(XmlDocument.class), any(), any());
         verify(billService).getTableOfContent(document, TocMode.SIMPLIFIED);
-        verify(billService).getAllVersions(any(), any());
 
         verify(documentScreen).refreshContent(displayableContent);
         verify(documentScreen).setDocumentTitle(docName);
@@ -267,7 +266,7 @@ public class DocumentPresenterTest extends LeosPresenterTest {
         verify(documentScreen).setToc(argThat(sameInstance(tableOfContentItemVoList)));
         verify(documentScreen).setPermissions(argThat(org.hamcrest.Matchers.hasProperty("id")));
         verify(documentScreen).updateUserCoEditionInfo(coEditionVos, PRESENTER_ID);
-        verify(documentScreen).setDataFunctions(any(), any(), any(), any(), any(), any(), any());
+        verify(documentScreen).setDataFunctions(any(), any(), any(), any(), any(), any());
         
         verifyNoMoreInteractions(billService, documentContentService, documentScreen);
     }
@@ -732,7 +731,7 @@ public class DocumentPresenterTest extends LeosPresenterTest {
         when(httpSession.getAttribute(anyString() + "." + SessionAttribute.BILL_REF.name())).thenReturn(docRef);
         when(billService.findBillByRef(docRef)).thenReturn(originalDocument);
         when(elementProcessor.updateElement(originalDocument, newCitationsContent, CITATIONS_TAG, citationsId)).thenReturn(updatedDocumentContent);
-        when(billService.updateBill(originalDocument, updatedDocumentContent, checkinComment)).thenReturn(savedDocument);
+        when(billService.updateBill(originalDocument, updatedDocumentContent, checkinComment, citationsId)).thenReturn(savedDocument);
         when(elementProcessor.getElement(savedDocument, CITATIONS_TAG, citationsId)).thenReturn(newCitationsContent);
         when(messageHelper.getMessage("operation.element.updated", StringUtils.capitalize(CITATIONS_TAG))).thenReturn("Citations updated");
         when(messageHelper.getMessage("operation.checkin.minor")).thenReturn("Minor version");
@@ -744,7 +743,7 @@ public class DocumentPresenterTest extends LeosPresenterTest {
 
         verify(elementProcessor).updateElement(originalDocument, newCitationsContent, CITATIONS_TAG, citationsId);
         verify(billService).findBillByRef(docRef);
-        verify(billService).updateBill(originalDocument, updatedDocumentContent, checkinComment);
+        verify(billService).updateBill(originalDocument, updatedDocumentContent, checkinComment, citationsId);
         verify(eventBus).post(argThat(Matchers.<NotificationEvent>hasProperty("messageKey", equalTo("document.content.updated"))));
         verify(documentScreen).refreshElementEditor(citationsId, CITATIONS_TAG, newCitationsContent);
 
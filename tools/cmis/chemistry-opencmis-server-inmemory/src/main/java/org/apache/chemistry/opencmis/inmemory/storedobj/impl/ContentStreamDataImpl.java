@@ -28,6 +28,7 @@ import java.io.InputStream;
 import java.math.BigInteger;
 import java.util.GregorianCalendar;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.chemistry.opencmis.commons.data.CmisExtensionElement;
 import org.apache.chemistry.opencmis.commons.data.ContentStream;
@@ -44,8 +45,8 @@ public class ContentStreamDataImpl implements LastModifiedContentStream {
 
     private static final Logger LOG = LoggerFactory.getLogger(ContentStreamDataImpl.class.getName());
 
-    private static long totalLength = 0L;
-    private static long totalCalls = 0L;
+    private static final AtomicLong TOTAL_LENGTH = new AtomicLong();
+    private static final AtomicLong TOTAL_CALLS = new AtomicLong();
 
     private long fLength;
 
@@ -65,24 +66,24 @@ public class ContentStreamDataImpl implements LastModifiedContentStream {
     
     private final boolean doNotStoreContent;
 
-    private static synchronized long getTotalLength() {
-        return totalLength;
+    private static long getTotalLength() {
+        return TOTAL_LENGTH.get();
     }
 
-    private static synchronized void increaseTotalLength(long length) {
-        totalLength += length;
+    private static void increaseTotalLength(long length) {
+        TOTAL_LENGTH.addAndGet(length);
     }
 
-    private static synchronized void decreaseTotalLength(long length) {
-        totalLength -= length;
+    private static void decreaseTotalLength(long length) {
+        TOTAL_LENGTH.addAndGet(-length);
     }
 
-    private static synchronized long getTotalCalls() {
-        return totalCalls;
+    private static long getTotalCalls() {
+        return TOTAL_CALLS.get();
     }
 
-    private static synchronized void increaseTotalCalls() {
-        totalCalls++;
+    private static void increaseTotalCalls() {
+        TOTAL_CALLS.incrementAndGet();
     }
 
     public ContentStreamDataImpl(long maxAllowedContentSizeKB) {
@@ -20,13 +20,17 @@ package org.apache.chemistry.opencmis.inmemory.storedobj.impl;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -76,30 +80,33 @@ import org.slf4j.LoggerFactory;
  * certain operations must occur in an atomic manner. In the example it must be
  * guaranteed that no write access occurs to the map between acquiring the
  * iterator to find the children and finishing the add operation when no name
- * conflicts can occur. For this purpose this class has methods to lock an
- * unlock the state of the repository. It is very important that the caller
- * acquiring the lock enforces an unlock under all circumstances. Typical code
- * is:
+ * conflicts can occur. For this purpose the folders are locked while their
+ * children are checked and changed. The locks are striped by folder id, so
+ * that writes in unrelated folders do not wait for each other. Operations
+ * involving several folders acquire their stripes in ascending order to avoid
+ * dead locks. It is very important that the caller acquiring the locks
+ * enforces an unlock under all circumstances. Typical code is:
  * 
  * <pre>
  * {@code
- * ObjectStoreImpl os = ... ;
+ * int[] stripes = getLockStripes(folderIds);
+ * lock(stripes);
  * try {
- *     os.lock();
+ *     ...
  * } finally {
- *     os.unlock();
+ *     unlock(stripes);
  * }
  * }
  * </pre>
  * 
- * The locking is very coarse-grained. Productive implementations would probably
- * implement finer grained locks on a folder or document rather than the
- * complete repository.
+ * Object and ACL ids are generated without locking, new ACLs are registered
+ * under their own lock.
  */
 public class ObjectStoreImpl implements ObjectStore {
 
     private static final Logger LOG = LoggerFactory.getLogger(ObjectStoreImpl.class.getName());
     private static final int FIRST_ID = 100;
+    private static final int LOCK_STRIPES = 64;
     private static final Long MAX_CONTENT_SIZE_KB = ConfigurationSettings
             .getConfigurationValueAsLong(ConfigConstants.MAX_CONTENT_SIZE_KB);
 
@@ -111,7 +118,7 @@ public class ObjectStoreImpl implements ObjectStore {
     /**
      * Simple id generator that uses just an integer.
      */
-    private static int nextUnusedId = FIRST_ID;
+    private static final AtomicInteger NEXT_UNUSED_ID = new AtomicInteger(FIRST_ID);
 
     /**
      * A concurrent HashMap as core element to hold all objects in the
@@ -119,37 +126,80 @@ public class ObjectStoreImpl implements ObjectStore {
      */
     private final Map<String, StoredObject> fStoredObjectMap = new ConcurrentHashMap<String, StoredObject>();
 
+    private final AtomicInteger fNextUnusedAclId = new AtomicInteger();
+
+    /**
+     * All Acls in the repository, rarely added and read by every access check.
+     */
+    private final List<InMemoryAcl> fAcls = new CopyOnWriteArrayList<InMemoryAcl>();
+
     /**
-     * A concurrent HashMap to hold all Acls in the repository.
+     * Ids of the known Acls, to share one Acl between all the objects having
+     * the same ACEs.
      */
-    private int nextUnusedAclId = 0;
+    private final Map<InMemoryAcl, Integer> fAclIds = new ConcurrentHashMap<InMemoryAcl, Integer>();
 
-    private final List<InMemoryAcl> fAcls = new ArrayList<InMemoryAcl>();
+    private final Lock fAclLock = new ReentrantLock();
 
-    private final Lock fLock = new ReentrantLock();
+    private final Lock[] fLocks = new Lock[LOCK_STRIPES];
 
     private final String fRepositoryId;
     private FolderImpl fRootFolder = null;
 
     public ObjectStoreImpl(String repositoryId) {
         fRepositoryId = repositoryId;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            fLocks[i] = new ReentrantLock();
+        }
         createRootFolder();
     }
 
-    private static synchronized Integer getNextId() {
-        return nextUnusedId++;
+    private static Integer getNextId() {
+        return NEXT_UNUSED_ID.getAndIncrement();
+    }
+
+    private Integer getNextAclId() {
+        return fNextUnusedAclId.getAndIncrement();
+    }
+
+    private static int[] getLockStripes(Collection<String> folderIds) {
+        Set<Integer> stripes = new TreeSet<Integer>();
+        for (String folderId : folderIds) {
+            stripes.add((folderId.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES);
+        }
+        int[] result = new int[stripes.size()];
+        int i = 0;
+        for (Integer stripe : stripes) {
+            result[i++] = stripe;
+        }
+        return result;
+    }
+
+    private static int[] getLockStripes(Folder folder) {
+        if (null == folder) {
+            return new int[0];
+        }
+        return getLockStripes(Collections.singletonList(folder.getId()));
     }
 
-    private synchronized Integer getNextAclId() {
-        return nextUnusedAclId++;
+    private static int[] getAllLockStripes() {
+        int[] result = new int[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            result[i] = i;
+        }
+        return result;
     }
 
-    private void lock() {
-        fLock.lock();
+    private void lock(int[] stripes) {
+        for (int stripe : stripes) {
+            fLocks[stripe].lock();
+        }
     }
 
-    private void unlock() {
-        fLock.unlock();
+    private void unlock(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            fLocks[stripes[i]].unlock();
+        }
     }
 
     @Override
@@ -253,10 +303,14 @@ public class ObjectStoreImpl implements ObjectStore {
      */
     @Override
     public void clear() {
-        lock();
-        fStoredObjectMap.clear();
-        storeObject(fRootFolder);
-        unlock();
+        int[] stripes = getAllLockStripes();
+        lock(stripes);
+        try {
+            fStoredObjectMap.clear();
+            storeObject(fRootFolder);
+        } finally {
+            unlock(stripes);
+        }
     }
 
     @Override
@@ -291,13 +345,6 @@ public class ObjectStoreImpl implements ObjectStore {
         doc.setCustomProperties(propMap);
         doc.setRepositoryId(fRepositoryId);
         doc.setName(name);
-        if (null != folder) {
-            if (hasChild(folder, name)) {
-                throw new CmisNameConstraintViolationException("Cannot create document an object with name " + name
-                        + " already exists in folder " + getFolderPath(folder.getId()));
-            }
-            doc.addParentId(folder.getId());
-        }
         ContentStream content = setContent(doc, contentStream);
         doc.setContent(content);
         int aclId = getAclId(((FolderImpl) folder), addACEs, removeACEs);
@@ -305,8 +352,21 @@ public class ObjectStoreImpl implements ObjectStore {
         if (null != policies) {
             doc.setAppliedPolicies(policies);
         }
-        String id = storeObject(doc);
-        doc.setId(id);
+        int[] stripes = getLockStripes(folder);
+        lock(stripes);
+        try {
+            if (null != folder) {
+                if (hasChild(folder, name)) {
+                    throw new CmisNameConstraintViolationException("Cannot create document an object with name " + name
+                            + " already exists in folder " + getFolderPath(folder.getId()));
+                }
+                doc.addParentId(folder.getId());
+            }
+            String id = storeObject(doc);
+            doc.setId(id);
+        } finally {
+            unlock(stripes);
+        }
         applyAcl(doc, addACEs, removeACEs);
         return doc;
     }
@@ -319,20 +379,26 @@ public class ObjectStoreImpl implements ObjectStore {
         item.setCustomProperties(propMap);
         item.setRepositoryId(fRepositoryId);
         item.setName(name);
-        if (null != folder) {
-            if (hasChild(folder, name)) {
-                throw new CmisNameConstraintViolationException("Cannot create document an object with name " + name
-                        + " already exists in folder " + getFolderPath(folder.getId()));
-            }
-            item.addParentId(folder.getId());
-        }
         if (null != policies) {
             item.setAppliedPolicies(policies);
         }
         int aclId = getAclId(((FolderImpl) folder), addACEs, removeACEs);
         item.setAclId(aclId);
-        String id = storeObject(item);
-        item.setId(id);
+        int[] stripes = getLockStripes(folder);
+        lock(stripes);
+        try {
+            if (null != folder) {
+                if (hasChild(folder, name)) {
+                    throw new CmisNameConstraintViolationException("Cannot create document an object with name " + name
+                            + " already exists in folder " + getFolderPath(folder.getId()));
+                }
+                item.addParentId(folder.getId());
+            }
+            String id = storeObject(item);
+            item.setId(id);
+        } finally {
+            unlock(stripes);
+        }
         applyAcl(item, addACEs, removeACEs);
         return item;
     }
@@ -353,11 +419,17 @@ public class ObjectStoreImpl implements ObjectStore {
         version.createSystemBasePropertiesWhenCreated(propMap, user);
         version.setCustomProperties(propMap);
         if (null != folder) {
-            if (hasChild(folder, name)) {
-                throw new CmisNameConstraintViolationException("Cannot create document an object with name " + name
-                        + " already exists in folder " + getFolderPath(folder.getId()));
+            int[] stripes = getLockStripes(folder);
+            lock(stripes);
+            try {
+                if (hasChild(folder, name)) {
+                    throw new CmisNameConstraintViolationException("Cannot create document an object with name " + name
+                            + " already exists in folder " + getFolderPath(folder.getId()));
+                }
+                doc.addParentId(folder.getId());
+            } finally {
+                unlock(stripes);
             }
-            doc.addParentId(folder.getId());
         }
         int aclId = getAclId(((FolderImpl) folder), addACEs, removeACEs);
         doc.setAclId(aclId);
@@ -376,9 +448,6 @@ public class ObjectStoreImpl implements ObjectStore {
 
         if (null == parent) {
             throw new CmisInvalidArgumentException("Cannot create root folder.");
-        } else if (hasChild(parent, name)) {
-            throw new CmisNameConstraintViolationException(
-                    "Cannot create folder, this name already exists in parent folder.");
         }
         FolderImpl folder = new FolderImpl(name, parent.getId());
         if (null != propMap) {
@@ -393,8 +462,18 @@ public class ObjectStoreImpl implements ObjectStore {
             folder.setAppliedPolicies(policies);
         }
 
-        String id = storeObject(folder);
-        folder.setId(id);
+        int[] stripes = getLockStripes(parent);
+        lock(stripes);
+        try {
+            if (hasChild(parent, name)) {
+                throw new CmisNameConstraintViolationException(
+                        "Cannot create folder, this name already exists in parent folder.");
+            }
+            String id = storeObject(folder);
+            folder.setId(id);
+        } finally {
+            unlock(stripes);
+        }
         applyAcl(folder, addACEs, removeACEs);
         return folder;
     }
@@ -732,12 +811,13 @@ public class ObjectStoreImpl implements ObjectStore {
 
     @Override
     public void move(StoredObject so, Folder oldParent, Folder newParent, String user) {
+        int[] stripes = getLockStripes(newParent);
+        lock(stripes);
         try {
             if (hasChild(newParent, so.getName())) {
                 throw new CmisInvalidArgumentException("Cannot move object " + so.getName() + " to folder "
                         + getFolderPath(newParent.getId()) + ". A child with this name already exists.");
             }
-            lock();
             if (so instanceof MultiFiling) {
                 MultiFiling fi = (MultiFiling) so;
                 addParentIntern(fi, newParent);
@@ -746,14 +826,15 @@ public class ObjectStoreImpl implements ObjectStore {
                 ((FolderImpl) so).setParentId(newParent.getId());
             }
         } finally {
-            unlock();
+            unlock(stripes);
         }
     }
 
     @Override
     public void rename(StoredObject so, String newName, String user) {
+        int[] stripes = so instanceof Fileable ? getLockStripes(((Fileable) so).getParentIds()) : new int[0];
+        lock(stripes);
         try {
-            lock();
             if (so.getId().equals(fRootFolder.getId())) {
                 throw new CmisInvalidArgumentException("Root folder cannot be renamed.");
             }
@@ -771,7 +852,7 @@ public class ObjectStoreImpl implements ObjectStore {
             }
             so.setName(newName);
         } finally {
-            unlock();
+            unlock(stripes);
         }
     }
 
@@ -862,39 +943,26 @@ public class ObjectStoreImpl implements ObjectStore {
         return aclId;
     }
 
-    /**
-     * Check if an Acl is already known.
-     * 
-     * @param acl
-     *            acl to be checked
-     * @return 0 if Acl is not known, id of Acl otherwise
-     */
-    private int hasAcl(InMemoryAcl acl) {
-        for (InMemoryAcl acl2 : fAcls) {
-            if (acl2.equals(acl)) {
-                return acl2.getId();
-            }
-        }
-        return -1;
-    }
-
     private int addAcl(InMemoryAcl acl) {
-        int aclId = -1;
-
         if (null == acl) {
             return 0;
         }
 
-        lock();
-        try {
-            aclId = hasAcl(acl);
-            if (aclId < 0) {
-                aclId = getNextAclId();
-                acl.setId(aclId);
-                fAcls.add(acl);
+        Integer aclId = fAclIds.get(acl);
+        if (null == aclId) {
+            // new Acls are rare, registering them one at a time keeps a single id per Acl
+            fAclLock.lock();
+            try {
+                aclId = fAclIds.get(acl);
+                if (null == aclId) {
+                    aclId = getNextAclId();
+                    acl.setId(aclId);
+                    fAcls.add(acl);
+                    fAclIds.put(acl, aclId);
+                }
+            } finally {
+                fAclLock.unlock();
             }
-        } finally {
-            unlock();
         }
         return aclId;
     }
@@ -985,8 +1053,9 @@ public class ObjectStoreImpl implements ObjectStore {
 
     @Override
     public void addParent(StoredObject so, Folder parent) {
+        int[] stripes = getLockStripes(parent);
+        lock(stripes);
         try {
-            lock();
             if (hasChild(parent, so.getName())) {
                 throw new IllegalArgumentException(
                         "Cannot assign new parent folder, this name already exists in target folder.");
@@ -1000,14 +1069,15 @@ public class ObjectStoreImpl implements ObjectStore {
 
             addParentIntern(mfi, parent);
         } finally {
-            unlock();
+            unlock(stripes);
         }
     }
 
     @Override
     public void removeParent(StoredObject so, Folder parent) {
+        int[] stripes = getLockStripes(parent);
+        lock(stripes);
         try {
-            lock();
             MultiFiling mfi;
             if (so instanceof MultiFiling) {
                 mfi = (MultiFiling) so;
@@ -1017,7 +1087,7 @@ public class ObjectStoreImpl implements ObjectStore {
 
             removeParentIntern(mfi, parent);
         } finally {
-            unlock();
+            unlock(stripes);
         }
     }
 
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.inmemory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.apache.chemistry.opencmis.commons.exceptions.CmisNameConstraintViolationException;
+import org.apache.chemistry.opencmis.inmemory.storedobj.api.Folder;
+import org.apache.chemistry.opencmis.inmemory.storedobj.impl.ObjectStoreImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Many writers against one object store: writers in unrelated folders must not
+ * wait for each other, writers in the same folder must still keep the names
+ * unique. The time taken by the writers is logged to compare the contention.
+ */
+public class ObjectStoreConcurrencyTest extends TestCase {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ObjectStoreConcurrencyTest.class);
+
+    private static final String TEST_REPOSITORY_ID = "TestRepositoryId";
+    private static final String USER = "user";
+    private static final int WRITERS = 16;
+    private static final int OBJECTS_PER_WRITER = 100;
+
+    private ObjectStoreImpl fStore;
+    private ExecutorService fExecutor;
+
+    @Override
+    @Before
+    protected void setUp() throws Exception {
+        ConfigurationSettings.init(new HashMap<String, String>());
+        fStore = new ObjectStoreImpl(TEST_REPOSITORY_ID);
+        fExecutor = Executors.newFixedThreadPool(WRITERS);
+    }
+
+    @Override
+    @After
+    protected void tearDown() throws Exception {
+        fExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testWritersInUnrelatedFolders() throws Exception {
+        final Folder root = fStore.getRootFolder();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<String>>> results = new ArrayList<Future<List<String>>>();
+        for (int i = 0; i < WRITERS; i++) {
+            final Folder writerFolder = fStore.createFolder("Writer " + i, null, USER, root, null, null, null);
+            results.add(fExecutor.submit(new Callable<List<String>>() {
+                @Override
+                public List<String> call() throws Exception {
+                    start.await();
+                    List<String> ids = new ArrayList<String>();
+                    for (int j = 0; j < OBJECTS_PER_WRITER; j++) {
+                        ids.add(fStore.createFolder("Folder " + j, null, USER, writerFolder, null, null, null).getId());
+                    }
+                    return ids;
+                }
+            }));
+        }
+
+        long startTime = System.nanoTime();
+        start.countDown();
+        Set<String> ids = new HashSet<String>();
+        for (Future<List<String>> result : results) {
+            ids.addAll(result.get(1, TimeUnit.MINUTES));
+        }
+        LOG.info("{} writers created {} folders in {} ms", WRITERS, ids.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+
+        assertEquals("Object ids must be unique", WRITERS * OBJECTS_PER_WRITER, ids.size());
+        for (int i = 0; i < WRITERS; i++) {
+            Folder writerFolder = (Folder) fStore.getObjectByPath("/Writer " + i, USER);
+            assertEquals(OBJECTS_PER_WRITER, fStore.getChildren(writerFolder, -1, -1, USER, false).getNoItems());
+        }
+    }
+
+    @Test
+    public void testWritersInSameFolder() throws Exception {
+        final Folder root = fStore.getRootFolder();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+        for (int i = 0; i < WRITERS; i++) {
+            results.add(fExecutor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    start.await();
+                    int created = 0;
+                    for (int j = 0; j < OBJECTS_PER_WRITER; j++) {
+                        try {
+                            fStore.createFolder("Folder " + j, null, USER, root, null, null, null);
+                            created++;
+                        } catch (CmisNameConstraintViolationException e) {
+                            // another writer created it first
+                        }
+                    }
+                    return created;
+                }
+            }));
+        }
+
+        long startTime = System.nanoTime();
+        start.countDown();
+        int created = 0;
+        for (Future<Integer> result : results) {
+            created += result.get(1, TimeUnit.MINUTES);
+        }
+        LOG.info("{} writers competed for {} folder names in {} ms", WRITERS, OBJECTS_PER_WRITER,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+
+        assertEquals("Each name must be created once", OBJECTS_PER_WRITER, created);
+        assertEquals(OBJECTS_PER_WRITER, fStore.getChildren(root, -1, -1, USER, false).getNoItems());
+    }
+}